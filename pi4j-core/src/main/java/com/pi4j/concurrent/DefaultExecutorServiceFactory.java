@@ -50,7 +50,7 @@ public class DefaultExecutorServiceFactory implements ExecutorServiceFactory {
     //
     // (see effective java item 71:Use lazy initialization judiciously)
     private static class ScheduledExecutorServiceHolder {
-        static final ScheduledExecutorService heldExecutor = Executors.newScheduledThreadPool(MAX_THREADS_IN_POOL, getThreadFactory("pi4j-scheduled-executor-%d"));
+        static final ScheduledExecutorService heldExecutor = Executors.newScheduledThreadPool(MAX_THREADS_IN_POOL, createThreadFactory("pi4j-scheduled-executor-%d"));
     }
     private static ScheduledExecutorService getInternalScheduledExecutorService() {
         return ScheduledExecutorServiceHolder.heldExecutor;
@@ -64,7 +64,7 @@ public class DefaultExecutorServiceFactory implements ExecutorServiceFactory {
 
     // follow a similar lazy initialization pattern for the gpio events
     private static class GpioEventExecutorServiceHolder {
-        static final ExecutorService heldExecutor = Executors.newCachedThreadPool(getThreadFactory("pi4j-gpio-event-executor-%d"));
+        static final ExecutorService heldExecutor = Executors.newCachedThreadPool(createThreadFactory("pi4j-gpio-event-executor-%d"));
     }
     private static ExecutorService getInternalGpioExecutorService() {
         return GpioEventExecutorServiceHolder.heldExecutor;
@@ -79,7 +79,7 @@ public class DefaultExecutorServiceFactory implements ExecutorServiceFactory {
     /**
      * return an instance to the thread factory used to create new executor services
      */
-    private static ThreadFactory getThreadFactory(final String nameFormat) {
+    static ThreadFactory createThreadFactory(final String nameFormat) {
         final ThreadFactory defaultThreadFactory = Executors.defaultThreadFactory();
         return new ThreadFactory() {
             final AtomicLong count = (nameFormat != null) ? new AtomicLong(0) : null;
@@ -95,6 +95,14 @@ public class DefaultExecutorServiceFactory implements ExecutorServiceFactory {
         };
     }
 
+    /**
+     * return a thread factory creating named platform threads
+     */
+    @Override
+    public ThreadFactory getThreadFactory(String nameFormat) {
+        return createThreadFactory(nameFormat);
+    }
+
     /**
      * return an instance to the scheduled executor service (wrapper)
      */
@@ -121,7 +129,7 @@ public class DefaultExecutorServiceFactory implements ExecutorServiceFactory {
     public ExecutorService newSingleThreadExecutorService() {
 
         // create new single thread executor service
-        ExecutorService singleThreadExecutorService = Executors.newSingleThreadExecutor(getThreadFactory("pi4j-single-executor-%d"));
+        ExecutorService singleThreadExecutorService = Executors.newSingleThreadExecutor(createThreadFactory("pi4j-single-executor-%d"));
 
         // add new instance to managed collection
         singleThreadExecutorServices.add(singleThreadExecutorService);
@@ -32,6 +32,7 @@ package com.pi4j.concurrent;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 
 @SuppressWarnings("unused")
 public interface ExecutorServiceFactory
@@ -42,4 +43,28 @@ public interface ExecutorServiceFactory
     @Deprecated
     public ExecutorService newSingleThreadExecutorService();
     public void shutdown();
+
+    /**
+     * Return a thread factory for the long running threads owned by the library (such as GPIO
+     * expander state monitors) so that they are created with the same kind of threads as the
+     * executor services of this factory.
+     *
+     * @param nameFormat thread name format; '%d' is replaced with a sequence number
+     * @return thread factory
+     */
+    default ThreadFactory getThreadFactory(String nameFormat) {
+        return DefaultExecutorServiceFactory.createThreadFactory(nameFormat);
+    }
+
+    /**
+     * Return a thread factory for the timing critical threads owned by the library (such as
+     * waveform playback, output pulse timing and stepper motor control loops). These threads are
+     * always platform threads, whatever kind of threads the executor services of this factory use.
+     *
+     * @param nameFormat thread name format; '%d' is replaced with a sequence number
+     * @return thread factory
+     */
+    default ThreadFactory getPlatformThreadFactory(String nameFormat) {
+        return DefaultExecutorServiceFactory.createThreadFactory(nameFormat);
+    }
 }
@@ -0,0 +1,197 @@
+package com.pi4j.concurrent;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  LatencyHistogram.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>
+ * Lock-free latency histogram, e.g. of the time between the moment a GPIO pin event was detected
+ * and its dispatch, or between the submission and the completion of an I2C bus operation.
+ * </p>
+ *
+ * <p>
+ * Latencies are recorded into power-of-two nanosecond buckets; bucket <code>n</code> holds
+ * samples in the range <code>[2^(n-1), 2^n)</code> nanoseconds and bucket <code>0</code> holds
+ * zero (or negative) latencies. Percentiles are therefore reported as the upper bound of the
+ * bucket containing the requested sample.
+ * </p>
+ *
+ * @author Robert Savage (<a
+ *         href="http://www.savagehomeautomation.com">http://www.savagehomeautomation.com</a>)
+ */
+public class LatencyHistogram {
+
+    /** number of power-of-two buckets; covers every positive long value */
+    public static final int BUCKETS = 64;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Record the latency since the given timestamp, measured against {@link System#nanoTime()}.
+     *
+     * @param timestampNanos start timestamp (monotonic nanoseconds)
+     */
+    public void recordSince(long timestampNanos) {
+        record(System.nanoTime() - timestampNanos);
+    }
+
+    /**
+     * Record a single latency sample.
+     *
+     * @param latencyNanos latency in nanoseconds
+     */
+    public void record(long latencyNanos) {
+        if (latencyNanos < 0) {
+            latencyNanos = 0;
+        }
+        buckets.incrementAndGet(bucketOf(latencyNanos));
+        count.incrementAndGet();
+        total.addAndGet(latencyNanos);
+
+        // update the maximum latency observed
+        long current = max.get();
+        while (latencyNanos > current && !max.compareAndSet(current, latencyNanos)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * @return number of recorded samples
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * @return largest recorded latency in nanoseconds
+     */
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    /**
+     * @return mean recorded latency in nanoseconds (0 when no samples have been recorded)
+     */
+    public double getMeanNanos() {
+        long samples = count.get();
+        return (samples == 0) ? 0 : (double) total.get() / samples;
+    }
+
+    /**
+     * Get the approximate latency below which the given percentage of samples fall.
+     *
+     * @param percentile percentile in the range 0 to 100
+     * @return upper bound (nanoseconds) of the bucket containing the percentile sample
+     */
+    public long getPercentileNanos(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be in the range 0 to 100");
+        }
+        long[] snapshot = getBucketCounts();
+        long samples = 0;
+        for (long bucket : snapshot) {
+            samples += bucket;
+        }
+        if (samples == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(samples * percentile / 100.0));
+        long seen = 0;
+        for (int index = 0; index < snapshot.length; index++) {
+            seen += snapshot[index];
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(index), getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+
+    /**
+     * @return a copy of the per-bucket sample counts
+     */
+    public long[] getBucketCounts() {
+        long[] snapshot = new long[BUCKETS];
+        for (int index = 0; index < BUCKETS; index++) {
+            snapshot[index] = buckets.get(index);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Discard all recorded samples.
+     */
+    public void reset() {
+        for (int index = 0; index < BUCKETS; index++) {
+            buckets.set(index, 0);
+        }
+        count.set(0);
+        total.set(0);
+        max.set(0);
+    }
+
+    /**
+     * Get the bucket index for the given latency.
+     *
+     * @param latencyNanos latency in nanoseconds (zero or greater)
+     * @return bucket index
+     */
+    public static int bucketOf(long latencyNanos) {
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(latencyNanos));
+    }
+
+    /**
+     * Get the largest latency counted by the given bucket.
+     *
+     * @param bucket bucket index
+     * @return inclusive upper bound in nanoseconds
+     */
+    public static long bucketUpperBound(int bucket) {
+        if (bucket <= 0) {
+            return 0;
+        }
+        if (bucket >= BUCKETS - 1) {
+            return Long.MAX_VALUE;
+        }
+        return (1L << bucket) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(getClass().getSimpleName() + "[count=%d, mean=%.0fns, p50=%dns, p99=%dns, max=%dns]",
+                getCount(), getMeanNanos(), getPercentileNanos(50), getPercentileNanos(99), getMaxNanos());
+    }
+}
@@ -0,0 +1,116 @@
+package com.pi4j.concurrent;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  OrderedExecutorServiceFactory.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * <p>
+ * Executor service factory that dispatches GPIO events on a {@link StripedExecutorService}
+ * instead of an unbounded cached thread pool. Events of the same pin are delivered one at a time
+ * and in the order they occurred, the number of event threads is fixed and queue depth is bounded
+ * by the configured {@link OverflowPolicy}. All other executors are inherited from
+ * {@link DefaultExecutorServiceFactory}.
+ * </p>
+ *
+ * <p>
+ * Install it with {@link com.pi4j.io.gpio.GpioFactory#setExecutorServiceFactory(ExecutorServiceFactory)}
+ * before provisioning pins, or select it with the system property
+ * <code>pi4j.gpio.event.executor=ordered</code>; the defaults may then be changed with
+ * <code>pi4j.gpio.event.executor.lanes</code>, <code>pi4j.gpio.event.executor.capacity</code> and
+ * <code>pi4j.gpio.event.executor.overflow</code> (DROP_OLDEST, COALESCE or BLOCK).
+ * </p>
+ */
+public class OrderedExecutorServiceFactory extends DefaultExecutorServiceFactory {
+
+    public static final String EXECUTOR_PROPERTY = "pi4j.gpio.event.executor";
+    public static final String LANES_PROPERTY = "pi4j.gpio.event.executor.lanes";
+    public static final String CAPACITY_PROPERTY = "pi4j.gpio.event.executor.capacity";
+    public static final String OVERFLOW_PROPERTY = "pi4j.gpio.event.executor.overflow";
+
+    public static final int DEFAULT_LANES = Math.max(2, Runtime.getRuntime().availableProcessors());
+    public static final int DEFAULT_CAPACITY = 1024;
+    public static final OverflowPolicy DEFAULT_OVERFLOW_POLICY = OverflowPolicy.DROP_OLDEST;
+
+    private final StripedExecutorService gpioEventExecutor;
+    private final ExecutorService gpioEventExecutorWrapper;
+
+    /**
+     * Create a factory configured from the <code>pi4j.gpio.event.executor.*</code> system properties.
+     */
+    public OrderedExecutorServiceFactory() {
+        this(Integer.getInteger(LANES_PROPERTY, DEFAULT_LANES),
+             Integer.getInteger(CAPACITY_PROPERTY, DEFAULT_CAPACITY),
+             OverflowPolicy.valueOf(System.getProperty(OVERFLOW_PROPERTY, DEFAULT_OVERFLOW_POLICY.name()).toUpperCase()));
+    }
+
+    /**
+     * Create a factory with the given GPIO event executor configuration.
+     *
+     * @param lanes number of GPIO event threads
+     * @param capacity maximum number of queued events per thread
+     * @param policy behaviour when an event queue is full
+     */
+    public OrderedExecutorServiceFactory(int lanes, int capacity, OverflowPolicy policy) {
+        gpioEventExecutor = new StripedExecutorService(lanes, capacity, policy, createThreadFactory("pi4j-gpio-event-lane-%d"));
+
+        // we return the protected wrapper to prevent any consumers from
+        // being able to shutdown the event executor service
+        gpioEventExecutorWrapper = new ShutdownDisabledExecutorWrapper(gpioEventExecutor);
+    }
+
+    /**
+     * @return true if the system properties select the ordered GPIO event executor
+     */
+    public static boolean isSelected() {
+        return "ordered".equalsIgnoreCase(System.getProperty(EXECUTOR_PROPERTY));
+    }
+
+    @Override
+    public ExecutorService getGpioEventExecutorService() {
+        return gpioEventExecutorWrapper;
+    }
+
+    /**
+     * Get the GPIO event executor for monitoring its queue depth and overflow counters.
+     *
+     * @return the striped GPIO event executor
+     */
+    public StripedExecutorService getGpioEventExecutor() {
+        return gpioEventExecutor;
+    }
+
+    @Override
+    public void shutdown() {
+        super.shutdown();
+        gpioEventExecutor.shutdownNow();
+    }
+}
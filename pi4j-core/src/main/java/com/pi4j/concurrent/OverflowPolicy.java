@@ -0,0 +1,58 @@
+package com.pi4j.concurrent;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  OverflowPolicy.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+
+/**
+ * <p>
+ * Determines what a {@link StripedExecutorService} does with a new task when the queue of the
+ * lane it is routed to is full.
+ * </p>
+ *
+ * @see StripedExecutorService
+ */
+public enum OverflowPolicy {
+
+    /** discard the oldest queued task of the lane to make room for the new task */
+    DROP_OLDEST,
+
+    /**
+     * replace the most recently queued task of the same stripe with the new task (for GPIO events
+     * only the latest state of the pin is kept); if no task of the same stripe is queued, the
+     * oldest queued task of the lane is discarded instead
+     */
+    COALESCE,
+
+    /**
+     * block the submitting thread until the lane has room for the new task; workers of the
+     * executor submitting to another full lane are rejected instead of blocked
+     */
+    BLOCK
+}
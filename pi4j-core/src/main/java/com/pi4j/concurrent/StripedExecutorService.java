@@ -0,0 +1,467 @@
+package com.pi4j.concurrent;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  StripedExecutorService.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <p>
+ * Executor service that shards tasks onto a fixed number of single-threaded lanes. Tasks
+ * implementing {@link StripedRunnable} are routed by their stripe, so all tasks of the same
+ * stripe (for GPIO events, the same pin) run one at a time and in FIFO order, while different
+ * stripes are processed in parallel by different lanes. Other tasks are spread over the lanes
+ * round-robin.
+ * </p>
+ *
+ * <p>
+ * Each lane has a bounded queue; when a lane is full the configured {@link OverflowPolicy}
+ * decides whether the oldest task is dropped, the newest task of the same stripe is replaced, or
+ * the submitter blocks. A lane worker submitting to its own full lane never blocks (that would
+ * deadlock); its task is queued beyond the bound instead. A lane worker submitting to another full
+ * lane is rejected rather than blocked, as two lanes waiting for each other would never resume;
+ * running the task in the worker instead would break the order of its stripe. A blocked submitter
+ * that gets interrupted is rejected as well.
+ * </p>
+ *
+ * <p>
+ * Lane threads are daemon threads so that pending events never keep the JVM alive.
+ * </p>
+ */
+public class StripedExecutorService extends AbstractExecutorService {
+
+    private final Lane[] lanes;
+    private final int capacity;
+    private final OverflowPolicy policy;
+    private final AtomicInteger nextLane = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicInteger peakDepth = new AtomicInteger();
+    private volatile boolean shutdown = false;
+
+    /**
+     * Create a new striped executor.
+     *
+     * @param laneCount number of single-threaded lanes
+     * @param capacity maximum number of queued tasks per lane
+     * @param policy behaviour when a lane queue is full
+     * @param threadFactory factory used to create the lane threads
+     */
+    public StripedExecutorService(int laneCount, int capacity, OverflowPolicy policy, ThreadFactory threadFactory) {
+        if (laneCount < 1) {
+            throw new IllegalArgumentException("At least one lane is required.");
+        }
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Lane capacity must be at least one.");
+        }
+        if (policy == null) {
+            throw new IllegalArgumentException("Missing overflow policy argument.");
+        }
+        this.capacity = capacity;
+        this.policy = policy;
+        this.lanes = new Lane[laneCount];
+        for (int index = 0; index < laneCount; index++) {
+            lanes[index] = new Lane();
+        }
+        for (Lane lane : lanes) {
+            lane.thread = threadFactory.newThread(lane);
+            lane.thread.setDaemon(true);
+            lane.thread.start();
+        }
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        if (shutdown) {
+            throw new RejectedExecutionException("Executor has been shutdown.");
+        }
+        laneFor(command).offer(command);
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+        // preserve the stripe of tasks submitted through submit()
+        if (runnable instanceof StripedRunnable) {
+            return new StripedFutureTask<>(runnable, value, ((StripedRunnable) runnable).getStripe());
+        }
+        return super.newTaskFor(runnable, value);
+    }
+
+    private Lane laneFor(Runnable command) {
+        Object stripe = stripeOf(command);
+        if (stripe == null) {
+            return lanes[Math.abs(nextLane.getAndIncrement() % lanes.length)];
+        }
+        int hash = stripe.hashCode();
+        hash ^= (hash >>> 16);
+        return lanes[Math.abs(hash % lanes.length)];
+    }
+
+    private static Object stripeOf(Runnable command) {
+        return (command instanceof StripedRunnable) ? ((StripedRunnable) command).getStripe() : null;
+    }
+
+    /**
+     * @return the number of lanes
+     */
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    /**
+     * @return the maximum number of queued tasks per lane
+     */
+    public int getLaneCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the policy applied when a lane queue is full
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        return policy;
+    }
+
+    /**
+     * @return the number of tasks currently queued in all lanes
+     */
+    public int getQueueDepth() {
+        int depth = 0;
+        for (Lane lane : lanes) {
+            depth += lane.depth();
+        }
+        return depth;
+    }
+
+    /**
+     * @param lane lane index
+     * @return the number of tasks currently queued in the given lane
+     */
+    public int getQueueDepth(int lane) {
+        return lanes[lane].depth();
+    }
+
+    /**
+     * @return the largest number of tasks ever queued in a single lane
+     */
+    public int getPeakQueueDepth() {
+        return peakDepth.get();
+    }
+
+    /**
+     * @return the number of queued tasks discarded because a lane was full
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * @return the number of queued tasks replaced by a newer task of the same stripe
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    /**
+     * @return the number of tasks that have finished executing
+     */
+    public long getCompletedCount() {
+        return completed.get();
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        for (Lane lane : lanes) {
+            lane.wakeup();
+        }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown = true;
+        List<Runnable> pending = new ArrayList<>();
+        for (Lane lane : lanes) {
+            lane.drainTo(pending);
+            lane.thread.interrupt();
+        }
+        return pending;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        if (!shutdown) {
+            return false;
+        }
+        for (Lane lane : lanes) {
+            if (lane.thread.isAlive()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Lane lane : lanes) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return isTerminated();
+            }
+            TimeUnit.NANOSECONDS.timedJoin(lane.thread, remaining);
+        }
+        return isTerminated();
+    }
+
+    private boolean isWorker(Thread thread) {
+        for (Lane lane : lanes) {
+            if (lane.thread == thread) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void updatePeakDepth(int depth) {
+        int peak = peakDepth.get();
+        while (depth > peak && !peakDepth.compareAndSet(peak, depth)) {
+            peak = peakDepth.get();
+        }
+    }
+
+    /**
+     * A single-threaded lane with a bounded FIFO queue.
+     */
+    private class Lane implements Runnable {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notEmpty = lock.newCondition();
+        private final Condition notFull = lock.newCondition();
+        private final ArrayDeque<Runnable> queue = new ArrayDeque<>();
+        private Thread thread;
+
+        void offer(Runnable command) {
+            lock.lock();
+            try {
+                if (queue.size() >= capacity && Thread.currentThread() != thread) {
+                    switch (policy) {
+                        case BLOCK: {
+                            if (isWorker(Thread.currentThread())) {
+                                throw new RejectedExecutionException("Lane is full; a worker of this executor cannot wait for another lane.");
+                            }
+                            try {
+                                while (queue.size() >= capacity && !shutdown) {
+                                    notFull.await();
+                                }
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                                throw new RejectedExecutionException("Interrupted while waiting for room in the lane.", e);
+                            }
+                            if (shutdown) {
+                                throw new RejectedExecutionException("Executor has been shutdown.");
+                            }
+                            break;
+                        }
+                        case COALESCE: {
+                            Runnable replaced = replaceLatest(command);
+                            if (replaced != null) {
+                                coalesced.incrementAndGet();
+                                discard(replaced);
+                                return;
+                            }
+                            discard(queue.pollFirst());
+                            dropped.incrementAndGet();
+                            break;
+                        }
+                        default: {
+                            discard(queue.pollFirst());
+                            dropped.incrementAndGet();
+                            break;
+                        }
+                    }
+                }
+                queue.addLast(command);
+                updatePeakDepth(queue.size());
+                notEmpty.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // cancel an evicted task so that callers waiting on its future are released
+        private void discard(Runnable command) {
+            if (command instanceof Future) {
+                ((Future<?>) command).cancel(false);
+            }
+        }
+
+        // replace the most recently queued task with the same stripe and return the
+        // replaced task, or null if there is none; must hold the lock
+        private Runnable replaceLatest(Runnable command) {
+            Object stripe = stripeOf(command);
+            if (stripe == null) {
+                return null;
+            }
+
+            // ArrayDeque has no positional set; rotate the queue once keeping the order intact
+            Runnable replaced = null;
+            int size = queue.size();
+            Runnable[] tasks = queue.toArray(new Runnable[size]);
+            for (int index = size - 1; index >= 0; index--) {
+                if (stripe.equals(stripeOf(tasks[index]))) {
+                    replaced = tasks[index];
+                    tasks[index] = command;
+                    break;
+                }
+            }
+            if (replaced != null) {
+                queue.clear();
+                for (Runnable task : tasks) {
+                    queue.addLast(task);
+                }
+            }
+            return replaced;
+        }
+
+        int depth() {
+            lock.lock();
+            try {
+                return queue.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void wakeup() {
+            lock.lock();
+            try {
+                notEmpty.signalAll();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void drainTo(List<Runnable> pending) {
+            lock.lock();
+            try {
+                pending.addAll(queue);
+                queue.clear();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private Runnable take() throws InterruptedException {
+            lock.lock();
+            try {
+                while (queue.isEmpty()) {
+                    if (shutdown) {
+                        return null;
+                    }
+                    notEmpty.await();
+                }
+                Runnable command = queue.pollFirst();
+                notFull.signal();
+                return command;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void run() {
+            for (;;) {
+                Runnable command;
+                try {
+                    command = take();
+                } catch (InterruptedException e) {
+                    // interrupted by shutdownNow()
+                    return;
+                }
+                if (command == null) {
+                    return;
+                }
+                try {
+                    command.run();
+                } catch (Throwable t) {
+                    // keep the lane alive; report the failure like an uncaught exception
+                    Thread current = Thread.currentThread();
+                    current.getUncaughtExceptionHandler().uncaughtException(current, t);
+                } finally {
+                    completed.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Future task that keeps the stripe of the wrapped task.
+     */
+    private static class StripedFutureTask<T> extends FutureTask<T> implements StripedRunnable {
+
+        private final Object stripe;
+
+        StripedFutureTask(Runnable runnable, T value, Object stripe) {
+            super(runnable, value);
+            this.stripe = stripe;
+        }
+
+        @Override
+        public Object getStripe() {
+            return stripe;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.pi4j.concurrent;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  VirtualThreadExecutorServiceFactory.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * Executor service factory that runs GPIO events, scheduled tasks, serial event executors and
+ * the library's long running threads on virtual threads instead of platform threads. Timing
+ * critical threads stay platform threads (see {@link #getPlatformThreadFactory(String)}).
+ * </p>
+ *
+ * <p>
+ * Virtual threads require a JDK that provides them (Java 21 or newer); they are looked up
+ * reflectively so the library itself still targets older Java versions. Use {@link #isSupported()}
+ * before constructing this factory, install it with
+ * {@link com.pi4j.io.gpio.GpioFactory#setExecutorServiceFactory(ExecutorServiceFactory)} and
+ * {@link com.pi4j.io.serial.SerialFactory#setExecutorServiceFactory(ExecutorServiceFactory)},
+ * or select it for both with the system property <code>pi4j.executor=virtual</code>.
+ * </p>
+ */
+public class VirtualThreadExecutorServiceFactory implements ExecutorServiceFactory {
+
+    public static final String EXECUTOR_PROPERTY = "pi4j.executor";
+
+    private static final Method OF_VIRTUAL = findMethod(Thread.class, "ofVirtual");
+    private static final Method BUILDER_FACTORY = findMethod(findClass("java.lang.Thread$Builder"), "factory");
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR = findMethod(Executors.class, "newThreadPerTaskExecutor", ThreadFactory.class);
+
+    private final ThreadFactory virtualThreadFactory;
+    private final ExecutorService gpioEventExecutor;
+    private final ScheduledExecutorService scheduledExecutor;
+    private final ExecutorService gpioEventExecutorWrapper;
+    private final ScheduledExecutorService scheduledExecutorWrapper;
+    private final List<ExecutorService> singleThreadExecutorServices = new ArrayList<>();
+
+    /**
+     * Create a new virtual thread executor service factory.
+     *
+     * @throws UnsupportedOperationException if the running JDK does not provide virtual threads
+     */
+    public VirtualThreadExecutorServiceFactory() {
+        if (!isSupported()) {
+            throw new UnsupportedOperationException("Virtual threads are not supported by this Java runtime.");
+        }
+        try {
+            virtualThreadFactory = (ThreadFactory) BUILDER_FACTORY.invoke(OF_VIRTUAL.invoke(null));
+            gpioEventExecutor = (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, getThreadFactory("pi4j-gpio-event-executor-%d"));
+        } catch (ReflectiveOperationException ex) {
+            throw new UnsupportedOperationException("Unable to create virtual threads.", ex);
+        }
+
+        // the scheduled pool threads are virtual threads; they are only created on demand
+        scheduledExecutor = Executors.newScheduledThreadPool(DefaultExecutorServiceFactory.MAX_THREADS_IN_POOL,
+                getThreadFactory("pi4j-scheduled-executor-%d"));
+
+        // we return the protected wrappers to prevent any consumers from
+        // being able to shutdown the executor services
+        gpioEventExecutorWrapper = new ShutdownDisabledExecutorWrapper(gpioEventExecutor);
+        scheduledExecutorWrapper = new ScheduledExecutorServiceWrapper(scheduledExecutor);
+    }
+
+    /**
+     * @return true if the running JDK provides virtual threads
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null && BUILDER_FACTORY != null && NEW_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * @return true if the system properties select virtual threads and they are supported
+     */
+    public static boolean isSelected() {
+        return "virtual".equalsIgnoreCase(System.getProperty(EXECUTOR_PROPERTY)) && isSupported();
+    }
+
+    @Override
+    public ScheduledExecutorService getScheduledExecutorService() {
+        return scheduledExecutorWrapper;
+    }
+
+    @Override
+    public ExecutorService getGpioEventExecutorService() {
+        return gpioEventExecutorWrapper;
+    }
+
+    @Override
+    @Deprecated
+    public synchronized ExecutorService newSingleThreadExecutorService() {
+        // create new single thread executor service backed by a virtual thread
+        ExecutorService singleThreadExecutorService = Executors.newSingleThreadExecutor(getThreadFactory("pi4j-single-executor-%d"));
+
+        // add new instance to managed collection
+        singleThreadExecutorServices.add(singleThreadExecutorService);
+        return singleThreadExecutorService;
+    }
+
+    @Override
+    public ThreadFactory getThreadFactory(final String nameFormat) {
+        return new ThreadFactory() {
+            final AtomicLong count = new AtomicLong(0);
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = virtualThreadFactory.newThread(runnable);
+                if (nameFormat != null) {
+                    thread.setName(String.format(nameFormat, count.getAndIncrement()));
+                }
+                return thread;
+            }
+        };
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        for (ExecutorService singleThreadExecutorService : singleThreadExecutorServices) {
+            singleThreadExecutorService.shutdownNow();
+        }
+        scheduledExecutor.shutdownNow();
+        gpioEventExecutor.shutdownNow();
+    }
+
+    private static Class<?> findClass(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException ex) {
+            return null;
+        }
+    }
+
+    private static Method findMethod(Class<?> type, String name, Class<?>... parameterTypes) {
+        if (type == null) {
+            return null;
+        }
+        try {
+            return type.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException ex) {
+            return null;
+        }
+    }
+}
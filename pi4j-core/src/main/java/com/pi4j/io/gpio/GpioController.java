@@ -33,6 +33,7 @@ import com.pi4j.io.gpio.event.GpioPinListener;
 import com.pi4j.io.gpio.trigger.GpioTrigger;
 
 import java.util.Collection;
+import java.util.concurrent.Future;
 
 /**
  * Gpio controller interface. This interface describes all operations over GPIO.
@@ -92,6 +93,17 @@ public interface GpioController {
     void toggle(GpioPinDigitalOutput... pin);
     void pulse(long milliseconds, GpioPinDigitalOutput... pin);
 
+    /**
+     * Play a waveform on its output pins.  Waveforms are played one at a time on a
+     * dedicated high priority thread.
+     *
+     * @param waveform waveform timeline to play; all its pins must be provisioned
+     * @return future completed with the achieved timing and jitter once the waveform has been played
+     */
+    default Future<GpioWaveformResult> play(GpioWaveform waveform) {
+        return GpioFactory.getWaveformPlayer().play(waveform);
+    }
+
     void setValue(double value, GpioPinAnalogOutput... pin);
     double getValue(GpioPinAnalog pin);
 
@@ -32,7 +32,12 @@ package com.pi4j.io.gpio;
 
 import com.pi4j.concurrent.DefaultExecutorServiceFactory;
 import com.pi4j.concurrent.ExecutorServiceFactory;
+import com.pi4j.concurrent.OrderedExecutorServiceFactory;
+import com.pi4j.concurrent.VirtualThreadExecutorServiceFactory;
+import com.pi4j.io.gpio.event.GpioEventLatencyHistogram;
 import com.pi4j.io.gpio.impl.GpioControllerImpl;
+import com.pi4j.io.gpio.impl.GpioDebounceEngine;
+import com.pi4j.io.gpio.impl.GpioWaveformPlayer;
 import com.pi4j.platform.Platform;
 import com.pi4j.platform.PlatformManager;
 
@@ -71,6 +76,15 @@ public class GpioFactory {
     // we only allow a single default scheduled executor service factory to exists
     private static ExecutorServiceFactory executorServiceFactory = null;
 
+    // latency between digital state change detection and listener dispatch
+    private static final GpioEventLatencyHistogram eventLatencyHistogram = new GpioEventLatencyHistogram();
+
+    // debounce engine shared by all digital input pins
+    private static final GpioDebounceEngine debounceEngine = new GpioDebounceEngine();
+
+    // waveform player shared by all controllers
+    private static final GpioWaveformPlayer waveformPlayer = new GpioWaveformPlayer();
+
     // private constructor
     private GpioFactory() {
         // forbid object construction
@@ -133,7 +147,14 @@ public class GpioFactory {
     public static ExecutorServiceFactory getExecutorServiceFactory() {
         // if an executor service provider factory has not been created, then create a new default instance
         if (executorServiceFactory == null) {
-            executorServiceFactory = new DefaultExecutorServiceFactory();
+            // virtual threads or the ordered GPIO event executor may be selected with a system property
+            if (VirtualThreadExecutorServiceFactory.isSelected()) {
+                executorServiceFactory = new VirtualThreadExecutorServiceFactory();
+            } else if (OrderedExecutorServiceFactory.isSelected()) {
+                executorServiceFactory = new OrderedExecutorServiceFactory();
+            } else {
+                executorServiceFactory = new DefaultExecutorServiceFactory();
+            }
         }
         // return the provider instance
         return executorServiceFactory;
@@ -148,4 +169,34 @@ public class GpioFactory {
         // set the default factory instance
         GpioFactory.executorServiceFactory = executorServiceFactory;
     }
+
+    /**
+     * <p>Return the histogram recording the latency between the moment a digital pin state change
+     * was detected (see {@link com.pi4j.io.gpio.event.GpioPinDigitalStateChangeEvent#getTimestampNanos()})
+     * and the moment the event was handed to the pin listeners and triggers.</p>
+     *
+     * @return the shared event latency histogram
+     */
+    public static GpioEventLatencyHistogram getEventLatencyHistogram() {
+        return eventLatencyHistogram;
+    }
+
+    /**
+     * <p>Return the debounce engine that suppresses bouncing edges on all digital input pins
+     * and exposes the suppressed edge counters.</p>
+     *
+     * @return the shared debounce engine
+     */
+    public static GpioDebounceEngine getDebounceEngine() {
+        return debounceEngine;
+    }
+
+    /**
+     * <p>Return the player running {@link GpioWaveform} timelines on a dedicated high priority thread.</p>
+     *
+     * @return the shared waveform player
+     */
+    public static GpioWaveformPlayer getWaveformPlayer() {
+        return waveformPlayer;
+    }
 }
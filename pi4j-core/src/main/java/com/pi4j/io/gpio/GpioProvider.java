@@ -2,6 +2,8 @@ package com.pi4j.io.gpio;
 
 import com.pi4j.io.gpio.event.PinListener;
 
+import java.util.Map;
+
 /*
  * #%L
  * **********************************************************************
@@ -56,6 +58,20 @@ public interface GpioProvider {
     PinPullResistance getPullResistance(Pin pin);
 
     void setState(Pin pin, PinState state);
+
+    /**
+     * Set the state of multiple digital output pins.  This default implementation
+     * applies each pin state individually; providers that can update several pins
+     * with a single hardware write should override this method.
+     *
+     * @param states map of pins and the state to apply to each pin
+     */
+    default void setStates(Map<Pin, PinState> states) {
+        for (Map.Entry<Pin, PinState> entry : states.entrySet()) {
+            setState(entry.getKey(), entry.getValue());
+        }
+    }
+
     PinState getState(Pin pin);
 
     void setValue(Pin pin, double value);
@@ -43,6 +43,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Abstract base implementation of {@link com.pi4j.io.gpio.GpioProvider}.
@@ -76,7 +77,7 @@ public abstract class GpioProviderBase implements GpioProvider {
         int address = pin.getAddress();
 
         // dynamically resize pin cache storage if needed based on pin address
-        if(address > cache.length){
+        if(address >= cache.length){
             // create a new array with existing contents
             // that is 100 elements larger than the requested address
             // (we add the extra 100 elements to provide additional overhead capacity in
@@ -193,22 +194,31 @@ public abstract class GpioProviderBase implements GpioProvider {
 
     @Override
     public void setState(Pin pin, PinState state) {
+        validateDigitalOutput(pin);
+
+        // for digital output pins, we will echo the event feedback
+        dispatchPinDigitalStateChangeEvent(pin, state);
+
+        // cache pin state
+        getPinCache(pin).setState(state);
+    }
+
+    /**
+     * Validate that the pin belongs to this provider and is set to DIGITAL_OUTPUT mode.
+     * Batched setStates() implementations call this for every pin before writing anything.
+     *
+     * @param pin pin to validate
+     */
+    protected void validateDigitalOutput(Pin pin) {
         if (!hasPin(pin)) {
             throw new InvalidPinException(pin);
         }
 
-        GpioProviderPinCache pinCache = getPinCache(pin);
-
         // only permit invocation on pins set to DIGITAL_OUTPUT modes
-        if (pinCache.getMode() != PinMode.DIGITAL_OUTPUT) {
-            throw new InvalidPinModeException(pin, "Invalid pin mode on pin [" + pin.getName() + "]; cannot setState() when pin mode is [" + pinCache.getMode().getName() + "]");
+        PinMode mode = getPinCache(pin).getMode();
+        if (mode != PinMode.DIGITAL_OUTPUT) {
+            throw new InvalidPinModeException(pin, "Invalid pin mode on pin [" + pin.getName() + "]; cannot setState() when pin mode is [" + mode.getName() + "]");
         }
-
-        // for digital output pins, we will echo the event feedback
-        dispatchPinDigitalStateChangeEvent(pin, state);
-
-        // cache pin state
-        pinCache.setState(state);
     }
 
     @Override
@@ -295,7 +305,7 @@ public abstract class GpioProviderBase implements GpioProvider {
         synchronized (listeners) {
             // create new pin listener entry if one does not already exist
             if (!listeners.containsKey(pin)) {
-                listeners.put(pin, new ArrayList<PinListener>());
+                listeners.put(pin, new CopyOnWriteArrayList<PinListener>());
             }
 
             // add the listener instance to the listeners map entry
@@ -348,21 +358,29 @@ public abstract class GpioProviderBase implements GpioProvider {
     }
 
     protected void dispatchPinDigitalStateChangeEvent(Pin pin, PinState state) {
+        dispatchPinDigitalStateChangeEvent(pin, state, System.nanoTime());
+    }
+
+    protected void dispatchPinDigitalStateChangeEvent(Pin pin, PinState state, long timestampNanos) {
         // if the pin listeners map contains this pin, then dispatch event
-        if (listeners.containsKey(pin)) {
-            // dispatch this event to all listener handlers
-            for (PinListener listener : listeners.get(pin)) {
-                listener.handlePinEvent(new PinDigitalStateChangeEvent(this, pin, state));
+        List<PinListener> lsnrs = listeners.get(pin);
+        if (lsnrs != null && !lsnrs.isEmpty()) {
+            // dispatch a single shared event instance to all listener handlers
+            PinDigitalStateChangeEvent event = new PinDigitalStateChangeEvent(this, pin, state, timestampNanos);
+            for (PinListener listener : lsnrs) {
+                listener.handlePinEvent(event);
             }
         }
     }
 
     protected void dispatchPinAnalogValueChangeEvent(Pin pin, double value) {
         // if the pin listeners map contains this pin, then dispatch event
-        if (listeners.containsKey(pin)) {
-            // dispatch this event to all listener handlers
-            for (PinListener listener : listeners.get(pin)) {
-                listener.handlePinEvent(new PinAnalogValueChangeEvent(this, pin, value));
+        List<PinListener> lsnrs = listeners.get(pin);
+        if (lsnrs != null && !lsnrs.isEmpty()) {
+            // dispatch a single shared event instance to all listener handlers
+            PinAnalogValueChangeEvent event = new PinAnalogValueChangeEvent(this, pin, value);
+            for (PinListener listener : lsnrs) {
+                listener.handlePinEvent(event);
             }
         }
     }
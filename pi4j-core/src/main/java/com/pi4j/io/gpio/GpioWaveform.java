@@ -0,0 +1,161 @@
+package com.pi4j.io.gpio;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioWaveform.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * A precomputed timeline of digital output changes across a set of pins, played with
+ * {@link GpioController#play(GpioWaveform)}. Typical uses are stepper drive patterns, IR codes,
+ * shift register clocks and other bit-banged protocols.
+ * </p>
+ *
+ * <p>
+ * Each step is a (pin-mask, state-mask, delay) triple: bit <code>n</code> of the pin mask selects
+ * the <code>n</code>-th pin given to the constructor, the same bit of the state mask sets that pin
+ * HIGH (1) or LOW (0), and the delay is the time in nanoseconds until the next step. Delays are
+ * measured on an absolute timeline from the start of the waveform, so timing errors do not
+ * accumulate from step to step.
+ * </p>
+ *
+ * @author Robert Savage (<a
+ *         href="http://www.savagehomeautomation.com">http://www.savagehomeautomation.com</a>)
+ */
+public class GpioWaveform {
+
+    public static final int MAX_PINS = 64;
+
+    private final GpioPinDigitalOutput[] pins;
+    private final long allPinsMask;
+    private long[] pinMasks = new long[16];
+    private long[] stateMasks = new long[16];
+    private long[] delays = new long[16];
+    private int size = 0;
+    private long duration = 0;
+
+    /**
+     * Create an empty waveform driving the given pins.
+     *
+     * @param pins output pins addressed by the step masks (at most 64)
+     */
+    public GpioWaveform(GpioPinDigitalOutput... pins) {
+        if (pins == null || pins.length == 0) {
+            throw new IllegalArgumentException("Missing pin argument.");
+        }
+        if (pins.length > MAX_PINS) {
+            throw new IllegalArgumentException("A waveform can drive at most " + MAX_PINS + " pins.");
+        }
+        this.pins = pins.clone();
+        this.allPinsMask = (pins.length == MAX_PINS) ? -1L : (1L << pins.length) - 1;
+    }
+
+    /**
+     * Append a step changing the selected pins.
+     *
+     * @param pinMask pins changed by this step
+     * @param stateMask states of the changed pins (1 = HIGH, 0 = LOW)
+     * @param delayNanos time until the next step in nanoseconds
+     * @return this waveform
+     */
+    public GpioWaveform add(long pinMask, long stateMask, long delayNanos) {
+        if ((pinMask & ~allPinsMask) != 0) {
+            throw new IllegalArgumentException("Pin mask selects pins not included in the waveform.");
+        }
+        if (delayNanos < 0) {
+            throw new IllegalArgumentException("Delay must not be negative.");
+        }
+        if (size == pinMasks.length) {
+            int capacity = size * 2;
+            pinMasks = Arrays.copyOf(pinMasks, capacity);
+            stateMasks = Arrays.copyOf(stateMasks, capacity);
+            delays = Arrays.copyOf(delays, capacity);
+        }
+        pinMasks[size] = pinMask;
+        stateMasks[size] = stateMask & pinMask;
+        delays[size] = delayNanos;
+        duration += delayNanos;
+        size++;
+        return this;
+    }
+
+    /**
+     * Append a step setting the state of all pins.
+     *
+     * @param stateMask states of all pins (1 = HIGH, 0 = LOW)
+     * @param delayNanos time until the next step in nanoseconds
+     * @return this waveform
+     */
+    public GpioWaveform add(long stateMask, long delayNanos) {
+        return add(allPinsMask, stateMask, delayNanos);
+    }
+
+    /**
+     * @return copy of the pins driven by this waveform
+     */
+    public GpioPinDigitalOutput[] getPins() {
+        return pins.clone();
+    }
+
+    /**
+     * @return number of steps
+     */
+    public int size() {
+        return size;
+    }
+
+    public long getPinMask(int step) {
+        checkStep(step);
+        return pinMasks[step];
+    }
+
+    public long getStateMask(int step) {
+        checkStep(step);
+        return stateMasks[step];
+    }
+
+    public long getDelayNanos(int step) {
+        checkStep(step);
+        return delays[step];
+    }
+
+    /**
+     * @return sum of all step delays in nanoseconds
+     */
+    public long getDurationNanos() {
+        return duration;
+    }
+
+    private void checkStep(int step) {
+        if (step < 0 || step >= size) {
+            throw new IndexOutOfBoundsException("Step " + step + " is out of range [0, " + size + ").");
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.pi4j.io.gpio;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioWaveformResult.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+/**
+ * <p>
+ * Timing achieved while playing a {@link GpioWaveform}. Jitter is the lateness of each step, the
+ * time between the moment a step was due on the waveform timeline and the moment its pin writes
+ * were issued.
+ * </p>
+ *
+ * @author Robert Savage (<a
+ *         href="http://www.savagehomeautomation.com">http://www.savagehomeautomation.com</a>)
+ */
+public class GpioWaveformResult {
+
+    private final int steps;
+    private final long durationNanos;
+    private final long minJitterNanos;
+    private final long maxJitterNanos;
+    private final long totalJitterNanos;
+
+    public GpioWaveformResult(int steps, long durationNanos, long minJitterNanos, long maxJitterNanos, long totalJitterNanos) {
+        this.steps = steps;
+        this.durationNanos = durationNanos;
+        this.minJitterNanos = minJitterNanos;
+        this.maxJitterNanos = maxJitterNanos;
+        this.totalJitterNanos = totalJitterNanos;
+    }
+
+    /**
+     * @return number of steps played
+     */
+    public int getSteps() {
+        return steps;
+    }
+
+    /**
+     * @return time from the first step to the end of the last step's delay, in nanoseconds
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public long getMinJitterNanos() {
+        return minJitterNanos;
+    }
+
+    public long getMaxJitterNanos() {
+        return maxJitterNanos;
+    }
+
+    public double getMeanJitterNanos() {
+        return (steps == 0) ? 0 : (double) totalJitterNanos / steps;
+    }
+
+    @Override
+    public String toString() {
+        return "GpioWaveformResult{steps=" + steps + ", durationNanos=" + durationNanos
+                + ", minJitterNanos=" + minJitterNanos + ", maxJitterNanos=" + maxJitterNanos
+                + ", meanJitterNanos=" + getMeanJitterNanos() + "}";
+    }
+}
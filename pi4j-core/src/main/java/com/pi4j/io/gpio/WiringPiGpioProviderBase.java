@@ -9,6 +9,8 @@ import com.pi4j.wiringpi.GpioInterruptEvent;
 import com.pi4j.wiringpi.GpioInterruptListener;
 import com.pi4j.wiringpi.GpioUtil;
 
+import java.util.Map;
+
 /*
  * #%L
  * **********************************************************************
@@ -175,16 +177,7 @@ public abstract class WiringPiGpioProviderBase extends GpioProviderBase implemen
 
     @Override
     public void setState(Pin pin, PinState state) {
-
-        // validate pin
-        if (!hasPin(pin)) {
-            throw new InvalidPinException(pin);
-        }
-
-        // only permit invocation on pins set to DIGITAL_OUTPUT modes
-        if (pinModeCache[pin.getAddress()] != PinMode.DIGITAL_OUTPUT) {
-            throw new InvalidPinModeException(pin, "Invalid pin mode on pin [" + pin.getName() + "]; cannot setState() when pin mode is [" + pinModeCache[pin.getAddress()].getName() + "]");
-        }
+        validateOutput(pin, "setState()");
 
         // control GPIO pin
         com.pi4j.wiringpi.Gpio.digitalWrite(pin.getAddress(), state.getValue());
@@ -195,6 +188,43 @@ public abstract class WiringPiGpioProviderBase extends GpioProviderBase implemen
         // for the Raspberry pi, we will not cache pin state since we never use the cache to get state.
     }
 
+    @Override
+    public void setStates(Map<Pin, PinState> states) {
+        long pinMask = 0;
+        long valueMask = 0;
+
+        for (Map.Entry<Pin, PinState> entry : states.entrySet()) {
+            Pin pin = entry.getKey();
+            validateOutput(pin, "setStates()");
+
+            // include pin and pin state in the write masks
+            pinMask |= (1L << pin.getAddress());
+            if (entry.getValue().isHigh()) {
+                valueMask |= (1L << pin.getAddress());
+            }
+        }
+
+        // control all GPIO pins with a single native call (not atomic across pins)
+        com.pi4j.wiringpi.Gpio.digitalWritePins(pinMask, valueMask);
+
+        // for digital output pins, we will echo the event feedback
+        for (Map.Entry<Pin, PinState> entry : states.entrySet()) {
+            dispatchPinDigitalStateChangeEvent(entry.getKey(), entry.getValue());
+        }
+    }
+
+    // validates that the pin exists and is a digital output before writing its state
+    private void validateOutput(Pin pin, String operation) {
+        if (!hasPin(pin)) {
+            throw new InvalidPinException(pin);
+        }
+
+        // only permit invocation on pins set to DIGITAL_OUTPUT modes
+        if (pinModeCache[pin.getAddress()] != PinMode.DIGITAL_OUTPUT) {
+            throw new InvalidPinModeException(pin, "Invalid pin mode on pin [" + pin.getName() + "]; cannot " + operation + " when pin mode is [" + pinModeCache[pin.getAddress()].getName() + "]");
+        }
+    }
+
     @Override
     public PinState getState(Pin pin) {
         super.getState(pin);
@@ -287,7 +317,7 @@ public abstract class WiringPiGpioProviderBase extends GpioProviderBase implemen
             // dispatch this event to the listener
             // if a matching pin address is found
             if (pin.getAddress() == event.getPin()) {
-                dispatchPinDigitalStateChangeEvent(pin, PinState.getState(event.getState()));
+                dispatchPinDigitalStateChangeEvent(pin, PinState.getState(event.getState()), event.getTimestampNanos());
             }
         }
     }
@@ -45,6 +45,7 @@ public class GpioPinDigitalStateChangeEvent extends GpioPinEvent {
     static final long serialVersionUID = 1L;
     private final PinState state;
     private final PinEdge edge;
+    private final long timestampNanos;
 
     /**
      * Default event constructor
@@ -54,8 +55,21 @@ public class GpioPinDigitalStateChangeEvent extends GpioPinEvent {
      * @param state  New GPIO pin state.
      */
     public GpioPinDigitalStateChangeEvent(Object obj, GpioPin pin, PinState state) {
+        this(obj, pin, state, System.nanoTime());
+    }
+
+    /**
+     * Timestamped event constructor
+     *
+     * @param obj Ignore this parameter
+     * @param pin GPIO pin number (not header pin number; not wiringPi pin number)
+     * @param state New GPIO pin state.
+     * @param timestampNanos Monotonic time (nanoseconds) at which the state change was detected.
+     */
+    public GpioPinDigitalStateChangeEvent(Object obj, GpioPin pin, PinState state, long timestampNanos) {
         super(obj, pin, PinEventType.DIGITAL_STATE_CHANGE);
         this.state = state;
+        this.timestampNanos = timestampNanos;
 
         // set pin edge caused by the state change
         this.edge = (state == PinState.HIGH) ? PinEdge.RISING : PinEdge.FALLING;
@@ -78,4 +92,15 @@ public class GpioPinDigitalStateChangeEvent extends GpioPinEvent {
     public PinEdge getEdge() {
         return this.edge;
     }
+
+    /**
+     * Get the time at which this state change was detected. For interrupt driven pins this is
+     * captured by the native monitor when it woke up; it shares its time base with
+     * {@link System#nanoTime()}.
+     *
+     * @return monotonic timestamp in nanoseconds
+     */
+    public long getTimestampNanos() {
+        return this.timestampNanos;
+    }
 }
@@ -46,6 +46,7 @@ public class PinDigitalStateChangeEvent extends PinEvent {
     private static final long serialVersionUID = -7643355305429082626L;
     private final PinState state;
     private final PinEdge edge;
+    private final long timestampNanos;
 
     /**
      * Default event constructor
@@ -55,8 +56,21 @@ public class PinDigitalStateChangeEvent extends PinEvent {
      * @param state New GPIO pin state.
      */
     public PinDigitalStateChangeEvent(Object obj, Pin pin, PinState state) {
+        this(obj, pin, state, System.nanoTime());
+    }
+
+    /**
+     * Timestamped event constructor
+     *
+     * @param obj Ignore this parameter
+     * @param pin GPIO pin number (not header pin number; not wiringPi pin number)
+     * @param state New GPIO pin state.
+     * @param timestampNanos Monotonic time (nanoseconds) at which the state change was detected.
+     */
+    public PinDigitalStateChangeEvent(Object obj, Pin pin, PinState state, long timestampNanos) {
         super(obj, pin, PinEventType.DIGITAL_STATE_CHANGE);
         this.state = state;
+        this.timestampNanos = timestampNanos;
 
         // set pin edge caused by the state change
         this.edge = (state == PinState.HIGH) ? PinEdge.RISING : PinEdge.FALLING;
@@ -80,4 +94,15 @@ public class PinDigitalStateChangeEvent extends PinEvent {
     public PinEdge getEdge() {
         return this.edge;
     }
+
+    /**
+     * Get the time at which this state change was detected. For interrupt driven pins this is
+     * captured by the native monitor when it woke up; it shares its time base with
+     * {@link System#nanoTime()}.
+     *
+     * @return monotonic timestamp in nanoseconds
+     */
+    public long getTimestampNanos() {
+        return this.timestampNanos;
+    }
 }
@@ -37,14 +37,15 @@ import com.pi4j.io.gpio.exception.PinProviderException;
 import com.pi4j.io.gpio.exception.UnsupportedPinEventsException;
 import com.pi4j.io.gpio.trigger.GpioTrigger;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Future;
 
 public class GpioControllerImpl implements GpioController {
 
-    private final List<GpioPin> pins = Collections.synchronizedList(new ArrayList<GpioPin>());
+    private final GpioPinRegistry pins = new GpioPinRegistry();
     private final GpioProvider defaultProvider;
     private boolean isshutdown = false;
 
@@ -69,34 +70,34 @@ public class GpioControllerImpl implements GpioController {
 
     @Override
     public Collection<GpioPin> getProvisionedPins() {
-        // make an unmodifiable copy of the pins collection
-        return Collections.unmodifiableList(pins);
+        // return an unmodifiable snapshot of the pins collection
+        return pins.getPins();
     }
 
     @Override
     public GpioPin getProvisionedPin(Pin pin){
-        for(GpioPin gpio_pin : pins){
-            if(gpio_pin.getPin().equals(pin)){
-                return gpio_pin;
-            }
-        }
-        return null;
+        return pins.get(pin);
     }
 
     @Override
     public GpioPin getProvisionedPin(String name){
-        for(GpioPin pin : pins){
-            if(pin.getName().equals(name)){
-                return pin;
-            }
-        }
-        return null;
+        return pins.get(name);
+    }
+
+    /**
+     * Invoked by a provisioned pin when its name changes so that
+     * name based lookups remain consistent.
+     *
+     * @param pin GPIO pin instance that was renamed
+     */
+    void pinRenamed(GpioPin pin) {
+        pins.renamed(pin);
     }
 
     @Override
     public void unexportAll() {
         // un-export all GPIO pins that are currently exported
-        for (GpioPin pin : pins) {
+        for (GpioPin pin : pins.getPins()) {
             if (pin.isExported()) {
                 pin.unexport();
             }
@@ -258,32 +259,14 @@ public class GpioControllerImpl implements GpioController {
 
     @Override
     public void high(GpioPinDigitalOutput... pin) {
-        if (pin == null || pin.length == 0) {
-            throw new IllegalArgumentException("Missing pin argument.");
-        }
-        // ensure the requested pin has been provisioned
-        for (GpioPinDigitalOutput p : pin) {
-            if (!pins.contains(p)) {
-                throw new GpioPinNotProvisionedException(p.getPin());
-            }
-            // set pin state high
-            p.high();
-        }
+        // set pin state high
+        setState(PinState.HIGH, pin);
     }
 
     @Override
     public void low(GpioPinDigitalOutput... pin) {
-        if (pin == null || pin.length == 0) {
-            throw new IllegalArgumentException("Missing pin argument.");
-        }
-        // ensure the requested pin has been provisioned
-        for (GpioPinDigitalOutput p : pin) {
-            if (!pins.contains(p)) {
-                throw new GpioPinNotProvisionedException(p.getPin());
-            }
-            // set pin state low
-            p.low();
-        }
+        // set pin state low
+        setState(PinState.LOW, pin);
     }
 
     @Override
@@ -317,14 +300,18 @@ public class GpioControllerImpl implements GpioController {
         if (pin == null || pin.length == 0) {
             throw new IllegalArgumentException("Missing pin argument.");
         }
-        for (GpioPinDigitalOutput p : pin) {
+        // determine the inverse state for each pin
+        PinState[] states = new PinState[pin.length];
+        for (int index = 0; index < pin.length; index++) {
             // ensure the requested pin has been provisioned
-            if (!pins.contains(p)) {
-                throw new GpioPinNotProvisionedException(p.getPin());
+            if (!pins.contains(pin[index])) {
+                throw new GpioPinNotProvisionedException(pin[index].getPin());
             }
-            // toggle pin state
-            p.toggle();
+            states[index] = PinState.getInverseState(pin[index].getState());
         }
+
+        // toggle pin states
+        setStates(pin, states);
     }
 
     @Override
@@ -342,19 +329,40 @@ public class GpioControllerImpl implements GpioController {
         }
     }
 
+    @Override
+    public Future<GpioWaveformResult> play(GpioWaveform waveform) {
+        if (waveform == null) {
+            throw new IllegalArgumentException("Missing waveform argument.");
+        }
+        for (GpioPinDigitalOutput p : waveform.getPins()) {
+            // ensure the requested pin has been provisioned
+            if (!pins.contains(p)) {
+                throw new GpioPinNotProvisionedException(p.getPin());
+            }
+        }
+        return GpioFactory.getWaveformPlayer().play(waveform);
+    }
+
     @Override
     public void setState(PinState state, GpioPinDigitalOutput... pin) {
         if (pin == null || pin.length == 0) {
             throw new IllegalArgumentException("Missing pin argument.");
         }
-        for (GpioPinDigitalOutput p : pin) {
+        // a single pin can be updated directly
+        if (pin.length == 1) {
             // ensure the requested pin has been provisioned
-            if (!pins.contains(p)) {
-                throw new GpioPinNotProvisionedException(p.getPin());
+            if (!pins.contains(pin[0])) {
+                throw new GpioPinNotProvisionedException(pin[0].getPin());
             }
             // set pin state
-            p.setState(state);
+            pin[0].setState(state);
+            return;
         }
+
+        // set pin states
+        PinState[] states = new PinState[pin.length];
+        Arrays.fill(states, state);
+        setStates(pin, states);
     }
 
     @Override
@@ -362,6 +370,39 @@ public class GpioControllerImpl implements GpioController {
         setState((state) ? PinState.HIGH : PinState.LOW, pin);
     }
 
+    /**
+     * Apply the given states to the given pins.  The pins are grouped by their
+     * GPIO provider so that each provider receives a single batch update which it
+     * can apply with as few hardware writes as possible.
+     *
+     * @param pin array of digital output pins
+     * @param states array of pin states; one state per pin in the pin array
+     */
+    private void setStates(GpioPinDigitalOutput[] pin, PinState[] states) {
+        Map<GpioProvider, Map<Pin, PinState>> batches = new LinkedHashMap<>();
+        for (int index = 0; index < pin.length; index++) {
+            GpioPinDigitalOutput p = pin[index];
+
+            // ensure the requested pin has been provisioned
+            if (!pins.contains(p)) {
+                throw new GpioPinNotProvisionedException(p.getPin());
+            }
+
+            // add the pin state to the provider's batch
+            Map<Pin, PinState> batch = batches.get(p.getProvider());
+            if (batch == null) {
+                batch = new LinkedHashMap<>();
+                batches.put(p.getProvider(), batch);
+            }
+            batch.put(p.getPin(), states[index]);
+        }
+
+        // issue a single batch update per provider
+        for (Map.Entry<GpioProvider, Map<Pin, PinState>> batch : batches.entrySet()) {
+            batch.getKey().setStates(batch.getValue());
+        }
+    }
+
     @Override
     public PinState getState(GpioPinDigital pin) {
         // ensure the requested pin has been provisioned
@@ -464,7 +505,7 @@ public class GpioControllerImpl implements GpioController {
 
     @Override
     public synchronized void removeAllListeners() {
-        for (GpioPin pin : this.pins) {
+        for (GpioPin pin : this.pins.getPins()) {
             if (pin instanceof GpioPinInput) {
                 ((GpioPinInput)pin).removeAllListeners();
             }
@@ -521,7 +562,7 @@ public class GpioControllerImpl implements GpioController {
 
     @Override
     public synchronized void removeAllTriggers() {
-        for (GpioPin pin : this.pins) {
+        for (GpioPin pin : this.pins.getPins()) {
             if (pin instanceof GpioPinInput) {
                 ((GpioPinInput)pin).removeAllTriggers();
             }
@@ -547,10 +588,8 @@ public class GpioControllerImpl implements GpioController {
         }
 
         // if an existing pin has been previously created, then throw an error
-        for(GpioPin p : pins) {
-            if (p.getProvider().equals(provider) && p.getPin().equals(pin)) {
-                throw new GpioPinExistsException(pin);
-            }
+        if (pins.get(provider, pin) != null) {
+            throw new GpioPinExistsException(pin);
         }
 
         // create new GPIO pin instance
@@ -565,6 +604,7 @@ public class GpioControllerImpl implements GpioController {
         gpioPin.export(mode, defaultState);
 
         // add this new pin instance to the managed collection
+        // (throws GpioPinExistsException if the pin was concurrently provisioned)
         pins.add(gpioPin);
 
         // return new new pin instance
@@ -921,6 +961,11 @@ public class GpioControllerImpl implements GpioController {
                 ((GpioPinInput)p).removeAllTriggers();
             }
 
+            // discard the pin's debounce state
+            if (p instanceof GpioPinDigitalInput) {
+                GpioFactory.getDebounceEngine().removeChannel((GpioPinDigitalInput)p);
+            }
+
             // remove this pin instance from the managed collection
             pins.remove(p);
         }
@@ -1015,7 +1060,7 @@ public class GpioControllerImpl implements GpioController {
         GpioFactory.getExecutorServiceFactory().shutdown();
 
         // shutdown explicit configured GPIO pins
-        for (GpioPin pin : pins) {
+        for (GpioPin pin : pins.getPins()) {
 
             // perform a shutdown on the GPIO provider for this pin
             if(!pin.getProvider().isShutdown()){
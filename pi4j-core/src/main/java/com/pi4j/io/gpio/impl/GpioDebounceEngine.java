@@ -0,0 +1,334 @@
+package com.pi4j.io.gpio.impl;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioDebounceEngine.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.GpioFactory;
+import com.pi4j.io.gpio.GpioPinDigitalInput;
+import com.pi4j.io.gpio.PinState;
+import com.pi4j.io.gpio.event.PinDigitalStateChangeEvent;
+import com.pi4j.io.gpio.tasks.impl.GpioEventDispatchTaskImpl;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ * Debounce engine for digital input pins. The first edge on a pin is dispatched immediately and
+ * opens a debounce window of {@link GpioPinDigitalInput#getDebounce(PinState)} milliseconds,
+ * measured from the edge's detection timestamp. Edges whose timestamps fall inside the window are
+ * suppressed and only the latest state is remembered. When the window closes a single settled
+ * event is dispatched if that state differs from the last dispatched state; the settled state then
+ * opens a window of its own. Pins are never re-read to determine the settled state.
+ * </p>
+ *
+ * <p>
+ * Open windows are kept on a hashed timing wheel served by a single daemon thread, created on
+ * demand from the configured {@link com.pi4j.concurrent.ExecutorServiceFactory}, so noisy inputs
+ * do not schedule a future per bounce.
+ * </p>
+ *
+ * @see GpioFactory#getDebounceEngine()
+ * @author Robert Savage (<a
+ *         href="http://www.savagehomeautomation.com">http://www.savagehomeautomation.com</a>)
+ */
+public class GpioDebounceEngine {
+
+    // one millisecond ticks; a rotation covers 512 ms and longer windows wait for later rotations
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final int WHEEL_SIZE = 512;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    private final Map<GpioPinDigitalInput, Channel> channels = new ConcurrentHashMap<>();
+    private final Queue<Channel> incoming = new ConcurrentLinkedQueue<>();
+    private final AtomicLong suppressedEdges = new AtomicLong();
+    private final AtomicLong settledEvents = new AtomicLong();
+    private final long origin = System.nanoTime();
+    private volatile Thread wheelThread = null;
+
+    /**
+     * Get the debounce channel tracking the given pin, creating it on first use.
+     *
+     * @param pin digital input pin
+     * @return debounce channel for the pin
+     */
+    public Channel getChannel(GpioPinDigitalInput pin) {
+        Channel channel = channels.get(pin);
+        if (channel == null) {
+            Channel created = new Channel(pin);
+            channel = channels.putIfAbsent(pin, created);
+            if (channel == null) {
+                channel = created;
+            }
+        }
+        return channel;
+    }
+
+    /**
+     * Discard the debounce channel of a pin that is no longer provisioned or exported. An open
+     * window of the discarded channel still closes, but the pin starts over with a new channel.
+     *
+     * @param pin digital input pin
+     */
+    public void removeChannel(GpioPinDigitalInput pin) {
+        channels.remove(pin);
+    }
+
+    /**
+     * @return number of edges suppressed on all pins
+     */
+    public long getSuppressedEdgeCount() {
+        return suppressedEdges.get();
+    }
+
+    /**
+     * @param pin digital input pin
+     * @return number of edges suppressed on the given pin
+     */
+    public long getSuppressedEdgeCount(GpioPinDigitalInput pin) {
+        Channel channel = channels.get(pin);
+        return (channel == null) ? 0 : channel.getSuppressedEdgeCount();
+    }
+
+    /**
+     * @return number of settled events dispatched when a debounce window closed on a changed state
+     */
+    public long getSettledEventCount() {
+        return settledEvents.get();
+    }
+
+    private void schedule(Channel channel) {
+        incoming.add(channel);
+        Thread thread = wheelThread;
+        if (thread == null) {
+            thread = startWheelThread();
+        }
+        LockSupport.unpark(thread);
+    }
+
+    private synchronized Thread startWheelThread() {
+        if (wheelThread == null) {
+            Thread thread = GpioFactory.getExecutorServiceFactory().getThreadFactory("pi4j-gpio-debounce-%d")
+                    .newThread(new Runnable() {
+                        @Override
+                        public void run() {
+                            runWheel();
+                        }
+                    });
+            thread.setDaemon(true);
+            thread.start();
+            wheelThread = thread;
+        }
+        return wheelThread;
+    }
+
+    private void runWheel() {
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        ArrayList<Channel>[] wheel = new ArrayList[WHEEL_SIZE];
+        for (int index = 0; index < WHEEL_SIZE; index++) {
+            wheel[index] = new ArrayList<>();
+        }
+        ArrayList<Channel> due = new ArrayList<>();
+        int pending = 0;
+        long processed = tickOf(System.nanoTime());
+
+        while (true) {
+            // place newly opened windows on the wheel
+            Channel channel;
+            while ((channel = incoming.poll()) != null) {
+                wheel[slotOf(channel, processed)].add(channel);
+                pending++;
+            }
+
+            // visit every slot that elapsed since the last pass (at most one full rotation)
+            long now = System.nanoTime();
+            long current = tickOf(now);
+            for (long tick = Math.max(processed + 1, current - WHEEL_MASK); tick <= current; tick++) {
+                ArrayList<Channel> slot = wheel[(int) (tick & WHEEL_MASK)];
+                if (slot.isEmpty()) {
+                    continue;
+                }
+                due.addAll(slot);
+                slot.clear();
+                pending -= due.size();
+                for (Channel expired : due) {
+                    if (expired.expire(now)) {
+                        wheel[slotOf(expired, current)].add(expired);
+                        pending++;
+                    }
+                }
+                due.clear();
+            }
+            processed = current;
+
+            // sleep until the next tick, or until a window is opened when the wheel is empty
+            if (pending == 0) {
+                LockSupport.park(this);
+            } else {
+                LockSupport.parkNanos(this, TICK_NANOS - (System.nanoTime() - origin) % TICK_NANOS);
+            }
+            Thread.interrupted();
+        }
+    }
+
+    private long tickOf(long nanos) {
+        return (nanos - origin) / TICK_NANOS;
+    }
+
+    private int slotOf(Channel channel, long afterTick) {
+        // round the deadline up to a tick so a window is never closed early
+        long tick = (channel.getDeadline() - origin + TICK_NANOS - 1) / TICK_NANOS;
+        if (tick <= afterTick) {
+            tick = afterTick + 1;
+        }
+        return (int) (tick & WHEEL_MASK);
+    }
+
+    private void dispatch(GpioPinDigitalInput pin, PinDigitalStateChangeEvent event) {
+        GpioFactory.getExecutorServiceFactory().getGpioEventExecutorService()
+                .execute(new GpioEventDispatchTaskImpl(pin, event));
+    }
+
+    /**
+     * Debounce state of a single digital input pin.
+     */
+    public final class Channel {
+
+        private final GpioPinDigitalInput pin;
+        private final AtomicLong suppressed = new AtomicLong();
+        private boolean open = false;
+        private boolean scheduled = false;
+        private long deadline;
+        private PinState dispatched;
+        private PinState latest;
+
+        private Channel(GpioPinDigitalInput pin) {
+            this.pin = pin;
+        }
+
+        /**
+         * Process a digital state change edge detected on this channel's pin.
+         *
+         * @param state new pin state
+         * @param timestampNanos monotonic detection timestamp of the edge
+         * @return true if the edge must be dispatched, false if it was suppressed
+         */
+        public boolean edge(PinState state, long timestampNanos) {
+            PinDigitalStateChangeEvent settledEvent = null;
+            boolean schedule = false;
+            boolean accepted;
+            synchronized (this) {
+                // the window may have elapsed before the wheel thread got to it
+                while (open && timestampNanos - deadline >= 0) {
+                    PinDigitalStateChangeEvent event = settle();
+                    if (event != null) {
+                        settledEvent = event;
+                    }
+                }
+
+                if (open) {
+                    // bounce inside the window; remember the state it settles on
+                    latest = state;
+                    suppressed.incrementAndGet();
+                    suppressedEdges.incrementAndGet();
+                    accepted = false;
+                } else {
+                    dispatched = latest = state;
+                    int debounce = pin.getDebounce(state);
+                    if (debounce > 0) {
+                        open = true;
+                        deadline = timestampNanos + TimeUnit.MILLISECONDS.toNanos(debounce);
+                        schedule = !scheduled;
+                        scheduled = true;
+                    }
+                    accepted = true;
+                }
+            }
+            if (settledEvent != null) {
+                dispatch(pin, settledEvent);
+            }
+            if (schedule) {
+                schedule(this);
+            }
+            return accepted;
+        }
+
+        /**
+         * @return number of edges suppressed on this channel's pin
+         */
+        public long getSuppressedEdgeCount() {
+            return suppressed.get();
+        }
+
+        private synchronized long getDeadline() {
+            return deadline;
+        }
+
+        // called from the wheel thread; returns true while the channel must stay on the wheel
+        private boolean expire(long now) {
+            PinDigitalStateChangeEvent settledEvent = null;
+            boolean keep;
+            synchronized (this) {
+                if (open && now - deadline >= 0) {
+                    settledEvent = settle();
+                }
+                keep = scheduled = open;
+            }
+            if (settledEvent != null) {
+                dispatch(pin, settledEvent);
+            }
+            return keep;
+        }
+
+        // closes the current window (lock held); returns the settled event to dispatch, if any
+        private PinDigitalStateChangeEvent settle() {
+            open = false;
+            if (latest == dispatched) {
+                return null;
+            }
+            dispatched = latest;
+            settledEvents.incrementAndGet();
+
+            // the settled state is debounced too, starting from the moment it settled
+            int debounce = pin.getDebounce(latest);
+            PinDigitalStateChangeEvent event = new PinDigitalStateChangeEvent(GpioDebounceEngine.this, pin.getPin(), latest, deadline);
+            if (debounce > 0) {
+                open = true;
+                deadline += TimeUnit.MILLISECONDS.toNanos(debounce);
+            }
+            return event;
+        }
+    }
+}
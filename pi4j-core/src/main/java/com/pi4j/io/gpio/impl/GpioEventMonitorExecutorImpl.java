@@ -32,58 +32,36 @@ package com.pi4j.io.gpio.impl;
 import com.pi4j.io.gpio.GpioFactory;
 import com.pi4j.io.gpio.GpioPinDigitalInput;
 import com.pi4j.io.gpio.GpioPinInput;
-import com.pi4j.io.gpio.PinState;
 import com.pi4j.io.gpio.event.PinDigitalStateChangeEvent;
 import com.pi4j.io.gpio.event.PinEvent;
 import com.pi4j.io.gpio.event.PinEventType;
 import com.pi4j.io.gpio.event.PinListener;
-import com.pi4j.io.gpio.tasks.impl.GpioEventDebounceTaskImpl;
 import com.pi4j.io.gpio.tasks.impl.GpioEventDispatchTaskImpl;
 
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 
 public class GpioEventMonitorExecutorImpl implements PinListener {
 
     private final GpioPinInput pin;
-    private static ExecutorService executor;
-    private static ScheduledExecutorService scheduledExecutor;
-    private ScheduledFuture debounceFuture = null;
+    private final ExecutorService executor;
 
     public GpioEventMonitorExecutorImpl(GpioPinInput pin) {
         this.pin = pin;
-        executor = GpioFactory.getExecutorServiceFactory().getGpioEventExecutorService();
-        scheduledExecutor = GpioFactory.getExecutorServiceFactory().getScheduledExecutorService();
+        this.executor = GpioFactory.getExecutorServiceFactory().getGpioEventExecutorService();
     }
 
     @Override
     public void handlePinEvent(PinEvent event) {
 
-        // for digital input pins, we need to enforce pin debounce event suppression
+        // for digital input pins, we need to enforce pin debounce event suppression;
+        // the debounce engine decides from the edge timestamp whether this edge is dispatched
+        // now or suppressed, and dispatches the settled state itself when the window closes
+        // (the channel is looked up per edge as it is discarded when the pin is unexported)
         if(pin instanceof GpioPinDigitalInput && event.getEventType() == PinEventType.DIGITAL_STATE_CHANGE){
-
-            // cast to the digital input pin interface, get the current state from
-            // the event, and determine the debounce interval for this pin state
-            GpioPinDigitalInput dip = (GpioPinDigitalInput)pin;
-            PinState state = ((PinDigitalStateChangeEvent) event).getState();
-            int pinDebounceForState = dip.getDebounce(state);
-
-            // if the pin has a debounce delay configured for this pin state,
-            // then we will need to use the pin debounce logic to defer pin events
-            if(pinDebounceForState > 0) {
-                // if no existing debounce future task exists or no future task is still busy, then
-                // create a new debounce future task and schedule it based on the debounce
-                // interval defined for the current pin state
-                if (debounceFuture == null || debounceFuture.isDone()) {
-                    debounceFuture = scheduledExecutor.schedule(
-                            new GpioEventDebounceTaskImpl(dip, state), pinDebounceForState, TimeUnit.MILLISECONDS);
-                } else {
-                    // if an existing debounce future task exists and is still busy,
-                    // then exit this method effectively suppressing the current pin event
-                    return;
-                }
+            PinDigitalStateChangeEvent stateChange = (PinDigitalStateChangeEvent) event;
+            GpioDebounceEngine.Channel debounce = GpioFactory.getDebounceEngine().getChannel((GpioPinDigitalInput) pin);
+            if (!debounce.edge(stateChange.getState(), stateChange.getTimestampNanos())) {
+                return;
             }
         }
 
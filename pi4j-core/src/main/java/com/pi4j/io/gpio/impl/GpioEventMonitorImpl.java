@@ -30,21 +30,9 @@ package com.pi4j.io.gpio.impl;
  */
 
 import com.pi4j.io.gpio.GpioPinInput;
-import com.pi4j.io.gpio.PinState;
-import com.pi4j.io.gpio.event.GpioPinListener;
-import com.pi4j.io.gpio.event.GpioPinAnalogValueChangeEvent;
-import com.pi4j.io.gpio.event.GpioPinDigitalStateChangeEvent;
-import com.pi4j.io.gpio.event.GpioPinListenerAnalog;
-import com.pi4j.io.gpio.event.GpioPinListenerDigital;
-import com.pi4j.io.gpio.event.PinAnalogValueChangeEvent;
 import com.pi4j.io.gpio.event.PinEvent;
-import com.pi4j.io.gpio.event.PinEventType;
-import com.pi4j.io.gpio.event.PinDigitalStateChangeEvent;
 import com.pi4j.io.gpio.event.PinListener;
-import com.pi4j.io.gpio.trigger.GpioTrigger;
-
-import java.util.ArrayList;
-import java.util.Collection;
+import com.pi4j.io.gpio.tasks.impl.GpioEventDispatchTaskImpl;
 
 @SuppressWarnings("unused")
 public class GpioEventMonitorImpl implements PinListener {
@@ -56,44 +44,7 @@ public class GpioEventMonitorImpl implements PinListener {
 
     @Override
     public void handlePinEvent(PinEvent event) {
-        // only process listeners and triggers if the received interrupt event
-        // matches the pin number being tracked my this class instance
-        if (this.pin.getPin().equals(event.getPin())) {
-            if (event.getEventType() == PinEventType.DIGITAL_STATE_CHANGE) {
-                PinState state = ((PinDigitalStateChangeEvent)event).getState();
-
-                // create a copy of the listeners collection
-                Collection<GpioPinListener> listeners  = new ArrayList<GpioPinListener>(pin.getListeners());
-
-                // process event callbacks for digital listeners
-                for (GpioPinListener listener : listeners) {
-                    if (listener != null && listener instanceof GpioPinListenerDigital) {
-                        ((GpioPinListenerDigital)listener).handleGpioPinDigitalStateChangeEvent(new GpioPinDigitalStateChangeEvent(event.getSource(), pin, state));
-                    }
-                }
-
-                // create a copy of the triggers collection
-                Collection<GpioTrigger> triggers  = new ArrayList<GpioTrigger>(pin.getTriggers());
-
-                // process triggers
-                for (GpioTrigger trigger : triggers) {
-                    if (trigger != null && trigger.hasPinState(state)) {
-                        trigger.invoke(pin, state);
-                    }
-                }
-            } else if(event.getEventType() == PinEventType.ANALOG_VALUE_CHANGE) {
-                double value = ((PinAnalogValueChangeEvent)event).getValue();
-
-                // create a copy of the listeners collection
-                Collection<GpioPinListener> listeners  = new ArrayList<GpioPinListener>(pin.getListeners());
-
-                // process event callbacks for analog listeners
-                for (GpioPinListener listener : listeners) {
-                    if (listener != null && listener instanceof GpioPinListenerAnalog) {
-                        ((GpioPinListenerAnalog)listener).handleGpioPinAnalogValueChangeEvent(new GpioPinAnalogValueChangeEvent(event.getSource(), pin, value));
-                    }
-                }
-            }
-        }
+        // dispatch the event to the pin listeners and triggers on the calling thread
+        GpioEventDispatchTaskImpl.dispatch(pin, event);
     }
 }
@@ -0,0 +1,439 @@
+package com.pi4j.io.gpio.impl;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioOutputScheduler.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.GpioFactory;
+import com.pi4j.io.gpio.GpioPinDigitalOutput;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ * Scheduler for timed digital output changes such as pulses and blinks. Pending tasks are kept
+ * on a hashed timing wheel served by a single daemon thread, created on demand from the configured
+ * {@link com.pi4j.concurrent.ExecutorServiceFactory}; the thread parks until the next occupied wheel
+ * slot, so thousands of concurrent tasks cost no more than their slot entries.
+ * </p>
+ *
+ * <p>
+ * The wheel resolution defaults to 100 microseconds and can be changed with the system property
+ * <code>pi4j.gpio.scheduler.tick</code> (in microseconds); the effective resolution is bounded by
+ * the operating system's timer slack. Tasks run on the wheel thread unless an executor is given,
+ * so they must not block. Pending tasks are tracked per pin and can be cancelled per pin without
+ * any global lock.
+ * </p>
+ *
+ * @author Robert Savage (<a
+ *         href="http://www.savagehomeautomation.com">http://www.savagehomeautomation.com</a>)
+ */
+public class GpioOutputScheduler {
+
+    public static final String TICK_PROPERTY = "pi4j.gpio.scheduler.tick";
+    public static final long DEFAULT_TICK_MICROS = 100;
+
+    private static final int WHEEL_SIZE = 1024;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    private final long tickNanos;
+    private final long origin = System.nanoTime();
+    private final Queue<Timeout> incoming = new ConcurrentLinkedQueue<>();
+    private final ConcurrentHashMap<GpioPinDigitalOutput, PinTimeouts> pinTimeouts = new ConcurrentHashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile Thread wheelThread = null;
+
+    /**
+     * Create a scheduler using the tick configured by the <code>pi4j.gpio.scheduler.tick</code>
+     * system property.
+     */
+    public GpioOutputScheduler() {
+        this(Long.getLong(TICK_PROPERTY, DEFAULT_TICK_MICROS), TimeUnit.MICROSECONDS);
+    }
+
+    /**
+     * Create a scheduler with the given wheel resolution.
+     *
+     * @param tick wheel tick duration
+     * @param unit tick time unit
+     */
+    public GpioOutputScheduler(long tick, TimeUnit unit) {
+        if (tick <= 0) {
+            throw new IllegalArgumentException("Scheduler tick must be greater than 0.");
+        }
+        this.tickNanos = unit.toNanos(tick);
+    }
+
+    /**
+     * Schedule a one-shot task for a pin; the task runs on the scheduler thread.
+     *
+     * @param pin output pin the task belongs to
+     * @param task task to run
+     * @param delay delay before the task runs
+     * @param unit delay time unit
+     * @return future completed once the task has run
+     */
+    public ScheduledFuture<?> schedule(GpioPinDigitalOutput pin, Runnable task, long delay, TimeUnit unit) {
+        return schedule(pin, task, delay, unit, null);
+    }
+
+    /**
+     * Schedule a one-shot task for a pin.
+     *
+     * @param pin output pin the task belongs to
+     * @param task task to run
+     * @param delay delay before the task runs
+     * @param unit delay time unit
+     * @param executor executor the task is handed to when due, or null to run it on the scheduler thread
+     * @return future completed once the task has run
+     */
+    public ScheduledFuture<?> schedule(GpioPinDigitalOutput pin, Runnable task, long delay, TimeUnit unit, Executor executor) {
+        return add(new Timeout(pin, task, System.nanoTime() + unit.toNanos(delay), 0, executor));
+    }
+
+    /**
+     * Schedule a periodic task for a pin; the task runs on the scheduler thread until cancelled.
+     *
+     * @param pin output pin the task belongs to
+     * @param task task to run
+     * @param initialDelay delay before the first run
+     * @param period period between successive runs
+     * @param unit delay and period time unit
+     * @return future that is only completed by cancellation or a failing task
+     */
+    public ScheduledFuture<?> scheduleAtFixedRate(GpioPinDigitalOutput pin, Runnable task, long initialDelay, long period, TimeUnit unit) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("Period must be greater than 0.");
+        }
+        return add(new Timeout(pin, task, System.nanoTime() + unit.toNanos(initialDelay), unit.toNanos(period), null));
+    }
+
+    /**
+     * Cancel all pending tasks of a pin.
+     *
+     * @param pin output pin
+     */
+    public void cancel(GpioPinDigitalOutput pin) {
+        PinTimeouts timeouts = pinTimeouts.get(pin);
+        if (timeouts != null) {
+            timeouts.cancelAll();
+        }
+    }
+
+    /**
+     * Cancel all pending tasks of a pin and run the given action while holding the pin's scheduling
+     * lock; the action typically sets the pin state and schedules the replacement tasks. Concurrent
+     * replacements on the same pin run one after another, so they never leave more than one set of
+     * pending tasks behind; different pins do not contend.
+     *
+     * @param pin output pin
+     * @param action action run after the pending tasks have been cancelled
+     * @return result of the action
+     */
+    public <T> T replace(GpioPinDigitalOutput pin, Supplier<T> action) {
+        PinTimeouts timeouts = timeoutsOf(pin);
+        synchronized (timeouts.sequence) {
+            timeouts.cancelAll();
+            return action.get();
+        }
+    }
+
+    /**
+     * @param pin output pin
+     * @return number of pending tasks of the pin
+     */
+    public int getPendingCount(GpioPinDigitalOutput pin) {
+        PinTimeouts timeouts = pinTimeouts.get(pin);
+        return (timeouts == null) ? 0 : timeouts.size();
+    }
+
+    /**
+     * @return number of pending tasks of all pins
+     */
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    /**
+     * @return wheel tick duration in nanoseconds
+     */
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    private PinTimeouts timeoutsOf(GpioPinDigitalOutput pin) {
+        PinTimeouts timeouts = pinTimeouts.get(pin);
+        if (timeouts == null) {
+            PinTimeouts created = new PinTimeouts();
+            timeouts = pinTimeouts.putIfAbsent(pin, created);
+            if (timeouts == null) {
+                timeouts = created;
+            }
+        }
+        return timeouts;
+    }
+
+    private Timeout add(Timeout timeout) {
+        pending.incrementAndGet();
+        timeoutsOf(timeout.pin).add(timeout);
+
+        // hand the timeout to the wheel thread
+        incoming.add(timeout);
+        Thread thread = wheelThread;
+        if (thread == null) {
+            thread = startWheelThread();
+        }
+        LockSupport.unpark(thread);
+        return timeout;
+    }
+
+    private synchronized Thread startWheelThread() {
+        if (wheelThread == null) {
+            Thread thread = GpioFactory.getExecutorServiceFactory().getPlatformThreadFactory("pi4j-gpio-output-scheduler-%d")
+                    .newThread(new Runnable() {
+                        @Override
+                        public void run() {
+                            runWheel();
+                        }
+                    });
+            thread.setDaemon(true);
+            thread.start();
+            wheelThread = thread;
+        }
+        return wheelThread;
+    }
+
+    private void runWheel() {
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        ArrayList<Timeout>[] wheel = new ArrayList[WHEEL_SIZE];
+        for (int index = 0; index < WHEEL_SIZE; index++) {
+            wheel[index] = new ArrayList<>();
+        }
+        ArrayList<Timeout> due = new ArrayList<>();
+        int placed = 0;
+        long processed = tickOf(System.nanoTime());
+
+        while (true) {
+            // place newly scheduled timeouts on the wheel
+            Timeout timeout;
+            while ((timeout = incoming.poll()) != null) {
+                if (!timeout.isDone()) {
+                    wheel[slotOf(timeout.deadline, processed)].add(timeout);
+                    placed++;
+                }
+            }
+
+            // visit every slot that elapsed since the last pass (at most one full rotation)
+            long now = System.nanoTime();
+            long current = tickOf(now);
+            for (long tick = Math.max(processed + 1, current - WHEEL_MASK); tick <= current; tick++) {
+                ArrayList<Timeout> slot = wheel[(int) (tick & WHEEL_MASK)];
+                if (slot.isEmpty()) {
+                    continue;
+                }
+                due.addAll(slot);
+                slot.clear();
+                placed -= due.size();
+                for (Timeout expired : due) {
+                    // cancelled timeouts are simply dropped; timeouts from later rotations
+                    // and periodic timeouts go back on the wheel
+                    if (!expired.isDone() && (expired.deadline - now > 0 || expired.fire())) {
+                        wheel[slotOf(expired.deadline, current)].add(expired);
+                        placed++;
+                    }
+                }
+                due.clear();
+            }
+            processed = current;
+
+            // sleep until the next occupied slot, or until a timeout is scheduled when the wheel is empty
+            if (placed == 0) {
+                LockSupport.park(this);
+            } else {
+                LockSupport.parkNanos(this, nanosUntilNextSlot(wheel, current));
+            }
+            Thread.interrupted();
+        }
+    }
+
+    private long tickOf(long nanos) {
+        return (nanos - origin) / tickNanos;
+    }
+
+    private int slotOf(long deadline, long afterTick) {
+        // round the deadline up to a tick so a timeout never fires early
+        long tick = (deadline - origin + tickNanos - 1) / tickNanos;
+        if (tick <= afterTick) {
+            tick = afterTick + 1;
+        }
+        return (int) (tick & WHEEL_MASK);
+    }
+
+    private long nanosUntilNextSlot(ArrayList<Timeout>[] wheel, long current) {
+        long next = current + 1;
+        for (int distance = 1; distance <= WHEEL_SIZE; distance++) {
+            if (!wheel[(int) ((current + distance) & WHEEL_MASK)].isEmpty()) {
+                next = current + distance;
+                break;
+            }
+        }
+        return Math.max(1, origin + next * tickNanos - System.nanoTime());
+    }
+
+    /**
+     * Pending timeouts of a single pin.
+     */
+    private static class PinTimeouts {
+
+        private final List<Timeout> timeouts = new ArrayList<>();
+
+        // serializes replace() sequences; separate from the list monitor so the wheel thread
+        // completing a task never waits for a replacement in progress
+        private final Object sequence = new Object();
+
+        synchronized void add(Timeout timeout) {
+            timeouts.add(timeout);
+        }
+
+        synchronized void remove(Timeout timeout) {
+            timeouts.remove(timeout);
+        }
+
+        synchronized int size() {
+            return timeouts.size();
+        }
+
+        void cancelAll() {
+            Timeout[] snapshot;
+            synchronized (this) {
+                snapshot = timeouts.toArray(new Timeout[timeouts.size()]);
+            }
+            for (Timeout timeout : snapshot) {
+                timeout.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * A scheduled task on the wheel; doubles as the future returned to the caller.
+     */
+    private final class Timeout extends FutureTask<Void> implements ScheduledFuture<Void> {
+
+        private final GpioPinDigitalOutput pin;
+        private final long period;
+        private final Executor executor;
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile long deadline;
+
+        Timeout(GpioPinDigitalOutput pin, Runnable task, long deadline, long period, Executor executor) {
+            super(task, null);
+            this.pin = pin;
+            this.deadline = deadline;
+            this.period = period;
+            this.executor = executor;
+        }
+
+        // runs the due task; returns true if a periodic task must be rescheduled
+        boolean fire() {
+            if (period > 0) {
+                if (runAndReset()) {
+                    deadline += period;
+                    return true;
+                }
+                return false;
+            }
+            if (executor != null) {
+                try {
+                    executor.execute(this);
+                    return false;
+                } catch (RejectedExecutionException ex) {
+                    // fall through and run on the scheduler thread
+                }
+            }
+            run();
+            return false;
+        }
+
+        // pending bookkeeping is released before the future completes so that it is
+        // consistent for anyone woken up by the completion
+        @Override
+        protected void set(Void value) {
+            release();
+            super.set(value);
+        }
+
+        @Override
+        protected void setException(Throwable throwable) {
+            release();
+            super.setException(throwable);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if (isDone()) {
+                return false;
+            }
+            release();
+            return super.cancel(mayInterruptIfRunning);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                pending.decrementAndGet();
+                PinTimeouts timeouts = pinTimeouts.get(pin);
+                if (timeouts != null) {
+                    timeouts.remove(this);
+                }
+            }
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+}
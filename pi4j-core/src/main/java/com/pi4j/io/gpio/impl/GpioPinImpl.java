@@ -31,12 +31,15 @@ package com.pi4j.io.gpio.impl;
 
 import com.pi4j.io.gpio.*;
 import com.pi4j.io.gpio.event.GpioPinListener;
+import com.pi4j.io.gpio.event.GpioPinListenerAnalog;
+import com.pi4j.io.gpio.event.GpioPinListenerDigital;
 import com.pi4j.io.gpio.event.PinListener;
 import com.pi4j.io.gpio.trigger.GpioTrigger;
 
 import java.util.*;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Future;
 
 public class GpioPinImpl implements GpioPin,
@@ -53,18 +56,28 @@ public class GpioPinImpl implements GpioPin,
     @SuppressWarnings("unused")
     private String name = null;
     private Object tag = null;
+    private final GpioController gpio;
     private final GpioProvider provider;
     private final Pin pin;
     private PinListener monitor;
     private final GpioPinShutdownImpl shutdownOptions;
     private final Map<String, String> properties = new ConcurrentHashMap<>();
-    private final List<GpioPinListener> listeners = new ArrayList<>();
-    private final List<GpioTrigger> triggers = new ArrayList<>();
+    private final List<GpioPinListener> listeners = new CopyOnWriteArrayList<>();
+    private final List<GpioTrigger> triggers = new CopyOnWriteArrayList<>();
+
+    // immutable snapshots used by the event dispatch path; rebuilt whenever
+    // listeners or triggers change so that dispatching an event never copies
+    private static final GpioPinListenerDigital[] NO_DIGITAL_LISTENERS = new GpioPinListenerDigital[0];
+    private static final GpioPinListenerAnalog[] NO_ANALOG_LISTENERS = new GpioPinListenerAnalog[0];
+    private static final GpioTrigger[] NO_TRIGGERS = new GpioTrigger[0];
+    private volatile GpioPinListenerDigital[] digitalListeners = NO_DIGITAL_LISTENERS;
+    private volatile GpioPinListenerAnalog[] analogListeners = NO_ANALOG_LISTENERS;
+    private volatile GpioTrigger[] triggerSnapshot = NO_TRIGGERS;
     private final Map<PinState, Integer> debounce = new HashMap<>();
     protected final int NO_DEBOUCE = 0;
 
-    @SuppressWarnings("unused")
     public GpioPinImpl(GpioController gpio, GpioProvider provider, Pin pin) {
+        this.gpio = gpio;
         this.provider = provider;
         this.pin = pin;
         shutdownOptions = new GpioPinShutdownImpl();
@@ -83,6 +96,11 @@ public class GpioPinImpl implements GpioPin,
     @Override
     public void setName(String name) {
         this.name = name;
+
+        // keep the controller's name index in sync with the new pin name
+        if (gpio instanceof GpioControllerImpl) {
+            ((GpioControllerImpl) gpio).pinRenamed(this);
+        }
     }
 
     @Override
@@ -162,6 +180,11 @@ public class GpioPinImpl implements GpioPin,
     public void unexport() {
         // unexport the pin
         provider.unexport(pin);
+
+        // discard the pin's debounce state
+        if (this instanceof GpioPinDigitalInput) {
+            GpioFactory.getDebounceEngine().removeChannel((GpioPinDigitalInput) this);
+        }
     }
 
     @Override
@@ -404,6 +427,27 @@ public class GpioPinImpl implements GpioPin,
     }
 
     private synchronized void updateInterruptListener() {
+        // pre-resolve the digital and analog listeners and triggers for the dispatch path
+        List<GpioPinListenerDigital> digital = new ArrayList<>();
+        List<GpioPinListenerAnalog> analog = new ArrayList<>();
+        for (GpioPinListener listener : listeners) {
+            if (listener instanceof GpioPinListenerDigital) {
+                digital.add((GpioPinListenerDigital) listener);
+            }
+            if (listener instanceof GpioPinListenerAnalog) {
+                analog.add((GpioPinListenerAnalog) listener);
+            }
+        }
+        List<GpioTrigger> trgrs = new ArrayList<>();
+        for (GpioTrigger trigger : triggers) {
+            if (trigger != null) {
+                trgrs.add(trigger);
+            }
+        }
+        digitalListeners = digital.toArray(NO_DIGITAL_LISTENERS);
+        analogListeners = analog.toArray(NO_ANALOG_LISTENERS);
+        triggerSnapshot = trgrs.toArray(NO_TRIGGERS);
+
         if (listeners.size() > 0 || triggers.size() > 0) {
             if (monitor == null) {
                 // create new monitor and register for event callbacks
@@ -443,7 +487,38 @@ public class GpioPinImpl implements GpioPin,
      *
      */
     public synchronized Collection<GpioPinListener> getListeners() {
-        return listeners;
+        // changes must go through addListener/removeListener, which rebuild the dispatch arrays
+        return Collections.unmodifiableList(listeners);
+    }
+
+    /**
+     * Get the digital listeners registered on this pin. The returned array is an immutable
+     * snapshot shared with other callers and must not be modified.
+     *
+     * @return digital pin listeners
+     */
+    public GpioPinListenerDigital[] getDigitalListeners() {
+        return digitalListeners;
+    }
+
+    /**
+     * Get the analog listeners registered on this pin. The returned array is an immutable
+     * snapshot shared with other callers and must not be modified.
+     *
+     * @return analog pin listeners
+     */
+    public GpioPinListenerAnalog[] getAnalogListeners() {
+        return analogListeners;
+    }
+
+    /**
+     * Get the triggers registered on this pin. The returned array is an immutable snapshot
+     * shared with other callers and must not be modified.
+     *
+     * @return pin triggers
+     */
+    public GpioTrigger[] getTriggerSnapshot() {
+        return triggerSnapshot;
     }
 
     @Override
@@ -489,7 +564,8 @@ public class GpioPinImpl implements GpioPin,
      *
      */
     public synchronized Collection<GpioTrigger> getTriggers() {
-        return triggers;
+        // changes must go through addTrigger/removeTrigger, which rebuild the dispatch arrays
+        return Collections.unmodifiableList(triggers);
     }
 
     public synchronized void addTrigger(GpioTrigger... trigger) {
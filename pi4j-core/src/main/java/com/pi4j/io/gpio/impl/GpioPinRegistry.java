@@ -0,0 +1,218 @@
+package com.pi4j.io.gpio.impl;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioPinRegistry.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.GpioPin;
+import com.pi4j.io.gpio.GpioProvider;
+import com.pi4j.io.gpio.Pin;
+import com.pi4j.io.gpio.exception.GpioPinExistsException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * Indexed registry of the GPIO pins provisioned by a {@link GpioControllerImpl}.
+ * </p>
+ *
+ * <p>
+ * All lookups (membership, provider+address and name) are constant time and lock-free;
+ * they operate on an immutable snapshot that is replaced (copy-on-write) whenever a pin
+ * is provisioned, unprovisioned or renamed.  Membership is identity based, so only the
+ * exact pin instances created by the owning controller are considered provisioned.
+ * </p>
+ *
+ * @author Robert Savage (<a
+ *         href="http://www.savagehomeautomation.com">http://www.savagehomeautomation.com</a>)
+ */
+class GpioPinRegistry {
+
+    private volatile Snapshot snapshot = new Snapshot(Collections.<GpioPin>emptyList());
+
+    /**
+     * @return an unmodifiable collection of the provisioned pins in provisioning order
+     */
+    public List<GpioPin> getPins() {
+        return snapshot.pins;
+    }
+
+    /**
+     * @param pin GPIO pin instance
+     * @return TRUE if this exact pin instance is provisioned
+     */
+    public boolean contains(GpioPin pin) {
+        return snapshot.members.containsKey(pin);
+    }
+
+    /**
+     * @param provider GPIO provider instance
+     * @param pin pin definition
+     * @return the provisioned pin for the given provider instance and pin; or null if not provisioned
+     */
+    public GpioPin get(GpioProvider provider, Pin pin) {
+        GpioPin gpioPin = snapshot.byProvider.get(new PinKey(provider, pin.getAddress()));
+        if (gpioPin != null && gpioPin.getPin().equals(pin)) {
+            return gpioPin;
+        }
+        return null;
+    }
+
+    /**
+     * @param pin pin definition
+     * @return the first provisioned pin matching the given pin definition; or null if not provisioned
+     */
+    public GpioPin get(Pin pin) {
+        GpioPin gpioPin = snapshot.byPin.get(new PinKey(pin.getProvider(), pin.getAddress()));
+        if (gpioPin != null && gpioPin.getPin().equals(pin)) {
+            return gpioPin;
+        }
+        return null;
+    }
+
+    /**
+     * @param name pin name
+     * @return the first provisioned pin with the given name; or null if not provisioned
+     */
+    public GpioPin get(String name) {
+        return snapshot.byName.get(name);
+    }
+
+    /**
+     * Add a pin instance to the registry.
+     *
+     * @param gpioPin GPIO pin instance
+     * @throws GpioPinExistsException if the provider already has this pin provisioned
+     */
+    public synchronized void add(GpioPin gpioPin) {
+        if (get(gpioPin.getProvider(), gpioPin.getPin()) != null) {
+            throw new GpioPinExistsException(gpioPin.getPin());
+        }
+        List<GpioPin> pins = new ArrayList<>(snapshot.pins);
+        pins.add(gpioPin);
+        snapshot = new Snapshot(pins);
+    }
+
+    /**
+     * Remove a pin instance from the registry.
+     *
+     * @param gpioPin GPIO pin instance
+     * @return TRUE if the pin instance was removed
+     */
+    public synchronized boolean remove(GpioPin gpioPin) {
+        if (!contains(gpioPin)) {
+            return false;
+        }
+        List<GpioPin> pins = new ArrayList<>(snapshot.pins.size());
+        for (GpioPin p : snapshot.pins) {
+            if (p != gpioPin) {
+                pins.add(p);
+            }
+        }
+        snapshot = new Snapshot(pins);
+        return true;
+    }
+
+    /**
+     * Rebuild the name index after a provisioned pin has been renamed.
+     *
+     * @param gpioPin GPIO pin instance
+     */
+    public synchronized void renamed(GpioPin gpioPin) {
+        if (contains(gpioPin)) {
+            snapshot = new Snapshot(snapshot.pins);
+        }
+    }
+
+    /**
+     * Immutable view of the registry contents and its lookup indexes.
+     */
+    private static class Snapshot {
+        private final List<GpioPin> pins;
+        private final Map<GpioPin, GpioPin> members;
+        private final Map<PinKey, GpioPin> byProvider;
+        private final Map<PinKey, GpioPin> byPin;
+        private final Map<String, GpioPin> byName;
+
+        private Snapshot(List<GpioPin> pins) {
+            this.pins = Collections.unmodifiableList(pins);
+            this.members = new IdentityHashMap<>(pins.size());
+            this.byProvider = new HashMap<>(pins.size() * 2);
+            this.byPin = new HashMap<>(pins.size() * 2);
+            this.byName = new HashMap<>(pins.size() * 2);
+
+            // the first provisioned pin wins each index entry; this preserves the
+            // lookup semantics of a linear scan over the pins in provisioning order
+            for (GpioPin p : pins) {
+                members.put(p, p);
+                putIfAbsent(byProvider, new PinKey(p.getProvider(), p.getPin().getAddress()), p);
+                putIfAbsent(byPin, new PinKey(p.getPin().getProvider(), p.getPin().getAddress()), p);
+                putIfAbsent(byName, p.getName(), p);
+            }
+        }
+
+        private static <K> void putIfAbsent(Map<K, GpioPin> map, K key, GpioPin pin) {
+            if (!map.containsKey(key)) {
+                map.put(key, pin);
+            }
+        }
+    }
+
+    /**
+     * Lookup key composed of a pin owner (provider instance or provider name) and pin address.
+     */
+    private static class PinKey {
+        private final Object owner;
+        private final int address;
+
+        private PinKey(Object owner, int address) {
+            this.owner = owner;
+            this.address = address;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this)
+                return true;
+            if (!(obj instanceof PinKey))
+                return false;
+            PinKey key = (PinKey) obj;
+            return address == key.address && owner.equals(key.owner);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * owner.hashCode() + address;
+        }
+    }
+}
@@ -37,151 +37,86 @@ import com.pi4j.io.gpio.tasks.impl.GpioBlinkStopTaskImpl;
 import com.pi4j.io.gpio.tasks.impl.GpioBlinkTaskImpl;
 import com.pi4j.io.gpio.tasks.impl.GpioPulseTaskImpl;
 
-import java.util.ArrayList;
-import java.util.Map.Entry;
-import java.util.concurrent.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 public class GpioScheduledExecutorImpl {
 
-    private static final ConcurrentHashMap<GpioPinDigitalOutput, ArrayList<ScheduledFuture<?>>> pinTaskQueue = new ConcurrentHashMap<>();
-    private static ScheduledExecutorService scheduledExecutorService;
-
-    private synchronized static void init(GpioPinDigitalOutput pin) {
-        if (scheduledExecutorService == null) {
-            scheduledExecutorService = GpioFactory.getExecutorServiceFactory().getScheduledExecutorService();
-        }
-
-        // determine if any existing future tasks are already scheduled for this pin
-        if (pinTaskQueue.containsKey(pin)) {
-            // if a task is found, then cancel all pending tasks immediately and remove them
-            ArrayList<ScheduledFuture<?>> tasks = pinTaskQueue.get(pin);
-            if (tasks != null && !tasks.isEmpty()) {
-                for (int index =  (tasks.size() - 1); index >= 0; index--) {
-                    ScheduledFuture<?> task = tasks.get(index);
-                    task.cancel(true);
-                    tasks.remove(index);
-                }
-            }
-
-            // if no remaining future tasks are remaining, then remove this pin from the tasks queue
-            if (tasks != null && tasks.isEmpty()) {
-                pinTaskQueue.remove(pin);
-            }
-        }
-    }
-
-    private synchronized static ScheduledFuture<?> createCleanupTask(long delay) {
-        // create future task to clean up completed tasks
-
-        @SuppressWarnings({"rawtypes", "unchecked"})
-        ScheduledFuture<?> cleanupFutureTask = scheduledExecutorService.schedule(new Callable() {
-            public Object call() throws Exception {
-                for (Entry<GpioPinDigitalOutput, ArrayList<ScheduledFuture<?>>> item : pinTaskQueue.entrySet()) {
-                    ArrayList<ScheduledFuture<?>> remainingTasks = item.getValue();
-
-                    // if a task is found, then cancel all pending tasks immediately and remove them
-                    if (remainingTasks != null && !remainingTasks.isEmpty()) {
-                        for (int index = (remainingTasks.size() - 1); index >= 0; index--) {
-                            ScheduledFuture<?> remainingTask = remainingTasks.get(index);
-                            if (remainingTask.isCancelled() || remainingTask.isDone()) {
-                                remainingTasks.remove(index);
-                            }
-                        }
-
-                        // if no remaining future tasks are remaining, then remove this pin from the tasks queue
-                        if (remainingTasks.isEmpty()) {
-                            pinTaskQueue.remove(item.getKey());
-                        }
-                    }
-                }
-                return null;
-            }
-        }, delay, TimeUnit.MILLISECONDS);
+    // timing wheel shared by all output pins; pending tasks are tracked and cancelled per pin
+    private static final GpioOutputScheduler scheduler = new GpioOutputScheduler();
 
-        return cleanupFutureTask;
+    /**
+     * @return the scheduler running pulse and blink tasks
+     */
+    public static GpioOutputScheduler getScheduler() {
+        return scheduler;
     }
 
-    public synchronized static Future<?> pulse(GpioPinDigitalOutput pin, long duration, PinState pulseState) {
+    public static Future<?> pulse(GpioPinDigitalOutput pin, long duration, PinState pulseState) {
         return pulse(pin, duration, pulseState, null);
     }
 
-    public synchronized static Future<?> pulse(GpioPinDigitalOutput pin, long duration, PinState pulseState, Callable<?> callback) {
-
-        // create future return object
-        ScheduledFuture<?> scheduledFuture = null;
-
-        // perform the initial startup and cleanup for this pin
-        init(pin);
-
-        // we only pulse for requests with a valid duration in milliseconds
-        if (duration > 0) {
-            // set the active state
-            pin.setState(pulseState);
-
-            // create future job to return the pin to the low state
-            scheduledFuture = scheduledExecutorService
-                .schedule(new GpioPulseTaskImpl(pin, PinState.getInverseState(pulseState), callback), duration, TimeUnit.MILLISECONDS);
+    public static Future<?> pulse(final GpioPinDigitalOutput pin, final long duration, final PinState pulseState, final Callable<?> callback) {
+
+        // cancel any pending tasks already scheduled for this pin; the whole sequence runs under
+        // the pin's scheduling lock so that concurrent pulses cannot interleave
+        return scheduler.replace(pin, new Supplier<Future<?>>() {
+            @Override
+            public Future<?> get() {
+                // we only pulse for requests with a valid duration in milliseconds
+                if (duration > 0) {
+                    // set the active state
+                    pin.setState(pulseState);
+
+                    // pulses with a callback complete on the GPIO event executor so that
+                    // a slow callback cannot hold up the scheduler thread
+                    Executor executor = (callback == null) ? null
+                            : GpioFactory.getExecutorServiceFactory().getGpioEventExecutorService();
+
+                    // create future job to return the pin to the inactive state
+                    return scheduler.schedule(pin, new GpioPulseTaskImpl(pin, PinState.getInverseState(pulseState), callback),
+                            duration, TimeUnit.MILLISECONDS, executor);
+                }
 
-            // get pending tasks for the current pin
-            ArrayList<ScheduledFuture<?>> tasks;
-            if (!pinTaskQueue.containsKey(pin)) {
-                pinTaskQueue.put(pin, new ArrayList<ScheduledFuture<?>>());
+                // no future task when a duration has not been specified
+                return null;
             }
-            tasks = pinTaskQueue.get(pin);
-
-            // add the new scheduled task to the tasks collection
-            tasks.add(scheduledFuture);
-
-            // create future task to clean up completed tasks
-            createCleanupTask(duration + 500);
-        }
-
-        // return future task
-        return scheduledFuture;
+        });
     }
 
-    public synchronized static Future<?> blink(GpioPinDigitalOutput pin, long delay, long duration, PinState blinkState) {
-
-        // perform the initial startup and cleanup for this pin
-        init(pin);
-
-        // we only blink for requests with a valid delay in milliseconds
-        if (delay > 0) {
-            // make sure pin starts in active state
-            pin.setState(blinkState);
-
-            // create future job to toggle the pin state
-            ScheduledFuture<?> scheduledFutureBlinkTask = scheduledExecutorService
-                .scheduleAtFixedRate(new GpioBlinkTaskImpl(pin), delay, delay, TimeUnit.MILLISECONDS);
-
-            // get pending tasks for the current pin
-            ArrayList<ScheduledFuture<?>> tasks;
-            if (!pinTaskQueue.containsKey(pin)) {
-                pinTaskQueue.put(pin, new ArrayList<ScheduledFuture<?>>());
-            }
-            tasks = pinTaskQueue.get(pin);
-
-            // add the new scheduled task to the tasks collection
-            tasks.add(scheduledFutureBlinkTask);
-
-            // if a duration was defined, then schedule a future task to kill the blinker task
-            if (duration > 0) {
-                // create future job to stop blinking
-                ScheduledFuture<?> scheduledFutureBlinkStopTask = scheduledExecutorService
-                    .schedule(new GpioBlinkStopTaskImpl(pin,PinState.getInverseState(blinkState), scheduledFutureBlinkTask), duration, TimeUnit.MILLISECONDS);
+    public static Future<?> blink(final GpioPinDigitalOutput pin, final long delay, final long duration, final PinState blinkState) {
+
+        // cancel any pending tasks already scheduled for this pin; the whole sequence runs under
+        // the pin's scheduling lock so that concurrent blinks cannot interleave
+        return scheduler.replace(pin, new Supplier<Future<?>>() {
+            @Override
+            public Future<?> get() {
+                // we only blink for requests with a valid delay in milliseconds
+                if (delay > 0) {
+                    // make sure pin starts in active state
+                    pin.setState(blinkState);
+
+                    // create future job to toggle the pin state
+                    ScheduledFuture<?> scheduledFutureBlinkTask = scheduler
+                        .scheduleAtFixedRate(pin, new GpioBlinkTaskImpl(pin), delay, delay, TimeUnit.MILLISECONDS);
+
+                    // if a duration was defined, then schedule a future task to kill the blinker task
+                    if (duration > 0) {
+                        scheduler.schedule(pin, new GpioBlinkStopTaskImpl(pin, PinState.getInverseState(blinkState), scheduledFutureBlinkTask),
+                                duration, TimeUnit.MILLISECONDS);
+                    }
 
-                // add the new scheduled stop task to the tasks collection
-                tasks.add(scheduledFutureBlinkStopTask);
+                    // return future task
+                    return scheduledFutureBlinkTask;
+                }
 
-                // create future task to clean up completed tasks
-                createCleanupTask(duration + 500);
+                // no future task when a delay time has not been specified
+                return null;
             }
-
-            // return future task
-            return scheduledFutureBlinkTask;
-        }
-
-        // no future task when a delay time has not been specified
-        return null;
+        });
     }
 }
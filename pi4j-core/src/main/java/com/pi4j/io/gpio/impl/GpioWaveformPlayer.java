@@ -0,0 +1,205 @@
+package com.pi4j.io.gpio.impl;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioWaveformPlayer.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.GpioFactory;
+import com.pi4j.io.gpio.GpioPinDigitalOutput;
+import com.pi4j.io.gpio.GpioProvider;
+import com.pi4j.io.gpio.GpioWaveform;
+import com.pi4j.io.gpio.GpioWaveformResult;
+import com.pi4j.io.gpio.Pin;
+import com.pi4j.io.gpio.PinState;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ * Plays {@link GpioWaveform} timelines on a dedicated maximum priority thread, one waveform at a
+ * time. The pin writes of a step are grouped by GPIO provider and issued as a single
+ * {@link GpioProvider#setStates(Map)} batch. Between steps the thread parks until shortly before
+ * the next step is due and then busy-waits on {@link System#nanoTime()}, trading CPU time for
+ * timing accuracy.
+ * </p>
+ *
+ * @see GpioFactory#getWaveformPlayer()
+ * @author Robert Savage (<a
+ *         href="http://www.savagehomeautomation.com">http://www.savagehomeautomation.com</a>)
+ */
+public class GpioWaveformPlayer {
+
+    // remaining time below which the player busy-waits instead of parking
+    private static final long SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    private ExecutorService executor = null;
+
+    /**
+     * Queue a waveform for playback on the player thread.
+     *
+     * @param waveform waveform to play
+     * @return future completed with the achieved timing once the waveform has been played
+     */
+    public Future<GpioWaveformResult> play(GpioWaveform waveform) {
+        final ProviderWrite[][] steps = compile(waveform);
+        final long[] delays = delaysOf(waveform);
+        return getExecutor().submit(new Callable<GpioWaveformResult>() {
+            @Override
+            public GpioWaveformResult call() throws Exception {
+                return run(steps, delays);
+            }
+        });
+    }
+
+    /**
+     * Play a waveform on the calling thread.
+     *
+     * @param waveform waveform to play
+     * @return achieved timing
+     * @throws InterruptedException if the calling thread is interrupted during playback
+     */
+    public GpioWaveformResult playNow(GpioWaveform waveform) throws InterruptedException {
+        return run(compile(waveform), delaysOf(waveform));
+    }
+
+    private synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            final ThreadFactory threadFactory = GpioFactory.getExecutorServiceFactory().getPlatformThreadFactory("pi4j-gpio-waveform-%d");
+            executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = threadFactory.newThread(runnable);
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MAX_PRIORITY);
+                    return thread;
+                }
+            });
+        }
+        return executor;
+    }
+
+    private static GpioWaveformResult run(ProviderWrite[][] steps, long[] delays) throws InterruptedException {
+        long minJitter = Long.MAX_VALUE;
+        long maxJitter = 0;
+        long totalJitter = 0;
+        long start = System.nanoTime();
+        long due = start;
+
+        for (int step = 0; step < steps.length; step++) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException("Waveform playback interrupted.");
+            }
+
+            // wait for the step and record how late it is
+            long jitter = awaitNanos(due) - due;
+            minJitter = Math.min(minJitter, jitter);
+            maxJitter = Math.max(maxJitter, jitter);
+            totalJitter += jitter;
+
+            // issue one batch per provider
+            for (ProviderWrite write : steps[step]) {
+                write.provider.setStates(write.states);
+            }
+            due += delays[step];
+        }
+
+        // honour the delay of the last step
+        long end = awaitNanos(due);
+        return new GpioWaveformResult(steps.length, end - start,
+                (steps.length == 0) ? 0 : minJitter, maxJitter, totalJitter);
+    }
+
+    private static long awaitNanos(long deadline) {
+        long now = System.nanoTime();
+        while (deadline - now > SPIN_NANOS) {
+            LockSupport.parkNanos(deadline - now - SPIN_NANOS);
+            now = System.nanoTime();
+        }
+        while (deadline - now > 0) {
+            now = System.nanoTime();
+        }
+        return now;
+    }
+
+    private static ProviderWrite[][] compile(GpioWaveform waveform) {
+        GpioPinDigitalOutput[] pins = waveform.getPins();
+        ProviderWrite[][] steps = new ProviderWrite[waveform.size()][];
+        for (int step = 0; step < steps.length; step++) {
+            long pinMask = waveform.getPinMask(step);
+            long stateMask = waveform.getStateMask(step);
+
+            // group the pin states changed by this step by GPIO provider
+            Map<GpioProvider, Map<Pin, PinState>> batches = new LinkedHashMap<>();
+            for (int index = 0; index < pins.length; index++) {
+                long bit = 1L << index;
+                if ((pinMask & bit) == 0) {
+                    continue;
+                }
+                Map<Pin, PinState> batch = batches.get(pins[index].getProvider());
+                if (batch == null) {
+                    batch = new LinkedHashMap<>();
+                    batches.put(pins[index].getProvider(), batch);
+                }
+                batch.put(pins[index].getPin(), ((stateMask & bit) != 0) ? PinState.HIGH : PinState.LOW);
+            }
+
+            steps[step] = new ProviderWrite[batches.size()];
+            int index = 0;
+            for (Map.Entry<GpioProvider, Map<Pin, PinState>> batch : batches.entrySet()) {
+                steps[step][index++] = new ProviderWrite(batch.getKey(), batch.getValue());
+            }
+        }
+        return steps;
+    }
+
+    private static long[] delaysOf(GpioWaveform waveform) {
+        long[] delays = new long[waveform.size()];
+        for (int step = 0; step < delays.length; step++) {
+            delays[step] = waveform.getDelayNanos(step);
+        }
+        return delays;
+    }
+
+    private static class ProviderWrite {
+        private final GpioProvider provider;
+        private final Map<Pin, PinState> states;
+
+        ProviderWrite(GpioProvider provider, Map<Pin, PinState> states) {
+            this.provider = provider;
+            this.states = states;
+        }
+    }
+}
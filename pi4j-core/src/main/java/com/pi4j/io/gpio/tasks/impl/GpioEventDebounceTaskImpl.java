@@ -37,14 +37,19 @@ import com.pi4j.io.gpio.event.PinDigitalStateChangeEvent;
 
 import java.util.concurrent.ExecutorService;
 
+/**
+ * @deprecated digital input debouncing is performed by {@link com.pi4j.io.gpio.impl.GpioDebounceEngine},
+ *             which does not schedule a task per bounce or re-read the pin state
+ */
+@Deprecated
 public class GpioEventDebounceTaskImpl implements Runnable {
 
     private final GpioPinDigitalInput pin;
     private final PinState originalPinState;
-    private static ExecutorService executor;
+    private final ExecutorService executor;
 
     public GpioEventDebounceTaskImpl(GpioPinDigitalInput pin, PinState state) {
-        executor = GpioFactory.getExecutorServiceFactory().getGpioEventExecutorService();
+        this.executor = GpioFactory.getExecutorServiceFactory().getGpioEventExecutorService();
         this.originalPinState = state;
         this.pin = pin;
     }
@@ -30,15 +30,18 @@ package com.pi4j.io.gpio.tasks.impl;
  */
 
 
+import com.pi4j.concurrent.StripedRunnable;
+import com.pi4j.io.gpio.GpioFactory;
 import com.pi4j.io.gpio.GpioPinInput;
 import com.pi4j.io.gpio.PinState;
 import com.pi4j.io.gpio.event.*;
+import com.pi4j.io.gpio.impl.GpioPinImpl;
 import com.pi4j.io.gpio.trigger.GpioTrigger;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.List;
 
-public class GpioEventDispatchTaskImpl implements Runnable {
+public class GpioEventDispatchTaskImpl implements StripedRunnable {
 
     private final GpioPinInput pin;
     private final PinEvent event;
@@ -50,48 +53,113 @@ public class GpioEventDispatchTaskImpl implements Runnable {
 
     @Override
     public void run() {
+        dispatch(pin, event);
+    }
+
+    @Override
+    public Object getStripe() {
+        // events of the same pin are delivered in order by striped executors
+        return pin;
+    }
+
+    /**
+     * Deliver a provider pin event to the listeners and triggers registered on the given pin.
+     * For {@link GpioPinImpl} pins the pre-resolved listener and trigger snapshots are used,
+     * so the only allocation per event is the single event instance shared by all listeners.
+     *
+     * @param pin GPIO pin the event is dispatched to
+     * @param event provider pin event
+     */
+    public static void dispatch(GpioPinInput pin, PinEvent event) {
         // only process listeners and triggers if the received interrupt event
         // matches the pin number being tracked my this class instance
-        if (this.pin.getPin().equals(event.getPin())) {
-            if (event.getEventType() == PinEventType.DIGITAL_STATE_CHANGE) {
-                PinState state = ((PinDigitalStateChangeEvent) event).getState();
-
-                // create a copy of the listeners collection
-                Collection<GpioPinListener> listeners  = new ArrayList<GpioPinListener>(pin.getListeners());
-
-                // process event callbacks for digital listeners
-                for (GpioPinListener listener : listeners) {
-                    if(listener != null && listener instanceof GpioPinListenerDigital) {
-                        ((GpioPinListenerDigital) listener)
-                            .handleGpioPinDigitalStateChangeEvent(new GpioPinDigitalStateChangeEvent(
-                                    event.getSource(), pin, state));
-                    }
-                }
+        if (!pin.getPin().equals(event.getPin())) {
+            return;
+        }
+
+        if (event.getEventType() == PinEventType.DIGITAL_STATE_CHANGE) {
+            PinState state = ((PinDigitalStateChangeEvent) event).getState();
+            long timestamp = ((PinDigitalStateChangeEvent) event).getTimestampNanos();
 
-                // create a copy of the triggers collection
-                Collection<GpioTrigger> triggers  = new ArrayList<GpioTrigger>(pin.getTriggers());
+            // record the latency between edge detection and listener dispatch
+            GpioFactory.getEventLatencyHistogram().recordSince(timestamp);
 
-                // process triggers
-                for (GpioTrigger trigger : triggers) {
-                    if (trigger != null && trigger.hasPinState(state)) {
-                        trigger.invoke(pin, state);
-                    }
+            // process event callbacks for digital listeners;
+            // all listeners share a single immutable event instance
+            GpioPinListenerDigital[] listeners = getDigitalListeners(pin);
+            if (listeners.length > 0) {
+                GpioPinDigitalStateChangeEvent pinEvent =
+                        new GpioPinDigitalStateChangeEvent(event.getSource(), pin, state, timestamp);
+                for (int index = 0; index < listeners.length; index++) {
+                    listeners[index].handleGpioPinDigitalStateChangeEvent(pinEvent);
                 }
-            } else if (event.getEventType() == PinEventType.ANALOG_VALUE_CHANGE) {
-                double value = ((PinAnalogValueChangeEvent) event).getValue();
-
-                // create a copy of the listeners collection
-                Collection<GpioPinListener> listeners  = new ArrayList<GpioPinListener>(pin.getListeners());
-
-                // process event callbacks for analog listeners
-                for (GpioPinListener listener : listeners) {
-                    if (listener != null && listener instanceof GpioPinListenerAnalog) {
-                        ((GpioPinListenerAnalog) listener)
-                            .handleGpioPinAnalogValueChangeEvent(new GpioPinAnalogValueChangeEvent(
-                                    event.getSource(), pin, value));
-                    }
+            }
+
+            // process triggers
+            GpioTrigger[] triggers = getTriggers(pin);
+            for (int index = 0; index < triggers.length; index++) {
+                if (triggers[index].hasPinState(state)) {
+                    triggers[index].invoke(pin, state);
+                }
+            }
+        } else if (event.getEventType() == PinEventType.ANALOG_VALUE_CHANGE) {
+            double value = ((PinAnalogValueChangeEvent) event).getValue();
+
+            // process event callbacks for analog listeners;
+            // all listeners share a single immutable event instance
+            GpioPinListenerAnalog[] listeners = getAnalogListeners(pin);
+            if (listeners.length > 0) {
+                GpioPinAnalogValueChangeEvent pinEvent =
+                        new GpioPinAnalogValueChangeEvent(event.getSource(), pin, value);
+                for (int index = 0; index < listeners.length; index++) {
+                    listeners[index].handleGpioPinAnalogValueChangeEvent(pinEvent);
                 }
             }
         }
     }
+
+    private static GpioPinListenerDigital[] getDigitalListeners(GpioPinInput pin) {
+        if (pin instanceof GpioPinImpl) {
+            return ((GpioPinImpl) pin).getDigitalListeners();
+        }
+
+        // other pin implementations; resolve the listeners from a copy of the collection
+        List<GpioPinListenerDigital> listeners = new ArrayList<>();
+        for (GpioPinListener listener : new ArrayList<>(pin.getListeners())) {
+            if (listener instanceof GpioPinListenerDigital) {
+                listeners.add((GpioPinListenerDigital) listener);
+            }
+        }
+        return listeners.toArray(new GpioPinListenerDigital[listeners.size()]);
+    }
+
+    private static GpioPinListenerAnalog[] getAnalogListeners(GpioPinInput pin) {
+        if (pin instanceof GpioPinImpl) {
+            return ((GpioPinImpl) pin).getAnalogListeners();
+        }
+
+        // other pin implementations; resolve the listeners from a copy of the collection
+        List<GpioPinListenerAnalog> listeners = new ArrayList<>();
+        for (GpioPinListener listener : new ArrayList<>(pin.getListeners())) {
+            if (listener instanceof GpioPinListenerAnalog) {
+                listeners.add((GpioPinListenerAnalog) listener);
+            }
+        }
+        return listeners.toArray(new GpioPinListenerAnalog[listeners.size()]);
+    }
+
+    private static GpioTrigger[] getTriggers(GpioPinInput pin) {
+        if (pin instanceof GpioPinImpl) {
+            return ((GpioPinImpl) pin).getTriggerSnapshot();
+        }
+
+        // other pin implementations; resolve the triggers from a copy of the collection
+        List<GpioTrigger> triggers = new ArrayList<>();
+        for (GpioTrigger trigger : new ArrayList<>(pin.getTriggers())) {
+            if (trigger != null) {
+                triggers.add(trigger);
+            }
+        }
+        return triggers.toArray(new GpioTrigger[triggers.size()]);
+    }
 }
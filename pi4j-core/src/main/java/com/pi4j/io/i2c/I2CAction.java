@@ -0,0 +1,56 @@
+package com.pi4j.io.i2c;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  I2CAction.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import java.io.IOException;
+
+/**
+ * <p>
+ * An operation submitted to the bus worker of an i2c device. The action runs on the bus worker
+ * thread with exclusive access to the bus and may use the synchronous methods of the given device
+ * (or any other device on the same bus) to perform a sequence of reads and writes.
+ * </p>
+ *
+ * @param <T> result type of the action
+ * @see I2CDevice#submit(I2CAction)
+ * @author Robert Savage (<a
+ *         href="http://www.savagehomeautomation.com">http://www.savagehomeautomation.com</a>)
+ */
+public interface I2CAction<T> {
+
+    /**
+     * Performs the operation.
+     *
+     * @param device the device the action was submitted to
+     * @return result of the action
+     * @throws IOException thrown in case the i2c communication fails
+     */
+    T execute(I2CDevice device) throws IOException;
+}
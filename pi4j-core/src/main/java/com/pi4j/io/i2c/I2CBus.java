@@ -30,6 +30,8 @@ package com.pi4j.io.i2c;
  */
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * This is abstraction of i2c bus. This interface allows the bus to return i2c device.
@@ -52,6 +54,12 @@ public interface I2CBus {
     int BUS_16 = 16;
     int BUS_17 = 17;
 
+    /** First address probed by a scan; lower addresses are reserved (general call, CBUS, 10 bit etc.) */
+    int FIRST_SCAN_ADDRESS = 0x08;
+
+    /** Last address probed by a scan; higher addresses are reserved for 10 bit addressing */
+    int LAST_SCAN_ADDRESS = 0x77;
+
     /**
      * Returns i2c device.
      * @param address i2c device's address
@@ -66,6 +74,93 @@ public interface I2CBus {
      */
     int getBusNumber();
 
+    /**
+     * Executes all segments of the given transaction as one combined i2c transaction
+     * (repeated starts between segments, a single STOP at the end). Every segment
+     * must carry an explicit device address. The default implementation cannot combine segments:
+     * it executes them one after another on the devices returned by {@link #getDevice(int)}, each
+     * ended by a STOP.
+     *
+     * @param transaction segments to be executed
+     * @return number of segments executed
+     *
+     * @throws IOException thrown in case the transaction cannot be executed on this i2c bus
+     */
+    default int transfer(I2CTransaction transaction) throws IOException {
+        final int count = transaction.size();
+        for (int index = 0; index < count; index++) {
+            if (transaction.getAddress(index) == I2CTransaction.DEVICE_ADDRESS) {
+                throw new IllegalArgumentException("Segment " + index + " of the transaction has no device address!");
+            }
+        }
+        for (int index = 0; index < count; index++) {
+            I2CDevice device = getDevice(transaction.getAddress(index));
+            if (transaction.isRead(index)) {
+                device.read(transaction.getBuffer(index), transaction.getOffset(index), transaction.getLength(index));
+            } else {
+                device.write(transaction.getBuffer(index), transaction.getOffset(index), transaction.getLength(index));
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Probes whether a device answers at the given address and records the result in the bus' presence cache.
+     * Addresses 0x30-0x37 and 0x50-0x5F are probed with a read byte, all other addresses with a quick write.
+     * An address claimed by a kernel driver counts as present. The default implementation has no presence
+     * cache and reads one byte using {@link I2CDevice#read()}; a failing read counts as absent.
+     *
+     * @param address i2c device's address within {@link #FIRST_SCAN_ADDRESS} and {@link #LAST_SCAN_ADDRESS}
+     * @return true if a device answered
+     *
+     * @throws IOException thrown in case the probe cannot be executed on this i2c bus
+     */
+    default boolean probe(int address) throws IOException {
+        if (address < FIRST_SCAN_ADDRESS || address > LAST_SCAN_ADDRESS) {
+            throw new IllegalArgumentException("Address 0x" + Integer.toHexString(address) + " is outside the scan range!");
+        }
+        I2CDevice device = getDevice(address);
+        try {
+            return device.read() >= 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns whether a device answers at the given address. A result recorded within the presence TTL
+     * (see {@link I2CFactory#setPresenceTtl(long, java.util.concurrent.TimeUnit)}) is returned without
+     * accessing the bus, so drivers may call this on construction instead of probing themselves.
+     * The default implementation probes the address on every call.
+     *
+     * @param address i2c device's address within {@link #FIRST_SCAN_ADDRESS} and {@link #LAST_SCAN_ADDRESS}
+     * @return true if a device answered
+     *
+     * @throws IOException thrown in case the probe cannot be executed on this i2c bus
+     */
+    default boolean isPresent(int address) throws IOException {
+        return probe(address);
+    }
+
+    /**
+     * Probes all addresses from {@link #FIRST_SCAN_ADDRESS} to {@link #LAST_SCAN_ADDRESS}; the reserved
+     * addresses outside that range are not touched. The bus is locked for each probe only, so other
+     * devices may be accessed while the scan is running.
+     *
+     * @return addresses of the devices found in ascending order
+     *
+     * @throws IOException thrown in case the scan cannot be executed on this i2c bus
+     */
+    default List<Integer> scan() throws IOException {
+        List<Integer> found = new ArrayList<>();
+        for (int address = FIRST_SCAN_ADDRESS; address <= LAST_SCAN_ADDRESS; address++) {
+            if (probe(address)) {
+                found.add(address);
+            }
+        }
+        return found;
+    }
+
     /**
      * Closes this bus. This usually means closing underlying file.
      *
@@ -30,6 +30,9 @@ package com.pi4j.io.i2c;
  */
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This is abstraction of an i2c device. It allows data to be read or written to the device.
@@ -154,7 +157,8 @@ public interface I2CDevice {
     int read(int address, byte[] buffer, int offset, int size) throws IOException;
 
     /**
-     * This method writes and reads bytes to/from the i2c device in a single method call
+     * This method writes and reads bytes to/from the i2c device in a single combined transaction
+     * (the read follows the write after a repeated start)
      *
      * @param writeBuffer buffer of data to be written to the i2c device in one go
      * @param writeOffset offset in write buffer
@@ -169,4 +173,313 @@ public interface I2CDevice {
      */
     int read(byte[] writeBuffer, int writeOffset, int writeSize, byte[] readBuffer, int readOffset, int readSize) throws IOException;
 
+    /**
+     * This method writes the remaining bytes of the given buffer directly to the i2c device in one go
+     * (at most 8192 bytes). Direct buffers are passed to the driver without being copied.
+     * The default implementation copies the bytes and writes them using {@link #write(byte[], int, int)}.
+     *
+     * @param buffer buffer of data to be written; its position is advanced to its limit
+     *
+     * @throws IOException thrown in case byte cannot be written to the i2c device or i2c bus
+     */
+    default void write(ByteBuffer buffer) throws IOException {
+        byte[] data = new byte[buffer.remaining()];
+        buffer.get(data);
+        write(data, 0, data.length);
+    }
+
+    /**
+     * This method writes the remaining bytes of the given buffer to the register address on the i2c device in one go
+     * (at most 8192 bytes). The default implementation copies the bytes and writes them using
+     * {@link #write(int, byte[], int, int)}.
+     *
+     * @param address local address in the i2c device
+     * @param buffer buffer of data to be written; its position is advanced to its limit
+     *
+     * @throws IOException thrown in case byte cannot be written to the i2c device or i2c bus
+     */
+    default void write(int address, ByteBuffer buffer) throws IOException {
+        byte[] data = new byte[buffer.remaining()];
+        buffer.get(data);
+        write(address, data, 0, data.length);
+    }
+
+    /**
+     * This method reads as many bytes as the given buffer has remaining directly from the i2c device
+     * (at most 8192 bytes). Direct buffers are filled by the driver without an intermediate copy.
+     * The default implementation reads using {@link #read(byte[], int, int)} and copies the bytes into the buffer.
+     *
+     * @param buffer buffer for the data read; its position is advanced by the number of bytes read
+     *
+     * @return number of bytes read
+     *
+     * @throws IOException thrown in case byte cannot be read from the i2c device or i2c bus
+     */
+    default int read(ByteBuffer buffer) throws IOException {
+        byte[] data = new byte[buffer.remaining()];
+        int count = read(data, 0, data.length);
+        if (count > 0) {
+            buffer.put(data, 0, count);
+        }
+        return count;
+    }
+
+    /**
+     * This method reads as many bytes as the given buffer has remaining from the register address on the i2c device
+     * (at most 8192 bytes). The default implementation reads using {@link #read(int, byte[], int, int)}
+     * and copies the bytes into the buffer.
+     *
+     * @param address local address in the i2c device
+     * @param buffer buffer for the data read; its position is advanced by the number of bytes read
+     *
+     * @return number of bytes read
+     *
+     * @throws IOException thrown in case byte cannot be read from the i2c device or i2c bus
+     */
+    default int read(int address, ByteBuffer buffer) throws IOException {
+        byte[] data = new byte[buffer.remaining()];
+        int count = read(address, data, 0, data.length);
+        if (count > 0) {
+            buffer.put(data, 0, count);
+        }
+        return count;
+    }
+
+    /**
+     * This method reads one byte from a register of the i2c device using a single SMBus "read byte data" transfer.
+     * The default implementation uses {@link #read(int)}.
+     *
+     * @param register register (SMBus command code) in the i2c device
+     * @return byte value read: positive number (or zero) to 255
+     *
+     * @throws IOException thrown in case byte cannot be read from the i2c device or i2c bus
+     */
+    default int readByteData(int register) throws IOException {
+        return read(register);
+    }
+
+    /**
+     * This method writes one byte to a register of the i2c device using a single SMBus "write byte data" transfer.
+     * The default implementation uses {@link #write(int, byte)}.
+     *
+     * @param register register (SMBus command code) in the i2c device
+     * @param b byte to be written
+     *
+     * @throws IOException thrown in case byte cannot be written to the i2c device or i2c bus
+     */
+    default void writeByteData(int register, byte b) throws IOException {
+        write(register, b);
+    }
+
+    /**
+     * This method reads a 16 bit word from a register of the i2c device using a single SMBus "read word data" transfer.
+     * Note that SMBus transfers the low byte first; devices sending the high byte first need the result byte-swapped.
+     * The default implementation reads two bytes using {@link #read(int, byte[], int, int)}.
+     *
+     * @param register register (SMBus command code) in the i2c device
+     * @return word value read: positive number (or zero) to 65535
+     *
+     * @throws IOException thrown in case the word cannot be read from the i2c device or i2c bus
+     */
+    default int readWordData(int register) throws IOException {
+        byte[] data = new byte[2];
+        if (read(register, data, 0, 2) != 2) {
+            throw new IOException("Could not read word from register " + register + " of i2c device " + getAddress() + ".");
+        }
+        return (data[0] & 0xFF) | ((data[1] & 0xFF) << 8);
+    }
+
+    /**
+     * This method writes a 16 bit word to a register of the i2c device using a single SMBus "write word data" transfer.
+     * Note that SMBus transfers the low byte first; devices expecting the high byte first need the value byte-swapped.
+     * The default implementation writes two bytes using {@link #write(int, byte[], int, int)}.
+     *
+     * @param register register (SMBus command code) in the i2c device
+     * @param word word to be written (lower 16 bits)
+     *
+     * @throws IOException thrown in case the word cannot be written to the i2c device or i2c bus
+     */
+    default void writeWordData(int register, int word) throws IOException {
+        write(register, new byte[] { (byte) word, (byte) (word >> 8) }, 0, 2);
+    }
+
+    /**
+     * This method reads an SMBus block (length sent by the device, at most 32 bytes) from a register of the i2c device.
+     * The default implementation reads the length byte and up to size data bytes using
+     * {@link #read(int, byte[], int, int)}.
+     *
+     * @param register register (SMBus command code) in the i2c device
+     * @param buffer buffer of data to be read from the i2c device
+     * @param offset offset in buffer
+     * @param size maximum number of bytes to be stored in buffer
+     *
+     * @return length of the block sent by the device
+     *
+     * @throws IOException thrown in case the block cannot be read from the i2c device or i2c bus
+     */
+    default int readBlockData(int register, byte[] buffer, int offset, int size) throws IOException {
+        byte[] data = new byte[1 + Math.min(size, 32)];
+        int count = read(register, data, 0, data.length);
+        if (count < 1) {
+            throw new IOException("Could not read block from register " + register + " of i2c device " + getAddress() + ".");
+        }
+        int length = data[0] & 0xFF;
+        System.arraycopy(data, 1, buffer, offset, Math.min(length, count - 1));
+        return length;
+    }
+
+    /**
+     * This method writes an SMBus block (length prefixed, at most 32 bytes) to a register of the i2c device.
+     * The default implementation writes the length byte and the data using {@link #write(int, byte[], int, int)}.
+     *
+     * @param register register (SMBus command code) in the i2c device
+     * @param buffer buffer of data to be written to the i2c device
+     * @param offset offset in buffer
+     * @param size number of bytes to be written
+     *
+     * @throws IOException thrown in case the block cannot be written to the i2c device or i2c bus
+     */
+    default void writeBlockData(int register, byte[] buffer, int offset, int size) throws IOException {
+        byte[] data = new byte[1 + size];
+        data[0] = (byte) size;
+        System.arraycopy(buffer, offset, data, 1, size);
+        write(register, data, 0, data.length);
+    }
+
+    /**
+     * This method reads size bytes (at most 32) starting at a register of the i2c device using a single SMBus
+     * "i2c block" transfer. The default implementation uses {@link #read(int, byte[], int, int)}.
+     *
+     * @param register register (SMBus command code) in the i2c device
+     * @param buffer buffer of data to be read from the i2c device
+     * @param offset offset in buffer
+     * @param size number of bytes to be read
+     *
+     * @return number of bytes read
+     *
+     * @throws IOException thrown in case bytes cannot be read from the i2c device or i2c bus
+     */
+    default int readI2CBlockData(int register, byte[] buffer, int offset, int size) throws IOException {
+        return read(register, buffer, offset, size);
+    }
+
+    /**
+     * This method writes size bytes (at most 32) starting at a register of the i2c device using a single SMBus
+     * "i2c block" transfer. The default implementation uses {@link #write(int, byte[], int, int)}.
+     *
+     * @param register register (SMBus command code) in the i2c device
+     * @param buffer buffer of data to be written to the i2c device
+     * @param offset offset in buffer
+     * @param size number of bytes to be written
+     *
+     * @throws IOException thrown in case bytes cannot be written to the i2c device or i2c bus
+     */
+    default void writeI2CBlockData(int register, byte[] buffer, int offset, int size) throws IOException {
+        write(register, buffer, offset, size);
+    }
+
+    /**
+     * Enables or disables SMBus packet error checking (PEC) for the SMBus transfers of this device.
+     * The default implementation does not support packet error checking.
+     *
+     * @param enabled true to append and verify a PEC byte on SMBus transfers
+     *
+     * @throws UnsupportedOperationException thrown in case PEC is enabled on a device not supporting it
+     */
+    default void setPecEnabled(boolean enabled) {
+        if (enabled) {
+            throw new UnsupportedOperationException("Packet error checking is not supported by " + getClass().getName() + ".");
+        }
+    }
+
+    /**
+     * @return true if SMBus transfers of this device use packet error checking (PEC)
+     */
+    default boolean isPecEnabled() {
+        return false;
+    }
+
+    /**
+     * Sets the priority used for operations of this device on the bus worker: for actions submitted
+     * without an explicit priority and, if the bus runs in asynchronous mode, for the synchronous methods.
+     * The default implementation has no bus worker and ignores the priority.
+     *
+     * @param priority priority of this device's operations
+     */
+    default void setPriority(I2CPriority priority) {
+    }
+
+    /**
+     * @return priority of this device's operations on the bus worker
+     */
+    default I2CPriority getPriority() {
+        return I2CPriority.NORMAL;
+    }
+
+    /**
+     * This method queues the given action on the bus worker using this device's priority.
+     *
+     * @param action the action to be executed with exclusive access to the bus
+     * @param <T> result type of the action
+     *
+     * @return future completed with the action's result or failure
+     */
+    default <T> CompletableFuture<T> submit(I2CAction<T> action) {
+        return submit(action, getPriority(), 0, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * This method queues the given action on the bus worker. An action not started before its
+     * deadline is dropped and its future completes with a {@link java.util.concurrent.TimeoutException}.
+     * The default implementation has no bus worker and executes the action in the calling thread.
+     *
+     * @param action the action to be executed with exclusive access to the bus
+     * @param priority queue priority of the action
+     * @param deadline time from now by which the action must be started; zero or less for no deadline
+     * @param unit time unit of the deadline
+     * @param <T> result type of the action
+     *
+     * @return future completed with the action's result or failure
+     */
+    default <T> CompletableFuture<T> submit(I2CAction<T> action, I2CPriority priority, long deadline, TimeUnit unit) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            future.complete(action.execute(this));
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * This method executes all segments of the given transaction as one combined i2c transaction.
+     * Segments without an explicit address are sent to this device.
+     * The default implementation cannot combine segments: it executes them one after another using
+     * {@link #read(byte[], int, int)} and {@link #write(byte[], int, int)}, each ended by a STOP, and
+     * rejects segments addressed to other devices.
+     *
+     * @param transaction segments to be executed
+     *
+     * @return number of segments executed
+     *
+     * @throws IOException thrown in case the transaction cannot be executed on the i2c device or i2c bus
+     */
+    default int transfer(I2CTransaction transaction) throws IOException {
+        final int count = transaction.size();
+        for (int index = 0; index < count; index++) {
+            int address = transaction.getAddress(index);
+            if (address != I2CTransaction.DEVICE_ADDRESS && address != getAddress()) {
+                throw new UnsupportedOperationException("Segment " + index + " of the transaction addresses another device!");
+            }
+        }
+        for (int index = 0; index < count; index++) {
+            if (transaction.isRead(index)) {
+                read(transaction.getBuffer(index), transaction.getOffset(index), transaction.getLength(index));
+            } else {
+                write(transaction.getBuffer(index), transaction.getOffset(index), transaction.getLength(index));
+            }
+        }
+        return count;
+    }
+
 }
@@ -30,8 +30,19 @@ package com.pi4j.io.i2c;
  */
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
+import com.pi4j.concurrent.DefaultExecutorServiceFactory;
+import com.pi4j.concurrent.ExecutorServiceFactory;
+import com.pi4j.concurrent.VirtualThreadExecutorServiceFactory;
 import com.pi4j.io.i2c.impl.I2CFactoryProviderRaspberryPi;
 
 /**
@@ -45,6 +56,13 @@ public class I2CFactory {
 
     public static final TimeUnit DEFAULT_LOCKAQUIRE_TIMEOUT_UNITS = TimeUnit.MILLISECONDS;
 
+    /** System property defining how long probe results are cached, in milliseconds */
+    public static final String PRESENCE_TTL_PROPERTY = "pi4j.i2c.presence.ttl";
+
+    public static final long DEFAULT_PRESENCE_TTL = 60000;
+
+    public static final TimeUnit DEFAULT_PRESENCE_TTL_UNITS = TimeUnit.MILLISECONDS;
+
     public static class UnsupportedBusNumberException extends Exception {
         private static final long serialVersionUID = 1L;
 
@@ -55,11 +73,45 @@ public class I2CFactory {
 
     volatile static I2CFactoryProvider provider = new I2CFactoryProviderRaspberryPi();
 
+    // we only allow a single default executor service factory to exists
+    private static ExecutorServiceFactory executorServiceFactory = null;
+
+    private volatile static long presenceTtlNanos = DEFAULT_PRESENCE_TTL_UNITS.toNanos(Long.getLong(PRESENCE_TTL_PROPERTY, DEFAULT_PRESENCE_TTL));
+
     // private constructor
     private I2CFactory() {
         // forbid object construction
     }
 
+    /**
+     * <p>Return instance of {@link ExecutorServiceFactory}; the bus workers and scan threads are created by it.</p>
+     *
+     * @return the executor service factory of the i2c buses
+     */
+    public static ExecutorServiceFactory getExecutorServiceFactory() {
+        // if an executor service provider factory has not been created, then create a new default instance
+        if (executorServiceFactory == null) {
+            // virtual threads may be selected with a system property
+            if (VirtualThreadExecutorServiceFactory.isSelected()) {
+                executorServiceFactory = new VirtualThreadExecutorServiceFactory();
+            } else {
+                executorServiceFactory = new DefaultExecutorServiceFactory();
+            }
+        }
+        // return the provider instance
+        return executorServiceFactory;
+    }
+
+    /**
+     * Sets default {@link ExecutorServiceFactory}.
+     *
+     * @param executorServiceFactory service factory instance
+     */
+    public static void setExecutorServiceFactory(ExecutorServiceFactory executorServiceFactory) {
+        // set the default factory instance
+        I2CFactory.executorServiceFactory = executorServiceFactory;
+    }
+
     /**
      * Create new I2CBus instance.
      * <p>
@@ -90,6 +142,96 @@ public class I2CFactory {
         return provider.getBus(busNumber, lockAquireTimeout, lockAquireTimeoutUnit);
     }
 
+    /**
+     * Returns the numbers of the i2c buses present on this system.
+     *
+     * @return bus numbers in ascending order
+     * @throws IOException If the buses cannot be listed
+     */
+    public static int[] getBusNumbers() throws IOException {
+        return provider.getBusNumbers();
+    }
+
+    /**
+     * Scans all i2c buses present on this system in parallel.
+     *
+     * @return addresses found per bus number
+     * @throws IOException If a bus cannot be scanned
+     * @see #scanBuses(int...)
+     */
+    public static Map<Integer, List<Integer>> scanBuses() throws IOException {
+        return scanBuses(getBusNumbers());
+    }
+
+    /**
+     * Scans the given i2c buses in parallel, one thread per bus (see {@link I2CBus#scan()}). The results
+     * are recorded in the presence cache of each bus. Bus numbers not supported by the provider are skipped.
+     *
+     * @param busNumbers The bus numbers
+     * @return addresses found per bus number
+     * @throws IOException If a bus cannot be scanned
+     */
+    public static Map<Integer, List<Integer>> scanBuses(int... busNumbers) throws IOException {
+        final Map<Integer, List<Integer>> result = new TreeMap<>();
+        if (busNumbers.length == 0) {
+            return result;
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(busNumbers.length,
+                getExecutorServiceFactory().getThreadFactory("pi4j-i2c-scan-%d"));
+        try {
+            final Map<Integer, Future<List<Integer>>> scans = new TreeMap<>();
+            for (final int busNumber : busNumbers) {
+                scans.put(busNumber, executor.submit(new Callable<List<Integer>>() {
+                    @Override
+                    public List<Integer> call() throws Exception {
+                        return getInstance(busNumber).scan();
+                    }
+                }));
+            }
+
+            for (Map.Entry<Integer, Future<List<Integer>>> scan : scans.entrySet()) {
+                try {
+                    result.put(scan.getKey(), scan.getValue().get());
+                } catch (ExecutionException e) {
+                    // the provider wraps exceptions of the bus creation
+                    Throwable cause = e.getCause();
+                    while ((cause != null) && !(cause instanceof UnsupportedBusNumberException)) {
+                        cause = cause.getCause();
+                    }
+                    if (cause == null) {
+                        throw new IOException("Cannot scan I2C bus " + scan.getKey(), e.getCause());
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while scanning I2C buses", e);
+        } finally {
+            executor.shutdownNow();
+        }
+        return result;
+    }
+
+    /**
+     * Sets how long the result of probing an address is used by {@link I2CBus#isPresent(int)}.
+     * The default may be set by the system property 'pi4j.i2c.presence.ttl' in milliseconds.
+     *
+     * @param ttl The time to live of probe results; zero to always probe
+     * @param unit The units of ttl
+     */
+    public static void setPresenceTtl(long ttl, TimeUnit unit) {
+        presenceTtlNanos = unit.toNanos(ttl);
+    }
+
+    /**
+     * @param unit The units of the returned value
+     * @return how long the result of probing an address is used by {@link I2CBus#isPresent(int)}
+     */
+    public static long getPresenceTtl(TimeUnit unit) {
+        return unit.convert(presenceTtlNanos, TimeUnit.NANOSECONDS);
+    }
+
     /**
      * allow changing the provider for the factory
      *
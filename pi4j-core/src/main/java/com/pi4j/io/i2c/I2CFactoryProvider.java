@@ -29,7 +29,10 @@ package com.pi4j.io.i2c;
  * #L%
  */
 
+import java.io.File;
+import java.io.FilenameFilter;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
 
 import com.pi4j.io.i2c.I2CFactory.UnsupportedBusNumberException;
@@ -38,4 +41,30 @@ public interface I2CFactoryProvider {
 
     I2CBus getBus(int busNumber, long lockAquireTimeout, TimeUnit lockAquireTimeoutUnit)
             throws UnsupportedBusNumberException, IOException;
+
+    /**
+     * Returns the numbers of the i2c buses present on this system. The default implementation
+     * lists the /dev/i2c-N device files.
+     *
+     * @return bus numbers in ascending order
+     * @throws IOException If the buses cannot be listed
+     */
+    default int[] getBusNumbers() throws IOException {
+        final String[] names = new File("/dev").list(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.matches("i2c-\\d+");
+            }
+        });
+        if (names == null) {
+            throw new IOException("Cannot list the i2c buses in /dev");
+        }
+
+        final int[] busNumbers = new int[names.length];
+        for (int index = 0; index < names.length; index++) {
+            busNumbers[index] = Integer.parseInt(names[index].substring(4));
+        }
+        Arrays.sort(busNumbers);
+        return busNumbers;
+    }
 }
@@ -0,0 +1,53 @@
+package com.pi4j.io.i2c;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  I2CPriority.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+/**
+ * <p>
+ * Priority of i2c operations queued on a bus. Queued operations of a higher priority are always
+ * executed before those of a lower priority; within a priority operations with a deadline run
+ * earliest deadline first, followed by the others in submission order.
+ * </p>
+ *
+ * @see I2CDevice#submit(I2CAction, I2CPriority, long, java.util.concurrent.TimeUnit)
+ * @author Robert Savage (<a
+ *         href="http://www.savagehomeautomation.com">http://www.savagehomeautomation.com</a>)
+ */
+public enum I2CPriority {
+
+    /** time critical operations, e.g. output updates */
+    HIGH,
+
+    /** default priority */
+    NORMAL,
+
+    /** background operations, e.g. slow conversion polling */
+    LOW
+}
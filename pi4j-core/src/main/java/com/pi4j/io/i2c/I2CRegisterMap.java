@@ -0,0 +1,278 @@
+package com.pi4j.io.i2c;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  I2CRegisterMap.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.util.BitSet;
+
+/**
+ * <p>
+ * Shadows the registers of an i2c device so that drivers can modify single bits of a register with one
+ * bus write instead of reading the register first.
+ * </p>
+ *
+ * <p>
+ * Every register has a {@link Policy}. Registers are {@link Policy#CACHEABLE} by default: the value
+ * read from or written to the device is remembered and later reads as well as read-modify-write updates
+ * are served from it. Registers the device changes on its own (input ports, interrupt flags, status bits)
+ * have to be declared {@link Policy#VOLATILE}; they are read from the device every time. If a cacheable
+ * register is changed behind the map's back (device reset, commands with side effects) the driver has to
+ * {@link #invalidate(int)} it.
+ * </p>
+ *
+ * <p>
+ * By default registers are accessed as SMBus "byte data" ({@link I2CDevice#readByteData(int)},
+ * {@link I2CDevice#writeByteData(int, byte)}); devices with another register protocol supply their own
+ * {@link RegisterAccess}. All methods are synchronized, so an {@link #update(int, int, int)} is atomic
+ * with respect to other users of the same map.
+ * </p>
+ *
+ * @author Robert Savage (<a
+ *         href="http://www.savagehomeautomation.com">http://www.savagehomeautomation.com</a>)
+ */
+public class I2CRegisterMap {
+
+    /** Number of registers a map can hold (register addresses 0 to 255) */
+    public static final int MAX_REGISTERS = 256;
+
+    /**
+     * Caching policy of a register.
+     */
+    public enum Policy {
+        /** The register only changes when written through the map; its value is shadowed. */
+        CACHEABLE,
+        /** The register may change on the device; every read accesses the device. */
+        VOLATILE
+    }
+
+    /**
+     * Reads and writes a single register of the device.
+     */
+    public interface RegisterAccess {
+
+        /**
+         * @param register register address
+         * @return value of the register
+         * @throws IOException thrown in case the register cannot be read
+         */
+        int read(int register) throws IOException;
+
+        /**
+         * @param register register address
+         * @param value value to be written
+         * @throws IOException thrown in case the register cannot be written
+         */
+        void write(int register, int value) throws IOException;
+    }
+
+    private final RegisterAccess access;
+    private final int[] shadow = new int[MAX_REGISTERS];
+    private final BitSet cached = new BitSet(MAX_REGISTERS);
+    private final BitSet volatileRegisters = new BitSet(MAX_REGISTERS);
+
+    /**
+     * Creates a map accessing the registers of the given device as SMBus "byte data".
+     *
+     * @param device i2c device whose registers are shadowed
+     */
+    public I2CRegisterMap(final I2CDevice device) {
+        this(new RegisterAccess() {
+            @Override
+            public int read(int register) throws IOException {
+                return device.readByteData(register);
+            }
+
+            @Override
+            public void write(int register, int value) throws IOException {
+                device.writeByteData(register, (byte) value);
+            }
+        });
+    }
+
+    /**
+     * Creates a map accessing the registers through the given access.
+     *
+     * @param access register protocol of the device
+     */
+    public I2CRegisterMap(final RegisterAccess access) {
+        if (access == null) {
+            throw new IllegalArgumentException("Parameter 'access' must not be null!");
+        }
+        this.access = access;
+    }
+
+    /**
+     * Sets the policy of a register. Making a register volatile drops its shadowed value.
+     *
+     * @param register register address
+     * @param policy caching policy
+     * @return this map
+     */
+    public synchronized I2CRegisterMap setPolicy(final int register, final Policy policy) {
+        checkRegister(register);
+        if (policy == Policy.VOLATILE) {
+            volatileRegisters.set(register);
+            cached.clear(register);
+        } else {
+            volatileRegisters.clear(register);
+        }
+        return this;
+    }
+
+    /**
+     * @param register register address
+     * @return caching policy of the register
+     */
+    public synchronized Policy getPolicy(final int register) {
+        checkRegister(register);
+        return volatileRegisters.get(register) ? Policy.VOLATILE : Policy.CACHEABLE;
+    }
+
+    /**
+     * Returns the value of a register, from the shadow if it holds the register's value.
+     *
+     * @param register register address
+     * @return value of the register
+     * @throws IOException thrown in case the register cannot be read
+     */
+    public synchronized int read(final int register) throws IOException {
+        checkRegister(register);
+        if (cached.get(register)) {
+            return shadow[register];
+        }
+        int value = access.read(register);
+        remember(register, value);
+        return value;
+    }
+
+    /**
+     * Writes a register to the device, even if the shadow already holds the value.
+     *
+     * @param register register address
+     * @param value value to be written
+     * @throws IOException thrown in case the register cannot be written
+     */
+    public synchronized void write(final int register, final int value) throws IOException {
+        checkRegister(register);
+        try {
+            access.write(register, value);
+        } catch (IOException e) {
+            // the register's content on the device is unknown now
+            cached.clear(register);
+            throw e;
+        }
+        remember(register, value);
+    }
+
+    /**
+     * Replaces the bits selected by mask with the corresponding bits of value. For a shadowed register this
+     * is a single write; nothing is written if the bits already have the requested value.
+     *
+     * @param register register address
+     * @param mask bits to be modified
+     * @param bits new values of the bits to be modified
+     * @return true if the register was written
+     * @throws IOException thrown in case the register cannot be read or written
+     */
+    public synchronized boolean update(final int register, final int mask, final int bits) throws IOException {
+        int current = read(register);
+        int value = (current & ~mask) | (bits & mask);
+        if (value == current) {
+            return false;
+        }
+        write(register, value);
+        return true;
+    }
+
+    /**
+     * Sets or clears the bits selected by mask.
+     *
+     * @param register register address
+     * @param mask bits to be modified
+     * @param set whether to set (true) or clear (false) the bits
+     * @return true if the register was written
+     * @throws IOException thrown in case the register cannot be read or written
+     * @see #update(int, int, int)
+     */
+    public synchronized boolean setBits(final int register, final int mask, final boolean set) throws IOException {
+        return update(register, mask, set ? mask : 0);
+    }
+
+    /**
+     * Stores a value in the shadow without accessing the device, e.g. a documented power-on value or the
+     * value a self-clearing bit leaves behind. Ignored for volatile registers.
+     *
+     * @param register register address
+     * @param value value the register holds on the device
+     */
+    public synchronized void setCachedValue(final int register, final int value) {
+        checkRegister(register);
+        remember(register, value);
+    }
+
+    /**
+     * @param register register address
+     * @return true if the shadow holds the register's value
+     */
+    public synchronized boolean isCached(final int register) {
+        checkRegister(register);
+        return cached.get(register);
+    }
+
+    /**
+     * Drops the shadowed value of a register; the next read accesses the device.
+     *
+     * @param register register address
+     */
+    public synchronized void invalidate(final int register) {
+        checkRegister(register);
+        cached.clear(register);
+    }
+
+    /**
+     * Drops all shadowed values, e.g. after the device has been reset.
+     */
+    public synchronized void invalidateAll() {
+        cached.clear();
+    }
+
+    private void remember(final int register, final int value) {
+        if (!volatileRegisters.get(register)) {
+            shadow[register] = value;
+            cached.set(register);
+        }
+    }
+
+    private static void checkRegister(final int register) {
+        if (register < 0 || register >= MAX_REGISTERS) {
+            throw new IllegalArgumentException("Register [" + register + "] must be between 0 and " + (MAX_REGISTERS - 1) + ".");
+        }
+    }
+}
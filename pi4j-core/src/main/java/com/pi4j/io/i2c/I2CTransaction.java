@@ -0,0 +1,241 @@
+package com.pi4j.io.i2c;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  I2CTransaction.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+/**
+ * <p>
+ * A batch of read and write segments executed on the i2c bus as one combined transaction.
+ * All segments are sent in a single kernel call (I2C_RDWR); consecutive segments are separated
+ * by a repeated start instead of a STOP, which is what most sensors expect for register reads.
+ * Segments may address different devices on the same bus.
+ * </p>
+ *
+ * <p>
+ * Segments added without an explicit address are bound to the device the transaction is
+ * executed on (see {@link I2CDevice#transfer(I2CTransaction)}). Buffers are referenced, not
+ * copied, until the transaction is executed; read segments are filled in place. A transaction
+ * may be cleared and reused to avoid allocations on hot paths.
+ * </p>
+ *
+ * <pre>
+ * byte[] register = new byte[] { 0x32 };
+ * byte[] data = new byte[6];
+ * device.transfer(new I2CTransaction().write(register).read(data));
+ * </pre>
+ *
+ * @author Robert Savage (<a
+ *         href="http://www.savagehomeautomation.com">http://www.savagehomeautomation.com</a>)
+ */
+public class I2CTransaction {
+
+    /**
+     * Maximum number of segments per transaction (I2C_RDWR_IOCTL_MAX_MSGS).
+     */
+    public static final int MAX_SEGMENTS = 42;
+
+    /**
+     * Address placeholder for segments bound to the executing device.
+     */
+    public static final int DEVICE_ADDRESS = -1;
+
+    private final int[] addresses = new int[MAX_SEGMENTS];
+    private final boolean[] reads = new boolean[MAX_SEGMENTS];
+    private final byte[][] buffers = new byte[MAX_SEGMENTS][];
+    private final int[] offsets = new int[MAX_SEGMENTS];
+    private final int[] lengths = new int[MAX_SEGMENTS];
+    private int size = 0;
+
+    /**
+     * Adds a segment writing the given bytes to the executing device.
+     *
+     * @param buffer data to be written
+     * @param offset offset in buffer
+     * @param length number of bytes to be written
+     * @return this transaction
+     */
+    public I2CTransaction write(byte[] buffer, int offset, int length) {
+        return add(DEVICE_ADDRESS, false, buffer, offset, length);
+    }
+
+    /**
+     * Adds a segment writing all bytes of the given buffer to the executing device.
+     *
+     * @param buffer data to be written
+     * @return this transaction
+     */
+    public I2CTransaction write(byte[] buffer) {
+        return add(DEVICE_ADDRESS, false, buffer, 0, buffer.length);
+    }
+
+    /**
+     * Adds a segment writing the given bytes to the device at the given address.
+     *
+     * @param address i2c device address
+     * @param buffer data to be written
+     * @param offset offset in buffer
+     * @param length number of bytes to be written
+     * @return this transaction
+     */
+    public I2CTransaction write(int address, byte[] buffer, int offset, int length) {
+        return add(checkAddress(address), false, buffer, offset, length);
+    }
+
+    /**
+     * Adds a segment reading bytes from the executing device into the given buffer.
+     *
+     * @param buffer buffer receiving the data
+     * @param offset offset in buffer
+     * @param length number of bytes to be read
+     * @return this transaction
+     */
+    public I2CTransaction read(byte[] buffer, int offset, int length) {
+        return add(DEVICE_ADDRESS, true, buffer, offset, length);
+    }
+
+    /**
+     * Adds a segment filling the whole buffer with bytes read from the executing device.
+     *
+     * @param buffer buffer receiving the data
+     * @return this transaction
+     */
+    public I2CTransaction read(byte[] buffer) {
+        return add(DEVICE_ADDRESS, true, buffer, 0, buffer.length);
+    }
+
+    /**
+     * Adds a segment reading bytes from the device at the given address into the given buffer.
+     *
+     * @param address i2c device address
+     * @param buffer buffer receiving the data
+     * @param offset offset in buffer
+     * @param length number of bytes to be read
+     * @return this transaction
+     */
+    public I2CTransaction read(int address, byte[] buffer, int offset, int length) {
+        return add(checkAddress(address), true, buffer, offset, length);
+    }
+
+    /**
+     * Removes all segments so the transaction can be reused.
+     *
+     * @return this transaction
+     */
+    public I2CTransaction clear() {
+        for (int index = 0; index < size; index++) {
+            buffers[index] = null;
+        }
+        size = 0;
+        return this;
+    }
+
+    /**
+     * @return number of segments in this transaction
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index segment index
+     * @return device address of the segment or {@link #DEVICE_ADDRESS} if bound to the executing device
+     */
+    public int getAddress(int index) {
+        checkIndex(index);
+        return addresses[index];
+    }
+
+    /**
+     * @param index segment index
+     * @return true for read segments, false for write segments
+     */
+    public boolean isRead(int index) {
+        checkIndex(index);
+        return reads[index];
+    }
+
+    /**
+     * @param index segment index
+     * @return buffer of the segment
+     */
+    public byte[] getBuffer(int index) {
+        checkIndex(index);
+        return buffers[index];
+    }
+
+    /**
+     * @param index segment index
+     * @return offset in the segment's buffer
+     */
+    public int getOffset(int index) {
+        checkIndex(index);
+        return offsets[index];
+    }
+
+    /**
+     * @param index segment index
+     * @return number of bytes transferred by the segment
+     */
+    public int getLength(int index) {
+        checkIndex(index);
+        return lengths[index];
+    }
+
+    private I2CTransaction add(int address, boolean read, byte[] buffer, int offset, int length) {
+        if (buffer == null) {
+            throw new NullPointerException("Parameter 'buffer' is mandatory!");
+        }
+        if (offset < 0 || length < 0 || offset + length > buffer.length) {
+            throw new IndexOutOfBoundsException("Segment [" + offset + ", " + (offset + length) + ") exceeds buffer of length " + buffer.length);
+        }
+        if (size == MAX_SEGMENTS) {
+            throw new IllegalStateException("A transaction holds at most " + MAX_SEGMENTS + " segments.");
+        }
+        addresses[size] = address;
+        reads[size] = read;
+        buffers[size] = buffer;
+        offsets[size] = offset;
+        lengths[size] = length;
+        size++;
+        return this;
+    }
+
+    private static int checkAddress(int address) {
+        if (address < 0) {
+            throw new IllegalArgumentException("Invalid i2c device address: " + address);
+        }
+        return address;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Segment index " + index + " out of range [0, " + size + ")");
+        }
+    }
+}
@@ -30,15 +30,25 @@ package com.pi4j.io.i2c.impl;
  */
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.pi4j.concurrent.LatencyHistogram;
+import com.pi4j.io.i2c.I2CAction;
 import com.pi4j.io.i2c.I2CBus;
 import com.pi4j.io.i2c.I2CDevice;
 import com.pi4j.io.i2c.I2CFactory;
+import com.pi4j.io.i2c.I2CPriority;
+import com.pi4j.io.i2c.I2CTransaction;
 import com.pi4j.jni.I2C;
 
 /**
@@ -48,6 +58,10 @@ import com.pi4j.jni.I2C;
  * Hint: For concurrency-locking the methods lock() and unlock() are provided. This requires that there is exactly one I2CBus-instance per bus-number what is guaranteed by the I2CFactory class. The locking is done by I2CDeviceImpl by using
  * those methods. The reason for this is to enable other locking-strategies than the simple "lock before and release after access"-strategy.
  *
+ * Operations may also be queued on the bus worker ({@link I2CBusScheduler}) with a priority and a deadline. If the system property
+ * 'pi4j.i2c.async' is set to true, the synchronous device methods are queued on the worker as well (using the device's priority)
+ * and the caller waits for their completion.
+ *
  * @author Daniel Sendula, refactored by <a href="http://raspelikan.blogspot.co.at">RasPelikan</a>
  *
  */
@@ -68,8 +82,33 @@ public class I2CBusImpl implements I2CBus {
 
     protected TimeUnit lockAquireTimeoutUnit;
 
+    /** System property enabling the asynchronous execution mode for synchronous device methods */
+    public static final String ASYNC_MODE_PROPERTY = "pi4j.i2c.async";
+
     private final ReentrantLock accessLock = new ReentrantLock(true);
 
+    private final I2CBusScheduler scheduler = new I2CBusScheduler(this, accessLock);
+
+    /** Whether synchronous device methods are queued on the bus worker */
+    protected boolean asyncMode = Boolean.getBoolean(ASYNC_MODE_PROPERTY);
+
+    // PEC state of the file descriptor; only used while holding the access lock
+    private boolean pecEnabled = false;
+
+    // transaction segments handed to the native layer; only used while holding the access lock
+    private final int[] transferAddresses = new int[I2CTransaction.MAX_SEGMENTS];
+    private final int[] transferFlags = new int[I2CTransaction.MAX_SEGMENTS];
+    private final byte[][] transferBuffers = new byte[I2CTransaction.MAX_SEGMENTS][];
+    private final int[] transferOffsets = new int[I2CTransaction.MAX_SEGMENTS];
+    private final int[] transferLengths = new int[I2CTransaction.MAX_SEGMENTS];
+
+    // presence cache indexed by device address: result and System.nanoTime() of the last probe; guarded by presenceTime
+    private static final byte PRESENCE_UNKNOWN = 0;
+    private static final byte PRESENCE_ABSENT = 1;
+    private static final byte PRESENCE_PRESENT = 2;
+    private final byte[] presenceState = new byte[LAST_SCAN_ADDRESS + 1];
+    private final long[] presenceTime = new long[LAST_SCAN_ADDRESS + 1];
+
     /**
      * Constructor of i2c bus implementation.
      *
@@ -119,6 +158,7 @@ public class I2CBusImpl implements I2CBus {
         }
 
         fd = I2C.i2cOpen(filename);
+        pecEnabled = false;
         if (fd < 0) {
             throw new IOException("Cannot open file handle for " + filename + " got " + fd + " back.");
         }
@@ -138,6 +178,7 @@ public class I2CBusImpl implements I2CBus {
         I2CProviderImpl.closeBus(getBusNumber(), lockAquireTimeout, lockAquireTimeoutUnit, new Callable<Void>() {
             @Override
             public Void call() {
+                scheduler.shutdown();
                 I2C.i2cClose(fd);
                 fd = -1;
                 return null;
@@ -147,103 +188,326 @@ public class I2CBusImpl implements I2CBus {
 
     public int readByteDirect(final I2CDeviceImpl device) throws IOException {
         testForProperOperationConditions(device);
-
-        return runActionOnExclusivLockedBus(new Callable<Integer>() {
-            @Override
-            public Integer call() throws Exception {
-                return I2C.i2cReadByteDirect(fd, device.getAddress());
-            }
-        });
+        return execute(device, READ_BYTE_DIRECT, 0, 0, 0, null);
     }
 
     public int readBytesDirect(final I2CDeviceImpl device, final int size, final int offset, final byte[] buffer) throws IOException {
         testForProperOperationConditions(device);
-
-        return runActionOnExclusivLockedBus(new Callable<Integer>() {
-            @Override
-            public Integer call() throws Exception {
-                return I2C.i2cReadBytesDirect(fd, device.getAddress(), size, offset, buffer);
-            }
-        });
+        return execute(device, READ_BYTES_DIRECT, size, offset, 0, buffer);
     }
 
     public int readByte(final I2CDeviceImpl device, final int localAddress) throws IOException {
         testForProperOperationConditions(device);
-
-        return runActionOnExclusivLockedBus(new Callable<Integer>() {
-            @Override
-            public Integer call() throws Exception {
-                return I2C.i2cReadByte(fd, device.getAddress(), localAddress);
-            }
-        });
+        return execute(device, READ_BYTE, localAddress, 0, 0, null);
     }
 
     public int readBytes(final I2CDeviceImpl device, final int localAddress, final int size, final int offset, final byte[] buffer) throws IOException {
         testForProperOperationConditions(device);
-
-        return runActionOnExclusivLockedBus(new Callable<Integer>() {
-            @Override
-            public Integer call() throws Exception {
-                return I2C.i2cReadBytes(fd, device.getAddress(), localAddress, size, offset, buffer);
-            }
-        });
+        return execute(device, READ_BYTES, localAddress, size, offset, buffer);
     }
 
     public int writeByteDirect(final I2CDeviceImpl device, final byte data) throws IOException {
         testForProperOperationConditions(device);
-
-        return runActionOnExclusivLockedBus(new Callable<Integer>() {
-            @Override
-            public Integer call() throws Exception {
-                return I2C.i2cWriteByteDirect(fd, device.getAddress(), data);
-            }
-        });
+        return execute(device, WRITE_BYTE_DIRECT, data, 0, 0, null);
     }
 
     public int writeBytesDirect(final I2CDeviceImpl device, final int size, final int offset, final byte[] buffer) throws IOException {
         testForProperOperationConditions(device);
-
-        return runActionOnExclusivLockedBus(new Callable<Integer>() {
-            @Override
-            public Integer call() throws Exception {
-                return I2C.i2cWriteBytesDirect(fd, device.getAddress(), size, offset, buffer);
-            }
-        });
+        return execute(device, WRITE_BYTES_DIRECT, size, offset, 0, buffer);
     }
 
     public int writeByte(final I2CDeviceImpl device, final int localAddress, final byte data) throws IOException {
         testForProperOperationConditions(device);
-
-        return runActionOnExclusivLockedBus(new Callable<Integer>() {
-            @Override
-            public Integer call() throws Exception {
-                return I2C.i2cWriteByte(fd, device.getAddress(), localAddress, data);
-            }
-        });
+        return execute(device, WRITE_BYTE, localAddress, data, 0, null);
     }
 
     public int writeBytes(final I2CDeviceImpl device, final int localAddress, final int size, final int offset, final byte[] buffer) throws IOException {
         testForProperOperationConditions(device);
-
-        return runActionOnExclusivLockedBus(new Callable<Integer>() {
-            @Override
-            public Integer call() throws Exception {
-                return I2C.i2cWriteBytes(fd, device.getAddress(), localAddress, size, offset, buffer);
-            }
-        });
+        return execute(device, WRITE_BYTES, localAddress, size, offset, buffer);
     }
 
     public int writeAndReadBytesDirect(final I2CDeviceImpl device, final int writeSize, final int writeOffset, final byte[] writeBuffer, final int readSize, final int readOffset, final byte[] readBuffer) throws IOException {
         testForProperOperationConditions(device);
+        return execute(device, WRITE_AND_READ_BYTES_DIRECT, writeSize, writeOffset, readSize, readOffset, writeBuffer, readBuffer);
+    }
+
+    public int writeBuffer(final I2CDeviceImpl device, final int localAddress, final int size, final int position, final ByteBuffer buffer) throws IOException {
+        testForProperOperationConditions(device);
+        return execute(device, WRITE_BUFFER, localAddress, size, position, buffer);
+    }
+
+    public int readBuffer(final I2CDeviceImpl device, final int localAddress, final int size, final int position, final ByteBuffer buffer) throws IOException {
+        testForProperOperationConditions(device);
+        return execute(device, READ_BUFFER, localAddress, size, position, buffer);
+    }
+
+    public int smbusReadByteData(final I2CDeviceImpl device, final int command) throws IOException {
+        testForProperOperationConditions(device);
+        return execute(device, SMBUS_READ_BYTE_DATA, command, 0, 0, null);
+    }
+
+    public int smbusWriteByteData(final I2CDeviceImpl device, final int command, final byte data) throws IOException {
+        testForProperOperationConditions(device);
+        return execute(device, SMBUS_WRITE_BYTE_DATA, command, data, 0, null);
+    }
+
+    public int smbusReadWordData(final I2CDeviceImpl device, final int command) throws IOException {
+        testForProperOperationConditions(device);
+        return execute(device, SMBUS_READ_WORD_DATA, command, 0, 0, null);
+    }
+
+    public int smbusWriteWordData(final I2CDeviceImpl device, final int command, final int data) throws IOException {
+        testForProperOperationConditions(device);
+        return execute(device, SMBUS_WRITE_WORD_DATA, command, data, 0, null);
+    }
+
+    public int smbusReadBlockData(final I2CDeviceImpl device, final int command, final int size, final int offset, final byte[] buffer) throws IOException {
+        testForProperOperationConditions(device);
+        return execute(device, SMBUS_READ_BLOCK_DATA, command, size, offset, buffer);
+    }
+
+    public int smbusWriteBlockData(final I2CDeviceImpl device, final int command, final int size, final int offset, final byte[] buffer) throws IOException {
+        testForProperOperationConditions(device);
+        return execute(device, SMBUS_WRITE_BLOCK_DATA, command, size, offset, buffer);
+    }
+
+    public int smbusReadI2CBlockData(final I2CDeviceImpl device, final int command, final int size, final int offset, final byte[] buffer) throws IOException {
+        testForProperOperationConditions(device);
+        return execute(device, SMBUS_READ_I2C_BLOCK_DATA, command, size, offset, buffer);
+    }
+
+    public int smbusWriteI2CBlockData(final I2CDeviceImpl device, final int command, final int size, final int offset, final byte[] buffer) throws IOException {
+        testForProperOperationConditions(device);
+        return execute(device, SMBUS_WRITE_I2C_BLOCK_DATA, command, size, offset, buffer);
+    }
+
+    // PEC is a property of the file descriptor, so it is switched whenever a device with another setting is accessed
+    private void selectPec(final I2CDeviceImpl device) throws IOException {
+        final boolean enable = device.isPecEnabled();
+        if (enable != pecEnabled) {
+            final int ret = I2C.i2cSmbusPec(fd, enable);
+            if (ret < 0) {
+                throw new IOException("Cannot " + (enable ? "enable" : "disable") + " PEC on " + toString() + ". Got '" + ret + "'.");
+            }
+            pecEnabled = enable;
+        }
+    }
+
+    /**
+     * Executes all segments of the given transaction as one combined i2c transaction.
+     *
+     * @param transaction segments to be executed; each segment must carry an explicit device address
+     * @return number of segments executed
+     * @throws IOException thrown in case the transaction cannot be executed
+     */
+    @Override
+    public int transfer(final I2CTransaction transaction) throws IOException {
+        final int ret = transfer(null, transaction);
+        if (ret < 0) {
+            throw new IOException("Error executing transaction on " + toString() + ". Got '" + ret + "'.");
+        }
+        return ret;
+    }
+
+    public int transfer(final I2CDeviceImpl device, final I2CTransaction transaction) throws IOException {
+        testWhetherBusHasAlreadyBeenClosed();
+
+        if (transaction == null) {
+            throw new NullPointerException("Parameter 'transaction' is mandatory!");
+        }
+        if (transaction.size() == 0) {
+            return 0;
+        }
+
+        return execute(device, TRANSFER, 0, 0, 0, transaction);
+    }
+
+    // segments of a transaction are copied into the reused transfer arrays; must hold the bus lock
+    private int transferLocked(final I2CDeviceImpl device, final I2CTransaction transaction) {
+        final int count = transaction.size();
+        for (int index = 0; index < count; index++) {
+            int address = transaction.getAddress(index);
+            if (address == I2CTransaction.DEVICE_ADDRESS) {
+                if (device == null) {
+                    throw new IllegalArgumentException("Segment " + index + " of the transaction has no device address!");
+                }
+                address = device.getAddress();
+            }
+            transferAddresses[index] = address;
+            transferFlags[index] = transaction.isRead(index) ? 1 : 0;
+            transferBuffers[index] = transaction.getBuffer(index);
+            transferOffsets[index] = transaction.getOffset(index);
+            transferLengths[index] = transaction.getLength(index);
+        }
+        try {
+            return I2C.i2cTransfer(fd, count, transferAddresses, transferFlags, transferBuffers, transferOffsets, transferLengths);
+        } finally {
+            // do not keep caller buffers reachable
+            for (int index = 0; index < count; index++) {
+                transferBuffers[index] = null;
+            }
+        }
+    }
+
+    @Override
+    public boolean probe(final int address) throws IOException {
+        testWhetherBusHasAlreadyBeenClosed();
+        testScanAddress(address);
+
+        final int ret = execute(null, PROBE, address, isReadProbeAddress(address) ? 1 : 0, 0, null);
+        if (ret < 0) {
+            throw new IOException("Error probing address 0x" + Integer.toHexString(address) + " on " + toString() + ". Got '" + ret + "'.");
+        }
+
+        final boolean present = (ret != 0);
+        synchronized (presenceTime) {
+            presenceState[address] = present ? PRESENCE_PRESENT : PRESENCE_ABSENT;
+            presenceTime[address] = System.nanoTime();
+        }
+        return present;
+    }
+
+    @Override
+    public boolean isPresent(final int address) throws IOException {
+        testScanAddress(address);
+
+        final long ttl = I2CFactory.getPresenceTtl(TimeUnit.NANOSECONDS);
+        synchronized (presenceTime) {
+            if ((presenceState[address] != PRESENCE_UNKNOWN) && (System.nanoTime() - presenceTime[address] < ttl)) {
+                return presenceState[address] == PRESENCE_PRESENT;
+            }
+        }
+        return probe(address);
+    }
+
+    @Override
+    public List<Integer> scan() throws IOException {
+        final List<Integer> found = new ArrayList<>();
+        for (int address = FIRST_SCAN_ADDRESS; address <= LAST_SCAN_ADDRESS; address++) {
+            if (probe(address)) {
+                found.add(address);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Probes the given address while holding the bus lock.
+     *
+     * @param address i2c device address
+     * @param readByte true to probe with a read byte instead of a quick write
+     * @return 1 if the device acknowledged, 0 if not, 2 if the address is in use by a kernel driver,
+     *         less than zero if there was an error
+     */
+    protected int probeAddress(final int address, final boolean readByte) {
+        return I2C.i2cProbe(fd, address, readByte);
+    }
 
-        return runActionOnExclusivLockedBus(new Callable<Integer>() {
+    // a quick write may corrupt EEPROMs (0x50-0x5F) or lock up some chips (0x30-0x37), so those are probed by reading
+    private static boolean isReadProbeAddress(final int address) {
+        return ((address >= 0x30) && (address <= 0x37)) || ((address >= 0x50) && (address <= 0x5F));
+    }
+
+    private static void testScanAddress(final int address) {
+        if ((address < FIRST_SCAN_ADDRESS) || (address > LAST_SCAN_ADDRESS)) {
+            throw new IllegalArgumentException("Address 0x" + Integer.toHexString(address) + " is reserved and cannot be probed!");
+        }
+    }
+
+    /**
+     * Queues an action on the bus worker.
+     *
+     * @param device the device the action is submitted to
+     * @param action the action to be executed with exclusive access to the bus
+     * @param priority queue priority of the action
+     * @param deadline time from now by which the action must be started; zero or less for no deadline
+     * @param unit time unit of the deadline
+     * @param <T> result type of the action
+     * @return future completed with the action's result or failure
+     */
+    public <T> CompletableFuture<T> submit(final I2CDeviceImpl device, final I2CAction<T> action, final I2CPriority priority, final long deadline, final TimeUnit unit) {
+        if (device == null) {
+            throw new NullPointerException("Parameter 'device' is mandatory!");
+        }
+        if (action == null) {
+            throw new NullPointerException("Parameter 'action' is mandatory!");
+        }
+
+        final long deadlineNanos = (deadline > 0) ? System.nanoTime() + unit.toNanos(deadline) : 0;
+        return scheduler.submit(device.getAddress(), priority, deadlineNanos, new Callable<T>() {
             @Override
-            public Integer call() throws Exception {
-                return I2C.i2cWriteAndReadBytes(fd, device.getAddress(), writeSize, writeOffset, writeBuffer, readSize, readOffset, readBuffer);
+            public T call() throws Exception {
+                testWhetherBusHasAlreadyBeenClosed();
+                return action.execute(device);
             }
         });
     }
 
+    /**
+     * @return the worker executing queued operations of this bus
+     */
+    public I2CBusScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Returns the histogram of the time from submission to completion of the queued operations for the given device.
+     *
+     * @param address i2c device address
+     * @return latency histogram of the device
+     */
+    public LatencyHistogram getLatencyHistogram(int address) {
+        return scheduler.getLatencyHistogram(address);
+    }
+
+    /**
+     * Runs the action of a device operation. In asynchronous mode the action is queued on the bus worker with the
+     * device's priority and the caller waits for its completion (at most the lock acquisition timeout); otherwise, or if
+     * called on the worker itself or by a thread already holding the bus lock, the action runs on the calling thread while holding the bus lock.
+     *
+     * @param <T> The result-type of the method
+     * @param device the device the operation talks to; null for operations not bound to a single device
+     * @param action The action to be run
+     * @throws IOException thrown by the action
+     */
+    protected <T> T runActionOnExclusivLockedBus(final I2CDeviceImpl device, final Callable<T> action) throws IOException {
+        if (!isQueued()) {
+            return runActionOnExclusivLockedBus(action);
+        }
+        if (action == null) {
+            throw new RuntimeException("Parameter 'action' is mandatory!");
+        }
+
+        testWhetherBusHasAlreadyBeenClosed();
+
+        final CompletableFuture<T> future;
+        if (device == null) {
+            future = scheduler.submit(I2CBusScheduler.NO_ADDRESS, I2CPriority.NORMAL, 0, action);
+        } else {
+            future = scheduler.submit(device.getAddress(), device.getPriority(), 0, action);
+        }
+
+        try {
+            return future.get(lockAquireTimeout, lockAquireTimeoutUnit);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            throw new RuntimeException("Could not abtain an access-lock!", e);
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            logger.log(Level.FINER, "Failed waiting for I2CBusImpl-" + busNumber, e);
+            throw new RuntimeException("Could not abtain an access-lock!", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
     /**
      * Sometimes communication to an i2c device must not be disturbed by communication to another i2c device. This method can be used to run a custom sequence of writes/reads.
      * <p>
@@ -264,28 +528,269 @@ public class I2CBusImpl implements I2CBus {
 
         testWhetherBusHasAlreadyBeenClosed();
 
+        lockBus();
         try {
-            if (accessLock.tryLock(lockAquireTimeout, lockAquireTimeoutUnit)) {
-                try {
-                    return action.call();
-                } finally {
-                    accessLock.unlock();
-                }
-            }
-        } catch (InterruptedException e) {
-            logger.log(Level.FINER, "Failed locking I2CBusImpl-" + busNumber, e);
-            throw new RuntimeException("Could not abtain an access-lock!", e);
+            return action.call();
         } catch (IOException e) { // unwrap IOExceptionWrapperException
             throw e;
         } catch (RuntimeException e) {
             throw e;
         } catch (Exception e) { // unexpected exceptions
             throw new RuntimeException(e);
+        } finally {
+            unlockBus();
+        }
+    }
+
+    /**
+     * Acquires the bus lock within the lock acquisition timeout; the caller has to release it.
+     * Operations on the calling thread use this directly, so the primitive reads and writes
+     * neither allocate nor box.
+     */
+    protected void lockBus() {
+        try {
+            if (accessLock.tryLock(lockAquireTimeout, lockAquireTimeoutUnit)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            logger.log(Level.FINER, "Failed locking I2CBusImpl-" + busNumber, e);
+            throw new RuntimeException("Could not abtain an access-lock!", e);
         }
         throw new RuntimeException("Could not abtain an access-lock!");
     }
 
-    private void testForProperOperationConditions(final I2CDeviceImpl device) throws IOException {
+    /**
+     * Releases the bus lock acquired by {@link #lockBus()}.
+     */
+    protected void unlockBus() {
+        accessLock.unlock();
+    }
+
+    // whether operations of the calling thread have to be queued on the bus worker; not if the thread
+    // already holds the bus lock (e.g. inside an exclusive sequence), since the worker would wait for it
+    private boolean isQueued() {
+        return asyncMode && !scheduler.isWorkerThread() && !accessLock.isHeldByCurrentThread();
+    }
+
+    private int execute(final I2CDeviceImpl device, final Operation operation, final int arg0, final int arg1, final int arg2, final Object data) throws IOException {
+        return execute(device, operation, arg0, arg1, arg2, 0, data, null);
+    }
+
+    /**
+     * Runs a primitive operation: queued on the bus worker in asynchronous mode, otherwise on the calling thread
+     * while holding the bus lock. Operations are stateless and get their arguments passed, so the calling thread
+     * path allocates nothing.
+     */
+    private int execute(final I2CDeviceImpl device, final Operation operation, final int arg0, final int arg1, final int arg2, final int arg3,
+            final Object data0, final Object data1) throws IOException {
+        if (isQueued()) {
+            return runActionOnExclusivLockedBus(device, new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    return execute(device, operation, arg0, arg1, arg2, arg3, data0, data1);
+                }
+            });
+        }
+
+        lockBus();
+        try {
+            return operation.run(this, device, arg0, arg1, arg2, arg3, data0, data1);
+        } finally {
+            unlockBus();
+        }
+    }
+
+    /**
+     * A primitive bus operation run while holding the bus lock; unused arguments are passed as zero or null.
+     */
+    private interface Operation {
+        int run(I2CBusImpl bus, I2CDeviceImpl device, int arg0, int arg1, int arg2, int arg3, Object data0, Object data1) throws IOException;
+    }
+
+    private static final Operation READ_BYTE_DIRECT = new Operation() {
+        @Override
+        public int run(I2CBusImpl bus, I2CDeviceImpl device, int arg0, int arg1, int arg2, int arg3, Object data0, Object data1) {
+            return I2C.i2cReadByteDirect(bus.fd, device.getAddress());
+        }
+    };
+
+    // size, offset, buffer
+    private static final Operation READ_BYTES_DIRECT = new Operation() {
+        @Override
+        public int run(I2CBusImpl bus, I2CDeviceImpl device, int arg0, int arg1, int arg2, int arg3, Object data0, Object data1) {
+            return I2C.i2cReadBytesDirect(bus.fd, device.getAddress(), arg0, arg1, (byte[]) data0);
+        }
+    };
+
+    // local address
+    private static final Operation READ_BYTE = new Operation() {
+        @Override
+        public int run(I2CBusImpl bus, I2CDeviceImpl device, int arg0, int arg1, int arg2, int arg3, Object data0, Object data1) {
+            return I2C.i2cReadByte(bus.fd, device.getAddress(), arg0);
+        }
+    };
+
+    // local address, size, offset, buffer
+    private static final Operation READ_BYTES = new Operation() {
+        @Override
+        public int run(I2CBusImpl bus, I2CDeviceImpl device, int arg0, int arg1, int arg2, int arg3, Object data0, Object data1) {
+            return I2C.i2cReadBytes(bus.fd, device.getAddress(), arg0, arg1, arg2, (byte[]) data0);
+        }
+    };
+
+    // data
+    private static final Operation WRITE_BYTE_DIRECT = new Operation() {
+        @Override
+        public int run(I2CBusImpl bus, I2CDeviceImpl device, int arg0, int arg1, int arg2, int arg3, Object data0, Object data1) {
+            return I2C.i2cWriteByteDirect(bus.fd, device.getAddress(), (byte) arg0);
+        }
+    };
+
+    // size, offset, buffer
+    private static final Operation WRITE_BYTES_DIRECT = new Operation() {
+        @Override
+        public int run(I2CBusImpl bus, I2CDeviceImpl device, int arg0, int arg1, int arg2, int arg3, Object data0, Object data1) {
+            return I2C.i2cWriteBytesDirect(bus.fd, device.getAddress(), arg0, arg1, (byte[]) data0);
+        }
+    };
+
+    // local address, data
+    private static final Operation WRITE_BYTE = new Operation() {
+        @Override
+        public int run(I2CBusImpl bus, I2CDeviceImpl device, int arg0, int arg1, int arg2, int arg3, Object data0, Object data1) {
+            return I2C.i2cWriteByte(bus.fd, device.getAddress(), arg0, (byte) arg1);
+        }
+    };
+
+    // local address, size, offset, buffer
+    private static final Operation WRITE_BYTES = new Operation() {
+        @Override
+        public int run(I2CBusImpl bus, I2CDeviceImpl device, int arg0, int arg1, int arg2, int arg3, Object data0, Object data1) {
+            return I2C.i2cWriteBytes(bus.fd, device.getAddress(), arg0, arg1, arg2, (byte[]) data0);
+        }
+    };
+
+    // write size, write offset, read size, read offset, write buffer, read buffer
+    private static final Operation WRITE_AND_READ_BYTES_DIRECT = new Operation() {
+        @Override
+        public int run(I2CBusImpl bus, I2CDeviceImpl device, int arg0, int arg1, int arg2, int arg3, Object data0, Object data1) {
+            return I2C.i2cWriteAndReadBytes(bus.fd, device.getAddress(), arg0, arg1, (byte[]) data0, arg2, arg3, (byte[]) data1);
+        }
+    };
+
+    // local address, size, position, buffer
+    private static final Operation WRITE_BUFFER = new Operation() {
+        @Override
+        public int run(I2CBusImpl bus, I2CDeviceImpl device, int arg0, int arg1, int arg2, int arg3, Object data0, Object data1) {
+            final ByteBuffer buffer = (ByteBuffer) data0;
+            if (buffer.isDirect()) {
+                return I2C.i2cWriteByteBuffer(bus.fd, device.getAddress(), arg0, arg1, arg2, buffer);
+            }
+            return I2C.i2cWriteBytesPinned(bus.fd, device.getAddress(), arg0, arg1, buffer.arrayOffset() + arg2, buffer.array());
+        }
+    };
+
+    // local address, size, position, buffer
+    private static final Operation READ_BUFFER = new Operation() {
+        @Override
+        public int run(I2CBusImpl bus, I2CDeviceImpl device, int arg0, int arg1, int arg2, int arg3, Object data0, Object data1) {
+            final ByteBuffer buffer = (ByteBuffer) data0;
+            if (buffer.isDirect()) {
+                return I2C.i2cReadByteBuffer(bus.fd, device.getAddress(), arg0, arg1, arg2, buffer);
+            }
+            return I2C.i2cReadBytesPinned(bus.fd, device.getAddress(), arg0, arg1, buffer.arrayOffset() + arg2, buffer.array());
+        }
+    };
+
+    // command
+    private static final Operation SMBUS_READ_BYTE_DATA = new Operation() {
+        @Override
+        public int run(I2CBusImpl bus, I2CDeviceImpl device, int arg0, int arg1, int arg2, int arg3, Object data0, Object data1) throws IOException {
+            bus.selectPec(device);
+            return I2C.i2cSmbusReadByteData(bus.fd, device.getAddress(), arg0);
+        }
+    };
+
+    // command, data
+    private static final Operation SMBUS_WRITE_BYTE_DATA = new Operation() {
+        @Override
+        public int run(I2CBusImpl bus, I2CDeviceImpl device, int arg0, int arg1, int arg2, int arg3, Object data0, Object data1) throws IOException {
+            bus.selectPec(device);
+            return I2C.i2cSmbusWriteByteData(bus.fd, device.getAddress(), arg0, (byte) arg1);
+        }
+    };
+
+    // command
+    private static final Operation SMBUS_READ_WORD_DATA = new Operation() {
+        @Override
+        public int run(I2CBusImpl bus, I2CDeviceImpl device, int arg0, int arg1, int arg2, int arg3, Object data0, Object data1) throws IOException {
+            bus.selectPec(device);
+            return I2C.i2cSmbusReadWordData(bus.fd, device.getAddress(), arg0);
+        }
+    };
+
+    // command, data
+    private static final Operation SMBUS_WRITE_WORD_DATA = new Operation() {
+        @Override
+        public int run(I2CBusImpl bus, I2CDeviceImpl device, int arg0, int arg1, int arg2, int arg3, Object data0, Object data1) throws IOException {
+            bus.selectPec(device);
+            return I2C.i2cSmbusWriteWordData(bus.fd, device.getAddress(), arg0, arg1);
+        }
+    };
+
+    // command, size, offset, buffer
+    private static final Operation SMBUS_READ_BLOCK_DATA = new Operation() {
+        @Override
+        public int run(I2CBusImpl bus, I2CDeviceImpl device, int arg0, int arg1, int arg2, int arg3, Object data0, Object data1) throws IOException {
+            bus.selectPec(device);
+            return I2C.i2cSmbusReadBlockData(bus.fd, device.getAddress(), arg0, arg1, arg2, (byte[]) data0);
+        }
+    };
+
+    // command, size, offset, buffer
+    private static final Operation SMBUS_WRITE_BLOCK_DATA = new Operation() {
+        @Override
+        public int run(I2CBusImpl bus, I2CDeviceImpl device, int arg0, int arg1, int arg2, int arg3, Object data0, Object data1) throws IOException {
+            bus.selectPec(device);
+            return I2C.i2cSmbusWriteBlockData(bus.fd, device.getAddress(), arg0, arg1, arg2, (byte[]) data0);
+        }
+    };
+
+    // command, size, offset, buffer
+    private static final Operation SMBUS_READ_I2C_BLOCK_DATA = new Operation() {
+        @Override
+        public int run(I2CBusImpl bus, I2CDeviceImpl device, int arg0, int arg1, int arg2, int arg3, Object data0, Object data1) throws IOException {
+            bus.selectPec(device);
+            return I2C.i2cSmbusReadI2CBlockData(bus.fd, device.getAddress(), arg0, arg1, arg2, (byte[]) data0);
+        }
+    };
+
+    // command, size, offset, buffer
+    private static final Operation SMBUS_WRITE_I2C_BLOCK_DATA = new Operation() {
+        @Override
+        public int run(I2CBusImpl bus, I2CDeviceImpl device, int arg0, int arg1, int arg2, int arg3, Object data0, Object data1) throws IOException {
+            bus.selectPec(device);
+            return I2C.i2cSmbusWriteI2CBlockData(bus.fd, device.getAddress(), arg0, arg1, arg2, (byte[]) data0);
+        }
+    };
+
+    // transaction; the device is null for transactions on the bus
+    private static final Operation TRANSFER = new Operation() {
+        @Override
+        public int run(I2CBusImpl bus, I2CDeviceImpl device, int arg0, int arg1, int arg2, int arg3, Object data0, Object data1) {
+            return bus.transferLocked(device, (I2CTransaction) data0);
+        }
+    };
+
+    // address, 1 to probe by reading a byte
+    private static final Operation PROBE = new Operation() {
+        @Override
+        public int run(I2CBusImpl bus, I2CDeviceImpl device, int arg0, int arg1, int arg2, int arg3, Object data0, Object data1) {
+            return bus.probeAddress(arg0, arg1 != 0);
+        }
+    };
+
+    protected void testForProperOperationConditions(final I2CDeviceImpl device) throws IOException {
         testWhetherBusHasAlreadyBeenClosed();
 
         if (device == null) {
@@ -293,7 +798,7 @@ public class I2CBusImpl implements I2CBus {
         }
     }
 
-    private void testWhetherBusHasAlreadyBeenClosed() throws IOException {
+    protected void testWhetherBusHasAlreadyBeenClosed() throws IOException {
         if (fd == -1) {
             throw new IOException(toString() + " has already been closed! A new bus has to be aquired.");
         }
@@ -0,0 +1,369 @@
+package com.pi4j.io.i2c.impl;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  I2CBusScheduler.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import com.pi4j.concurrent.LatencyHistogram;
+import com.pi4j.io.i2c.I2CFactory;
+import com.pi4j.io.i2c.I2CPriority;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <p>
+ * Worker executing the queued operations of one i2c bus. Operations are kept in one queue per
+ * {@link I2CPriority}; a queued operation of a higher priority always runs before any of a lower
+ * priority, and within a priority operations with a deadline run earliest deadline first, followed
+ * by the others in submission order. An operation that has not started by its deadline is dropped
+ * and its future fails with a {@link TimeoutException}.
+ * </p>
+ *
+ * <p>
+ * After an operation completes, queued operations of the same priority for the same slave address
+ * are executed right away (up to {@link #MAX_BATCH} in a row) while the bus lock is still held, as long
+ * as no operation of a higher priority or with an earlier deadline is waiting. This saves the lock
+ * hand-over and the slave re-selection between them.
+ * </p>
+ *
+ * <p>
+ * The worker is a single daemon thread created on demand from the configured
+ * {@link com.pi4j.concurrent.ExecutorServiceFactory}. The time from submission to completion of each
+ * operation is recorded per slave address.
+ * </p>
+ *
+ * @author Robert Savage (<a
+ *         href="http://www.savagehomeautomation.com">http://www.savagehomeautomation.com</a>)
+ */
+public class I2CBusScheduler {
+
+    /** maximum number of operations for the same slave executed in a row */
+    public static final int MAX_BATCH = 16;
+
+    /** address used for operations not bound to a single device */
+    public static final int NO_ADDRESS = -1;
+
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private final I2CBusImpl bus;
+    private final ReentrantLock busLock;
+    private final ReentrantLock queueLock = new ReentrantLock();
+    private final Condition queueNotEmpty = queueLock.newCondition();
+    private final PriorityQueue<Task<?>>[] queues;
+    private final ConcurrentHashMap<Integer, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    private final AtomicLong missedDeadlines = new AtomicLong();
+    private final AtomicLong batchedOperations = new AtomicLong();
+    private long sequence = 0;
+    private volatile Thread worker = null;
+    private volatile boolean shutdown = false;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    I2CBusScheduler(I2CBusImpl bus, ReentrantLock busLock) {
+        this.bus = bus;
+        this.busLock = busLock;
+        this.queues = new PriorityQueue[I2CPriority.values().length];
+        for (int index = 0; index < queues.length; index++) {
+            queues[index] = new PriorityQueue<>();
+        }
+    }
+
+    /**
+     * Queues an operation.
+     *
+     * @param address slave address the operation talks to or {@link #NO_ADDRESS}
+     * @param priority queue priority
+     * @param deadlineNanos {@link System#nanoTime()} by which the operation must start; zero for no deadline
+     * @param action the operation
+     * @param <T> result type of the operation
+     * @return future completed with the result of the operation
+     */
+    public <T> CompletableFuture<T> submit(int address, I2CPriority priority, long deadlineNanos, Callable<T> action) {
+        if (priority == null) {
+            throw new NullPointerException("Parameter 'priority' is mandatory!");
+        }
+        if (action == null) {
+            throw new NullPointerException("Parameter 'action' is mandatory!");
+        }
+
+        Task<T> task;
+        queueLock.lock();
+        try {
+            if (shutdown) {
+                CompletableFuture<T> failed = new CompletableFuture<>();
+                failed.completeExceptionally(new IOException(bus + " has already been closed! A new bus has to be aquired."));
+                return failed;
+            }
+            task = new Task<>(address, priority, (deadlineNanos == 0) ? NO_DEADLINE : deadlineNanos, sequence++, action);
+            queues[priority.ordinal()].add(task);
+            queueNotEmpty.signal();
+        } finally {
+            queueLock.unlock();
+        }
+
+        if (worker == null) {
+            startWorker();
+        }
+        return task.future;
+    }
+
+    /**
+     * @return true if the calling thread is the worker of this scheduler
+     */
+    public boolean isWorkerThread() {
+        return Thread.currentThread() == worker;
+    }
+
+    /**
+     * Returns the histogram of the time from submission to completion of the operations for the given slave.
+     *
+     * @param address slave address
+     * @return latency histogram of the slave
+     */
+    public LatencyHistogram getLatencyHistogram(int address) {
+        LatencyHistogram histogram = latencies.get(address);
+        if (histogram == null) {
+            LatencyHistogram created = new LatencyHistogram();
+            histogram = latencies.putIfAbsent(address, created);
+            if (histogram == null) {
+                histogram = created;
+            }
+        }
+        return histogram;
+    }
+
+    /**
+     * @return number of operations dropped because they had not started by their deadline
+     */
+    public long getMissedDeadlineCount() {
+        return missedDeadlines.get();
+    }
+
+    /**
+     * @return number of operations executed as part of a batch for the same slave (not counting the first)
+     */
+    public long getBatchedOperationCount() {
+        return batchedOperations.get();
+    }
+
+    /**
+     * @return number of queued operations
+     */
+    public int getQueuedCount() {
+        queueLock.lock();
+        try {
+            int count = 0;
+            for (PriorityQueue<Task<?>> queue : queues) {
+                count += queue.size();
+            }
+            return count;
+        } finally {
+            queueLock.unlock();
+        }
+    }
+
+    /**
+     * Stops the worker; operations still queued fail with an {@link IOException}.
+     */
+    public void shutdown() {
+        queueLock.lock();
+        try {
+            shutdown = true;
+            for (PriorityQueue<Task<?>> queue : queues) {
+                Task<?> task;
+                while ((task = queue.poll()) != null) {
+                    task.future.completeExceptionally(new IOException(bus + " has been closed."));
+                }
+            }
+            queueNotEmpty.signalAll();
+        } finally {
+            queueLock.unlock();
+        }
+    }
+
+    private synchronized void startWorker() {
+        if (worker == null && !shutdown) {
+            Thread thread = I2CFactory.getExecutorServiceFactory().getThreadFactory("pi4j-i2c-bus-" + bus.getBusNumber() + "-%d")
+                    .newThread(new Runnable() {
+                        @Override
+                        public void run() {
+                            runWorker();
+                        }
+                    });
+            thread.setDaemon(true);
+            worker = thread;
+            thread.start();
+        }
+    }
+
+    private void runWorker() {
+        Task<?> task;
+        while ((task = take()) != null) {
+            busLock.lock();
+            try {
+                execute(task);
+                int batch = 1;
+                Task<?> next;
+                while (batch < MAX_BATCH && (next = pollSameSlave(task)) != null) {
+                    execute(next);
+                    batchedOperations.incrementAndGet();
+                    batch++;
+                }
+            } finally {
+                busLock.unlock();
+            }
+        }
+    }
+
+    // blocks until an operation is queued; returns null once shut down
+    private Task<?> take() {
+        queueLock.lock();
+        try {
+            while (!shutdown) {
+                for (PriorityQueue<Task<?>> queue : queues) {
+                    Task<?> task = queue.poll();
+                    if (task != null) {
+                        return task;
+                    }
+                }
+                queueNotEmpty.awaitUninterruptibly();
+            }
+            return null;
+        } finally {
+            queueLock.unlock();
+        }
+    }
+
+    // next queued operation for the same slave, unless something more urgent is waiting
+    private Task<?> pollSameSlave(Task<?> previous) {
+        if (previous.address == NO_ADDRESS) {
+            return null;
+        }
+        queueLock.lock();
+        try {
+            int level = previous.priority.ordinal();
+            for (int index = 0; index < level; index++) {
+                if (!queues[index].isEmpty()) {
+                    return null;
+                }
+            }
+
+            PriorityQueue<Task<?>> queue = queues[level];
+            Task<?> head = queue.peek();
+            if (head == null) {
+                return null;
+            }
+            if (head.address == previous.address) {
+                return queue.poll();
+            }
+            if (head.deadline != NO_DEADLINE) {
+                return null;
+            }
+
+            // no deadlines pending: pick the oldest operation for the same slave
+            Task<?> candidate = null;
+            Iterator<Task<?>> iterator = queue.iterator();
+            while (iterator.hasNext()) {
+                Task<?> task = iterator.next();
+                if (task.address == previous.address && (candidate == null || task.sequence < candidate.sequence)) {
+                    candidate = task;
+                }
+            }
+            if (candidate != null) {
+                queue.remove(candidate);
+            }
+            return candidate;
+        } finally {
+            queueLock.unlock();
+        }
+    }
+
+    private <T> void execute(Task<T> task) {
+        if (task.future.isDone()) {
+            return;
+        }
+
+        if (task.deadline != NO_DEADLINE && System.nanoTime() - task.deadline > 0) {
+            missedDeadlines.incrementAndGet();
+            task.future.completeExceptionally(new TimeoutException("Deadline of i2c operation for address 0x"
+                    + Integer.toHexString(task.address) + " on " + bus + " missed."));
+            return;
+        }
+
+        try {
+            T result = task.action.call();
+            if (task.address != NO_ADDRESS) {
+                getLatencyHistogram(task.address).recordSince(task.submitted);
+            }
+            task.future.complete(result);
+        } catch (Throwable ex) {
+            task.future.completeExceptionally(ex);
+        }
+    }
+
+    private static final class Task<T> implements Comparable<Task<?>> {
+
+        final int address;
+        final I2CPriority priority;
+        final long deadline;
+        final long sequence;
+        final long submitted = System.nanoTime();
+        final Callable<T> action;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+
+        Task(int address, I2CPriority priority, long deadline, long sequence, Callable<T> action) {
+            this.address = address;
+            this.priority = priority;
+            this.deadline = deadline;
+            this.sequence = sequence;
+            this.action = action;
+        }
+
+        @Override
+        public int compareTo(Task<?> other) {
+            if (deadline != other.deadline) {
+                if (deadline == NO_DEADLINE) {
+                    return 1;
+                }
+                if (other.deadline == NO_DEADLINE) {
+                    return -1;
+                }
+                return (deadline - other.deadline < 0) ? -1 : 1;
+            }
+            return (sequence < other.sequence) ? -1 : 1;
+        }
+    }
+}
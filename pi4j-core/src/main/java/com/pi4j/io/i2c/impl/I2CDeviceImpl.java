@@ -30,8 +30,16 @@ package com.pi4j.io.i2c.impl;
  */
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
+import com.pi4j.io.i2c.I2CAction;
 import com.pi4j.io.i2c.I2CDevice;
+import com.pi4j.io.i2c.I2CPriority;
+import com.pi4j.io.i2c.I2CTransaction;
+import com.pi4j.jni.I2C;
 
 /**
  * Implementation of i2c device. This class only holds reference to i2c bus (so it can use its handle) and device address.
@@ -51,6 +59,16 @@ public class I2CDeviceImpl implements I2CDevice {
      */
     private int deviceAddress;
 
+    /**
+     * Whether SMBus transfers use packet error checking
+     */
+    private volatile boolean pecEnabled = false;
+
+    /**
+     * Priority of this device's operations on the bus worker
+     */
+    private volatile I2CPriority priority = I2CPriority.NORMAL;
+
     /**
      * @return The address for which this instance is constructed for.
      */
@@ -192,7 +210,7 @@ public class I2CDeviceImpl implements I2CDevice {
      * </p>
      *
      * <p>
-     * Note: Current implementation calls {@link #read(int)}. That means for each read byte i2c bus will send (next) address to i2c device.
+     * Note: The local address is written and the data is read in one combined transaction (repeated start).
      * </p>
      *
      * @param data buffer of data to be read from the i2c device in one go
@@ -235,7 +253,7 @@ public class I2CDeviceImpl implements I2CDevice {
      * </p>
      *
      * <p>
-     * Note: Current implementation calls {@link #read(int)}. That means for each read byte i2c bus will send (next) address to i2c device.
+     * Note: The local address is written and the data is read in one combined transaction (repeated start).
      * </p>
      *
      * @param address local address in the i2c device
@@ -257,7 +275,8 @@ public class I2CDeviceImpl implements I2CDevice {
     }
 
     /**
-     * This method writes and reads bytes to/from the i2c device in a single method call
+     * This method writes and reads bytes to/from the i2c device in a single combined transaction
+     * (the read follows the write after a repeated start)
      *
      * @param writeData buffer of data to be written to the i2c device in one go
      * @param writeOffset offset in write buffer
@@ -279,6 +298,332 @@ public class I2CDeviceImpl implements I2CDevice {
         return ret;
     }
 
+    /**
+     * This method writes the remaining bytes of the given buffer directly to the i2c device.
+     * Direct buffers are written without being copied.
+     *
+     * @param buffer buffer of data to be written to the i2c device in one go; its position is advanced to its limit
+     *
+     * @throws IOException thrown in case byte cannot be written to the i2c device or i2c bus
+     */
+    @Override
+    public void write(final ByteBuffer buffer) throws IOException {
+        writeBuffer(I2C.NO_LOCAL_ADDRESS, buffer);
+    }
+
+    /**
+     * This method writes the remaining bytes of the given buffer to the register address on the i2c device.
+     *
+     * @param address local address in the i2c device
+     * @param buffer buffer of data to be written to the i2c device in one go; its position is advanced to its limit
+     *
+     * @throws IOException thrown in case byte cannot be written to the i2c device or i2c bus
+     */
+    @Override
+    public void write(final int address, final ByteBuffer buffer) throws IOException {
+        writeBuffer(address, buffer);
+    }
+
+    /**
+     * This method reads as many bytes as the given buffer has remaining directly from the i2c device.
+     * Direct buffers are filled without an intermediate copy.
+     *
+     * @param buffer buffer for the data read; its position is advanced by the number of bytes read
+     *
+     * @return number of bytes read
+     *
+     * @throws IOException thrown in case byte cannot be read from the i2c device or i2c bus
+     */
+    @Override
+    public int read(final ByteBuffer buffer) throws IOException {
+        return readBuffer(I2C.NO_LOCAL_ADDRESS, buffer);
+    }
+
+    /**
+     * <p>
+     * This method reads as many bytes as the given buffer has remaining from the register address on the i2c device.
+     * </p>
+     *
+     * <p>
+     * Note: The local address is written and the data is read in one combined transaction (repeated start).
+     * </p>
+     *
+     * @param address local address in the i2c device
+     * @param buffer buffer for the data read; its position is advanced by the number of bytes read
+     *
+     * @return number of bytes read
+     *
+     * @throws IOException thrown in case byte cannot be read from the i2c device or i2c bus
+     */
+    @Override
+    public int read(final int address, final ByteBuffer buffer) throws IOException {
+        return readBuffer(address, buffer);
+    }
+
+    private void writeBuffer(final int address, final ByteBuffer buffer) throws IOException {
+        ByteBuffer source = buffer;
+        if (!buffer.isDirect() && !buffer.hasArray()) {
+            // the array of a read-only heap buffer is not accessible, so its content is copied
+            source = ByteBuffer.allocate(buffer.remaining());
+            source.put(buffer.duplicate());
+            source.flip();
+        }
+        int ret = getBus().writeBuffer(this, address, source.remaining(), source.position(), source);
+        if (ret < 0) {
+            throw new IOException("Error writing to " + makeBufferDescription(address) + ". Got '" + ret + "'.");
+        }
+        buffer.position(buffer.limit());
+    }
+
+    private int readBuffer(final int address, final ByteBuffer buffer) throws IOException {
+        if (buffer.isReadOnly()) {
+            throw new ReadOnlyBufferException();
+        }
+        int ret = getBus().readBuffer(this, address, buffer.remaining(), buffer.position(), buffer);
+        if (ret < 0) {
+            throw new IOException("Error reading from " + makeBufferDescription(address) + ". Got '" + ret + "'.");
+        }
+        buffer.position(buffer.position() + ret);
+        return ret;
+    }
+
+    /**
+     * This method reads one byte from a register of the i2c device using a single SMBus "read byte data" transfer.
+     *
+     * @param register register (SMBus command code) in the i2c device
+     * @return byte value read: positive number (or zero) to 255
+     *
+     * @throws IOException thrown in case byte cannot be read from the i2c device or i2c bus
+     */
+    @Override
+    public int readByteData(final int register) throws IOException {
+        int ret = getBus().smbusReadByteData(this, register);
+        if (ret < 0) {
+            throw new IOException("Error reading from " + makeDescription(register) + ". Got '" + ret + "'.");
+        }
+        return ret;
+    }
+
+    /**
+     * This method writes one byte to a register of the i2c device using a single SMBus "write byte data" transfer.
+     *
+     * @param register register (SMBus command code) in the i2c device
+     * @param b byte to be written
+     *
+     * @throws IOException thrown in case byte cannot be written to the i2c device or i2c bus
+     */
+    @Override
+    public void writeByteData(final int register, final byte b) throws IOException {
+        int ret = getBus().smbusWriteByteData(this, register, b);
+        if (ret < 0) {
+            throw new IOException("Error writing to " + makeDescription(register) + ". Got '" + ret + "'.");
+        }
+    }
+
+    /**
+     * This method reads a 16 bit word from a register of the i2c device using a single SMBus "read word data" transfer.
+     * Note that SMBus transfers the low byte first; devices sending the high byte first need the result byte-swapped.
+     *
+     * @param register register (SMBus command code) in the i2c device
+     * @return word value read: positive number (or zero) to 65535
+     *
+     * @throws IOException thrown in case the word cannot be read from the i2c device or i2c bus
+     */
+    @Override
+    public int readWordData(final int register) throws IOException {
+        int ret = getBus().smbusReadWordData(this, register);
+        if (ret < 0) {
+            throw new IOException("Error reading from " + makeDescription(register) + ". Got '" + ret + "'.");
+        }
+        return ret;
+    }
+
+    /**
+     * This method writes a 16 bit word to a register of the i2c device using a single SMBus "write word data" transfer.
+     * Note that SMBus transfers the low byte first; devices expecting the high byte first need the value byte-swapped.
+     *
+     * @param register register (SMBus command code) in the i2c device
+     * @param word word to be written (lower 16 bits)
+     *
+     * @throws IOException thrown in case the word cannot be written to the i2c device or i2c bus
+     */
+    @Override
+    public void writeWordData(final int register, final int word) throws IOException {
+        int ret = getBus().smbusWriteWordData(this, register, word);
+        if (ret < 0) {
+            throw new IOException("Error writing to " + makeDescription(register) + ". Got '" + ret + "'.");
+        }
+    }
+
+    /**
+     * This method reads an SMBus block (length sent by the device, at most 32 bytes) from a register of the i2c device.
+     *
+     * @param register register (SMBus command code) in the i2c device
+     * @param buffer buffer of data to be read from the i2c device
+     * @param offset offset in buffer
+     * @param size maximum number of bytes to be stored in buffer
+     *
+     * @return length of the block sent by the device
+     *
+     * @throws IOException thrown in case the block cannot be read from the i2c device or i2c bus
+     */
+    @Override
+    public int readBlockData(final int register, final byte[] buffer, final int offset, final int size) throws IOException {
+        int ret = getBus().smbusReadBlockData(this, register, size, offset, buffer);
+        if (ret < 0) {
+            throw new IOException("Error reading from " + makeDescription(register) + ". Got '" + ret + "'.");
+        }
+        return ret;
+    }
+
+    /**
+     * This method writes an SMBus block (length prefixed, at most 32 bytes) to a register of the i2c device.
+     *
+     * @param register register (SMBus command code) in the i2c device
+     * @param buffer buffer of data to be written to the i2c device
+     * @param offset offset in buffer
+     * @param size number of bytes to be written
+     *
+     * @throws IOException thrown in case the block cannot be written to the i2c device or i2c bus
+     */
+    @Override
+    public void writeBlockData(final int register, final byte[] buffer, final int offset, final int size) throws IOException {
+        int ret = getBus().smbusWriteBlockData(this, register, size, offset, buffer);
+        if (ret < 0) {
+            throw new IOException("Error writing to " + makeDescription(register) + ". Got '" + ret + "'.");
+        }
+    }
+
+    /**
+     * This method reads size bytes (at most 32) starting at a register of the i2c device using a single SMBus
+     * "i2c block" transfer.
+     *
+     * @param register register (SMBus command code) in the i2c device
+     * @param buffer buffer of data to be read from the i2c device
+     * @param offset offset in buffer
+     * @param size number of bytes to be read
+     *
+     * @return number of bytes read
+     *
+     * @throws IOException thrown in case bytes cannot be read from the i2c device or i2c bus
+     */
+    @Override
+    public int readI2CBlockData(final int register, final byte[] buffer, final int offset, final int size) throws IOException {
+        int ret = getBus().smbusReadI2CBlockData(this, register, size, offset, buffer);
+        if (ret < 0) {
+            throw new IOException("Error reading from " + makeDescription(register) + ". Got '" + ret + "'.");
+        }
+        return ret;
+    }
+
+    /**
+     * This method writes size bytes (at most 32) starting at a register of the i2c device using a single SMBus
+     * "i2c block" transfer.
+     *
+     * @param register register (SMBus command code) in the i2c device
+     * @param buffer buffer of data to be written to the i2c device
+     * @param offset offset in buffer
+     * @param size number of bytes to be written
+     *
+     * @throws IOException thrown in case bytes cannot be written to the i2c device or i2c bus
+     */
+    @Override
+    public void writeI2CBlockData(final int register, final byte[] buffer, final int offset, final int size) throws IOException {
+        int ret = getBus().smbusWriteI2CBlockData(this, register, size, offset, buffer);
+        if (ret < 0) {
+            throw new IOException("Error writing to " + makeDescription(register) + ". Got '" + ret + "'.");
+        }
+    }
+
+    /**
+     * Enables or disables SMBus packet error checking (PEC) for the SMBus transfers of this device.
+     *
+     * @param enabled true to append and verify a PEC byte on SMBus transfers
+     */
+    @Override
+    public void setPecEnabled(final boolean enabled) {
+        this.pecEnabled = enabled;
+    }
+
+    /**
+     * @return true if SMBus transfers of this device use packet error checking (PEC)
+     */
+    @Override
+    public boolean isPecEnabled() {
+        return pecEnabled;
+    }
+
+    /**
+     * Sets the priority used for operations of this device on the bus worker: for actions submitted
+     * without an explicit priority and, if the bus runs in asynchronous mode, for the synchronous methods.
+     *
+     * @param priority priority of this device's operations
+     */
+    @Override
+    public void setPriority(final I2CPriority priority) {
+        if (priority == null) {
+            throw new NullPointerException("Parameter 'priority' is mandatory!");
+        }
+        this.priority = priority;
+    }
+
+    /**
+     * @return priority of this device's operations on the bus worker
+     */
+    @Override
+    public I2CPriority getPriority() {
+        return priority;
+    }
+
+    /**
+     * This method queues the given action on the bus worker using this device's priority.
+     *
+     * @param action the action to be executed with exclusive access to the bus
+     * @param <T> result type of the action
+     *
+     * @return future completed with the action's result or failure
+     */
+    @Override
+    public <T> CompletableFuture<T> submit(final I2CAction<T> action) {
+        return getBus().submit(this, action, priority, 0, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * This method queues the given action on the bus worker. An action not started before its
+     * deadline is dropped and its future completes with a {@link java.util.concurrent.TimeoutException}.
+     *
+     * @param action the action to be executed with exclusive access to the bus
+     * @param priority queue priority of the action
+     * @param deadline time from now by which the action must be started; zero or less for no deadline
+     * @param unit time unit of the deadline
+     * @param <T> result type of the action
+     *
+     * @return future completed with the action's result or failure
+     */
+    @Override
+    public <T> CompletableFuture<T> submit(final I2CAction<T> action, final I2CPriority priority, final long deadline, final TimeUnit unit) {
+        return getBus().submit(this, action, priority, deadline, unit);
+    }
+
+    /**
+     * This method executes all segments of the given transaction as one combined i2c transaction.
+     * Segments without an explicit address are sent to this device.
+     *
+     * @param transaction segments to be executed
+     *
+     * @return number of segments executed
+     *
+     * @throws IOException thrown in case the transaction cannot be executed on the i2c device or i2c bus
+     */
+    @Override
+    public int transfer(final I2CTransaction transaction) throws IOException {
+        int ret = getBus().transfer(this, transaction);
+        if (ret < 0) {
+            throw new IOException("Error executing transaction on " + makeDescription() + ". Got '" + ret + "'.");
+        }
+        return ret;
+    }
+
     /**
      * This helper method creates a string describing bus file name and device address (in hex).
      *
@@ -297,4 +642,8 @@ public class I2CDeviceImpl implements I2CDevice {
     protected String makeDescription(int address) {
         return "I2CDevice on " + bus + " at address 0x" + Integer.toHexString(deviceAddress) + " to address 0x" + Integer.toHexString(address);
     }
+
+    private String makeBufferDescription(int address) {
+        return (address == I2C.NO_LOCAL_ADDRESS) ? makeDescription() : makeDescription(address);
+    }
 }
@@ -0,0 +1,155 @@
+package com.pi4j.io.i2c.simulated;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  ADS1115Model.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+/**
+ * <p>
+ * Model of the ADS1115 16 bit analog-to-digital converter.
+ * </p>
+ *
+ * <p>
+ * The device has four 16 bit registers sent MSB first; the first byte of a write message selects the register
+ * and two more bytes write it. Conversions complete instantly: a single-shot conversion is taken when the
+ * config register is written with the OS bit set, in continuous mode every read of the conversion register
+ * converts. The result is computed from the input voltages applied with {@link #setInput(int, double)}, the
+ * multiplexer and the programmable gain. The comparator is not simulated.
+ * </p>
+ *
+ * @author Robert Savage (<a
+ *         href="http://www.savagehomeautomation.com">http://www.savagehomeautomation.com</a>)
+ */
+public class ADS1115Model extends I2CDeviceModel {
+
+    public static final int CHANNELS = 4;
+
+    public static final int REGISTER_CONVERSION = 0x00;
+    public static final int REGISTER_CONFIG = 0x01;
+    public static final int REGISTER_LO_THRESH = 0x02;
+    public static final int REGISTER_HI_THRESH = 0x03;
+
+    /** Config bit starting a single-shot conversion; reads as one while no conversion is running */
+    public static final int CONFIG_OS = 0x8000;
+
+    /** Config bit selecting single-shot mode */
+    public static final int CONFIG_MODE = 0x0100;
+
+    // full scale range of the PGA settings
+    private static final double[] FULL_SCALE = { 6.144, 4.096, 2.048, 1.024, 0.512, 0.256, 0.256, 0.256 };
+
+    private final int[] registers = { 0x0000, 0x0583, 0x8000, 0x7FFF };
+    private final double[] inputs = new double[CHANNELS];
+    private int pointer = REGISTER_CONVERSION;
+
+    @Override
+    protected void write(byte[] buffer, int offset, int size) {
+        if (size == 0) {
+            return;
+        }
+
+        pointer = buffer[offset] & 0x03;
+        if (size >= 3) {
+            final int value = ((buffer[offset + 1] & 0xFF) << 8) | (buffer[offset + 2] & 0xFF);
+            if (pointer == REGISTER_CONFIG) {
+                registers[REGISTER_CONFIG] = value & ~CONFIG_OS;
+                if ((value & CONFIG_OS) != 0) {
+                    registers[REGISTER_CONVERSION] = convert();
+                }
+            } else if (pointer != REGISTER_CONVERSION) {
+                registers[pointer] = value;
+            }
+        }
+    }
+
+    @Override
+    protected void read(byte[] buffer, int offset, int size) {
+        int value = registers[pointer];
+        if (pointer == REGISTER_CONFIG) {
+            value |= CONFIG_OS;
+        } else if ((pointer == REGISTER_CONVERSION) && ((registers[REGISTER_CONFIG] & CONFIG_MODE) == 0)) {
+            value = registers[REGISTER_CONVERSION] = convert();
+        }
+
+        // the register is repeated if more than two bytes are read
+        for (int index = 0; index < size; index++) {
+            buffer[offset + index] = (byte) (((index & 0x01) == 0) ? (value >> 8) : value);
+        }
+    }
+
+    /**
+     * Applies a voltage to an analog input.
+     *
+     * @param channel input AIN0 to AIN3 (0 to 3)
+     * @param volts voltage against GND
+     */
+    public synchronized void setInput(int channel, double volts) {
+        inputs[channel] = volts;
+    }
+
+    /**
+     * @param channel input AIN0 to AIN3 (0 to 3)
+     * @return voltage applied to the input
+     */
+    public synchronized double getInput(int channel) {
+        return inputs[channel];
+    }
+
+    /**
+     * @return value of the config register
+     */
+    public synchronized int getConfig() {
+        return registers[REGISTER_CONFIG] | CONFIG_OS;
+    }
+
+    // converts the voltage selected by the multiplexer with the selected gain
+    private int convert() {
+        final int config = registers[REGISTER_CONFIG];
+        final int mux = (config >> 12) & 0x07;
+        final double volts;
+        switch (mux) {
+            case 0:
+                volts = inputs[0] - inputs[1];
+                break;
+            case 1:
+                volts = inputs[0] - inputs[3];
+                break;
+            case 2:
+                volts = inputs[1] - inputs[3];
+                break;
+            case 3:
+                volts = inputs[2] - inputs[3];
+                break;
+            default:
+                volts = inputs[mux - 4];
+        }
+
+        final long code = Math.round(volts / FULL_SCALE[(config >> 9) & 0x07] * 32768.0);
+        return (int) Math.max(-32768, Math.min(32767, code)) & 0xFFFF;
+    }
+}
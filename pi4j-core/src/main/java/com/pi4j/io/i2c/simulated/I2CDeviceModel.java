@@ -0,0 +1,194 @@
+package com.pi4j.io.i2c.simulated;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  I2CDeviceModel.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ * Java model of an i2c device attached to a {@link SimulatedI2CBus}. The bus hands every i2c message to the
+ * model: the bytes the master writes to {@link #write(byte[], int, int)} and the buffer the master reads
+ * into to {@link #read(byte[], int, int)}. SMBus commands, register accesses and combined transactions
+ * are broken down into these messages exactly as they appear on the wire.
+ * </p>
+ *
+ * <p>
+ * Each message may be delayed by a configurable latency. Faults are injected by letting the device not
+ * acknowledge the next messages ({@link #failNext(int)}) or any message ({@link #setOffline(boolean)}),
+ * which the bus reports like the native layer reports a NACK.
+ * </p>
+ *
+ * <p>
+ * Messages and the methods of subclasses simulating the device's environment are synchronized on the model.
+ * </p>
+ *
+ * @author Robert Savage (<a
+ *         href="http://www.savagehomeautomation.com">http://www.savagehomeautomation.com</a>)
+ */
+public abstract class I2CDeviceModel {
+
+    private volatile long latencyNanos = 0;
+    private int pendingFailures = 0;
+    private boolean offline = false;
+    private long writeCount = 0;
+    private long readCount = 0;
+
+    /**
+     * Handles a message written by the master.
+     *
+     * @param buffer buffer holding the bytes sent
+     * @param offset offset of the first byte
+     * @param size number of bytes sent; zero for an SMBus quick write
+     */
+    protected abstract void write(byte[] buffer, int offset, int size);
+
+    /**
+     * Handles a message read by the master.
+     *
+     * @param buffer buffer to be filled with the bytes the device sends
+     * @param offset offset of the first byte
+     * @param size number of bytes requested
+     */
+    protected abstract void read(byte[] buffer, int offset, int size);
+
+    /**
+     * Sets the time every message takes.
+     *
+     * @param latency duration of a message; zero to run at full speed
+     * @param unit time unit of the latency
+     */
+    public void setLatency(long latency, TimeUnit unit) {
+        latencyNanos = unit.toNanos(latency);
+    }
+
+    /**
+     * @param unit time unit of the returned value
+     * @return the time every message takes
+     */
+    public long getLatency(TimeUnit unit) {
+        return unit.convert(latencyNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Lets the device not acknowledge the given number of following messages.
+     *
+     * @param count number of messages to fail
+     */
+    public synchronized void failNext(int count) {
+        pendingFailures = count;
+    }
+
+    /**
+     * @param offline true if the device must not acknowledge any message, like a device which is not powered
+     */
+    public synchronized void setOffline(boolean offline) {
+        this.offline = offline;
+    }
+
+    /**
+     * @return true if the device does not acknowledge any message
+     */
+    public synchronized boolean isOffline() {
+        return offline;
+    }
+
+    /**
+     * @return number of write messages acknowledged by the device
+     */
+    public synchronized long getWriteCount() {
+        return writeCount;
+    }
+
+    /**
+     * @return number of read messages acknowledged by the device
+     */
+    public synchronized long getReadCount() {
+        return readCount;
+    }
+
+    /**
+     * Resets the message counters.
+     */
+    public synchronized void resetCounts() {
+        writeCount = 0;
+        readCount = 0;
+    }
+
+    // called by the bus; returns false if the device did not acknowledge the message
+    final boolean handleWrite(byte[] buffer, int offset, int size) {
+        pause();
+        synchronized (this) {
+            if (!acknowledge()) {
+                return false;
+            }
+            writeCount++;
+            write(buffer, offset, size);
+            return true;
+        }
+    }
+
+    // called by the bus; returns false if the device did not acknowledge the message
+    final boolean handleRead(byte[] buffer, int offset, int size) {
+        pause();
+        synchronized (this) {
+            if (!acknowledge()) {
+                return false;
+            }
+            readCount++;
+            read(buffer, offset, size);
+            return true;
+        }
+    }
+
+    private boolean acknowledge() {
+        if (offline) {
+            return false;
+        }
+        if (pendingFailures > 0) {
+            pendingFailures--;
+            return false;
+        }
+        return true;
+    }
+
+    // the latency is spent outside of the model's lock, so the environment may change meanwhile
+    private void pause() {
+        final long latency = latencyNanos;
+        if (latency > 0) {
+            final long end = System.nanoTime() + latency;
+            long remaining = latency;
+            while (remaining > 0) {
+                LockSupport.parkNanos(remaining);
+                remaining = end - System.nanoTime();
+            }
+        }
+    }
+}
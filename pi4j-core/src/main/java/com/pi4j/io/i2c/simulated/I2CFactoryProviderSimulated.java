@@ -0,0 +1,179 @@
+package com.pi4j.io.i2c.simulated;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  I2CFactoryProviderSimulated.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.pi4j.io.i2c.I2CBus;
+import com.pi4j.io.i2c.I2CFactory.UnsupportedBusNumberException;
+import com.pi4j.io.i2c.I2CFactoryProvider;
+
+/**
+ * <p>
+ * I2C factory provider simulating i2c buses in memory, so i2c drivers can be tested and benchmarked without
+ * hardware and without native code. Device models are attached to addresses of a bus; models for the
+ * MCP23017, PCA9685, ADS1115 and MCP4725 are available.
+ * </p>
+ *
+ * <pre>
+ * I2CFactoryProviderSimulated simulation = new I2CFactoryProviderSimulated();
+ * MCP23017Model expander = new MCP23017Model();
+ * simulation.attach(I2CBus.BUS_1, 0x20, expander);
+ * I2CFactory.setFactory(simulation);
+ * </pre>
+ *
+ * <p>
+ * Buses are shared like the hardware buses: {@link #getBus(int, long, TimeUnit)} returns the same instance until
+ * it is closed. The models stay attached when a bus is closed, so a bus acquired again finds the devices in the
+ * state they were left in.
+ * </p>
+ *
+ * @author Robert Savage (<a
+ *         href="http://www.savagehomeautomation.com">http://www.savagehomeautomation.com</a>)
+ */
+public class I2CFactoryProviderSimulated implements I2CFactoryProvider {
+
+    private static final int ADDRESSES = 128;
+
+    /** Models attached to each bus, indexed by address */
+    private final Map<Integer, AtomicReferenceArray<I2CDeviceModel>> wiring = new TreeMap<>();
+
+    /** Open bus instances */
+    private final Map<Integer, SimulatedI2CBus> buses = new HashMap<>();
+
+    /**
+     * Adds an empty bus.
+     *
+     * @param busNumber number of the bus
+     * @return this provider
+     */
+    public synchronized I2CFactoryProviderSimulated addBus(int busNumber) {
+        getWiring(busNumber);
+        return this;
+    }
+
+    /**
+     * Attaches a device model to an address of a bus, replacing the model attached before. The bus is added
+     * if it does not exist yet.
+     *
+     * @param busNumber number of the bus
+     * @param address i2c device address
+     * @param model the device model
+     * @return this provider
+     */
+    public synchronized I2CFactoryProviderSimulated attach(int busNumber, int address, I2CDeviceModel model) {
+        if (model == null) {
+            throw new NullPointerException("Parameter 'model' is mandatory!");
+        }
+        checkAddress(address);
+
+        getWiring(busNumber).set(address, model);
+        return this;
+    }
+
+    /**
+     * Removes the device model from an address of a bus.
+     *
+     * @param busNumber number of the bus
+     * @param address i2c device address
+     * @return the model removed or null
+     */
+    public synchronized I2CDeviceModel detach(int busNumber, int address) {
+        checkAddress(address);
+
+        final AtomicReferenceArray<I2CDeviceModel> models = wiring.get(busNumber);
+        return (models == null) ? null : models.getAndSet(address, null);
+    }
+
+    /**
+     * @param busNumber number of the bus
+     * @param address i2c device address
+     * @return the model attached to the address or null
+     */
+    public synchronized I2CDeviceModel getModel(int busNumber, int address) {
+        checkAddress(address);
+
+        final AtomicReferenceArray<I2CDeviceModel> models = wiring.get(busNumber);
+        return (models == null) ? null : models.get(address);
+    }
+
+    /**
+     * Returns the bus with the given number. The lock timeout is taken from the call opening the bus.
+     *
+     * @throws UnsupportedBusNumberException if the bus has not been added
+     */
+    @Override
+    public synchronized I2CBus getBus(int busNumber, long lockAquireTimeout, TimeUnit lockAquireTimeoutUnit) throws UnsupportedBusNumberException {
+        final AtomicReferenceArray<I2CDeviceModel> models = wiring.get(busNumber);
+        if (models == null) {
+            throw new UnsupportedBusNumberException();
+        }
+
+        SimulatedI2CBus bus = buses.get(busNumber);
+        if ((bus == null) || !bus.isOpen()) {
+            bus = new SimulatedI2CBus(busNumber, models, lockAquireTimeout, lockAquireTimeoutUnit);
+            bus.open();
+            buses.put(busNumber, bus);
+        }
+        return bus;
+    }
+
+    /**
+     * @return numbers of the buses added, in ascending order
+     */
+    @Override
+    public synchronized int[] getBusNumbers() {
+        final int[] busNumbers = new int[wiring.size()];
+        int index = 0;
+        for (Integer busNumber : wiring.keySet()) {
+            busNumbers[index++] = busNumber;
+        }
+        return busNumbers;
+    }
+
+    private AtomicReferenceArray<I2CDeviceModel> getWiring(int busNumber) {
+        AtomicReferenceArray<I2CDeviceModel> models = wiring.get(busNumber);
+        if (models == null) {
+            models = new AtomicReferenceArray<>(ADDRESSES);
+            wiring.put(busNumber, models);
+        }
+        return models;
+    }
+
+    private static void checkAddress(int address) {
+        if ((address < 0) || (address >= ADDRESSES)) {
+            throw new IllegalArgumentException("Invalid i2c address 0x" + Integer.toHexString(address));
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.pi4j.io.i2c.simulated;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  I2CRegisterFileModel.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+/**
+ * <p>
+ * Model of the common i2c device with 8 bit registers behind a register pointer: the first byte of a write
+ * message sets the pointer, the following bytes are written to the registers, and read messages return the
+ * registers starting at the pointer. The pointer is advanced after every register access as defined by
+ * {@link #nextRegister(int)}.
+ * </p>
+ *
+ * <p>
+ * Subclasses give registers a meaning by overriding {@link #readRegister(int)} and
+ * {@link #writeRegister(int, int)}.
+ * </p>
+ *
+ * @author Robert Savage (<a
+ *         href="http://www.savagehomeautomation.com">http://www.savagehomeautomation.com</a>)
+ */
+public class I2CRegisterFileModel extends I2CDeviceModel {
+
+    /** Register values; only used while holding the model's lock */
+    protected final int[] registers;
+
+    /** Register pointer; only used while holding the model's lock */
+    protected int pointer = 0;
+
+    /**
+     * @param size number of registers
+     */
+    public I2CRegisterFileModel(int size) {
+        if ((size < 1) || (size > 256)) {
+            throw new IllegalArgumentException("A register file has 1 to 256 registers, not " + size);
+        }
+        registers = new int[size];
+    }
+
+    @Override
+    protected void write(byte[] buffer, int offset, int size) {
+        if (size == 0) {
+            return;
+        }
+
+        pointer = buffer[offset] & 0xFF;
+        for (int index = 1; index < size; index++) {
+            writeRegister(pointer, buffer[offset + index] & 0xFF);
+            pointer = nextRegister(pointer);
+        }
+    }
+
+    @Override
+    protected void read(byte[] buffer, int offset, int size) {
+        for (int index = 0; index < size; index++) {
+            buffer[offset + index] = (byte) readRegister(pointer);
+            pointer = nextRegister(pointer);
+        }
+    }
+
+    /**
+     * Returns the value the device sends for the register. Registers beyond the register file read as zero.
+     *
+     * @param register register address
+     * @return register value
+     */
+    protected int readRegister(int register) {
+        return (register < registers.length) ? registers[register] : 0;
+    }
+
+    /**
+     * Stores the value written by the master to the register. Writes beyond the register file are ignored.
+     *
+     * @param register register address
+     * @param value register value
+     */
+    protected void writeRegister(int register, int value) {
+        if (register < registers.length) {
+            registers[register] = value;
+        }
+    }
+
+    /**
+     * @param register register just accessed
+     * @return register accessed next within the same message; by default the following one, wrapping around
+     */
+    protected int nextRegister(int register) {
+        return (register + 1) % registers.length;
+    }
+
+    /**
+     * Returns the stored value of a register without side effects.
+     *
+     * @param register register address
+     * @return register value
+     */
+    public synchronized int getRegister(int register) {
+        return registers[register];
+    }
+
+    /**
+     * Changes the stored value of a register without side effects, e.g. to preset the device's state.
+     *
+     * @param register register address
+     * @param value register value
+     */
+    public synchronized void setRegister(int register, int value) {
+        registers[register] = value & 0xFF;
+    }
+}
@@ -0,0 +1,197 @@
+package com.pi4j.io.i2c.simulated;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  MCP23017Model.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+/**
+ * <p>
+ * Model of the MCP23017 16 bit i/o expander in the default register layout (IOCON.BANK = 0; the BANK bit
+ * is stored but the layout does not change).
+ * </p>
+ *
+ * <p>
+ * Reading GPIO returns the externally applied level of input pins (inverted as configured by IPOL) and the
+ * output latch of output pins; writing GPIO writes the output latch. Input changes applied with
+ * {@link #setInput(int, boolean)} raise interrupt-on-change flags as configured by GPINTEN, INTCON and
+ * DEFVAL and capture the port in INTCAP; reading GPIO or INTCAP of the port clears them. The register
+ * pointer advances through all registers unless IOCON.SEQOP is set.
+ * </p>
+ *
+ * <p>
+ * Pins are numbered 0 to 15: GPA0 to GPA7 followed by GPB0 to GPB7.
+ * </p>
+ *
+ * @author Robert Savage (<a
+ *         href="http://www.savagehomeautomation.com">http://www.savagehomeautomation.com</a>)
+ */
+public class MCP23017Model extends I2CRegisterFileModel {
+
+    public static final int PORT_A = 0;
+    public static final int PORT_B = 1;
+
+    public static final int REGISTER_IODIR_A = 0x00;
+    public static final int REGISTER_IPOL_A = 0x02;
+    public static final int REGISTER_GPINTEN_A = 0x04;
+    public static final int REGISTER_DEFVAL_A = 0x06;
+    public static final int REGISTER_INTCON_A = 0x08;
+    public static final int REGISTER_IOCON = 0x0A;
+    public static final int REGISTER_GPPU_A = 0x0C;
+    public static final int REGISTER_INTF_A = 0x0E;
+    public static final int REGISTER_INTCAP_A = 0x10;
+    public static final int REGISTER_GPIO_A = 0x12;
+    public static final int REGISTER_OLAT_A = 0x14;
+
+    /** IOCON bit disabling the increment of the register pointer */
+    public static final int IOCON_SEQOP = 0x20;
+
+    private static final int REGISTER_COUNT = 0x16;
+
+    // levels applied to the pins from outside, one int per port
+    private final int[] inputs = new int[2];
+
+    public MCP23017Model() {
+        super(REGISTER_COUNT);
+
+        // all pins are inputs after power-on reset
+        registers[REGISTER_IODIR_A] = 0xFF;
+        registers[REGISTER_IODIR_A + PORT_B] = 0xFF;
+    }
+
+    @Override
+    protected int readRegister(int register) {
+        // registers of port A and B alternate
+        final int port = register & 0x01;
+        switch (register & ~0x01) {
+            case REGISTER_GPIO_A:
+                registers[REGISTER_INTF_A + port] = 0;
+                return getLevels(port) ^ (registers[REGISTER_IPOL_A + port] & registers[REGISTER_IODIR_A + port]);
+            case REGISTER_INTCAP_A:
+                registers[REGISTER_INTF_A + port] = 0;
+                return registers[register];
+            default:
+                return super.readRegister(register);
+        }
+    }
+
+    @Override
+    protected void writeRegister(int register, int value) {
+        final int port = register & 0x01;
+        switch (register & ~0x01) {
+            case REGISTER_GPIO_A:
+                registers[REGISTER_OLAT_A + port] = value;
+                break;
+            case REGISTER_IOCON:
+                // IOCON is mapped to both addresses
+                registers[REGISTER_IOCON] = value;
+                registers[REGISTER_IOCON + 1] = value;
+                break;
+            case REGISTER_INTF_A:
+            case REGISTER_INTCAP_A:
+                // read-only
+                break;
+            default:
+                super.writeRegister(register, value);
+        }
+    }
+
+    @Override
+    protected int nextRegister(int register) {
+        if ((registers[REGISTER_IOCON] & IOCON_SEQOP) != 0) {
+            return register;
+        }
+        return super.nextRegister(register);
+    }
+
+    /**
+     * Applies a level to a pin from outside. The level is only visible in GPIO if the pin is an input.
+     *
+     * @param pin pin number (0 to 15)
+     * @param high true for a high level
+     */
+    public synchronized void setInput(int pin, boolean high) {
+        final int port = pin >> 3;
+        final int mask = 1 << (pin & 0x07);
+        setInputs(port, high ? (inputs[port] | mask) : (inputs[port] & ~mask));
+    }
+
+    /**
+     * Applies levels to all pins of a port from outside.
+     *
+     * @param port {@link #PORT_A} or {@link #PORT_B}
+     * @param levels one bit per pin
+     */
+    public synchronized void setInputs(int port, int levels) {
+        final int previous = getLevels(port);
+        inputs[port] = levels & 0xFF;
+        final int current = getLevels(port);
+
+        // compare against DEFVAL or the previous level as selected by INTCON
+        final int intcon = registers[REGISTER_INTCON_A + port];
+        final int reference = (registers[REGISTER_DEFVAL_A + port] & intcon) | (previous & ~intcon);
+        final int changed = (current ^ reference) & registers[REGISTER_GPINTEN_A + port] & registers[REGISTER_IODIR_A + port];
+        if (changed != 0) {
+            if (registers[REGISTER_INTF_A + port] == 0) {
+                registers[REGISTER_INTCAP_A + port] = current;
+            }
+            registers[REGISTER_INTF_A + port] |= changed;
+        }
+    }
+
+    /**
+     * @param pin pin number (0 to 15)
+     * @return true if the pin is an output driven high
+     */
+    public synchronized boolean isOutputHigh(int pin) {
+        final int port = pin >> 3;
+        final int mask = 1 << (pin & 0x07);
+        return ((registers[REGISTER_IODIR_A + port] & mask) == 0) && ((registers[REGISTER_OLAT_A + port] & mask) != 0);
+    }
+
+    /**
+     * @param pin pin number (0 to 15)
+     * @return true if the pin is an input
+     */
+    public synchronized boolean isInput(int pin) {
+        return (registers[REGISTER_IODIR_A + (pin >> 3)] & (1 << (pin & 0x07))) != 0;
+    }
+
+    /**
+     * @param port {@link #PORT_A} or {@link #PORT_B}
+     * @return true if the interrupt output of the port (INTA or INTB) is active
+     */
+    public synchronized boolean isInterruptActive(int port) {
+        return registers[REGISTER_INTF_A + port] != 0;
+    }
+
+    // levels of the port's pins: the applied level for inputs, the latch for outputs
+    private int getLevels(int port) {
+        final int iodir = registers[REGISTER_IODIR_A + port];
+        return (inputs[port] & iodir) | (registers[REGISTER_OLAT_A + port] & ~iodir & 0xFF);
+    }
+}
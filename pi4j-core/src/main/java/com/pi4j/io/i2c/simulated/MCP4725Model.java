@@ -0,0 +1,139 @@
+package com.pi4j.io.i2c.simulated;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  MCP4725Model.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+/**
+ * <p>
+ * Model of the MCP4725 12 bit digital-to-analog converter.
+ * </p>
+ *
+ * <p>
+ * Supported write commands are fast mode (two bytes, repeatable within a message), write DAC register and
+ * write DAC register and EEPROM (three bytes each). EEPROM writes complete instantly. A read returns the
+ * status byte, the DAC register and the EEPROM contents in the device's five byte format; longer reads repeat
+ * it.
+ * </p>
+ *
+ * @author Robert Savage (<a
+ *         href="http://www.savagehomeautomation.com">http://www.savagehomeautomation.com</a>)
+ */
+public class MCP4725Model extends I2CDeviceModel {
+
+    public static final int COMMAND_WRITE_DAC = 0x02;
+    public static final int COMMAND_WRITE_DAC_EEPROM = 0x03;
+
+    private int value = 0;
+    private int powerDown = 0;
+    private int eepromValue = 0;
+    private int eepromPowerDown = 0;
+
+    @Override
+    protected void write(byte[] buffer, int offset, int size) {
+        if (size == 0) {
+            return;
+        }
+
+        final int first = buffer[offset] & 0xFF;
+        if ((first & 0xC0) == 0) {
+            // fast mode: 0 0 PD1 PD0 D11 D10 D9 D8, D7 .. D0
+            for (int index = 0; index + 1 < size; index += 2) {
+                final int high = buffer[offset + index] & 0xFF;
+                powerDown = (high >> 4) & 0x03;
+                value = ((high & 0x0F) << 8) | (buffer[offset + index + 1] & 0xFF);
+            }
+            return;
+        }
+
+        // C2 C1 C0 x x PD1 PD0 x, D11 .. D4, D3 D2 D1 D0 x x x x
+        final int command = first >> 5;
+        if ((size < 3) || ((command != COMMAND_WRITE_DAC) && (command != COMMAND_WRITE_DAC_EEPROM))) {
+            return;
+        }
+        powerDown = (first >> 1) & 0x03;
+        value = ((buffer[offset + 1] & 0xFF) << 4) | ((buffer[offset + 2] & 0xFF) >> 4);
+        if (command == COMMAND_WRITE_DAC_EEPROM) {
+            eepromValue = value;
+            eepromPowerDown = powerDown;
+        }
+    }
+
+    @Override
+    protected void read(byte[] buffer, int offset, int size) {
+        for (int index = 0; index < size; index++) {
+            final int data;
+            switch (index % 5) {
+                case 0:
+                    // RDY, POR, x, x, x, PD1, PD0, x
+                    data = 0xC0 | (powerDown << 1);
+                    break;
+                case 1:
+                    data = value >> 4;
+                    break;
+                case 2:
+                    data = (value & 0x0F) << 4;
+                    break;
+                case 3:
+                    data = (eepromPowerDown << 5) | (eepromValue >> 8);
+                    break;
+                default:
+                    data = eepromValue & 0xFF;
+            }
+            buffer[offset + index] = (byte) data;
+        }
+    }
+
+    /**
+     * @return 12 bit value of the DAC register
+     */
+    public synchronized int getValue() {
+        return value;
+    }
+
+    /**
+     * @return power-down bits of the DAC register; zero in normal mode
+     */
+    public synchronized int getPowerDown() {
+        return powerDown;
+    }
+
+    /**
+     * @return 12 bit value stored in the EEPROM
+     */
+    public synchronized int getEepromValue() {
+        return eepromValue;
+    }
+
+    /**
+     * @return power-down bits stored in the EEPROM
+     */
+    public synchronized int getEepromPowerDown() {
+        return eepromPowerDown;
+    }
+}
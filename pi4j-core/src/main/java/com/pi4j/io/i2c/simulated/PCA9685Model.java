@@ -0,0 +1,168 @@
+package com.pi4j.io.i2c.simulated;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  PCA9685Model.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+/**
+ * <p>
+ * Model of the PCA9685 16 channel PWM controller.
+ * </p>
+ *
+ * <p>
+ * The register pointer only advances if MODE1.AI is set; it then skips the reserved registers between
+ * LED15_OFF_H and ALL_LED_ON_L. Writes to the ALL_LED registers are applied to all channels and the
+ * ALL_LED registers read as zero. PRE_SCALE only accepts writes while MODE1.SLEEP is set. Writing
+ * MODE1.RESTART restarts the PWM channels, so the bit always reads as zero.
+ * </p>
+ *
+ * @author Robert Savage (<a
+ *         href="http://www.savagehomeautomation.com">http://www.savagehomeautomation.com</a>)
+ */
+public class PCA9685Model extends I2CRegisterFileModel {
+
+    public static final int CHANNELS = 16;
+
+    public static final int REGISTER_MODE1 = 0x00;
+    public static final int REGISTER_MODE2 = 0x01;
+    public static final int REGISTER_LED0_ON_L = 0x06;
+    public static final int REGISTER_LED15_OFF_H = 0x45;
+    public static final int REGISTER_ALL_LED_ON_L = 0xFA;
+    public static final int REGISTER_ALL_LED_OFF_H = 0xFD;
+    public static final int REGISTER_PRESCALE = 0xFE;
+
+    public static final int MODE1_RESTART = 0x80;
+    public static final int MODE1_AI = 0x20;
+    public static final int MODE1_SLEEP = 0x10;
+
+    /** Bit 4 of LEDn_ON_H and LEDn_OFF_H selecting full on or full off */
+    public static final int LED_FULL = 0x10;
+
+    /** Frequency of the internal oscillator */
+    public static final double OSCILLATOR_FREQUENCY = 25000000.0;
+
+    public PCA9685Model() {
+        super(256);
+
+        // power-on reset values
+        registers[REGISTER_MODE1] = 0x11;
+        registers[REGISTER_MODE2] = 0x04;
+        registers[0x02] = 0xE2;
+        registers[0x03] = 0xE4;
+        registers[0x04] = 0xE8;
+        registers[0x05] = 0xE0;
+        for (int channel = 0; channel < CHANNELS; channel++) {
+            registers[REGISTER_LED0_ON_L + 4 * channel + 3] = LED_FULL;
+        }
+        registers[REGISTER_PRESCALE] = 0x1E;
+    }
+
+    @Override
+    protected int readRegister(int register) {
+        if ((register >= REGISTER_ALL_LED_ON_L) && (register <= REGISTER_ALL_LED_OFF_H)) {
+            return 0;
+        }
+        return super.readRegister(register);
+    }
+
+    @Override
+    protected void writeRegister(int register, int value) {
+        if (register == REGISTER_MODE1) {
+            registers[register] = value & ~MODE1_RESTART;
+        } else if ((register > REGISTER_LED15_OFF_H) && (register < REGISTER_ALL_LED_ON_L)) {
+            // reserved registers ignore writes
+            return;
+        } else if ((register >= REGISTER_ALL_LED_ON_L) && (register <= REGISTER_ALL_LED_OFF_H)) {
+            for (int channel = 0; channel < CHANNELS; channel++) {
+                registers[REGISTER_LED0_ON_L + 4 * channel + register - REGISTER_ALL_LED_ON_L] = value;
+            }
+        } else if (register == REGISTER_PRESCALE) {
+            if ((registers[REGISTER_MODE1] & MODE1_SLEEP) != 0) {
+                registers[register] = value;
+            }
+        } else {
+            super.writeRegister(register, value);
+        }
+    }
+
+    @Override
+    protected int nextRegister(int register) {
+        if ((registers[REGISTER_MODE1] & MODE1_AI) == 0) {
+            return register;
+        }
+        return (register == REGISTER_LED15_OFF_H) ? REGISTER_ALL_LED_ON_L : super.nextRegister(register);
+    }
+
+    /**
+     * @param channel PWM channel (0 to 15)
+     * @return 12 bit count at which the channel is switched on
+     */
+    public synchronized int getOn(int channel) {
+        final int register = REGISTER_LED0_ON_L + 4 * channel;
+        return registers[register] | ((registers[register + 1] & 0x0F) << 8);
+    }
+
+    /**
+     * @param channel PWM channel (0 to 15)
+     * @return 12 bit count at which the channel is switched off
+     */
+    public synchronized int getOff(int channel) {
+        final int register = REGISTER_LED0_ON_L + 4 * channel;
+        return registers[register + 2] | ((registers[register + 3] & 0x0F) << 8);
+    }
+
+    /**
+     * @param channel PWM channel (0 to 15)
+     * @return true if the channel is fully on (and not fully off, which takes precedence)
+     */
+    public synchronized boolean isFullOn(int channel) {
+        return ((registers[REGISTER_LED0_ON_L + 4 * channel + 1] & LED_FULL) != 0) && !isFullOff(channel);
+    }
+
+    /**
+     * @param channel PWM channel (0 to 15)
+     * @return true if the channel is fully off
+     */
+    public synchronized boolean isFullOff(int channel) {
+        return (registers[REGISTER_LED0_ON_L + 4 * channel + 3] & LED_FULL) != 0;
+    }
+
+    /**
+     * @return true if the oscillator is off
+     */
+    public synchronized boolean isSleeping() {
+        return (registers[REGISTER_MODE1] & MODE1_SLEEP) != 0;
+    }
+
+    /**
+     * @return PWM frequency defined by PRE_SCALE
+     */
+    public synchronized double getFrequency() {
+        return OSCILLATOR_FREQUENCY / (4096.0 * (registers[REGISTER_PRESCALE] + 1));
+    }
+}
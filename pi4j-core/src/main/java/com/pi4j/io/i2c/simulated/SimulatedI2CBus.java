@@ -0,0 +1,485 @@
+package com.pi4j.io.i2c.simulated;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  SimulatedI2CBus.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.pi4j.io.i2c.I2CTransaction;
+import com.pi4j.io.i2c.impl.I2CBusImpl;
+import com.pi4j.io.i2c.impl.I2CDeviceImpl;
+import com.pi4j.jni.I2C;
+
+/**
+ * <p>
+ * I2C bus whose devices are {@link I2CDeviceModel}s instead of hardware. Buses are created by
+ * {@link I2CFactoryProviderSimulated}.
+ * </p>
+ *
+ * <p>
+ * Devices returned by this bus are the regular {@link I2CDeviceImpl}s, so drivers, the bus lock and the
+ * bus worker behave as on hardware. Only the native calls are replaced: every operation is broken down into
+ * the i2c messages it consists of and handed to the model attached to the address. If there is no model or
+ * the model does not acknowledge, the operation fails with an error code in the range of the native layer.
+ * </p>
+ *
+ * <p>
+ * Device methods always run on the calling thread; the system property 'pi4j.i2c.async' is ignored while
+ * {@link I2CDeviceImpl#submit(com.pi4j.io.i2c.I2CAction)} still queues on the bus worker. PEC is not simulated.
+ * </p>
+ *
+ * @author Robert Savage (<a
+ *         href="http://www.savagehomeautomation.com">http://www.savagehomeautomation.com</a>)
+ */
+public class SimulatedI2CBus extends I2CBusImpl {
+
+    // error codes of the native layer for a device not acknowledging
+    private static final int WRITE_FAILED = -20001;
+    private static final int READ_FAILED = -30001;
+    private static final int TRANSFER_FAILED = -40001;
+    private static final int SMBUS_FAILED = -50001;
+
+    private static final int SMBUS_BLOCK_MAX = 32;
+
+    /** Models attached to the bus, indexed by address */
+    private final AtomicReferenceArray<I2CDeviceModel> models;
+
+    // buffer of the messages put together by the bus; only used while holding the bus lock
+    private byte[] message = new byte[SMBUS_BLOCK_MAX + 2];
+
+    SimulatedI2CBus(final int busNumber, final AtomicReferenceArray<I2CDeviceModel> models, final long lockAquireTimeout, final TimeUnit lockAquireTimeoutUnit) {
+        super(busNumber, "simulated", lockAquireTimeout, lockAquireTimeoutUnit);
+        this.models = models;
+        this.asyncMode = false;
+    }
+
+    @Override
+    protected void open() {
+        fd = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (fd == -1) {
+            return;
+        }
+
+        lockBus();
+        try {
+            getScheduler().shutdown();
+            fd = -1;
+        } finally {
+            unlockBus();
+        }
+    }
+
+    boolean isOpen() {
+        return fd != -1;
+    }
+
+    @Override
+    public int readByteDirect(final I2CDeviceImpl device) throws IOException {
+        testForProperOperationConditions(device);
+
+        lockBus();
+        try {
+            if (!read(device.getAddress(), message, 0, 1)) {
+                return READ_FAILED;
+            }
+            return message[0] & 0xFF;
+        } finally {
+            unlockBus();
+        }
+    }
+
+    @Override
+    public int readBytesDirect(final I2CDeviceImpl device, final int size, final int offset, final byte[] buffer) throws IOException {
+        testForProperOperationConditions(device);
+
+        lockBus();
+        try {
+            return read(device.getAddress(), buffer, offset, size) ? size : READ_FAILED;
+        } finally {
+            unlockBus();
+        }
+    }
+
+    @Override
+    public int readByte(final I2CDeviceImpl device, final int localAddress) throws IOException {
+        testForProperOperationConditions(device);
+
+        lockBus();
+        try {
+            message[0] = (byte) localAddress;
+            if (!write(device.getAddress(), message, 0, 1)) {
+                return WRITE_FAILED;
+            }
+            if (!read(device.getAddress(), message, 0, 1)) {
+                return READ_FAILED;
+            }
+            return message[0] & 0xFF;
+        } finally {
+            unlockBus();
+        }
+    }
+
+    @Override
+    public int readBytes(final I2CDeviceImpl device, final int localAddress, final int size, final int offset, final byte[] buffer) throws IOException {
+        testForProperOperationConditions(device);
+
+        lockBus();
+        try {
+            message[0] = (byte) localAddress;
+            if (!write(device.getAddress(), message, 0, 1)) {
+                return WRITE_FAILED;
+            }
+            return read(device.getAddress(), buffer, offset, size) ? size : READ_FAILED;
+        } finally {
+            unlockBus();
+        }
+    }
+
+    @Override
+    public int writeByteDirect(final I2CDeviceImpl device, final byte data) throws IOException {
+        testForProperOperationConditions(device);
+
+        lockBus();
+        try {
+            message[0] = data;
+            return write(device.getAddress(), message, 0, 1) ? 0 : WRITE_FAILED;
+        } finally {
+            unlockBus();
+        }
+    }
+
+    @Override
+    public int writeBytesDirect(final I2CDeviceImpl device, final int size, final int offset, final byte[] buffer) throws IOException {
+        testForProperOperationConditions(device);
+
+        lockBus();
+        try {
+            return write(device.getAddress(), buffer, offset, size) ? 0 : WRITE_FAILED;
+        } finally {
+            unlockBus();
+        }
+    }
+
+    @Override
+    public int writeByte(final I2CDeviceImpl device, final int localAddress, final byte data) throws IOException {
+        testForProperOperationConditions(device);
+
+        lockBus();
+        try {
+            message[0] = (byte) localAddress;
+            message[1] = data;
+            return write(device.getAddress(), message, 0, 2) ? 0 : WRITE_FAILED;
+        } finally {
+            unlockBus();
+        }
+    }
+
+    @Override
+    public int writeBytes(final I2CDeviceImpl device, final int localAddress, final int size, final int offset, final byte[] buffer) throws IOException {
+        testForProperOperationConditions(device);
+
+        lockBus();
+        try {
+            final byte[] data = message(size + 1);
+            data[0] = (byte) localAddress;
+            System.arraycopy(buffer, offset, data, 1, size);
+            return write(device.getAddress(), data, 0, size + 1) ? 0 : WRITE_FAILED;
+        } finally {
+            unlockBus();
+        }
+    }
+
+    @Override
+    public int writeAndReadBytesDirect(final I2CDeviceImpl device, final int writeSize, final int writeOffset, final byte[] writeBuffer, final int readSize, final int readOffset, final byte[] readBuffer) throws IOException {
+        testForProperOperationConditions(device);
+
+        lockBus();
+        try {
+            if (!write(device.getAddress(), writeBuffer, writeOffset, writeSize)) {
+                return WRITE_FAILED;
+            }
+            return read(device.getAddress(), readBuffer, readOffset, readSize) ? readSize : READ_FAILED;
+        } finally {
+            unlockBus();
+        }
+    }
+
+    @Override
+    public int writeBuffer(final I2CDeviceImpl device, final int localAddress, final int size, final int position, final ByteBuffer buffer) throws IOException {
+        testForProperOperationConditions(device);
+
+        lockBus();
+        try {
+            final int start = (localAddress == I2C.NO_LOCAL_ADDRESS) ? 0 : 1;
+            final byte[] data = message(start + size);
+            data[0] = (byte) localAddress;
+            for (int index = 0; index < size; index++) {
+                data[start + index] = buffer.get(position + index);
+            }
+            return write(device.getAddress(), data, 0, start + size) ? 0 : WRITE_FAILED;
+        } finally {
+            unlockBus();
+        }
+    }
+
+    @Override
+    public int readBuffer(final I2CDeviceImpl device, final int localAddress, final int size, final int position, final ByteBuffer buffer) throws IOException {
+        testForProperOperationConditions(device);
+
+        lockBus();
+        try {
+            if (localAddress != I2C.NO_LOCAL_ADDRESS) {
+                message[0] = (byte) localAddress;
+                if (!write(device.getAddress(), message, 0, 1)) {
+                    return WRITE_FAILED;
+                }
+            }
+            final byte[] data = message(size);
+            if (!read(device.getAddress(), data, 0, size)) {
+                return READ_FAILED;
+            }
+            for (int index = 0; index < size; index++) {
+                buffer.put(position + index, data[index]);
+            }
+            return size;
+        } finally {
+            unlockBus();
+        }
+    }
+
+    @Override
+    public int smbusReadByteData(final I2CDeviceImpl device, final int command) throws IOException {
+        testForProperOperationConditions(device);
+
+        lockBus();
+        try {
+            message[0] = (byte) command;
+            if (!write(device.getAddress(), message, 0, 1) || !read(device.getAddress(), message, 0, 1)) {
+                return SMBUS_FAILED;
+            }
+            return message[0] & 0xFF;
+        } finally {
+            unlockBus();
+        }
+    }
+
+    @Override
+    public int smbusWriteByteData(final I2CDeviceImpl device, final int command, final byte data) throws IOException {
+        testForProperOperationConditions(device);
+
+        lockBus();
+        try {
+            message[0] = (byte) command;
+            message[1] = data;
+            return write(device.getAddress(), message, 0, 2) ? 0 : SMBUS_FAILED;
+        } finally {
+            unlockBus();
+        }
+    }
+
+    @Override
+    public int smbusReadWordData(final I2CDeviceImpl device, final int command) throws IOException {
+        testForProperOperationConditions(device);
+
+        lockBus();
+        try {
+            message[0] = (byte) command;
+            if (!write(device.getAddress(), message, 0, 1) || !read(device.getAddress(), message, 0, 2)) {
+                return SMBUS_FAILED;
+            }
+            // SMBus words are sent low byte first
+            return (message[0] & 0xFF) | ((message[1] & 0xFF) << 8);
+        } finally {
+            unlockBus();
+        }
+    }
+
+    @Override
+    public int smbusWriteWordData(final I2CDeviceImpl device, final int command, final int data) throws IOException {
+        testForProperOperationConditions(device);
+
+        lockBus();
+        try {
+            message[0] = (byte) command;
+            message[1] = (byte) data;
+            message[2] = (byte) (data >> 8);
+            return write(device.getAddress(), message, 0, 3) ? 0 : SMBUS_FAILED;
+        } finally {
+            unlockBus();
+        }
+    }
+
+    @Override
+    public int smbusReadBlockData(final I2CDeviceImpl device, final int command, final int size, final int offset, final byte[] buffer) throws IOException {
+        testForProperOperationConditions(device);
+
+        lockBus();
+        try {
+            // the device sends the length first; the master stops reading after it, which a message cannot express
+            message[0] = (byte) command;
+            if (!write(device.getAddress(), message, 0, 1) || !read(device.getAddress(), message, 0, SMBUS_BLOCK_MAX + 1)) {
+                return SMBUS_FAILED;
+            }
+            final int count = Math.min(message[0] & 0xFF, SMBUS_BLOCK_MAX);
+            System.arraycopy(message, 1, buffer, offset, Math.min(count, size));
+            return count;
+        } finally {
+            unlockBus();
+        }
+    }
+
+    @Override
+    public int smbusWriteBlockData(final I2CDeviceImpl device, final int command, final int size, final int offset, final byte[] buffer) throws IOException {
+        testForProperOperationConditions(device);
+
+        if ((size < 0) || (size > SMBUS_BLOCK_MAX)) {
+            return SMBUS_FAILED;
+        }
+
+        lockBus();
+        try {
+            message[0] = (byte) command;
+            message[1] = (byte) size;
+            System.arraycopy(buffer, offset, message, 2, size);
+            return write(device.getAddress(), message, 0, size + 2) ? 0 : SMBUS_FAILED;
+        } finally {
+            unlockBus();
+        }
+    }
+
+    @Override
+    public int smbusReadI2CBlockData(final I2CDeviceImpl device, final int command, final int size, final int offset, final byte[] buffer) throws IOException {
+        testForProperOperationConditions(device);
+
+        if ((size < 1) || (size > SMBUS_BLOCK_MAX)) {
+            return SMBUS_FAILED;
+        }
+
+        lockBus();
+        try {
+            message[0] = (byte) command;
+            if (!write(device.getAddress(), message, 0, 1) || !read(device.getAddress(), buffer, offset, size)) {
+                return SMBUS_FAILED;
+            }
+            return size;
+        } finally {
+            unlockBus();
+        }
+    }
+
+    @Override
+    public int smbusWriteI2CBlockData(final I2CDeviceImpl device, final int command, final int size, final int offset, final byte[] buffer) throws IOException {
+        testForProperOperationConditions(device);
+
+        if ((size < 0) || (size > SMBUS_BLOCK_MAX)) {
+            return SMBUS_FAILED;
+        }
+
+        lockBus();
+        try {
+            message[0] = (byte) command;
+            System.arraycopy(buffer, offset, message, 1, size);
+            return write(device.getAddress(), message, 0, size + 1) ? 0 : SMBUS_FAILED;
+        } finally {
+            unlockBus();
+        }
+    }
+
+    @Override
+    public int transfer(final I2CDeviceImpl device, final I2CTransaction transaction) throws IOException {
+        testWhetherBusHasAlreadyBeenClosed();
+
+        if (transaction == null) {
+            throw new NullPointerException("Parameter 'transaction' is mandatory!");
+        }
+
+        lockBus();
+        try {
+            final int count = transaction.size();
+            for (int index = 0; index < count; index++) {
+                int address = transaction.getAddress(index);
+                if (address == I2CTransaction.DEVICE_ADDRESS) {
+                    if (device == null) {
+                        throw new IllegalArgumentException("Segment " + index + " of the transaction has no device address!");
+                    }
+                    address = device.getAddress();
+                }
+                final boolean acknowledged;
+                if (transaction.isRead(index)) {
+                    acknowledged = read(address, transaction.getBuffer(index), transaction.getOffset(index), transaction.getLength(index));
+                } else {
+                    acknowledged = write(address, transaction.getBuffer(index), transaction.getOffset(index), transaction.getLength(index));
+                }
+                if (!acknowledged) {
+                    return TRANSFER_FAILED;
+                }
+            }
+            return count;
+        } finally {
+            unlockBus();
+        }
+    }
+
+    @Override
+    protected int probeAddress(final int address, final boolean readByte) {
+        final boolean acknowledged = readByte ? read(address, message, 0, 1) : write(address, message, 0, 0);
+        return acknowledged ? 1 : 0;
+    }
+
+    // hands a write message to the model at the address; false if not acknowledged
+    private boolean write(final int address, final byte[] buffer, final int offset, final int size) {
+        final I2CDeviceModel model = getModel(address);
+        return (model != null) && model.handleWrite(buffer, offset, size);
+    }
+
+    // hands a read message to the model at the address; false if not acknowledged
+    private boolean read(final int address, final byte[] buffer, final int offset, final int size) {
+        final I2CDeviceModel model = getModel(address);
+        return (model != null) && model.handleRead(buffer, offset, size);
+    }
+
+    private I2CDeviceModel getModel(final int address) {
+        return ((address >= 0) && (address < models.length())) ? models.get(address) : null;
+    }
+
+    // returns the message buffer, grown to the given size
+    private byte[] message(final int size) {
+        if (message.length < size) {
+            message = new byte[size];
+        }
+        return message;
+    }
+}
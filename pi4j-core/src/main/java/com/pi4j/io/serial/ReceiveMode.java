@@ -0,0 +1,63 @@
+package com.pi4j.io.serial;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  ReceiveMode.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+/**
+ * The strategy used by the native receive monitor to decide when the data received on a
+ * serial port is delivered to the Java listeners.
+ *
+ * <ul>
+ *   <li>IMMEDIATE - deliver the data as soon as it has been read from the serial port</li>
+ *   <li>INTER_BYTE_GAP - collect data until the line has been idle for the configured idle time</li>
+ *   <li>MINIMUM_BYTES - collect data until the configured minimum number of bytes has arrived
+ *       (or, with an idle time configured, until the line has been idle that long)</li>
+ * </ul>
+ */
+public enum ReceiveMode {
+
+    IMMEDIATE(com.pi4j.jni.SerialInterrupt.RECEIVE_IMMEDIATE),
+    INTER_BYTE_GAP(com.pi4j.jni.SerialInterrupt.RECEIVE_INTER_BYTE_GAP),
+    MINIMUM_BYTES(com.pi4j.jni.SerialInterrupt.RECEIVE_MINIMUM_BYTES);
+
+    private int index = 0;
+
+    private ReceiveMode(int index){
+        this.index = index;
+    }
+
+    public int getIndex(){
+        return this.index;
+    }
+
+    public static ReceiveMode getInstance(String receive_mode) {
+        return ReceiveMode.valueOf(receive_mode.toUpperCase());
+    }
+
+}
@@ -34,6 +34,7 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
 
 /**
  * <p>This interface provides a set of functions for 'Serial' communication.</p>
@@ -457,4 +458,31 @@ public interface Serial extends SerialDataReader, SerialDataWriter, AutoCloseabl
      */
     public void setBufferingDataReceived(boolean enabled);
 
+    /**
+     * <p>
+     *     This method sets the time a blocking read from the data receive buffer waits for data to
+     *     arrive before it fails with an InterruptedIOException. A timeout of zero (the default) waits
+     *     forever. The default implementation only supports reads waiting forever.
+     * </p>
+     *
+     * @param timeout
+     *   The maximum time to wait for received data.
+     * @param unit
+     *   The unit of the timeout.
+     */
+    public default void setReadTimeout(long timeout, TimeUnit unit) {
+        if (timeout != 0) {
+            throw new UnsupportedOperationException("Read timeouts are not supported by " + getClass().getName() + ".");
+        }
+    }
+
+    /**
+     * This method returns the time a blocking read from the data receive buffer waits for data to arrive.
+     * @param unit the unit to return the timeout in
+     * @return read timeout; zero if reads wait forever
+     */
+    public default long getReadTimeout(TimeUnit unit) {
+        return 0;
+    }
+
 }
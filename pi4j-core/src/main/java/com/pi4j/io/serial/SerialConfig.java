@@ -37,6 +37,9 @@ public class SerialConfig {
     private Parity parity = Parity.NONE;
     private StopBits stopBits = StopBits._1;
     private FlowControl flowControl = FlowControl.NONE;
+    private ReceiveMode receiveMode = ReceiveMode.IMMEDIATE;
+    private int receiveIdleTime = 0;
+    private int receiveMinimumBytes = 1;
 
     public SerialConfig(){}
 
@@ -102,6 +105,36 @@ public class SerialConfig {
      */
     public SerialConfig flowControl(FlowControl flowControl) { this.flowControl = flowControl; return this; }
 
+    /*
+     * The strategy deciding when received data is delivered. (immediate, inter-byte gap, minimum bytes)
+     */
+    public ReceiveMode receiveMode() { return receiveMode; }
+
+    /*
+     * The strategy deciding when received data is delivered. (immediate, inter-byte gap, minimum bytes)
+     */
+    public SerialConfig receiveMode(ReceiveMode receiveMode) { this.receiveMode = receiveMode; return this; }
+
+    /*
+     * The inter-byte idle time in microseconds after which collected data is delivered.
+     */
+    public int receiveIdleTime() { return receiveIdleTime; }
+
+    /*
+     * The inter-byte idle time in microseconds after which collected data is delivered.
+     */
+    public SerialConfig receiveIdleTime(int receiveIdleTime) { this.receiveIdleTime = receiveIdleTime; return this; }
+
+    /*
+     * The minimum number of bytes to collect before delivering received data.
+     */
+    public int receiveMinimumBytes() { return receiveMinimumBytes; }
+
+    /*
+     * The minimum number of bytes to collect before delivering received data.
+     */
+    public SerialConfig receiveMinimumBytes(int receiveMinimumBytes) { this.receiveMinimumBytes = receiveMinimumBytes; return this; }
+
     @Override
     public String toString(){
         // /dev/ttyAMA0 (38400, 8N1) [FC=NONE]
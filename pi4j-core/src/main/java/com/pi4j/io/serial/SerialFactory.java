@@ -32,6 +32,7 @@ package com.pi4j.io.serial;
 
 import com.pi4j.concurrent.DefaultExecutorServiceFactory;
 import com.pi4j.concurrent.ExecutorServiceFactory;
+import com.pi4j.concurrent.VirtualThreadExecutorServiceFactory;
 import com.pi4j.io.serial.impl.SerialImpl;
 
 /**
@@ -87,7 +88,12 @@ public class SerialFactory {
     public static ExecutorServiceFactory getExecutorServiceFactory() {
         // if an executor service provider factory has not been created, then create a new default instance
         if (executorServiceFactory == null) {
-            executorServiceFactory = new DefaultExecutorServiceFactory();
+            // virtual threads may be selected with a system property
+            if (VirtualThreadExecutorServiceFactory.isSelected()) {
+                executorServiceFactory = new VirtualThreadExecutorServiceFactory();
+            } else {
+                executorServiceFactory = new DefaultExecutorServiceFactory();
+            }
         }
         // return the provider instance
         return executorServiceFactory;
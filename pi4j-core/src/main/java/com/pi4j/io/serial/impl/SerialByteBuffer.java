@@ -31,7 +31,10 @@ package com.pi4j.io.serial.impl;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class implements a dynamic expanding byte buffer to
@@ -41,16 +44,25 @@ import java.nio.BufferOverflowException;
  * http://ostermiller.org/utils/src/CircularByteBuffer.java.html
  * Stephen Ostermiller http://ostermiller.org/contact.pl?regarding=Java+Utilities
  *
+ * The buffer is a ring buffer that grows up to a maximum capacity. Blocking reads of the input
+ * stream wait on the buffer and are woken up as soon as new data gets written. Writes never wait:
+ * the writer is the serial monitor thread shared by all ports, so bytes that do not fit into a
+ * buffer at its maximum capacity are dropped and counted (see getDroppedCount()).
+ *
  */
 public class SerialByteBuffer {
 
     public static int DEFAULT_BUFFER_SCALE_FACTOR = 2;
     public static int DEFAULT_INITIAL_BUFFER_SIZE = 4096;
+    public static int DEFAULT_MAXIMUM_BUFFER_SIZE = Integer.MAX_VALUE - 8;
 
     private InputStream stream = new SerialByteBufferInputStream();
-    private volatile int writeIndex = 0;
-    private volatile int readIndex = 0;
+    private final int maximumCapacity;
     private byte[] buffer;
+    private int readIndex = 0;
+    private int count = 0;
+    private long readTimeoutNanos = 0;
+    private long dropped = 0;
 
     public SerialByteBuffer(){
         // initialize buffer with default capacity
@@ -59,12 +71,21 @@ public class SerialByteBuffer {
 
     public SerialByteBuffer(int initialCapacity){
         // initialize buffer with user provided capacity
+        this(initialCapacity, Math.max(initialCapacity, DEFAULT_MAXIMUM_BUFFER_SIZE));
+    }
+
+    public SerialByteBuffer(int initialCapacity, int maximumCapacity){
+        if (initialCapacity < 1 || maximumCapacity < initialCapacity) {
+            throw new IllegalArgumentException("Invalid buffer capacity [" + initialCapacity + "], maximum [" + maximumCapacity + "].");
+        }
+        // initialize buffer with user provided capacity; it will not grow beyond the maximum capacity
         buffer = new byte[initialCapacity];
+        this.maximumCapacity = maximumCapacity;
     }
 
     public synchronized void clear(){
         // reset read and write index pointers
-        readIndex = writeIndex = 0;
+        readIndex = count = 0;
     }
 
     public InputStream getInputStream(){
@@ -77,107 +98,195 @@ public class SerialByteBuffer {
         return buffer.length;
     }
 
+    public int maximumCapacity(){
+        // return the capacity the buffer will not grow beyond
+        return maximumCapacity;
+    }
+
     public synchronized int remaining(){
         // return the number of (unused) bytes still available in the current buffer's capacity
-        if (writeIndex < readIndex)
-            return (readIndex - writeIndex - 1);
-        return ((buffer.length - 1) - (writeIndex - readIndex));
+        return buffer.length - count;
     }
 
     public synchronized int available(){
         // return the number of bytes that are ready to be read
-        if (readIndex <= writeIndex)
-            return (writeIndex - readIndex);
-        return (buffer.length - (readIndex - writeIndex));
+        return count;
+    }
+
+    public synchronized long getDroppedCount(){
+        // return the number of bytes discarded because the buffer was full at its maximum capacity
+        return dropped;
+    }
+
+    /**
+     * Sets the time a blocking read of the input stream waits for data before it fails with an
+     * InterruptedIOException. A timeout of zero waits forever.
+     *
+     * @param timeout maximum time to wait for data
+     * @param unit unit of the timeout
+     */
+    public synchronized void setReadTimeout(long timeout, TimeUnit unit){
+        if (timeout < 0) {
+            throw new IllegalArgumentException("Read timeout [" + timeout + "] must not be negative.");
+        }
+        readTimeoutNanos = unit.toNanos(timeout);
+    }
+
+    public synchronized long getReadTimeout(TimeUnit unit){
+        return unit.convert(readTimeoutNanos, TimeUnit.NANOSECONDS);
     }
 
     private void resize(int length) {
 
-        int min_capacity = buffer.length + length;
-        int new_capacity = buffer.length;
+        int min_capacity = count + length;
+        long new_capacity = buffer.length;
 
         // double the capacity until the buffer is large enough to accommodate the new demand
         while (new_capacity < min_capacity) {
             new_capacity *= DEFAULT_BUFFER_SCALE_FACTOR;
         }
+        new_capacity = Math.min(new_capacity, maximumCapacity);
 
-        // create a new buffer that can hold the newly determined
-        // capacity and copy the bytes from the old buffer into the new buffer
-        byte[] new_buffer = new byte[new_capacity];
-        System.arraycopy(buffer, readIndex, new_buffer, 0, writeIndex);
+        // create a new buffer that can hold the newly determined capacity and copy the
+        // bytes from the old buffer into the new buffer; the content may wrap around the end
+        byte[] new_buffer = new byte[(int) new_capacity];
+        int firstLen = Math.min(count, buffer.length - readIndex);
+        System.arraycopy(buffer, readIndex, new_buffer, 0, firstLen);
+        System.arraycopy(buffer, 0, new_buffer, firstLen, count - firstLen);
 
         // update pointers
         buffer = new_buffer; // old buffer should get garbage collected
         readIndex = 0;
-        writeIndex = available();
     }
 
-    public  void write(byte[] data) throws IOException, BufferOverflowException {
+    public void write(byte[] data) throws IOException, BufferOverflowException {
         write(data, 0, data.length);
     }
 
-    public  void write(byte[] data, int offset, int length) throws IOException {
+    public synchronized void write(byte[] data, int offset, int length) throws IOException {
         while (length > 0) {
-            int remaining_space = remaining();
-            if(remaining_space < length) {
-                resize(length);
+            int realLen = reserve(length);
+            if (realLen == 0) {
+                dropped += length;
+                return;
             }
-            int realLen = Math.min(length, remaining_space);
+            int writeIndex = (readIndex + count) % buffer.length;
             int firstLen = Math.min(realLen, buffer.length - writeIndex);
-            int secondLen = Math.min(realLen - firstLen, buffer.length - readIndex - 1);
-            int written = firstLen + secondLen;
-            if (firstLen > 0) {
-                System.arraycopy(data, offset, buffer, writeIndex, firstLen);
-            }
-            if (secondLen > 0) {
-                System.arraycopy(data, offset + firstLen, buffer, 0, secondLen);
-                writeIndex = secondLen;
-            } else {
-                writeIndex += written;
-            }
-            if (writeIndex == buffer.length) {
-                writeIndex = 0;
+            System.arraycopy(data, offset, buffer, writeIndex, firstLen);
+            System.arraycopy(data, offset + firstLen, buffer, 0, realLen - firstLen);
+            offset += realLen;
+            length -= realLen;
+            commit(realLen);
+        }
+    }
+
+    /**
+     * Writes the remaining bytes of the given buffer; on return the buffer's position equals its limit.
+     */
+    public synchronized void write(ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) {
+            int realLen = reserve(data.remaining());
+            if (realLen == 0) {
+                dropped += data.remaining();
+                data.position(data.limit());
+                return;
             }
-            offset += written;
-            length -= written;
+            int writeIndex = (readIndex + count) % buffer.length;
+            int firstLen = Math.min(realLen, buffer.length - writeIndex);
+            data.get(buffer, writeIndex, firstLen);
+            data.get(buffer, 0, realLen - firstLen);
+            commit(realLen);
         }
-        if (length > 0) {
+    }
+
+    /**
+     * Makes room for up to 'length' bytes, growing the buffer up to its maximum capacity, and
+     * returns the number of bytes that can be written; zero if the buffer is full.
+     * Must be called holding the buffer's monitor.
+     */
+    private int reserve(int length) {
+        if (buffer.length - count < length && buffer.length < maximumCapacity) {
+            resize(length);
+        }
+        return Math.min(length, buffer.length - count);
+    }
+
+    private void commit(int length) {
+        count += length;
+
+        // wake up blocked readers
+        notifyAll();
+    }
+
+    /**
+     * Waits until data is available, the read timeout expired or the thread got interrupted.
+     * Must be called holding the buffer's monitor.
+     */
+    private void awaitData() throws IOException {
+        long timeout = readTimeoutNanos;
+        long deadline = System.nanoTime() + timeout;
+        while (count == 0) {
             try {
-                Thread.sleep(100);
-            } catch (Exception x) {
-                throw new IOException("Waiting for available space in buffer interrupted.");
+                if (timeout == 0) {
+                    wait();
+                } else {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        throw new InterruptedIOException("Read timed out.");
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Blocking read operation interrupted.");
             }
         }
     }
 
+    /**
+     * Reads up to 'length' bytes into the given buffer, blocking like the input stream until at least
+     * one byte is available; no more than the buffer has remaining is read.
+     *
+     * @return the number of bytes read
+     */
+    public synchronized int read(ByteBuffer data, int length) throws IOException {
+        length = Math.min(length, data.remaining());
+        if (length <= 0) {
+            return 0;
+        }
+        awaitData();
+        length = Math.min(length, count);
+        int firstLen = Math.min(length, buffer.length - readIndex);
+        data.put(buffer, readIndex, firstLen);
+        data.put(buffer, 0, length - firstLen);
+        consume(length);
+        return length;
+    }
+
+    private void consume(int length) {
+        readIndex = (readIndex + length) % buffer.length;
+        count -= length;
+
+        // an empty buffer starts over at the beginning
+        if (count == 0) {
+            readIndex = 0;
+        }
+    }
+
     protected class SerialByteBufferInputStream extends InputStream {
 
         @Override
         public int available() throws IOException {
-            synchronized (SerialByteBuffer.this){
-                return (SerialByteBuffer.this.available());
-            }
+            return SerialByteBuffer.this.available();
         }
 
         @Override
         public int read() throws IOException {
-            while (true){
-                synchronized (SerialByteBuffer.this){
-                    int available = SerialByteBuffer.this.available();
-                    if (available > 0){
-                        int result = buffer[readIndex] & 0xff; // we only care about fist 8 bits
-                        readIndex++; // increment read index position
-                        // if the read index reaches the maximum buffer capacity, then rollover to zero index
-                        if (readIndex == buffer.length)
-                            readIndex = 0;
-                        return result;
-                    }
-                }
-                try {
-                    Thread.sleep(100);
-                } catch(Exception x){
-                    throw new IOException("Blocking read operation interrupted.");
-                }
+            synchronized (SerialByteBuffer.this){
+                awaitData();
+                int result = buffer[readIndex] & 0xff; // we only care about fist 8 bits
+                consume(1);
+                return result;
             }
         }
 
@@ -188,60 +297,33 @@ public class SerialByteBuffer {
 
         @Override
         public int read(byte[] data, int off, int len) throws IOException {
-            while (true){
-                synchronized (SerialByteBuffer.this){
-                    int available = SerialByteBuffer.this.available();
-                    if (available > 0){
-                        int length = Math.min(len, available);
-                        int firstLen = Math.min(length, buffer.length - readIndex);
-                        int secondLen = length - firstLen;
-                        System.arraycopy(buffer, readIndex, data, off, firstLen);
-                        if (secondLen > 0){
-                            System.arraycopy(buffer, 0, data, off+firstLen,  secondLen);
-                            readIndex = secondLen;
-                        } else {
-                            readIndex += length;
-                        }
-                        if (readIndex == buffer.length) {
-                            readIndex = 0;
-                        }
-
-                        return length;
-                    }
-                }
-                try {
-                    Thread.sleep(100);
-                } catch(Exception x){
-                    throw new IOException("Blocking read operation interrupted.");
-                }
+            if (off < 0 || len < 0 || len > data.length - off) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (len == 0) {
+                return 0;
+            }
+            synchronized (SerialByteBuffer.this){
+                awaitData();
+                int length = Math.min(len, count);
+                int firstLen = Math.min(length, buffer.length - readIndex);
+                System.arraycopy(buffer, readIndex, data, off, firstLen);
+                System.arraycopy(buffer, 0, data, off + firstLen, length - firstLen);
+                consume(length);
+                return length;
             }
         }
 
         @Override
-        public long skip(long n) throws IOException, IllegalArgumentException {
-            while (true){
-                synchronized (SerialByteBuffer.this){
-                    int available = SerialByteBuffer.this.available();
-                    if (available > 0){
-                        int length = Math.min((int)n, available);
-                        int firstLen = Math.min(length, buffer.length - readIndex);
-                        int secondLen = length - firstLen;
-                        if (secondLen > 0){
-                            readIndex = secondLen;
-                        } else {
-                            readIndex += length;
-                        }
-                        if (readIndex == buffer.length) {
-                            readIndex = 0;
-                        }
-                        return length;
-                    }
-                }
-                try {
-                    Thread.sleep(100);
-                } catch(Exception x){
-                    throw new IOException("Blocking read operation interrupted.");
-                }
+        public long skip(long n) throws IOException {
+            if (n <= 0) {
+                return 0;
+            }
+            synchronized (SerialByteBuffer.this){
+                awaitData();
+                int length = (int) Math.min(n, count);
+                consume(length);
+                return length;
             }
         }
     }
@@ -39,9 +39,11 @@ import com.pi4j.jni.SerialInterruptListener;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * <p> This implementation class implements the 'Serial' interface using the WiringPi Serial library.</p>
@@ -75,6 +77,10 @@ public class SerialImpl extends AbstractSerialDataReaderWriter implements Serial
     protected final SerialByteBuffer receiveBuffer;
     protected boolean bufferingDataReceived = true;
 
+    // direct buffer the native library places received data in; allocated once and reused
+    // for every open of this serial port so steady state receiving allocates no buffers
+    private final ByteBuffer nativeReceiveBuffer = ByteBuffer.allocateDirect(SerialInterrupt.DEFAULT_RECEIVE_BUFFER_SIZE);
+
     /**
      * default constructor
      */
@@ -146,19 +152,29 @@ public class SerialImpl extends AbstractSerialDataReaderWriter implements Serial
     @Override
     public void open(String device, int baud, int dataBits, int parity, int stopBits, int flowControl)
             throws IOException{
+        open(device, baud, dataBits, parity, stopBits, flowControl, ReceiveMode.IMMEDIATE, 0, 1);
+    }
+
+    private void open(String device, int baud, int dataBits, int parity, int stopBits, int flowControl,
+                      ReceiveMode receiveMode, int receiveIdleTime, int receiveMinimumBytes) throws IOException{
 
         // open serial port
         fileDescriptor = com.pi4j.jni.Serial.open(device, baud, dataBits, parity, stopBits, flowControl);
 
         // read in initial buffered data (if any) into the receive buffer
-        int available = com.pi4j.jni.Serial.available(fileDescriptor);
-
-        if(available > 0) {
-            byte[] initial_data = com.pi4j.jni.Serial.read(fileDescriptor, available);
-            if (initial_data.length > 0) {
+        synchronized (nativeReceiveBuffer) {
+            int available = com.pi4j.jni.Serial.available(fileDescriptor);
+            while (available > 0) {
+                nativeReceiveBuffer.clear();
+                com.pi4j.jni.Serial.read(fileDescriptor, available, nativeReceiveBuffer);
+                nativeReceiveBuffer.flip();
+                if (!nativeReceiveBuffer.hasRemaining()) {
+                    break;
+                }
+                available -= nativeReceiveBuffer.remaining();
                 try {
                     // write data to the receive buffer
-                    receiveBuffer.write(initial_data);
+                    receiveBuffer.write(nativeReceiveBuffer);
                 }
                 catch (IOException e) {
                     e.printStackTrace();
@@ -175,13 +191,25 @@ public class SerialImpl extends AbstractSerialDataReaderWriter implements Serial
                     SerialDataEvent sde = null;
 
                     if(isBufferingDataReceived()) {
-                        // stuff event data payload into the receive buffer
-                        receiveBuffer.write(event.getData());
+                        // stuff event data payload into the receive buffer; the native receive
+                        // buffer may still be in use by a previous open of this serial port
+                        synchronized (nativeReceiveBuffer) {
+                            // leave the event's data in place for getData()
+                            ByteBuffer data = event.getBuffer();
+                            int position = data.position();
+                            receiveBuffer.write(data);
+                            data.position(position);
+                        }
 
                         //System.out.println("BUFFER SIZE : " + receiveBuffer.capacity());
                         //System.out.println("BUFFER LEFT : " + receiveBuffer.remaining());
                         //System.out.println("BUFFER AVAIL: " + receiveBuffer.available());
 
+                        // streaming through the input stream without listeners needs no events
+                        if (listeners.isEmpty()) {
+                            return;
+                        }
+
                         // create the serial data event; since we are buffering data
                         // it will be located in the receive buffer
                         sde = new SerialDataEvent(SerialImpl.this);
@@ -200,7 +228,7 @@ public class SerialImpl extends AbstractSerialDataReaderWriter implements Serial
                     e.printStackTrace();
                 }
             }
-        });
+        }, nativeReceiveBuffer, receiveMode.getIndex(), receiveIdleTime, receiveMinimumBytes);
 
         // ensure file descriptor is valid
         if (fileDescriptor == -1) {
@@ -298,7 +326,7 @@ public class SerialImpl extends AbstractSerialDataReaderWriter implements Serial
      *
      * @param serialConfig
      *          A serial configuration object that contains the device, baud rate, data bits, parity,
-     *          stop bits, and flow control settings.
+     *          stop bits, flow control and receive strategy settings.
      *
      * @throws  IOException thrown on any error.
      */
@@ -310,7 +338,10 @@ public class SerialImpl extends AbstractSerialDataReaderWriter implements Serial
              serialConfig.dataBits().getValue(),
              serialConfig.parity().getIndex(),
              serialConfig.stopBits().getValue(),
-             serialConfig.flowControl().getIndex());
+             serialConfig.flowControl().getIndex(),
+             serialConfig.receiveMode(),
+             serialConfig.receiveIdleTime(),
+             serialConfig.receiveMinimumBytes());
     }
 
     /**
@@ -699,6 +730,46 @@ public class SerialImpl extends AbstractSerialDataReaderWriter implements Serial
         return buffer;
     }
 
+    /**
+     * <p>Reads all available bytes from the serial device into a provided ByteBuffer.</p>
+     *
+     * <p>(The data is copied straight from the receive buffer; no more than the provided buffer has
+     * remaining is read.)</p>
+     *
+     * @param buffer
+     *          The ByteBuffer object to write to.
+     * @throws IllegalStateException thrown if the serial port is not already open.
+     * @throws IOException thrown on any error.
+     */
+    @Override
+    public void read(ByteBuffer buffer) throws IllegalStateException, IOException {
+        read(available(), buffer);
+    }
+
+    /**
+     * <p>Reads a length bytes from the serial port/device into a provided ByteBuffer.</p>
+     *
+     * <p>(The data is copied straight from the receive buffer; no more than the provided buffer has
+     * remaining is read.)</p>
+     *
+     * @param length
+     *          The number of bytes to get from the serial port/device.
+     *          This number must not be higher than the number of available bytes.
+     * @param buffer
+     *          The ByteBuffer object to write to.
+     * @throws IllegalStateException thrown if the serial port is not already open.
+     * @throws IOException thrown on any error.
+     */
+    @Override
+    public void read(int length, ByteBuffer buffer) throws IllegalStateException, IOException {
+        // validate state
+        if (isClosed())
+            throw new IllegalStateException("Serial connection is not open; cannot 'read()'.");
+
+        // read serial data from receive buffer
+        receiveBuffer.read(buffer, length);
+    }
+
 
     // ----------------------------------------
     // WRITE OPERATIONS
@@ -727,6 +798,30 @@ public class SerialImpl extends AbstractSerialDataReaderWriter implements Serial
         com.pi4j.jni.Serial.write(fileDescriptor, data, offset, length);
     }
 
+    /**
+     * Read the content of byte buffer and write the data to the serial port transmit buffer.
+     * (The buffer is read from the current position up to the 'limit' value, not the 'capacity'.  You may need to
+     * rewind() or flip() the byte buffer if you have just written to it.)
+     *
+     * <p>(The buffers are handed to the native library without any intermediate copy; several direct buffers
+     * are transmitted with a single gathering write.)</p>
+     *
+     * @param data
+     *            A ByteBuffer of data to be transmitted.
+     * @throws IllegalStateException thrown if the serial port is not already open.
+     * @throws IOException thrown on any error.
+     */
+    @Override
+    public void write(ByteBuffer... data) throws IllegalStateException, IOException{
+        // validate state
+        if (isClosed()) {
+            throw new IllegalStateException("Serial connection is not open; cannot 'write()'.");
+        }
+
+        // write serial data to transmit buffer
+        com.pi4j.jni.Serial.write(fileDescriptor, data);
+    }
+
 
     // ----------------------------------------
     // EVENT OPERATIONS
@@ -830,6 +925,31 @@ public class SerialImpl extends AbstractSerialDataReaderWriter implements Serial
         bufferingDataReceived = enabled;
     }
 
+    /**
+     * <p>
+     *     This method sets the time a blocking read from the data receive buffer waits for data to
+     *     arrive before it fails with an InterruptedIOException. A timeout of zero (the default) waits
+     *     forever.
+     * </p>
+     *
+     * @param timeout maximum time to wait for received data
+     * @param unit unit of the timeout
+     */
+    @Override
+    public void setReadTimeout(long timeout, TimeUnit unit){
+        receiveBuffer.setReadTimeout(timeout, unit);
+    }
+
+    /**
+     * This method returns the time a blocking read from the data receive buffer waits for data to arrive.
+     * @param unit the unit to return the timeout in
+     * @return read timeout; zero if reads wait forever
+     */
+    @Override
+    public long getReadTimeout(TimeUnit unit){
+        return receiveBuffer.getReadTimeout(unit);
+    }
+
 
     private class SerialOutputStream extends OutputStream {
 
@@ -31,6 +31,8 @@ package com.pi4j.jni;
 
 import com.pi4j.util.NativeLibraryLoader;
 
+import java.nio.ByteBuffer;
+
 /**
  * <h1>I2C Communication</h1>
  *
@@ -43,10 +45,25 @@ import com.pi4j.util.NativeLibraryLoader;
  * read(), write(), etc. system calls on this filehandle as required.
  * </p>
  *
+ * <p>
+ * The device address last selected with the I2C_SLAVE ioctl is cached per file descriptor, so
+ * consecutive transfers to the same device do not repeat the ioctl. Callers issuing their own
+ * I2C_SLAVE ioctl on a descriptor opened through this class should close and reopen it afterwards.
+ * </p>
+ *
+ * <p>
+ * The ByteBuffer functions transfer up to 8192 bytes without copying: direct buffers are passed to the kernel at
+ * their native address, heap arrays are pinned for the duration of the transfer. They address a register in the
+ * device unless {@link #NO_LOCAL_ADDRESS} is given as local address.
+ * </p>
+ *
  * @author Daniel Sendula
  */
 public class I2C {
 
+    /** Local address of ByteBuffer transfers which do not address a register in the device */
+    public static final int NO_LOCAL_ADDRESS = -1;
+
     // private constructor
     private I2C() {
         // forbid object construction
@@ -73,7 +90,7 @@ public class I2C {
     public static native int i2cClose(int fd);
 
     /**
-     * Writes one byte to i2c. It uses ioctl to define device address and then writes one byte.
+     * Writes one byte to i2c. It uses ioctl to define device address (unless already selected) and then writes one byte.
      *
      * @param fd            file descriptor of i2c bus
      * @param deviceAddress device address
@@ -83,7 +100,7 @@ public class I2C {
     public static native int i2cWriteByteDirect(int fd, int deviceAddress, byte data);
 
     /**
-     * Writes several bytes to i2c. It uses ioctl to define device address and then writes number of bytes defined
+     * Writes several bytes to i2c. It uses ioctl to define device address (unless already selected) and then writes number of bytes defined
      * in size argument.
      *
      * @param fd            file descriptor of i2c bus
@@ -96,7 +113,7 @@ public class I2C {
     public static native int i2cWriteBytesDirect(int fd, int deviceAddress, int size, int offset, byte[] buffer);
 
     /**
-     * Writes one byte to i2c. It uses ioctl to define device address and then writes two bytes: address in
+     * Writes one byte to i2c. It uses ioctl to define device address (unless already selected) and then writes two bytes: address in
      * the device itself and value.
      *
      * @param fd            file descriptor of i2c bus
@@ -108,7 +125,7 @@ public class I2C {
     public static native int i2cWriteByte(int fd, int deviceAddress, int localAddress, byte data);
 
     /**
-     * Writes several bytes to i2c. It uses ioctl to define device address and then writes number of bytes defined
+     * Writes several bytes to i2c. It uses ioctl to define device address (unless already selected) and then writes number of bytes defined
      * in size argument plus one.
      *
      * @param fd            file descriptor of i2c bus
@@ -122,7 +139,7 @@ public class I2C {
     public static native int i2cWriteBytes(int fd, int deviceAddress, int localAddress, int size, int offset, byte[] buffer);
 
     /**
-     * Reads one byte from i2c device. It uses ioctl to define device address and then reads one byte.
+     * Reads one byte from i2c device. It uses ioctl to define device address (unless already selected) and then reads one byte.
      *
      * @param fd            file descriptor of i2c bus
      * @param deviceAddress device address
@@ -131,7 +148,7 @@ public class I2C {
     public static native int i2cReadByteDirect(int fd, int deviceAddress);
 
     /**
-     * Reads more bytes from i2c device. It uses ioctl to define device address and then reads
+     * Reads more bytes from i2c device. It uses ioctl to define device address (unless already selected) and then reads
      * size number of bytes.
      *
      * @param fd            file descriptor of i2c bus
@@ -144,8 +161,8 @@ public class I2C {
     public static native int i2cReadBytesDirect(int fd, int deviceAddress, int size, int offset, byte[] buffer);
 
     /**
-     * Reads one byte from i2c device. It uses ioctl to define device address, writes addres in device and then reads
-     * one byte.
+     * Reads one byte from i2c device. It writes addres in device and then reads one byte in a single combined
+     * transaction (I2C_RDWR, repeated start); buses not supporting I2C_RDWR fall back to a separate write and read.
      *
      * @param fd            file descriptor of i2c bus
      * @param deviceAddress device address
@@ -155,8 +172,8 @@ public class I2C {
     public static native int i2cReadByte(int fd, int deviceAddress, int localAddress);
 
     /**
-     * Reads more bytes from i2c device. It uses ioctl to define device address, writes addres in device and then reads
-     * size number of bytes.
+     * Reads more bytes from i2c device. It writes addres in device and then reads size number of bytes in a single
+     * combined transaction (I2C_RDWR, repeated start); buses not supporting I2C_RDWR fall back to a separate write and read.
      *
      * @param fd            file descriptor of i2c bus
      * @param deviceAddress device address
@@ -170,8 +187,8 @@ public class I2C {
 
 
     /**
-     * Reads more bytes from i2c device. It uses ioctl to define device address, writes addres in device and then reads
-     * size number of bytes.
+     * Writes and then reads bytes from i2c device. It writes writeSize bytes and then reads readSize number of bytes in a single
+     * combined transaction (I2C_RDWR, repeated start); buses not supporting I2C_RDWR fall back to a separate write and read.
      *
      * @param fd            file descriptor of i2c bus
      * @param deviceAddress device address
@@ -184,4 +201,208 @@ public class I2C {
      * @return number of bytes read or negative number if reading failed.
      */
     public static native int i2cWriteAndReadBytes(int fd, int deviceAddress, int writeSize, int writeOffset, byte[] writeBuffer, int readSize, int readOffset, byte[] readBuffer);
+
+    /**
+     * Executes several read and write messages as one combined transaction using the I2C_RDWR ioctl.
+     * Messages are separated by repeated starts and may address different devices.
+     *
+     * @param fd            file descriptor of i2c bus
+     * @param count         number of messages (at most 42)
+     * @param addresses     device address of each message
+     * @param flags         flags of each message; 1 (I2C_M_RD) marks a read message
+     * @param buffers       data buffer of each message; read messages are filled in place
+     * @param offsets       offset in the buffer of each message
+     * @param lengths       number of bytes of each message
+     * @return number of messages executed, less than zero if there was an error.
+     */
+    public static native int i2cTransfer(int fd, int count, int[] addresses, int[] flags, byte[][] buffers, int[] offsets, int[] lengths);
+
+    /**
+     * Probes whether a device acknowledges the given address, like i2cdetect does. The probe is an SMBus quick
+     * write or, if readByte is set or the adapter does not support quick commands, an SMBus receive byte.
+     *
+     * @param fd            file descriptor of i2c bus
+     * @param deviceAddress device address
+     * @param readByte      true to probe with a receive byte instead of a quick write
+     * @return 1 if the device acknowledged, 0 if not, 2 if the address is in use by a kernel driver,
+     *         less than zero if there was an error.
+     */
+    public static native int i2cProbe(int fd, int deviceAddress, boolean readByte);
+
+    /**
+     * Writes bytes from a direct ByteBuffer to i2c without copying them. It uses ioctl to define device address (unless already
+     * selected) and then writes size bytes starting at position, preceded by the local address unless it is
+     * {@link #NO_LOCAL_ADDRESS}. The position of the buffer is not changed.
+     *
+     * @param fd            file descriptor of i2c bus
+     * @param deviceAddress device address
+     * @param localAddress  address in the device or {@link #NO_LOCAL_ADDRESS}
+     * @param size          number of bytes to be written (at most 8192)
+     * @param position      position in buffer to read from
+     * @param buffer        direct buffer holding the data to be written
+     * @return result of operation. Zero if everything is OK, less than zero if there was an error.
+     */
+    public static native int i2cWriteByteBuffer(int fd, int deviceAddress, int localAddress, int size, int position, ByteBuffer buffer);
+
+    /**
+     * Reads bytes from i2c device into a direct ByteBuffer without copying them. Unless the local address is
+     * {@link #NO_LOCAL_ADDRESS} it is written first in a single combined transaction. The position of the buffer is not changed.
+     *
+     * @param fd            file descriptor of i2c bus
+     * @param deviceAddress device address
+     * @param localAddress  address in the device or {@link #NO_LOCAL_ADDRESS}
+     * @param size          number of bytes to be read (at most 8192)
+     * @param position      position in buffer to store read data
+     * @param buffer        direct buffer for data to be written to
+     * @return number of bytes read or negative number if reading failed.
+     */
+    public static native int i2cReadByteBuffer(int fd, int deviceAddress, int localAddress, int size, int position, ByteBuffer buffer);
+
+    /**
+     * Writes bytes from an array to i2c. Like {@link #i2cWriteByteBuffer(int, int, int, int, int, ByteBuffer)}, but the
+     * array is pinned during the transfer instead of being copied.
+     *
+     * @param fd            file descriptor of i2c bus
+     * @param deviceAddress device address
+     * @param localAddress  address in the device or {@link #NO_LOCAL_ADDRESS}
+     * @param size          number of bytes to be written (at most 8192)
+     * @param offset        offset in buffer to read from
+     * @param buffer        data buffer to be written
+     * @return result of operation. Zero if everything is OK, less than zero if there was an error.
+     */
+    public static native int i2cWriteBytesPinned(int fd, int deviceAddress, int localAddress, int size, int offset, byte[] buffer);
+
+    /**
+     * Reads bytes from i2c device into an array. Like {@link #i2cReadByteBuffer(int, int, int, int, int, ByteBuffer)}, but the
+     * array is pinned during the transfer instead of being copied.
+     *
+     * @param fd            file descriptor of i2c bus
+     * @param deviceAddress device address
+     * @param localAddress  address in the device or {@link #NO_LOCAL_ADDRESS}
+     * @param size          number of bytes to be read (at most 8192)
+     * @param offset        offset in buffer to stored read data
+     * @param buffer        buffer for data to be written to
+     * @return number of bytes read or negative number if reading failed.
+     */
+    public static native int i2cReadBytesPinned(int fd, int deviceAddress, int localAddress, int size, int offset, byte[] buffer);
+
+    /**
+     * Reads one byte from a register of the i2c device in a single SMBus transfer (I2C_SMBUS ioctl).
+     *
+     * @param fd            file descriptor of i2c bus
+     * @param deviceAddress device address
+     * @param command       register (SMBus command code) in the device
+     * @return positive number (or zero) to 255 if read was successful. Negative number if reading failed.
+     */
+    public static native int i2cSmbusReadByteData(int fd, int deviceAddress, int command);
+
+    /**
+     * Writes one byte to a register of the i2c device in a single SMBus transfer (I2C_SMBUS ioctl).
+     *
+     * @param fd            file descriptor of i2c bus
+     * @param deviceAddress device address
+     * @param command       register (SMBus command code) in the device
+     * @param data          byte to be written to the device
+     * @return result of operation. Zero if everything is OK, less than zero if there was an error.
+     */
+    public static native int i2cSmbusWriteByteData(int fd, int deviceAddress, int command, byte data);
+
+    /**
+     * Reads a 16 bit word from a register of the i2c device in a single SMBus transfer (I2C_SMBUS ioctl).
+     * SMBus transfers the low byte first.
+     *
+     * @param fd            file descriptor of i2c bus
+     * @param deviceAddress device address
+     * @param command       register (SMBus command code) in the device
+     * @return positive number (or zero) to 65535 if read was successful. Negative number if reading failed.
+     */
+    public static native int i2cSmbusReadWordData(int fd, int deviceAddress, int command);
+
+    /**
+     * Writes a 16 bit word to a register of the i2c device in a single SMBus transfer (I2C_SMBUS ioctl).
+     * SMBus transfers the low byte first.
+     *
+     * @param fd            file descriptor of i2c bus
+     * @param deviceAddress device address
+     * @param command       register (SMBus command code) in the device
+     * @param data          word to be written to the device (lower 16 bits)
+     * @return result of operation. Zero if everything is OK, less than zero if there was an error.
+     */
+    public static native int i2cSmbusWriteWordData(int fd, int deviceAddress, int command, int data);
+
+    /**
+     * Reads an SMBus block (length prefixed by the device, at most 32 bytes) from a register of the i2c device.
+     *
+     * @param fd            file descriptor of i2c bus
+     * @param deviceAddress device address
+     * @param command       register (SMBus command code) in the device
+     * @param size          maximum number of bytes to be stored in buffer
+     * @param offset        offset in buffer to stored read data
+     * @param buffer        buffer for data to be written to
+     * @return length of the block sent by the device or negative number if reading failed.
+     */
+    public static native int i2cSmbusReadBlockData(int fd, int deviceAddress, int command, int size, int offset, byte[] buffer);
+
+    /**
+     * Writes an SMBus block (length prefixed, at most 32 bytes) to a register of the i2c device.
+     *
+     * @param fd            file descriptor of i2c bus
+     * @param deviceAddress device address
+     * @param command       register (SMBus command code) in the device
+     * @param size          number of bytes to be written
+     * @param offset        offset in buffer to read from
+     * @param buffer        data buffer to be written
+     * @return result of operation. Zero if everything is OK, less than zero if there was an error.
+     */
+    public static native int i2cSmbusWriteBlockData(int fd, int deviceAddress, int command, int size, int offset, byte[] buffer);
+
+    /**
+     * Reads size bytes (at most 32) starting at a register of the i2c device in a single SMBus i2c block transfer.
+     *
+     * @param fd            file descriptor of i2c bus
+     * @param deviceAddress device address
+     * @param command       register (SMBus command code) in the device
+     * @param size          number of bytes to be read
+     * @param offset        offset in buffer to stored read data
+     * @param buffer        buffer for data to be written to
+     * @return number of bytes read or negative number if reading failed.
+     */
+    public static native int i2cSmbusReadI2CBlockData(int fd, int deviceAddress, int command, int size, int offset, byte[] buffer);
+
+    /**
+     * Writes size bytes (at most 32) starting at a register of the i2c device in a single SMBus i2c block transfer.
+     *
+     * @param fd            file descriptor of i2c bus
+     * @param deviceAddress device address
+     * @param command       register (SMBus command code) in the device
+     * @param size          number of bytes to be written
+     * @param offset        offset in buffer to read from
+     * @param buffer        data buffer to be written
+     * @return result of operation. Zero if everything is OK, less than zero if there was an error.
+     */
+    public static native int i2cSmbusWriteI2CBlockData(int fd, int deviceAddress, int command, int size, int offset, byte[] buffer);
+
+    /**
+     * Enables or disables SMBus packet error checking (I2C_PEC ioctl) for all SMBus transfers on the file descriptor.
+     *
+     * @param fd            file descriptor of i2c bus
+     * @param enable        true to append and verify a PEC byte on SMBus transfers
+     * @return result of operation. Zero if everything is OK, less than zero if there was an error.
+     */
+    public static native int i2cSmbusPec(int fd, boolean enable);
+
+    /**
+     * Returns the number of I2C_SLAVE ioctls issued to select a device address.
+     *
+     * @return number of device selections performed
+     */
+    public static native long i2cSlaveSelectCount();
+
+    /**
+     * Returns the number of I2C_SLAVE ioctls skipped because the device address
+     * was already selected on the file descriptor.
+     *
+     * @return number of device selections served from the cache
+     */
+    public static native long i2cSlaveSelectSkippedCount();
 }
@@ -37,10 +37,18 @@ import java.nio.CharBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  *  THIS IS CURRENTLY A NO-IMPL STUB.
  *  THIS IS WHERE A NEW SERIAL LIBRARY IMPLEMENTATION IS PLANNED.
+ *
+ * <p>
+ * Operations on different serial ports never block each other. Reads and writes on the same port are
+ * serialized per direction, so a write waiting for the transmit buffer does not hold up the receiver;
+ * modem line and buffer control calls are single system calls that the kernel serializes by itself.
+ * </p>
  */
 public class Serial {
 
@@ -91,6 +99,9 @@ public class Serial {
     public static int FLOW_CONTROL_SOFTWARE = 2;
 
 
+    // per file descriptor locks, see lock(int)
+    private static final ConcurrentMap<Integer, PortLock> portLocks = new ConcurrentHashMap<>();
+
     // private constructor
     private Serial() {
         // forbid object construction
@@ -131,8 +142,8 @@ public class Serial {
      * @return The return value is the file descriptor or a negative value for any error.
      *          An IOException will be thrown for all error conditions.
      */
-    public synchronized static native int open(String device, int baud, int dataBits, int parity, int stopBits,
-                                               int flowControl) throws IOException;
+    public static native int open(String device, int baud, int dataBits, int parity, int stopBits,
+                                  int flowControl) throws IOException;
 
     /**
      * <p>
@@ -166,7 +177,7 @@ public class Serial {
      * @return The return value is the file descriptor or a negative value for any error.
      *          An IOException will be thrown for all error conditions.
      */
-    public synchronized static int open(String device, int baud, int dataBits, int parity, int stopBits)
+    public static int open(String device, int baud, int dataBits, int parity, int stopBits)
                                                throws IOException {
         return open(device, baud, dataBits, parity, stopBits, FLOW_CONTROL_NONE);
     }
@@ -201,7 +212,7 @@ public class Serial {
      * @return The return value is the file descriptor or a negative value for any error.
      *          An IOException will be thrown for all error conditions.
      */
-    public synchronized static int open(String device, int baud, int dataBits, int parity) throws IOException {
+    public static int open(String device, int baud, int dataBits, int parity) throws IOException {
         return open(device, baud, dataBits, parity, STOP_BITS_1, FLOW_CONTROL_NONE);
     }
 
@@ -237,7 +248,7 @@ public class Serial {
      * @return The return value is the file descriptor or a negative value for any error.
      *          An IOException will be thrown for all error conditions.
      */
-    public synchronized static int open(String device, int baud, int dataBits) throws IOException {
+    public static int open(String device, int baud, int dataBits) throws IOException {
         return open(device, baud, dataBits, PARITY_NONE, STOP_BITS_1, FLOW_CONTROL_NONE);
     }
 
@@ -273,7 +284,7 @@ public class Serial {
      * @return The return value is the file descriptor or a negative value for any error.
      *          An IOException will be thrown for all error conditions.
      */
-    public synchronized static int open(String device, int baud) throws IOException {
+    public static int open(String device, int baud) throws IOException {
         return open(device, baud, DATA_BITS_8, PARITY_NONE, STOP_BITS_1, FLOW_CONTROL_NONE);
     }
 
@@ -285,7 +296,22 @@ public class Serial {
      * @param fd
      *          The file descriptor of the serial port/device.
      */
-    public synchronized static native void close(int fd) throws IOException;
+    public static void close(int fd) throws IOException {
+        // wait for pending reads and writes on this port before the descriptor gets released
+        PortLock lock = lock(fd);
+        synchronized (lock.read) {
+            synchronized (lock.write) {
+                try {
+                    closeDevice(fd);
+                } finally {
+                    // the descriptor number may be reused by the next open()
+                    portLocks.remove(fd, lock);
+                }
+            }
+        }
+    }
+
+    private static native void closeDevice(int fd) throws IOException;
 
     /**
      * <p>
@@ -296,7 +322,7 @@ public class Serial {
      * @param fd
      *          The file descriptor of the serial port/device.
      */
-    public synchronized static native void discardInput(int fd) throws IOException;
+    public static native void discardInput(int fd) throws IOException;
 
     /**
      * <p>
@@ -307,7 +333,7 @@ public class Serial {
      * @param fd
      *          The file descriptor of the serial port/device.
      */
-    public synchronized static native void discardOutput(int fd) throws IOException;
+    public static native void discardOutput(int fd) throws IOException;
 
     /**
      * <p>
@@ -318,7 +344,7 @@ public class Serial {
      * @param fd
      *          The file descriptor of the serial port/device.
      */
-    public synchronized static native void discardAll(int fd) throws IOException;
+    public static native void discardAll(int fd) throws IOException;
 
     /**
      * <p>
@@ -328,7 +354,7 @@ public class Serial {
      * @param fd
      *          The file descriptor of the serial port/device.
      */
-    public synchronized static native void flush(int fd) throws IOException;
+    public static native void flush(int fd) throws IOException;
 
     /**
      * <p>
@@ -340,7 +366,7 @@ public class Serial {
      * @param duration
      *          The length of time (milliseconds) to send the BREAK signal
      */
-    public synchronized static native void sendBreak(int fd, int duration) throws IOException;
+    public static native void sendBreak(int fd, int duration) throws IOException;
 
     /**
      * <p>
@@ -350,7 +376,7 @@ public class Serial {
      * @param fd
      *          The file descriptor of the serial port/device.
      */
-    public synchronized static void sendBreak(int fd) throws IOException {
+    public static void sendBreak(int fd) throws IOException {
         sendBreak(fd, 0);
     }
 
@@ -366,7 +392,7 @@ public class Serial {
      * @param enabled
      *          The enable or disable state to control the BREAK signal
      */
-    public synchronized static native void setBreak(int fd, boolean enabled) throws IOException;
+    public static native void setBreak(int fd, boolean enabled) throws IOException;
 
     /**
      * <p>
@@ -379,7 +405,7 @@ public class Serial {
      * @param enabled
      *          The enable or disable state to control the RTS pin state.
      */
-    public synchronized static native void setRTS(int fd, boolean enabled) throws IOException;
+    public static native void setRTS(int fd, boolean enabled) throws IOException;
 
     /**
      * <p>
@@ -392,7 +418,7 @@ public class Serial {
      * @param enabled
      *          The enable or disable state to control the RTS pin state.
      */
-    public synchronized static native void setDTR(int fd, boolean enabled) throws IOException;
+    public static native void setDTR(int fd, boolean enabled) throws IOException;
 
     /**
      * <p>
@@ -402,7 +428,7 @@ public class Serial {
      * @param fd
      *          The file descriptor of the serial port/device.
      */
-    public synchronized static native boolean getRTS(int fd) throws IOException;
+    public static native boolean getRTS(int fd) throws IOException;
 
     /**
      * <p>
@@ -412,7 +438,7 @@ public class Serial {
      * @param fd
      *          The file descriptor of the serial port/device.
      */
-    public synchronized static native boolean getDTR(int fd) throws IOException;
+    public static native boolean getDTR(int fd) throws IOException;
 
     /**
      * <p>
@@ -422,7 +448,7 @@ public class Serial {
      * @param fd
      *          The file descriptor of the serial port/device.
      */
-    public synchronized static native boolean getCTS(int fd) throws IOException;
+    public static native boolean getCTS(int fd) throws IOException;
 
     /**
      * <p>
@@ -432,7 +458,7 @@ public class Serial {
      * @param fd
      *          The file descriptor of the serial port/device.
      */
-    public synchronized static native boolean getDSR(int fd) throws IOException;
+    public static native boolean getDSR(int fd) throws IOException;
 
     /**
      * <p>
@@ -442,7 +468,7 @@ public class Serial {
      * @param fd
      *          The file descriptor of the serial port/device.
      */
-    public synchronized static native boolean getRI(int fd) throws IOException;
+    public static native boolean getRI(int fd) throws IOException;
 
     /**
      * <p>
@@ -452,7 +478,7 @@ public class Serial {
      * @param fd
      *          The file descriptor of the serial port/device.
      */
-    public synchronized static native boolean getCD(int fd) throws IOException;
+    public static native boolean getCD(int fd) throws IOException;
 
     // ----------------------------------------
     // READ OPERATIONS
@@ -467,7 +493,7 @@ public class Serial {
      *
      * @return Returns the number of characters available for reading, or -1 for any error
      */
-    public synchronized static native int available(int fd);
+    public static native int available(int fd);
 
 
     /**
@@ -478,7 +504,11 @@ public class Serial {
      *
      * @return Returns a byte array with the data read from the serial port.
      */
-    public synchronized static native byte[] read(int fd) throws IOException;
+    public static byte[] read(int fd) throws IOException {
+        synchronized (lock(fd).read) {
+            return readAvailable(fd);
+        }
+    }
 
     /**
      * <p>Reads a length of bytes from the port/serial device.</p>
@@ -491,24 +521,38 @@ public class Serial {
      *
      * @return Returns a byte array with the data read from the serial port.
      */
-    public synchronized static native byte[] read(int fd, int length) throws IOException;
+    public static byte[] read(int fd, int length) throws IOException {
+        synchronized (lock(fd).read) {
+            return readBytes(fd, length);
+        }
+    }
+
+    private static native byte[] readAvailable(int fd) throws IOException;
+
+    private static native byte[] readBytes(int fd, int length) throws IOException;
 
     /**
      * <p>Reads all available bytes from the serial device into a provided ByteBuffer.</p>
      *
+     * <p>(A direct buffer is filled by the native library without any intermediate copy; only as many
+     * bytes as the buffer has remaining are read.  The buffer position is advanced by the number of
+     * bytes read.)</p>
+     *
      * @param fd
      *          The file descriptor of the serial port/device.
      * @param buffer
      *          The ByteBuffer object to write to.
      */
-    public synchronized static void read(int fd, ByteBuffer buffer) throws IOException{
-        byte[] data = read(fd);
-        buffer.put(data);
+    public static void read(int fd, ByteBuffer buffer) throws IOException{
+        read(fd, buffer.remaining(), buffer);
     }
 
     /**
      * <p>Reads a length bytes from the serial port/device into a provided ByteBuffer.</p>
      *
+     * <p>(A direct buffer is filled by the native library without any intermediate copy; no more than
+     * the buffer has remaining is read.  The buffer position is advanced by the number of bytes read.)</p>
+     *
      * @param fd
      *          The file descriptor of the serial port/device.
      * @param length
@@ -518,10 +562,48 @@ public class Serial {
      *          The ByteBuffer object to write to.
      *
      */
-    public synchronized static void read(int fd, int length, ByteBuffer buffer) throws IOException{
-        buffer.put(read(fd, length));
+    public static void read(int fd, int length, ByteBuffer buffer) throws IOException{
+        length = Math.min(length, buffer.remaining());
+        if (!buffer.isDirect()) {
+            buffer.put(read(fd, length));
+            return;
+        }
+        synchronized (lock(fd).read) {
+            int count = readDirect(fd, buffer, buffer.position(), length);
+            buffer.position(buffer.position() + count);
+        }
     }
 
+    /**
+     * <p>Reads the available bytes from the serial port/device into the provided direct ByteBuffers
+     * using a single scattering read; the buffers are filled in order, each from its position up to
+     * its limit.</p>
+     *
+     * @param fd
+     *          The file descriptor of the serial port/device.
+     * @param buffers
+     *          The direct ByteBuffer objects to write to.
+     *
+     * @return Returns the number of bytes read.
+     */
+    public static long read(int fd, ByteBuffer ... buffers) throws IOException{
+        for (ByteBuffer buffer : buffers) {
+            if (!buffer.isDirect()) {
+                throw new IllegalArgumentException("Scattering reads require direct buffers.");
+            }
+        }
+        long count;
+        synchronized (lock(fd).read) {
+            count = readScatter(fd, buffers);
+        }
+        advance(buffers, count);
+        return count;
+    }
+
+    private static native int readDirect(int fd, ByteBuffer buffer, int position, int length) throws IOException;
+
+    private static native long readScatter(int fd, ByteBuffer[] buffers) throws IOException;
+
     /**
      * <p>Reads all available bytes from the serial device into a provided OutputStream.</p>
      *
@@ -530,7 +612,7 @@ public class Serial {
      * @param stream
      *          The OutputStream object to write to.
      */
-    public synchronized static void read(int fd, OutputStream stream) throws IOException{
+    public static void read(int fd, OutputStream stream) throws IOException{
         stream.write(read(fd));
     }
 
@@ -546,7 +628,7 @@ public class Serial {
      *          The OutputStream object to write to.
      *
      */
-    public synchronized static void read(int fd, int length, OutputStream stream) throws IOException{
+    public static void read(int fd, int length, OutputStream stream) throws IOException{
         stream.write(read(fd, length));
     }
 
@@ -559,7 +641,7 @@ public class Serial {
      *          The collection of CharSequence objects to append to.
      *
      */
-    public synchronized static void read(int fd, Collection<ByteBuffer> collection) throws IOException{
+    public static void read(int fd, Collection<ByteBuffer> collection) throws IOException{
         collection.add(ByteBuffer.wrap(read(fd)));
     }
 
@@ -575,7 +657,7 @@ public class Serial {
      *          The collection of CharSequence objects to append to.
      *
      */
-    public synchronized static void read(int fd, int length, Collection<ByteBuffer> collection) throws IOException{
+    public static void read(int fd, int length, Collection<ByteBuffer> collection) throws IOException{
         collection.add(ByteBuffer.wrap(read(fd)));
     }
 
@@ -589,7 +671,7 @@ public class Serial {
      *
      * @return Returns a character set with the data read from the serial port.
      */
-    public synchronized static CharBuffer read(int fd, Charset charset) throws IOException{
+    public static CharBuffer read(int fd, Charset charset) throws IOException{
         return charset.decode(ByteBuffer.wrap(read(fd)));
     }
 
@@ -606,7 +688,7 @@ public class Serial {
      *
      * @return Returns a character set with the data read from the serial port.
      */
-    public synchronized static CharBuffer read(int fd, int length, Charset charset) throws IOException{
+    public static CharBuffer read(int fd, int length, Charset charset) throws IOException{
         return charset.decode(ByteBuffer.wrap(read(fd, length)));
     }
 
@@ -621,7 +703,7 @@ public class Serial {
      *          The Writer object to write to.
      *
      */
-    public synchronized static void read(int fd, Charset charset, Writer writer) throws IOException{
+    public static void read(int fd, Charset charset, Writer writer) throws IOException{
         writer.write(read(fd, charset).toString());
     }
 
@@ -639,7 +721,7 @@ public class Serial {
      *          The Writer object to write to.
      *
      */
-    public synchronized static void read(int fd, int length, Charset charset, Writer writer) throws IOException{
+    public static void read(int fd, int length, Charset charset, Writer writer) throws IOException{
         writer.write(read(fd, length, charset).toString());
     }
 
@@ -648,18 +730,11 @@ public class Serial {
     // WRITE OPERATIONS
     // ----------------------------------------
 
-    /**
-     * <p>Sends an array of bytes to the serial port/device identified by the given file descriptor.</p>
-     *
-     *
-     * @param fd
-     *            The file descriptor of the serial port/device.
-     * @param data
-     *            A ByteBuffer of data to be transmitted.
-     * @param length
-     *            The number of bytes from the byte array to transmit to the serial port.
-     */
-    private synchronized static native void write(int fd, byte[] data, long length) throws IOException;
+    private static native void writeBytes(int fd, byte[] data, int offset, int length) throws IOException;
+
+    private static native void writeDirect(int fd, ByteBuffer buffer, int position, int length) throws IOException;
+
+    private static native long writeGather(int fd, ByteBuffer[] buffers) throws IOException;
 
     /**
      * <p>Sends an array of bytes to the serial port/device identified by the given file descriptor.</p>
@@ -673,14 +748,15 @@ public class Serial {
      * @param length
      *            The number of bytes from the byte array to transmit to the serial port.
      */
-    public synchronized static void write(int fd, byte[] data, int offset, int length) throws IOException {
-
-        // we make a copy of the data argument because we don't want to modify the original source data
-        byte[] buffer = new byte[length];
-        System.arraycopy(data, offset, buffer, 0, length);
+    public static void write(int fd, byte[] data, int offset, int length) throws IOException {
+        if (offset < 0 || length < 0 || offset + length > data.length) {
+            throw new IndexOutOfBoundsException();
+        }
 
-        // write the buffer contents to the serial port via JNI native method
-        write(fd, buffer, length);
+        // write the array range to the serial port via JNI native method; only this range is copied
+        synchronized (lock(fd).write) {
+            writeBytes(fd, data, offset, length);
+        }
     }
 
     /**
@@ -691,10 +767,12 @@ public class Serial {
      * @param data
      *            One or more bytes (or an array) of data to be transmitted. (variable-length-argument)
      */
-    public synchronized static void write(int fd, byte ... data) throws IOException {
+    public static void write(int fd, byte ... data) throws IOException {
 
         // write the data contents to the serial port via JNI native method
-        write(fd, data, data.length);
+        synchronized (lock(fd).write) {
+            writeBytes(fd, data, 0, data.length);
+        }
     }
 
     /**
@@ -705,10 +783,12 @@ public class Serial {
      * @param data
      *            One or more byte arrays of data to be transmitted. (variable-length-argument)
      */
-    public synchronized static void write(int fd, byte[] ... data) throws IOException {
-        for(byte[] single : data) {
-            // write the data contents to the serial port via JNI native method
-            write(fd, single, single.length);
+    public static void write(int fd, byte[] ... data) throws IOException {
+        synchronized (lock(fd).write) {
+            for(byte[] single : data) {
+                // write the data contents to the serial port via JNI native method
+                writeBytes(fd, single, 0, single.length);
+            }
         }
     }
 
@@ -717,22 +797,41 @@ public class Serial {
      * (The buffer is read from the current position up to the 'limit' value, not the 'capacity'.  You may need to
      * rewind() or flip() the byte buffer if you have just written to it.)
      *
+     * <p>(Direct buffers are handed to the native library without any intermediate copy; several direct
+     * buffers are transmitted with a single gathering write.)</p>
+     *
      * @param fd
      *            The file descriptor of the serial port/device.
      * @param data
      *            A ByteBuffer of data to be transmitted.
      */
-    public synchronized static void write(int fd, ByteBuffer ... data) throws IOException{
-
-        // write each byte buffer to the serial port
-        for(ByteBuffer single : data) {
-
-            // read the byte buffer from the current position up to the limit
-            byte[] payload = new byte[single.remaining()];
-            single.get(payload);
-
-            // write the data contents to the serial port via JNI native method
-            write(fd, payload, payload.length);
+    public static void write(int fd, ByteBuffer ... data) throws IOException{
+        synchronized (lock(fd).write) {
+
+            // gather all direct buffers into a single system call
+            if (data.length > 1 && allDirect(data)) {
+                advance(data, writeGather(fd, data));
+                return;
+            }
+
+            // write each byte buffer to the serial port
+            for(ByteBuffer single : data) {
+                int length = single.remaining();
+                if (single.isDirect()) {
+                    writeDirect(fd, single, single.position(), length);
+                    single.position(single.limit());
+                }
+                else if (single.hasArray()) {
+                    writeBytes(fd, single.array(), single.arrayOffset() + single.position(), length);
+                    single.position(single.limit());
+                }
+                else {
+                    // read-only heap buffers do not expose their array
+                    byte[] payload = new byte[length];
+                    single.get(payload);
+                    writeBytes(fd, payload, 0, length);
+                }
+            }
         }
     }
 
@@ -744,7 +843,7 @@ public class Serial {
      * @param input
      *          An InputStream of data to be transmitted
      */
-    public synchronized static void write(int fd, InputStream input) throws IOException {
+    public static void write(int fd, InputStream input) throws IOException {
 
         // ensure bytes are available
         if(input.available() <= 0){
@@ -760,7 +859,9 @@ public class Serial {
         buffer.flush();
 
         // write bytes to serial port
-        write(fd, buffer.toByteArray(), buffer.size());
+        synchronized (lock(fd).write) {
+            writeBytes(fd, buffer.toByteArray(), 0, buffer.size());
+        }
     }
 
     /**
@@ -777,7 +878,7 @@ public class Serial {
      * @param length
      *           The number of characters from the char array to transmit to the serial port.
      */
-    public synchronized static void write(int fd, Charset charset, char[] data, int offset, int length) throws IOException {
+    public static void write(int fd, Charset charset, char[] data, int offset, int length) throws IOException {
 
         // write the buffer contents to the serial port via JNI native method
         write(fd, charset, CharBuffer.wrap(data, offset, length));
@@ -793,7 +894,7 @@ public class Serial {
      * @param data
      *           One or more characters (or an array) of data to be transmitted. (variable-length-argument)
      */
-    public synchronized static void write(int fd, Charset charset, char ... data) throws IOException {
+    public static void write(int fd, Charset charset, char ... data) throws IOException {
 
         // write the buffer contents to the serial port via JNI native method
         write(fd, charset, CharBuffer.wrap(data));
@@ -807,7 +908,7 @@ public class Serial {
      * @param data
      *           One or more ASCII characters (or an array) of data to be transmitted. (variable-length-argument)
      */
-    public synchronized static void write(int fd, char ... data) throws IOException {
+    public static void write(int fd, char ... data) throws IOException {
 
         // write the buffer contents to the serial port via JNI native method
         write(fd, StandardCharsets.US_ASCII, CharBuffer.wrap(data));
@@ -823,9 +924,11 @@ public class Serial {
      * @param data
      *           One or more CharBuffers (or an array) of data to be transmitted. (variable-length-argument)
      */
-    public synchronized static void write(int fd, Charset charset, CharBuffer ... data) throws IllegalStateException, IOException {
-        for(CharBuffer single : data) {
-            write(fd, charset.encode(single));
+    public static void write(int fd, Charset charset, CharBuffer ... data) throws IllegalStateException, IOException {
+        synchronized (lock(fd).write) {
+            for(CharBuffer single : data) {
+                write(fd, charset.encode(single));
+            }
         }
     }
 
@@ -837,7 +940,7 @@ public class Serial {
      * @param data
      *           One or more ASCII CharBuffers (or an array) of data to be transmitted. (variable-length-argument)
      */
-    public synchronized static void write(int fd, CharBuffer ... data) throws IllegalStateException, IOException {
+    public static void write(int fd, CharBuffer ... data) throws IllegalStateException, IOException {
         write(fd, StandardCharsets.US_ASCII, data);
     }
 
@@ -851,9 +954,11 @@ public class Serial {
      * @param data
      *           One or more string objects (or an array) of data to be transmitted. (variable-length-argument)
      */
-    public synchronized static void write(int fd, Charset charset, CharSequence ... data) throws IllegalStateException, IOException {
-        for(CharSequence single : data) {
-            write(fd, charset.encode(CharBuffer.wrap(single)));
+    public static void write(int fd, Charset charset, CharSequence ... data) throws IllegalStateException, IOException {
+        synchronized (lock(fd).write) {
+            for(CharSequence single : data) {
+                write(fd, charset.encode(CharBuffer.wrap(single)));
+            }
         }
     }
 
@@ -865,7 +970,7 @@ public class Serial {
      * @param data
      *           One or more ASCII string objects (or an array) of data to be transmitted. (variable-length-argument)
      */
-    public synchronized static void write(int fd, CharSequence ... data) throws IllegalStateException, IOException {
+    public static void write(int fd, CharSequence ... data) throws IllegalStateException, IOException {
         write(fd, StandardCharsets.US_ASCII, data);
     }
 
@@ -880,9 +985,11 @@ public class Serial {
      * @param data
      *           A collection of string objects (or an array) of data to be transmitted. (variable-length-argument)
      */
-    public synchronized static void write(int fd, Charset charset, Collection<? extends CharSequence> data) throws IllegalStateException, IOException {
-        for(CharSequence single : data) {
-            write(fd, charset.encode(CharBuffer.wrap(single)));
+    public static void write(int fd, Charset charset, Collection<? extends CharSequence> data) throws IllegalStateException, IOException {
+        synchronized (lock(fd).write) {
+            for(CharSequence single : data) {
+                write(fd, charset.encode(CharBuffer.wrap(single)));
+            }
         }
     }
 
@@ -894,7 +1001,7 @@ public class Serial {
      * @param data
      *           A collection of string objects (or an array) of data to be transmitted. (variable-length-argument)
      */
-    public synchronized static void write(int fd, Collection<? extends CharSequence> data) throws IllegalStateException, IOException {
+    public static void write(int fd, Collection<? extends CharSequence> data) throws IllegalStateException, IOException {
         write(fd, StandardCharsets.US_ASCII, data);
     }
 
@@ -909,9 +1016,11 @@ public class Serial {
      * @param data
      *           One or more string objects (or an array) of data to be transmitted. (variable-length-argument)
      */
-    public synchronized static void writeln(int fd, Charset charset, CharSequence ... data) throws IllegalStateException, IOException {
-        for(CharSequence single : data) {
-            write(fd, charset.encode(CharBuffer.wrap(single + "\r\n")));
+    public static void writeln(int fd, Charset charset, CharSequence ... data) throws IllegalStateException, IOException {
+        synchronized (lock(fd).write) {
+            for(CharSequence single : data) {
+                write(fd, charset.encode(CharBuffer.wrap(single + "\r\n")));
+            }
         }
     }
 
@@ -923,7 +1032,7 @@ public class Serial {
      * @param data
      *           One or more ASCII string objects (or an array) of data to be transmitted. (variable-length-argument)
      */
-    public synchronized static void writeln(int fd, CharSequence ... data) throws IllegalStateException, IOException {
+    public static void writeln(int fd, CharSequence ... data) throws IllegalStateException, IOException {
         writeln(fd, StandardCharsets.US_ASCII, data);
     }
 
@@ -937,9 +1046,11 @@ public class Serial {
      * @param data
      *           A collection of string objects (or an array) of data to be transmitted. (variable-length-argument)
      */
-    public synchronized static void writeln(int fd, Charset charset, Collection<? extends CharSequence> data) throws IllegalStateException, IOException {
-        for(CharSequence single : data) {
-            write(fd, charset.encode(CharBuffer.wrap(single + "\r\n")));
+    public static void writeln(int fd, Charset charset, Collection<? extends CharSequence> data) throws IllegalStateException, IOException {
+        synchronized (lock(fd).write) {
+            for(CharSequence single : data) {
+                write(fd, charset.encode(CharBuffer.wrap(single + "\r\n")));
+            }
         }
     }
 
@@ -951,8 +1062,48 @@ public class Serial {
      * @param data
      *           A collection of ASCII string objects (or an array) of data to be transmitted. (variable-length-argument)
      */
-    public synchronized static void writeln(int fd, Collection<? extends CharSequence> data) throws IllegalStateException, IOException {
+    public static void writeln(int fd, Collection<? extends CharSequence> data) throws IllegalStateException, IOException {
         writeln(fd, StandardCharsets.US_ASCII, data);
     }
 
+    // check whether all buffers are direct buffers usable by the gathering/scattering operations
+    private static boolean allDirect(ByteBuffer[] buffers) {
+        for (ByteBuffer buffer : buffers) {
+            if (!buffer.isDirect()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // advance the buffer positions over the bytes transferred by a gathering/scattering operation
+    private static void advance(ByteBuffer[] buffers, long count) {
+        for (ByteBuffer buffer : buffers) {
+            int length = (int) Math.min(count, buffer.remaining());
+            buffer.position(buffer.position() + length);
+            count -= length;
+        }
+    }
+
+    /**
+     * Returns the locks of a port, creating them on first use. Every write holds the write lock of its
+     * port, so the parts of a multi-part write are never separated by another write; different ports
+     * are written in parallel.
+     */
+    private static PortLock lock(int fd) {
+        PortLock lock = portLocks.get(fd);
+        if (lock == null) {
+            PortLock created = new PortLock();
+            lock = portLocks.putIfAbsent(fd, created);
+            if (lock == null) {
+                lock = created;
+            }
+        }
+        return lock;
+    }
+
+    private static final class PortLock {
+        private final Object read = new Object();
+        private final Object write = new Object();
+    }
 }
@@ -32,6 +32,7 @@ package com.pi4j.jni;
 
 import com.pi4j.util.NativeLibraryLoader;
 
+import java.nio.ByteBuffer;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -48,8 +49,29 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class SerialInterrupt {
 
+    /**
+     * Deliver the received data as soon as it has been read from the serial port.
+     */
+    public static final int RECEIVE_IMMEDIATE = 0;
+
+    /**
+     * Keep on collecting data until no further byte arrived within the configured idle time.
+     */
+    public static final int RECEIVE_INTER_BYTE_GAP = 1;
+
+    /**
+     * Keep on collecting data until the configured minimum number of bytes has arrived; if an
+     * idle time is configured, a shorter message is delivered once the line has been idle that long.
+     */
+    public static final int RECEIVE_MINIMUM_BYTES = 2;
+
+    public static final int DEFAULT_RECEIVE_BUFFER_SIZE = 4096;
+
     private static Map<Integer, SerialInterruptListener> listeners = new ConcurrentHashMap<Integer, SerialInterruptListener>();
 
+    // direct receive buffers shared with the native monitoring thread; one per serial port
+    private static Map<Integer, ByteBuffer> buffers = new ConcurrentHashMap<Integer, ByteBuffer>();
+
     // private constructor
     private SerialInterrupt()  {
         // forbid object construction
@@ -62,56 +84,139 @@ public class SerialInterrupt {
 
     /**
      * <p>
-     * This method is used to instruct the native code to setup a monitoring thread to monitor
-     * interrupts that represent changes to the selected serial port.
+     * This method is used to instruct the native code to add the selected serial port to the
+     * single monitoring thread shared by all serial ports.  Received data is delivered as soon as
+     * it has been read from the serial port.
      * </p>
      *
      * @param fileDescriptor the serial file descriptor/handle
      * @return A return value of a negative number represents an error. A return value of '0'
      *         represents success and that the serial port is already being monitored. A return value
-     *         of '1' represents success and that a new monitoring thread was created to handle the
-     *         requested serial port.
+     *         of '1' represents success and that the requested serial port was added to the monitor.
      */
-    public static native int enableSerialDataReceiveCallback(int fileDescriptor);
+    public static int enableSerialDataReceiveCallback(int fileDescriptor) {
+        return enableSerialDataReceiveCallback(fileDescriptor, RECEIVE_IMMEDIATE, 0, 1);
+    }
 
     /**
      * <p>
-     * This method is used to instruct the native code to stop the monitoring thread monitoring
-     * interrupts on the selected serial port.
+     * This method is used to instruct the native code to add the selected serial port to the
+     * single monitoring thread shared by all serial ports using the given receive strategy.
      * </p>
      *
      * @param fileDescriptor the serial file descriptor/handle
+     * @param mode the receive strategy; one of RECEIVE_IMMEDIATE, RECEIVE_INTER_BYTE_GAP
+     *             or RECEIVE_MINIMUM_BYTES
+     * @param idleTime the inter-byte idle time in microseconds
+     * @param minimumBytes the minimum number of bytes to collect (RECEIVE_MINIMUM_BYTES only)
+     * @return A return value of a negative number represents an error. A return value of '0'
+     *         represents success and that the serial port is already being monitored. A return value
+     *         of '1' represents success and that the requested serial port was added to the monitor.
+     */
+    public static int enableSerialDataReceiveCallback(int fileDescriptor, int mode, int idleTime, int minimumBytes) {
+        ByteBuffer buffer = buffers.get(fileDescriptor);
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(DEFAULT_RECEIVE_BUFFER_SIZE);
+        }
+        return enableSerialDataReceiveCallback(fileDescriptor, buffer, mode, idleTime, minimumBytes);
+    }
 
+    /**
+     * <p>
+     * This method is used to instruct the native code to add the selected serial port to the
+     * single monitoring thread shared by all serial ports using the given receive strategy; the
+     * received data is placed in the provided direct buffer.  The buffer must not be used by the
+     * caller until the serial port has been removed from the monitor again.
+     * </p>
+     *
+     * @param fileDescriptor the serial file descriptor/handle
+     * @param buffer the direct buffer receiving the data; its capacity limits the size of a single event
+     * @param mode the receive strategy; one of RECEIVE_IMMEDIATE, RECEIVE_INTER_BYTE_GAP
+     *             or RECEIVE_MINIMUM_BYTES
+     * @param idleTime the inter-byte idle time in microseconds
+     * @param minimumBytes the minimum number of bytes to collect (RECEIVE_MINIMUM_BYTES only)
      * @return A return value of a negative number represents an error. A return value of '0'
-     *         represents success and that no existing monitor was previously running. A return
-     *         value of '1' represents success and that an existing monitoring thread was stopped
-     *         for the requested serial port.
+     *         represents success and that the serial port is already being monitored. A return value
+     *         of '1' represents success and that the requested serial port was added to the monitor.
      */
-    public static native int disableSerialDataReceiveCallback(int fileDescriptor);
+    public static int enableSerialDataReceiveCallback(int fileDescriptor, ByteBuffer buffer, int mode, int idleTime, int minimumBytes) {
+        if (!buffer.isDirect()) {
+            throw new IllegalArgumentException("The receive buffer must be a direct buffer.");
+        }
+        if (mode < RECEIVE_IMMEDIATE || mode > RECEIVE_MINIMUM_BYTES) {
+            throw new IllegalArgumentException("Invalid receive mode: " + mode);
+        }
+        if (idleTime < 0) {
+            throw new IllegalArgumentException("Receive idle time must not be negative.");
+        }
+        if (mode == RECEIVE_INTER_BYTE_GAP && idleTime == 0) {
+            throw new IllegalArgumentException("Receive idle time is required for the inter-byte gap receive mode.");
+        }
+        if (minimumBytes < 1 || minimumBytes > buffer.capacity()) {
+            throw new IllegalArgumentException("Receive minimum bytes must be between 1 and " + buffer.capacity() + ".");
+        }
+
+        // a serial port already being monitored keeps on using its current buffer
+        ByteBuffer current = buffers.get(fileDescriptor);
+        if (current == null) {
+            buffers.put(fileDescriptor, buffer);
+            current = buffer;
+        }
+        return enableSerialDataReceive(fileDescriptor, current, mode, idleTime, minimumBytes);
+    }
+
+    private static native int enableSerialDataReceive(int fileDescriptor, ByteBuffer buffer, int mode, int idleTime, int minimumBytes);
 
     /**
      * <p>
-     * This method is provided as the callback handler for the Pi4J native library to invoke when a
-     * GPIO interrupt is detected. This method should not be called from any Java consumers. (Thus
-     * is is marked as a private method.)
+     * This method is used to instruct the native code to stop monitoring the selected serial port.
      * </p>
      *
      * @param fileDescriptor the serial file descriptor/handle
-     * //@param data byte array of data received on this event from the serial receive buffer
+
+     * @return A return value of a negative number represents an error. A return value of '0'
+     *         represents success and that the serial port was not being monitored. A return
+     *         value of '1' represents success and that the requested serial port was removed from
+     *         the monitor.
      */
-    @SuppressWarnings("unchecked")
-    private static void onDataReceiveCallback(int fileDescriptor, byte[] data) {
+    public static native int disableSerialDataReceiveCallback(int fileDescriptor);
 
+    /**
+     * <p>
+     * This method is provided as the callback handler for the Pi4J native library to invoke when
+     * serial data has been received. The native library monitors all enabled serial ports from a
+     * single thread and delivers the data of every port that became ready in one wakeup as a batch;
+     * the arrays are reused between calls and only the first <code>count</code> elements are valid.
+     * This method should not be called from any Java consumers. (Thus is is marked as a private method.)
+     * </p>
+     *
+     * @param fileDescriptors the serial file descriptors/handles
+     * @param lengths number of data bytes placed in each serial port's receive buffer
+     * @param count Number of valid entries in the arrays.
+     */
+    private static void onDataReceiveCallback(int[] fileDescriptors, int[] lengths, int count) {
+        for (int index = 0; index < count; index++) {
+            dispatch(fileDescriptors[index], lengths[index]);
+        }
+    }
+
+    private static void dispatch(int fileDescriptor, int length) {
         // notify event listeners
-        if(listeners.containsKey(fileDescriptor)){
-            SerialInterruptListener listener = listeners.get(fileDescriptor);
-            if(listener != null) {
-                SerialInterruptEvent event = new SerialInterruptEvent(listener, fileDescriptor, data);
+        SerialInterruptListener listener = listeners.get(fileDescriptor);
+        ByteBuffer buffer = buffers.get(fileDescriptor);
+        if(listener != null && buffer != null) {
+            // the buffer gets reused for the next event; listeners must consume
+            // the data before returning from the callback
+            buffer.limit(length).position(0);
+            SerialInterruptEvent event = new SerialInterruptEvent(listener, fileDescriptor, buffer);
+            try {
                 listener.onDataReceive(event);
             }
+            catch (RuntimeException e) {
+                // a failing listener must not prevent the delivery to the other serial ports in this batch
+                e.printStackTrace();
+            }
         }
-
-        //System.out.println("SERIAL PORT [" + fileDescriptor + "] DATA LENGTH = " + data.length + " / " + new String(data));
     }
 
     /**
@@ -127,9 +232,61 @@ public class SerialInterrupt {
      * @param listener A class instance that implements the GpioInterruptListener interface.
      */
     public static synchronized void addListener(int fileDescriptor, SerialInterruptListener listener) {
+        addListener(fileDescriptor, listener, RECEIVE_IMMEDIATE, 0, 1);
+    }
+
+    /**
+     * <p>
+     * Java consumer code can all this method to register itself as a listener for serial data
+     * received using the given receive strategy.
+     * </p>
+     *
+     * @see #enableSerialDataReceiveCallback(int, int, int, int)
+     *
+     * @param fileDescriptor the serial file descriptor/handle
+     * @param listener A class instance that implements the SerialInterruptListener interface.
+     * @param mode the receive strategy
+     * @param idleTime the inter-byte idle time in microseconds
+     * @param minimumBytes the minimum number of bytes to collect
+     */
+    public static synchronized void addListener(int fileDescriptor, SerialInterruptListener listener,
+                                                int mode, int idleTime, int minimumBytes) {
+        if (!listeners.containsKey(fileDescriptor)) {
+            addListener(fileDescriptor, listener, ByteBuffer.allocateDirect(DEFAULT_RECEIVE_BUFFER_SIZE),
+                    mode, idleTime, minimumBytes);
+        }
+    }
+
+    /**
+     * <p>
+     * Java consumer code can all this method to register itself as a listener for serial data
+     * received using the given receive strategy and its own direct receive buffer; this allows
+     * the buffer to be reused when the serial port gets reopened.
+     * </p>
+     *
+     * @see #enableSerialDataReceiveCallback(int, ByteBuffer, int, int, int)
+     *
+     * @param fileDescriptor the serial file descriptor/handle
+     * @param listener A class instance that implements the SerialInterruptListener interface.
+     * @param buffer the direct buffer receiving the data
+     * @param mode the receive strategy
+     * @param idleTime the inter-byte idle time in microseconds
+     * @param minimumBytes the minimum number of bytes to collect
+     */
+    public static synchronized void addListener(int fileDescriptor, SerialInterruptListener listener,
+                                                ByteBuffer buffer, int mode, int idleTime, int minimumBytes) {
         if (!listeners.containsKey(fileDescriptor)) {
             listeners.put(fileDescriptor, listener);
-            enableSerialDataReceiveCallback(fileDescriptor);
+            boolean enabled = false;
+            try {
+                enabled = enableSerialDataReceiveCallback(fileDescriptor, buffer, mode, idleTime, minimumBytes) >= 0;
+            }
+            finally {
+                if (!enabled) {
+                    listeners.remove(fileDescriptor);
+                    buffers.remove(fileDescriptor);
+                }
+            }
         }
     }
 
@@ -148,6 +305,7 @@ public class SerialInterrupt {
         if (listeners.containsKey(fileDescriptor)) {
             listeners.remove(fileDescriptor);
             disableSerialDataReceiveCallback(fileDescriptor);
+            buffers.remove(fileDescriptor);
         }
     }
 
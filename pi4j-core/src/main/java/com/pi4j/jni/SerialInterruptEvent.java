@@ -30,6 +30,7 @@ package com.pi4j.jni;
  */
 
 
+import java.nio.ByteBuffer;
 import java.util.EventObject;
 
 /**
@@ -43,6 +44,7 @@ public class SerialInterruptEvent extends EventObject {
 
     private static final long serialVersionUID = 1L;
     private int fileDescriptor;
+    private ByteBuffer buffer;
     private byte[] data;
 
     /**
@@ -56,6 +58,21 @@ public class SerialInterruptEvent extends EventObject {
         super(obj);
         this.fileDescriptor = fileDescriptor;
         this.data = data;
+        this.buffer = ByteBuffer.wrap(data).asReadOnlyBuffer();
+    }
+
+    /**
+     * <h1>Receive buffer event constructor</h1>
+     *
+     * @param obj Ignore this parameter
+     * @param fileDescriptor The serial file handle/descriptor in use
+     * @param buffer buffer holding the data bytes received in this event between its
+     *               position and limit; only valid for the duration of the event callback
+     */
+    public SerialInterruptEvent(Object obj, int fileDescriptor, ByteBuffer buffer) {
+        super(obj);
+        this.fileDescriptor = fileDescriptor;
+        this.buffer = buffer;
     }
 
     /**
@@ -73,16 +90,34 @@ public class SerialInterruptEvent extends EventObject {
      * @return length of data bytes received in this event
      */
     public int getLength() {
-        return data.length;
+        return (data != null) ? data.length : buffer.remaining();
     }
 
     /**
-     * Get the data bytes received in this event.
+     * Get the data bytes received in this event.  For events created from the native receive
+     * buffer the data is copied on the first call, which must happen before the event callback
+     * returns; later calls return the same copy.
      *
      * @return data bytes received in this event
      */
     public byte[] getData() {
+        if (data == null) {
+            data = new byte[buffer.remaining()];
+            buffer.duplicate().get(data);
+        }
         return data;
     }
 
+    /**
+     * Get the buffer holding the data bytes received in this event.  The buffer belongs to
+     * the native receive monitor and is reused for the next event, so its content must be
+     * consumed before the event callback returns.  Readers must not leave its position changed
+     * (e.g. read from a duplicate), otherwise {@link #getData()} returns the remaining bytes only.
+     *
+     * @return buffer holding the data bytes received in this event
+     */
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
 }
@@ -797,6 +797,22 @@ public class Gpio {
     public static native void digitalWriteByte(int value);
 
 
+    /**
+     * <p> This writes the HIGH or LOW state to multiple GPIO pins, which must have been previously set as outputs,
+     *     using a single native call.  Each bit in the pin mask selects a pin number (bit 0 = pin 0) to be written;
+     *     the corresponding bit in the value mask defines the state (1 = HIGH, 0 = LOW) for the selected pin.</p>
+     *
+     * <p> The write is not atomic across pins.  If all of the first 8 pins are selected, they are written with
+     *     digitalWriteByte() (one set and one clear register store); all other selected pins are written one
+     *     after another with digitalWrite() in ascending pin order, so other observers may see the
+     *     intermediate states.</p>
+     *
+     * @param pinMask bit mask of the pin numbers to write
+     * @param valueMask bit mask of the pin states to write for the selected pins
+     */
+    public static native void digitalWritePins(long pinMask, long valueMask);
+
+
     /**
      * <p>[PWM]</p>
      *
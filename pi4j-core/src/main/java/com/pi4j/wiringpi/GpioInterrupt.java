@@ -60,6 +60,9 @@ import java.util.Vector;
 public class GpioInterrupt {
 
     private static Vector<GpioInterruptListener> listeners = new Vector<>();
+
+    // immutable copy of the listeners used by the native callbacks; rebuilt on registration changes
+    private static volatile GpioInterruptListener[] listenerSnapshot = new GpioInterruptListener[0];
     private Object lock;
 
     // private constructor
@@ -74,8 +77,8 @@ public class GpioInterrupt {
 
     /**
      * <p>
-     * This method is used to instruct the native code to setup a monitoring thread to monitor
-     * interrupts that represent changes to the selected GPIO pin.
+     * This method is used to instruct the native code to monitor interrupts that represent changes
+     * to the selected GPIO pin. All monitored pins share a single native monitoring thread.
      * </p>
      *
      * <p>
@@ -85,51 +88,57 @@ public class GpioInterrupt {
      * @param pin GPIO pin number (not header pin number; not wiringPi pin number)
      * @return A return value of a negative number represents an error. A return value of '0'
      *         represents success and that the GPIO pin is already being monitored. A return value
-     *         of '1' represents success and that a new monitoring thread was created to handle the
-     *         requested GPIO pin number.
+     *         of '1' represents success and that the requested GPIO pin number was added to the
+     *         native monitor.
      */
     public static native int enablePinStateChangeCallback(int pin);
 
     /**
      * <p>
-     * This method is used to instruct the native code to stop the monitoring thread monitoring
-     * interrupts on the selected GPIO pin.
+     * This method is used to instruct the native code to stop monitoring interrupts on the
+     * selected GPIO pin.
      * </p>
      *
      * @param pin GPIO pin number (not header pin number; not wiringPi pin number)
 
      * @return A return value of a negative number represents an error. A return value of '0'
      *         represents success and that no existing monitor was previously running. A return
-     *         value of '1' represents success and that an existing monitoring thread was stopped
-     *         for the requested GPIO pin number.
+     *         value of '1' represents success and that the requested GPIO pin number was removed
+     *         from the native monitor.
      */
     public static native int disablePinStateChangeCallback(int pin);
 
     /**
      * <p>
-     * This method is provided as the callback handler for the Pi4J native library to invoke when a
-     * GPIO interrupt is detected. This method should not be called from any Java consumers. (Thus
-     * is is marked as a private method.)
+     * This method is provided as the callback handler for the Pi4J native library to invoke when one
+     * or more GPIO interrupts are detected. The native library monitors all enabled pins from a single
+     * thread and delivers every state change detected in one wakeup as a batch; the arrays are reused
+     * between calls and only the first <code>count</code> elements are valid. This method should not
+     * be called from any Java consumers. (Thus is is marked as a private method.)
      * </p>
      *
-     * @param pin GPIO pin number (not header pin number; not wiringPi pin number)
-     * @param state New GPIO pin state.
+     * @param pins GPIO pin numbers (not header pin number; not wiringPi pin number)
+     * @param states New GPIO pin states.
+     * @param timestamps Monotonic timestamps (nanoseconds) captured when the native monitor woke up.
+     * @param count Number of valid entries in the arrays.
      */
-    @SuppressWarnings("unchecked")
-    private static void pinStateChangeCallback(int pin, boolean state) {
-
-        Vector<GpioInterruptListener> listenersClone;
-        listenersClone = (Vector<GpioInterruptListener>) listeners.clone();
-
-        for (int i = 0; i < listenersClone.size(); i++) {
-            GpioInterruptListener listener = listenersClone.elementAt(i);
-            if(listener != null) {
-                GpioInterruptEvent event = new GpioInterruptEvent(listener, pin, state);
-                listener.pinStateChange(event);
-            }
+    private static void pinStateChangeCallback(int[] pins, boolean[] states, long[] timestamps, int count) {
+        GpioInterruptListener[] snapshot = listenerSnapshot;
+        for (int index = 0; index < count; index++) {
+            dispatch(snapshot, pins[index], states[index], timestamps[index]);
+        }
+    }
+
+    private static void dispatch(GpioInterruptListener[] snapshot, int pin, boolean state, long timestampNanos) {
+        if (snapshot.length == 0) {
+            return;
         }
 
-        //System.out.println("GPIO PIN [" + pin + "] = " + state);
+        // a single immutable event instance is shared by all listeners
+        GpioInterruptEvent event = new GpioInterruptEvent(GpioInterrupt.class, pin, state, timestampNanos);
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i].pinStateChange(event);
+        }
     }
 
     /**
@@ -144,8 +153,9 @@ public class GpioInterrupt {
      * @param listener A class instance that implements the GpioInterruptListener interface.
      */
     public static synchronized void addListener(GpioInterruptListener listener) {
-        if (!listeners.contains(listener)) {
+        if (listener != null && !listeners.contains(listener)) {
             listeners.addElement(listener);
+            listenerSnapshot = listeners.toArray(new GpioInterruptListener[listeners.size()]);
         }
     }
 
@@ -163,6 +173,7 @@ public class GpioInterrupt {
     public static synchronized void removeListener(GpioInterruptListener listener) {
         if (listeners.contains(listener)) {
             listeners.removeElement(listener);
+            listenerSnapshot = listeners.toArray(new GpioInterruptListener[listeners.size()]);
         }
     }
 
@@ -56,6 +56,7 @@ public class GpioInterruptEvent extends EventObject {
     private static final long serialVersionUID = 1L;
     private int pin;
     private boolean state;
+    private long timestampNanos;
 
     /**
      * <h1>Default event constructor</h1>
@@ -65,9 +66,22 @@ public class GpioInterruptEvent extends EventObject {
      * @param state New GPIO pin state.
      */
     public GpioInterruptEvent(Object obj, int pin, boolean state) {
+        this(obj, pin, state, System.nanoTime());
+    }
+
+    /**
+     * <h1>Timestamped event constructor</h1>
+     *
+     * @param obj Ignore this parameter
+     * @param pin GPIO pin number (not header pin number; not wiringPi pin number)
+     * @param state New GPIO pin state.
+     * @param timestampNanos Monotonic time (nanoseconds) at which the state change was detected.
+     */
+    public GpioInterruptEvent(Object obj, int pin, boolean state, long timestampNanos) {
         super(obj);
         this.pin = pin;
         this.state = state;
+        this.timestampNanos = timestampNanos;
     }
 
     /**
@@ -96,4 +110,15 @@ public class GpioInterruptEvent extends EventObject {
     public int getStateValue() {
         return (state) ? 1 : 0;
     }
+
+    /**
+     * Get the time at which the native interrupt monitor detected this state change. The value
+     * is taken from the Linux CLOCK_MONOTONIC clock when the monitor woke up and shares its time
+     * base with {@link System#nanoTime()}.
+     *
+     * @return monotonic timestamp in nanoseconds
+     */
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
 }
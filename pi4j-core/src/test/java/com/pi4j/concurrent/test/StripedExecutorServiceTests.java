@@ -0,0 +1,361 @@
+package com.pi4j.concurrent.test;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  StripedExecutorServiceTests.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.pi4j.concurrent.OverflowPolicy;
+import com.pi4j.concurrent.StripedExecutorService;
+import com.pi4j.concurrent.StripedRunnable;
+
+public class StripedExecutorServiceTests {
+
+    private StripedExecutorService executor;
+
+    @After
+    public void teardown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static class Task implements StripedRunnable {
+        private final Object stripe;
+        private final int sequence;
+        private final List<Integer> output;
+        private final CountDownLatch gate;
+
+        Task(Object stripe, int sequence, List<Integer> output, CountDownLatch gate) {
+            this.stripe = stripe;
+            this.sequence = sequence;
+            this.output = output;
+            this.gate = gate;
+        }
+
+        @Override
+        public Object getStripe() {
+            return stripe;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (gate != null) {
+                    gate.await();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            output.add(sequence);
+        }
+    }
+
+    @Test
+    public void testPerStripeOrdering() throws InterruptedException {
+        executor = new StripedExecutorService(4, 10000, OverflowPolicy.BLOCK, Executors.defaultThreadFactory());
+
+        // interleave tasks of several stripes
+        int stripes = 8;
+        int tasks = 2000;
+        List<List<Integer>> outputs = new ArrayList<>();
+        Object[] keys = new Object[stripes];
+        for (int s = 0; s < stripes; s++) {
+            outputs.add(Collections.synchronizedList(new ArrayList<Integer>()));
+            keys[s] = new Object();
+        }
+        for (int i = 0; i < tasks; i++) {
+            for (int s = 0; s < stripes; s++) {
+                executor.execute(new Task(keys[s], i, outputs.get(s), null));
+            }
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // every stripe observed its tasks in submission order
+        for (List<Integer> output : outputs) {
+            assertEquals(tasks, output.size());
+            for (int i = 0; i < tasks; i++) {
+                assertEquals(i, (int) output.get(i));
+            }
+        }
+        assertEquals((long) tasks * stripes, executor.getCompletedCount());
+        assertEquals(0, executor.getQueueDepth());
+    }
+
+    @Test
+    public void testDropOldest() throws InterruptedException {
+        executor = new StripedExecutorService(1, 2, OverflowPolicy.DROP_OLDEST, Executors.defaultThreadFactory());
+        List<Integer> output = Collections.synchronizedList(new ArrayList<Integer>());
+        CountDownLatch gate = new CountDownLatch(1);
+        Object stripe = new Object();
+
+        // the first task occupies the lane until the gate opens
+        executor.execute(new Task(stripe, 0, output, gate));
+        waitForDepth(0);
+        for (int i = 1; i <= 4; i++) {
+            executor.execute(new Task(stripe, i, output, null));
+        }
+        assertEquals(2, executor.getQueueDepth());
+        assertEquals(2, executor.getDroppedCount());
+        assertEquals(2, executor.getPeakQueueDepth());
+
+        gate.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(0, 3, 4), output);
+    }
+
+    @Test
+    public void testCoalesce() throws InterruptedException {
+        executor = new StripedExecutorService(1, 2, OverflowPolicy.COALESCE, Executors.defaultThreadFactory());
+        List<Integer> output = Collections.synchronizedList(new ArrayList<Integer>());
+        CountDownLatch gate = new CountDownLatch(1);
+        Object a = new Object();
+        Object b = new Object();
+
+        executor.execute(new Task(a, 0, output, gate));
+        waitForDepth(0);
+        executor.execute(new Task(a, 1, output, null));
+        executor.execute(new Task(b, 2, output, null));
+
+        // the lane is full; the queued task of stripe 'a' is replaced by the newer one
+        executor.execute(new Task(a, 3, output, null));
+        assertEquals(1, executor.getCoalescedCount());
+        assertEquals(0, executor.getDroppedCount());
+        assertEquals(2, executor.getQueueDepth());
+
+        gate.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(0, 3, 2), output);
+    }
+
+    @Test
+    public void testBlock() throws Exception {
+        executor = new StripedExecutorService(1, 1, OverflowPolicy.BLOCK, Executors.defaultThreadFactory());
+        final List<Integer> output = Collections.synchronizedList(new ArrayList<Integer>());
+        final CountDownLatch gate = new CountDownLatch(1);
+        final Object stripe = new Object();
+
+        executor.execute(new Task(stripe, 0, output, gate));
+        waitForDepth(0);
+        executor.execute(new Task(stripe, 1, output, null));
+
+        // a third task has to wait for room in the lane
+        final AtomicBoolean submitted = new AtomicBoolean(false);
+        Thread submitter = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                executor.execute(new Task(stripe, 2, output, null));
+                submitted.set(true);
+            }
+        });
+        submitter.start();
+        Thread.sleep(100);
+        assertFalse(submitted.get());
+
+        gate.countDown();
+        submitter.join(5000);
+        assertTrue(submitted.get());
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(0, 1, 2), output);
+        assertEquals(0, executor.getDroppedCount());
+    }
+
+    @Test
+    public void testBlockedSubmitterIsInterruptible() throws Exception {
+        executor = new StripedExecutorService(1, 1, OverflowPolicy.BLOCK, Executors.defaultThreadFactory());
+        final List<Integer> output = Collections.synchronizedList(new ArrayList<Integer>());
+        final CountDownLatch gate = new CountDownLatch(1);
+        final Object stripe = new Object();
+
+        executor.execute(new Task(stripe, 0, output, gate));
+        waitForDepth(0);
+        executor.execute(new Task(stripe, 1, output, null));
+
+        // the waiting submitter is released by an interrupt
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread submitter = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    executor.execute(new Task(stripe, 2, output, null));
+                } catch (Throwable t) {
+                    failure.set(t);
+                }
+            }
+        });
+        submitter.start();
+        Thread.sleep(100);
+        submitter.interrupt();
+        submitter.join(5000);
+        assertFalse(submitter.isAlive());
+        assertTrue(failure.get() instanceof RejectedExecutionException);
+
+        gate.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(0, 1), output);
+    }
+
+    @Test
+    public void testWorkersDoNotBlockOnEachOther() throws Exception {
+        executor = new StripedExecutorService(2, 1, OverflowPolicy.BLOCK, Executors.defaultThreadFactory());
+        final List<Integer> output = Collections.synchronizedList(new ArrayList<Integer>());
+        final CountDownLatch started = new CountDownLatch(2);
+        final CountDownLatch gate = new CountDownLatch(1);
+        final List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+
+        // stripes 0 and 1 land on different lanes; each lane's task submits to the other full lane
+        for (int i = 0; i < 2; i++) {
+            final int self = i;
+            executor.execute(new StripedRunnable() {
+                @Override
+                public Object getStripe() {
+                    return self;
+                }
+
+                @Override
+                public void run() {
+                    started.countDown();
+                    try {
+                        gate.await();
+                        executor.execute(new Task(1 - self, 10 + self, output, null));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (Throwable t) {
+                        failures.add(t);
+                    }
+                }
+            });
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        executor.execute(new Task(0, 0, output, null));
+        executor.execute(new Task(1, 1, output, null));
+
+        gate.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(2, failures.size());
+        for (Throwable failure : failures) {
+            assertTrue(failure instanceof RejectedExecutionException);
+        }
+    }
+
+    @Test
+    public void testSubmitKeepsStripe() throws Exception {
+        executor = new StripedExecutorService(4, 100, OverflowPolicy.BLOCK, Executors.defaultThreadFactory());
+        List<Integer> output = Collections.synchronizedList(new ArrayList<Integer>());
+        Object stripe = new Object();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            futures.add(executor.submit(new Task(stripe, i, output, null)));
+        }
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i, (int) output.get(i));
+        }
+    }
+
+    @Test
+    public void testEvictedFuturesAreCancelled() throws Exception {
+        executor = new StripedExecutorService(1, 1, OverflowPolicy.DROP_OLDEST, Executors.defaultThreadFactory());
+        List<Integer> output = Collections.synchronizedList(new ArrayList<Integer>());
+        CountDownLatch gate = new CountDownLatch(1);
+        Object stripe = new Object();
+
+        executor.execute(new Task(stripe, 0, output, gate));
+        waitForDepth(0);
+        Future<?> dropped = executor.submit(new Task(stripe, 1, output, null));
+        Future<?> kept = executor.submit(new Task(stripe, 2, output, null));
+
+        // the dropped task never runs; waiting on it must not hang
+        try {
+            dropped.get(5, TimeUnit.SECONDS);
+            fail("dropped task completed");
+        } catch (CancellationException expected) {
+        }
+        assertTrue(dropped.isCancelled());
+
+        gate.countDown();
+        kept.get(5, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList(0, 2), output);
+    }
+
+    @Test
+    public void testCoalescedFuturesAreCancelled() throws Exception {
+        executor = new StripedExecutorService(1, 1, OverflowPolicy.COALESCE, Executors.defaultThreadFactory());
+        List<Integer> output = Collections.synchronizedList(new ArrayList<Integer>());
+        CountDownLatch gate = new CountDownLatch(1);
+        Object stripe = new Object();
+
+        executor.execute(new Task(stripe, 0, output, gate));
+        waitForDepth(0);
+        Future<?> replaced = executor.submit(new Task(stripe, 1, output, null));
+        Future<?> latest = executor.submit(new Task(stripe, 2, output, null));
+        assertEquals(1, executor.getCoalescedCount());
+
+        try {
+            replaced.get(5, TimeUnit.SECONDS);
+            fail("replaced task completed");
+        } catch (CancellationException expected) {
+        }
+
+        gate.countDown();
+        latest.get(5, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList(0, 2), output);
+    }
+
+    private void waitForDepth(int depth) throws InterruptedException {
+        // wait for the lane worker to pick up the queued tasks
+        for (int i = 0; i < 500 && executor.getQueueDepth() != depth; i++) {
+            Thread.sleep(2);
+        }
+        assertEquals(depth, executor.getQueueDepth());
+    }
+}
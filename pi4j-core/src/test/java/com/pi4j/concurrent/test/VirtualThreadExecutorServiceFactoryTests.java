@@ -0,0 +1,118 @@
+package com.pi4j.concurrent.test;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  VirtualThreadExecutorServiceFactoryTests.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.pi4j.concurrent.DefaultExecutorServiceFactory;
+import com.pi4j.concurrent.VirtualThreadExecutorServiceFactory;
+
+public class VirtualThreadExecutorServiceFactoryTests {
+
+    private VirtualThreadExecutorServiceFactory factory;
+
+    @After
+    public void teardown() {
+        System.clearProperty(VirtualThreadExecutorServiceFactory.EXECUTOR_PROPERTY);
+        if (factory != null) {
+            factory.shutdown();
+        }
+    }
+
+    @Test
+    public void testDefaultThreadFactoryNamesThreads() {
+        Thread thread = new DefaultExecutorServiceFactory().getThreadFactory("pi4j-test-%d").newThread(new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+        assertEquals("pi4j-test-0", thread.getName());
+    }
+
+    @Test
+    public void testNotSelectedWithoutProperty() {
+        assertFalse(VirtualThreadExecutorServiceFactory.isSelected());
+    }
+
+    @Test
+    public void testUnsupportedRuntimeRejected() {
+        assumeTrue(!VirtualThreadExecutorServiceFactory.isSupported());
+        System.setProperty(VirtualThreadExecutorServiceFactory.EXECUTOR_PROPERTY, "virtual");
+        assertFalse(VirtualThreadExecutorServiceFactory.isSelected());
+        try {
+            new VirtualThreadExecutorServiceFactory();
+            fail("expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException expected) {
+            // virtual threads are not available on this runtime
+        }
+    }
+
+    @Test
+    public void testGpioEventsRunOnNamedThreads() throws InterruptedException {
+        assumeTrue(VirtualThreadExecutorServiceFactory.isSupported());
+        factory = new VirtualThreadExecutorServiceFactory();
+        final AtomicReference<String> name = new AtomicReference<>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        factory.getGpioEventExecutorService().execute(new Runnable() {
+            @Override
+            public void run() {
+                name.set(Thread.currentThread().getName());
+                latch.countDown();
+            }
+        });
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals("pi4j-gpio-event-executor-0", name.get());
+    }
+
+    @Test
+    public void testTimingCriticalThreadsArePlatformThreads() throws Exception {
+        assumeTrue(VirtualThreadExecutorServiceFactory.isSupported());
+        factory = new VirtualThreadExecutorServiceFactory();
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+            }
+        };
+        Method isVirtual = Thread.class.getMethod("isVirtual");
+        assertTrue((Boolean) isVirtual.invoke(factory.getThreadFactory("pi4j-test-%d").newThread(task)));
+
+        Thread thread = factory.getPlatformThreadFactory("pi4j-timing-%d").newThread(task);
+        assertFalse((Boolean) isVirtual.invoke(thread));
+        assertEquals("pi4j-timing-0", thread.getName());
+    }
+}
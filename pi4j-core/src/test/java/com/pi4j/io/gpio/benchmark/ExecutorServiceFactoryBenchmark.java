@@ -0,0 +1,130 @@
+package com.pi4j.io.gpio.benchmark;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  ExecutorServiceFactoryBenchmark.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import com.pi4j.concurrent.DefaultExecutorServiceFactory;
+import com.pi4j.concurrent.ExecutorServiceFactory;
+import com.pi4j.concurrent.VirtualThreadExecutorServiceFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * JMH benchmark comparing the platform thread {@link DefaultExecutorServiceFactory} with the
+ * {@link VirtualThreadExecutorServiceFactory}: the latency of dispatching a single GPIO event task
+ * and the cost of a burst of GPIO event tasks that block briefly, as listeners doing I/O would.
+ * </p>
+ *
+ * <p>
+ * Run with: java -cp &lt;test-classpath&gt; com.pi4j.io.gpio.benchmark.ExecutorServiceFactoryBenchmark
+ * (add <code>-prof gc</code> to the JMH options to compare allocation and memory). The
+ * <code>virtual</code> parameter requires a JDK with virtual threads and fails its setup otherwise.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExecutorServiceFactoryBenchmark {
+
+    private static final int BURST_SIZE = 1000;
+
+    @Param({"platform", "virtual"})
+    public String executor;
+
+    private ExecutorServiceFactory factory;
+    private ExecutorService gpioEventExecutor;
+
+    private final Runnable noop = new Runnable() {
+        @Override
+        public void run() {
+        }
+    };
+
+    @Setup
+    public void setup() {
+        if ("virtual".equals(executor)) {
+            factory = new VirtualThreadExecutorServiceFactory();
+        } else {
+            factory = new DefaultExecutorServiceFactory();
+        }
+        gpioEventExecutor = factory.getGpioEventExecutorService();
+    }
+
+    @TearDown
+    public void teardown() {
+        // the default factory holds its executors statically; only release the virtual ones
+        if (factory instanceof VirtualThreadExecutorServiceFactory) {
+            factory.shutdown();
+        }
+    }
+
+    @Benchmark
+    public Object dispatchLatency() throws InterruptedException, ExecutionException {
+        return gpioEventExecutor.submit(noop).get();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST_SIZE)
+    public void blockingBurst() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(BURST_SIZE);
+        for (int index = 0; index < BURST_SIZE; index++) {
+            gpioEventExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        Thread.sleep(1);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ExecutorServiceFactoryBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
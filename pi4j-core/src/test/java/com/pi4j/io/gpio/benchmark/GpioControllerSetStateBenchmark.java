@@ -0,0 +1,108 @@
+package com.pi4j.io.gpio.benchmark;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioControllerSetStateBenchmark.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.GpioController;
+import com.pi4j.io.gpio.GpioPinDigitalOutput;
+import com.pi4j.io.gpio.Pin;
+import com.pi4j.io.gpio.PinMode;
+import com.pi4j.io.gpio.PinState;
+import com.pi4j.io.gpio.impl.GpioControllerImpl;
+import com.pi4j.io.gpio.impl.PinImpl;
+import com.pi4j.io.gpio.test.MockGpioProvider;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * JMH benchmark measuring the throughput of the bulk {@link GpioController#setState(PinState, GpioPinDigitalOutput...)}
+ * operation and of provisioned pin lookups for varying numbers of provisioned pins.
+ * </p>
+ *
+ * <p>
+ * Run with: java -cp &lt;test-classpath&gt; com.pi4j.io.gpio.benchmark.GpioControllerSetStateBenchmark
+ * </p>
+ *
+ * @author Robert Savage (<a
+ *         href="http://www.savagehomeautomation.com">http://www.savagehomeautomation.com</a>)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GpioControllerSetStateBenchmark {
+
+    @Param({"8", "64", "256"})
+    public int pinCount;
+
+    private GpioController gpio;
+    private GpioPinDigitalOutput[] outputs;
+    private PinState state = PinState.LOW;
+    private String lastPinName;
+
+    @Setup
+    public void setup() {
+        MockGpioProvider provider = new MockGpioProvider();
+        gpio = new GpioControllerImpl(provider);
+        outputs = new GpioPinDigitalOutput[pinCount];
+        for (int index = 0; index < pinCount; index++) {
+            Pin pin = new PinImpl(MockGpioProvider.NAME, index, "GPIO-" + index, EnumSet.of(PinMode.DIGITAL_OUTPUT));
+            outputs[index] = gpio.provisionDigitalOutputPin(provider, pin, PinState.LOW);
+        }
+        lastPinName = outputs[pinCount - 1].getName();
+    }
+
+    @Benchmark
+    public PinState setState() {
+        state = PinState.getInverseState(state);
+        gpio.setState(state, outputs);
+        return state;
+    }
+
+    @Benchmark
+    public Object getProvisionedPinByName() {
+        return gpio.getProvisionedPin(lastPinName);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(GpioControllerSetStateBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,149 @@
+package com.pi4j.io.gpio.test;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioControllerTests.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.pi4j.io.gpio.GpioController;
+import com.pi4j.io.gpio.GpioPinDigitalOutput;
+import com.pi4j.io.gpio.Pin;
+import com.pi4j.io.gpio.PinState;
+import com.pi4j.io.gpio.exception.GpioPinExistsException;
+import com.pi4j.io.gpio.exception.GpioPinNotProvisionedException;
+import com.pi4j.io.gpio.impl.GpioControllerImpl;
+import com.pi4j.io.gpio.impl.GpioPinImpl;
+
+public class GpioControllerTests {
+
+    private MockGpioProvider provider;
+    private GpioController gpio;
+    private GpioPinDigitalOutput pin;
+
+    @Before
+    public void setup() {
+        // create a dedicated mock gpio provider and controller
+        provider = new MockGpioProvider();
+        gpio = new GpioControllerImpl(provider);
+
+        // provision pin for testing
+        pin = gpio.provisionDigitalOutputPin(provider, MockPin.DIGITAL_OUTPUT_PIN, "digitalOutputPin", PinState.LOW);
+    }
+
+    @Test
+    public void testProvisionedPinByPin() {
+        assertSame(pin, gpio.getProvisionedPin(MockPin.DIGITAL_OUTPUT_PIN));
+        assertNull(gpio.getProvisionedPin(MockPin.DIGITAL_INPUT_PIN));
+    }
+
+    @Test
+    public void testProvisionedPinByName() {
+        assertSame(pin, gpio.getProvisionedPin("digitalOutputPin"));
+        assertNull(gpio.getProvisionedPin("unknownPin"));
+    }
+
+    @Test
+    public void testProvisionedPinRenamed() {
+        pin.setName("renamedPin");
+
+        // verify the name lookup follows the pin rename
+        assertSame(pin, gpio.getProvisionedPin("renamedPin"));
+        assertNull(gpio.getProvisionedPin("digitalOutputPin"));
+    }
+
+    @Test(expected=GpioPinExistsException.class)
+    public void testPinDuplicatePovisioning() {
+        gpio.provisionDigitalOutputPin(provider, MockPin.DIGITAL_OUTPUT_PIN, "duplicatePin");
+    }
+
+    @Test(expected=GpioPinNotProvisionedException.class)
+    public void testForeignPinInstance() {
+        // an equivalent pin instance that was not created by this controller is not provisioned
+        GpioPinDigitalOutput foreign = new GpioPinImpl(gpio, provider, MockPin.DIGITAL_OUTPUT_PIN);
+        gpio.setState(PinState.HIGH, foreign);
+    }
+
+    @Test
+    public void testUnprovisionPin() {
+        gpio.unprovisionPin(pin);
+
+        // verify all lookups are cleared
+        assertFalse(gpio.getProvisionedPins().contains(pin));
+        assertNull(gpio.getProvisionedPin(MockPin.DIGITAL_OUTPUT_PIN));
+        assertNull(gpio.getProvisionedPin("digitalOutputPin"));
+
+        // verify the pin can be provisioned again
+        GpioPinDigitalOutput pin2 = gpio.provisionDigitalOutputPin(provider, MockPin.DIGITAL_OUTPUT_PIN, "digitalOutputPin");
+        assertSame(pin2, gpio.getProvisionedPin("digitalOutputPin"));
+    }
+
+    @Test
+    public void testBulkSetState() {
+        gpio.setState(PinState.HIGH, pin);
+        assertTrue(pin.isHigh());
+        gpio.setState(PinState.LOW, pin);
+        assertTrue(pin.isLow());
+    }
+
+    @Test
+    public void testBulkSetStateBatchedPerProvider() {
+        final List<Map<Pin, PinState>> batches = new ArrayList<>();
+        MockGpioProvider batchProvider = new MockGpioProvider() {
+            @Override
+            public void setStates(Map<Pin, PinState> states) {
+                batches.add(new HashMap<>(states));
+                super.setStates(states);
+            }
+        };
+        GpioPinDigitalOutput pin1 = gpio.provisionDigitalOutputPin(batchProvider, MockPin.DIGITAL_OUTPUT_PIN, PinState.LOW);
+        GpioPinDigitalOutput pin2 = gpio.provisionDigitalOutputPin(batchProvider, MockPin.DIGITAL_BIDIRECTIONAL_PIN, PinState.LOW);
+
+        // pins from two providers result in one batch for the batching provider
+        gpio.high(pin1, pin, pin2);
+        assertEquals(1, batches.size());
+        assertEquals(2, batches.get(0).size());
+        assertTrue(pin.isHigh());
+        assertTrue(pin1.isHigh());
+        assertTrue(pin2.isHigh());
+
+        // toggle resolves the inverse state per pin
+        pin1.low();
+        gpio.toggle(pin1, pin2);
+        assertEquals(2, batches.size());
+        assertTrue(pin1.isHigh());
+        assertTrue(pin2.isLow());
+    }
+}
@@ -0,0 +1,183 @@
+package com.pi4j.io.gpio.test;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioDebounceEngineTests.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.pi4j.io.gpio.GpioController;
+import com.pi4j.io.gpio.GpioFactory;
+import com.pi4j.io.gpio.GpioPinDigitalInput;
+import com.pi4j.io.gpio.PinState;
+import com.pi4j.io.gpio.event.GpioPinDigitalStateChangeEvent;
+import com.pi4j.io.gpio.event.GpioPinListenerDigital;
+import com.pi4j.io.gpio.impl.GpioControllerImpl;
+import com.pi4j.io.gpio.impl.GpioDebounceEngine;
+
+public class GpioDebounceEngineTests {
+
+    private static final int DEBOUNCE = 50;
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private MockGpioProvider provider;
+    private GpioController gpio;
+    private GpioPinDigitalInput pin;
+    private GpioDebounceEngine engine;
+    private final List<GpioPinDigitalStateChangeEvent> events = new ArrayList<>();
+
+    @Before
+    public void setup() {
+        // create a dedicated mock gpio provider and controller
+        provider = new MockGpioProvider();
+        gpio = new GpioControllerImpl(provider);
+        pin = gpio.provisionDigitalInputPin(provider, MockPin.DIGITAL_INPUT_PIN, "digitalInputPin");
+        pin.setDebounce(DEBOUNCE);
+        engine = GpioFactory.getDebounceEngine();
+
+        pin.addListener(new GpioPinListenerDigital() {
+            @Override
+            public void handleGpioPinDigitalStateChangeEvent(GpioPinDigitalStateChangeEvent event) {
+                synchronized (events) {
+                    events.add(event);
+                    events.notifyAll();
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testBouncesSettlingOnDispatchedState() throws InterruptedException {
+        long settled = engine.getSettledEventCount();
+        long base = System.nanoTime();
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.HIGH, base);
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.LOW, base + MS);
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.HIGH, base + 2 * MS);
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.LOW, base + 3 * MS);
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.HIGH, base + 4 * MS);
+
+        // only the leading edge is dispatched; the window closes on the same state
+        List<GpioPinDigitalStateChangeEvent> received = awaitEvents(1, DEBOUNCE * 3);
+        assertEquals(1, received.size());
+        assertEquals(PinState.HIGH, received.get(0).getState());
+        assertEquals(4, engine.getSuppressedEdgeCount(pin));
+        assertEquals(settled, engine.getSettledEventCount());
+    }
+
+    @Test
+    public void testBouncesSettlingOnChangedState() throws InterruptedException {
+        long base = System.nanoTime();
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.HIGH, base);
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.LOW, base + MS);
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.HIGH, base + 2 * MS);
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.LOW, base + 3 * MS);
+
+        // the leading edge plus exactly one settled event when the window closes
+        List<GpioPinDigitalStateChangeEvent> received = awaitEvents(2, DEBOUNCE * 10);
+        assertEquals(2, received.size());
+        assertEquals(PinState.HIGH, received.get(0).getState());
+        assertEquals(PinState.LOW, received.get(1).getState());
+        assertEquals(base + DEBOUNCE * MS, received.get(1).getTimestampNanos());
+        assertEquals(3, engine.getSuppressedEdgeCount(pin));
+    }
+
+    @Test
+    public void testWindowMeasuredFromEdgeTimestamps() throws InterruptedException {
+        // the last edge is stamped after the window closed, so the window settles on the bounce
+        // it suppressed before that edge is dispatched, even though the wheel has not fired yet
+        long base = System.nanoTime();
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.HIGH, base);
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.LOW, base + MS);
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.HIGH, base + 5 * DEBOUNCE * MS);
+
+        List<GpioPinDigitalStateChangeEvent> received = awaitEvents(3, DEBOUNCE * 10);
+        assertEquals(3, received.size());
+        assertEquals(PinState.HIGH, received.get(0).getState());
+        assertEquals(PinState.LOW, received.get(1).getState());
+        assertEquals(base + DEBOUNCE * MS, received.get(1).getTimestampNanos());
+        assertEquals(PinState.HIGH, received.get(2).getState());
+        assertEquals(1, engine.getSuppressedEdgeCount(pin));
+    }
+
+    @Test
+    public void testNoDebounce() throws InterruptedException {
+        pin.setDebounce(0);
+        long base = System.nanoTime();
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.HIGH, base);
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.LOW, base + MS);
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.HIGH, base + 2 * MS);
+
+        assertEquals(3, awaitEvents(3, DEBOUNCE * 10).size());
+        assertEquals(0, engine.getSuppressedEdgeCount(pin));
+    }
+
+    @Test
+    public void testUnprovisionDiscardsChannel() throws InterruptedException {
+        long base = System.nanoTime();
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.HIGH, base);
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.LOW, base + MS);
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.HIGH, base + 2 * MS);
+        assertEquals(1, awaitEvents(1, DEBOUNCE * 3).size());
+        assertEquals(2, engine.getSuppressedEdgeCount(pin));
+
+        // the engine no longer tracks the pin once it has been unprovisioned
+        gpio.unprovisionPin(pin);
+        assertEquals(0, engine.getSuppressedEdgeCount(pin));
+    }
+
+    private List<GpioPinDigitalStateChangeEvent> awaitEvents(int count, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        List<GpioPinDigitalStateChangeEvent> received;
+        synchronized (events) {
+            long remaining;
+            while (events.size() < count && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                events.wait(remaining);
+            }
+            // linger a little so that unexpected extra events are noticed
+            events.wait(DEBOUNCE * 2);
+            received = new ArrayList<>(events);
+        }
+
+        // events are dispatched on the executor; order them by detection timestamp
+        Collections.sort(received, new Comparator<GpioPinDigitalStateChangeEvent>() {
+            @Override
+            public int compare(GpioPinDigitalStateChangeEvent a, GpioPinDigitalStateChangeEvent b) {
+                return Long.compare(a.getTimestampNanos(), b.getTimestampNanos());
+            }
+        });
+        return received;
+    }
+}
@@ -0,0 +1,116 @@
+package com.pi4j.io.gpio.test;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioEventDispatchAllocationTests.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.pi4j.io.gpio.GpioController;
+import com.pi4j.io.gpio.GpioPinDigitalInput;
+import com.pi4j.io.gpio.PinState;
+import com.pi4j.io.gpio.event.GpioPinDigitalStateChangeEvent;
+import com.pi4j.io.gpio.event.GpioPinListenerDigital;
+import com.pi4j.io.gpio.impl.GpioControllerImpl;
+import com.pi4j.io.gpio.impl.GpioEventMonitorImpl;
+
+/**
+ * Measures the bytes allocated on the dispatching thread for each digital state change
+ * delivered from a mock provider to several pin listeners. The dispatch path is expected
+ * to allocate only the provider event and the single GPIO pin event shared by all listeners.
+ */
+public class GpioEventDispatchAllocationTests {
+
+    private static final int LISTENERS = 4;
+    private static final int WARMUP_EDGES = 200000;
+    private static final int MEASURED_EDGES = 200000;
+
+    // provider event + shared pin event, with headroom for JVM object layout differences
+    private static final long MAX_BYTES_PER_EDGE = 128;
+
+    private MockGpioProvider provider;
+    private GpioPinDigitalInput pin;
+    private long invocations;
+
+    @Before
+    public void setup() {
+        // create a dedicated mock gpio provider and controller
+        provider = new MockGpioProvider();
+        GpioController gpio = new GpioControllerImpl(provider);
+        pin = gpio.provisionDigitalInputPin(provider, MockPin.DIGITAL_INPUT_PIN, "digitalInputPin");
+
+        for (int i = 0; i < LISTENERS; i++) {
+            pin.addListener(new GpioPinListenerDigital() {
+                @Override
+                public void handleGpioPinDigitalStateChangeEvent(GpioPinDigitalStateChangeEvent event) {
+                    invocations++;
+                }
+            });
+        }
+
+        // replace the executor based monitor with a synchronous one so that
+        // the whole dispatch path runs (and allocates) on the calling thread
+        provider.removeAllListeners();
+        provider.addListener(MockPin.DIGITAL_INPUT_PIN, new GpioEventMonitorImpl(pin));
+    }
+
+    @Test
+    public void testDigitalDispatchAllocationRate() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long thread = Thread.currentThread().getId();
+
+        // warm up so the dispatch path is compiled
+        raiseEdges(WARMUP_EDGES);
+        invocations = 0;
+
+        long before = threads.getThreadAllocatedBytes(thread);
+        raiseEdges(MEASURED_EDGES);
+        long after = threads.getThreadAllocatedBytes(thread);
+
+        // every listener received every edge
+        assertEquals((long) MEASURED_EDGES * LISTENERS, invocations);
+
+        long bytesPerEdge = (after - before) / MEASURED_EDGES;
+        assertTrue("dispatch allocated " + bytesPerEdge + " bytes per edge", bytesPerEdge <= MAX_BYTES_PER_EDGE);
+    }
+
+    private void raiseEdges(int count) {
+        for (int i = 0; i < count; i++) {
+            provider.setMockState(MockPin.DIGITAL_INPUT_PIN, (i & 1) == 0 ? PinState.HIGH : PinState.LOW);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.pi4j.io.gpio.test;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioEventLatencyHistogramTests.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.pi4j.io.gpio.event.GpioEventLatencyHistogram;
+
+public class GpioEventLatencyHistogramTests {
+
+    private GpioEventLatencyHistogram histogram;
+
+    @Before
+    public void setup() {
+        histogram = new GpioEventLatencyHistogram();
+    }
+
+    @Test
+    public void testEmptyHistogram() {
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMaxNanos());
+        assertEquals(0, histogram.getPercentileNanos(99), 0);
+        assertEquals(0.0, histogram.getMeanNanos(), 0.0);
+    }
+
+    @Test
+    public void testBuckets() {
+        assertEquals(0, GpioEventLatencyHistogram.bucketOf(0));
+        assertEquals(1, GpioEventLatencyHistogram.bucketOf(1));
+        assertEquals(2, GpioEventLatencyHistogram.bucketOf(2));
+        assertEquals(2, GpioEventLatencyHistogram.bucketOf(3));
+        assertEquals(11, GpioEventLatencyHistogram.bucketOf(1024));
+        assertEquals(63, GpioEventLatencyHistogram.bucketOf(Long.MAX_VALUE));
+        assertEquals(2047, GpioEventLatencyHistogram.bucketUpperBound(11));
+    }
+
+    @Test
+    public void testRecord() {
+        // 90 fast samples and 10 slow samples
+        for (int i = 0; i < 90; i++) {
+            histogram.record(1000);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(1000000);
+        }
+        histogram.record(-5);
+
+        assertEquals(101, histogram.getCount());
+        assertEquals(1000000, histogram.getMaxNanos());
+        assertEquals(1, histogram.getBucketCounts()[0]);
+
+        // percentiles report the upper bound of the containing bucket
+        long p50 = histogram.getPercentileNanos(50);
+        assertTrue(p50 >= 1000 && p50 < 2048);
+        long p99 = histogram.getPercentileNanos(99);
+        assertTrue(p99 >= 1000000 && p99 <= 1000000);
+    }
+
+    @Test
+    public void testRecordSince() {
+        histogram.recordSince(System.nanoTime() - 5000000);
+        assertEquals(1, histogram.getCount());
+        assertTrue(histogram.getMaxNanos() >= 5000000);
+    }
+
+    @Test
+    public void testReset() {
+        histogram.record(100);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMaxNanos());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidPercentile() {
+        histogram.getPercentileNanos(101);
+    }
+}
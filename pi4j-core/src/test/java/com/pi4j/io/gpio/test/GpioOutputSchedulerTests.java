@@ -0,0 +1,231 @@
+package com.pi4j.io.gpio.test;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioOutputSchedulerTests.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.pi4j.io.gpio.GpioController;
+import com.pi4j.io.gpio.GpioPinDigitalOutput;
+import com.pi4j.io.gpio.PinState;
+import com.pi4j.io.gpio.impl.GpioControllerImpl;
+import com.pi4j.io.gpio.impl.GpioOutputScheduler;
+
+public class GpioOutputSchedulerTests {
+
+    private GpioOutputScheduler scheduler;
+    private GpioPinDigitalOutput pin;
+    private GpioPinDigitalOutput otherPin;
+
+    @Before
+    public void setup() {
+        // create a dedicated mock gpio provider and controller
+        MockGpioProvider provider = new MockGpioProvider();
+        GpioController gpio = new GpioControllerImpl(provider);
+        pin = gpio.provisionDigitalOutputPin(provider, MockPin.DIGITAL_OUTPUT_PIN, "digitalOutputPin", PinState.LOW);
+        otherPin = gpio.provisionDigitalOutputPin(provider, MockPin.DIGITAL_BIDIRECTIONAL_PIN, "otherOutputPin", PinState.LOW);
+        scheduler = new GpioOutputScheduler(100, TimeUnit.MICROSECONDS);
+    }
+
+    @Test
+    public void testScheduleHonoursDelay() throws Exception {
+        final AtomicInteger runs = new AtomicInteger();
+        long start = System.nanoTime();
+        Future<?> future = scheduler.schedule(pin, new Runnable() {
+            @Override
+            public void run() {
+                runs.incrementAndGet();
+            }
+        }, 2, TimeUnit.MILLISECONDS);
+
+        future.get(1, TimeUnit.SECONDS);
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(2));
+        assertEquals(1, runs.get());
+        assertEquals(0, scheduler.getPendingCount(pin));
+    }
+
+    @Test
+    public void testThousandsOfConcurrentTasks() throws Exception {
+        final int tasks = 5000;
+        final AtomicInteger runs = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        Random random = new Random(42);
+        for (int index = 0; index < tasks; index++) {
+            futures.add(scheduler.schedule((index & 1) == 0 ? pin : otherPin, new Runnable() {
+                @Override
+                public void run() {
+                    runs.incrementAndGet();
+                }
+            }, random.nextInt(50000), TimeUnit.MICROSECONDS));
+        }
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(tasks, runs.get());
+        assertEquals(0, scheduler.getPendingCount());
+    }
+
+    @Test
+    public void testCancelPerPin() throws Exception {
+        Runnable noop = new Runnable() {
+            @Override
+            public void run() {
+            }
+        };
+        Future<?> cancelled = scheduler.schedule(pin, noop, 1, TimeUnit.SECONDS);
+        Future<?> kept = scheduler.schedule(otherPin, noop, 5, TimeUnit.MILLISECONDS);
+
+        scheduler.cancel(pin);
+        assertTrue(cancelled.isCancelled());
+        assertEquals(0, scheduler.getPendingCount(pin));
+
+        kept.get(1, TimeUnit.SECONDS);
+        assertFalse(kept.isCancelled());
+    }
+
+    @Test
+    public void testFixedRateUntilCancelled() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(10);
+        ScheduledFuture<?> future = scheduler.scheduleAtFixedRate(pin, new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        }, 1, 1, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertFalse(future.isDone());
+        assertTrue(future.cancel(false));
+        assertEquals(0, scheduler.getPendingCount(pin));
+    }
+
+    @Test
+    public void testPulseFuture() throws Exception {
+        Future<?> future = pin.pulse(20, PinState.HIGH);
+        assertTrue(pin.isHigh());
+
+        future.get(1, TimeUnit.SECONDS);
+        assertTrue(pin.isLow());
+    }
+
+    @Test(expected = CancellationException.class)
+    public void testPulseCancelledByNewPulse() throws Exception {
+        Future<?> first = pin.pulse(1000, PinState.HIGH);
+        Future<?> second = pin.pulse(10, PinState.HIGH);
+
+        second.get(1, TimeUnit.SECONDS);
+        assertTrue(pin.isLow());
+        first.get();
+    }
+
+    @Test
+    public void testReplaceSerializesPerPin() throws Exception {
+        final Runnable noop = new Runnable() {
+            @Override
+            public void run() {
+            }
+        };
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger overlaps = new AtomicInteger();
+
+        // the first replacement holds the pin's scheduling lock until released
+        Thread first = new Thread() {
+            @Override
+            public void run() {
+                scheduler.replace(pin, new Supplier<Future<?>>() {
+                    @Override
+                    public Future<?> get() {
+                        active.incrementAndGet();
+                        entered.countDown();
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        active.decrementAndGet();
+                        return scheduler.schedule(pin, noop, 1, TimeUnit.SECONDS);
+                    }
+                });
+            }
+        };
+        first.start();
+        assertTrue(entered.await(1, TimeUnit.SECONDS));
+
+        // a second replacement of the same pin waits; another pin is not held up
+        Thread second = new Thread() {
+            @Override
+            public void run() {
+                scheduler.replace(pin, new Supplier<Future<?>>() {
+                    @Override
+                    public Future<?> get() {
+                        if (active.get() != 0) {
+                            overlaps.incrementAndGet();
+                        }
+                        return scheduler.schedule(pin, noop, 1, TimeUnit.SECONDS);
+                    }
+                });
+            }
+        };
+        second.start();
+        Future<?> other = scheduler.replace(otherPin, new Supplier<Future<?>>() {
+            @Override
+            public Future<?> get() {
+                return scheduler.schedule(otherPin, noop, 1, TimeUnit.SECONDS);
+            }
+        });
+        assertNotNull(other);
+        second.join(50);
+        assertTrue(second.isAlive());
+
+        release.countDown();
+        first.join(1000);
+        second.join(1000);
+
+        // the second replacement cancelled the task of the first one
+        assertEquals(0, overlaps.get());
+        assertEquals(1, scheduler.getPendingCount(pin));
+        scheduler.cancel(pin);
+        scheduler.cancel(otherPin);
+    }
+}
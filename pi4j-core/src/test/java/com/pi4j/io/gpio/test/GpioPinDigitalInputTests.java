@@ -36,6 +36,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import com.pi4j.io.gpio.GpioController;
+import com.pi4j.io.gpio.GpioFactory;
 import com.pi4j.io.gpio.GpioPin;
 import com.pi4j.io.gpio.GpioPinDigitalInput;
 import com.pi4j.io.gpio.PinDirection;
@@ -56,6 +57,7 @@ public class GpioPinDigitalInputTests {
     private static GpioController gpio;
     private static GpioPinDigitalInput pin;
     private static PinState pinMonitoredState;
+    private static long pinMonitoredTimestamp;
 
     @Before
     public void setup() {
@@ -73,6 +75,7 @@ public class GpioPinDigitalInputTests {
                     // set pin state
                     if (event.getPin() == pin) {
                         pinMonitoredState = event.getState();
+                        pinMonitoredTimestamp = event.getTimestampNanos();
                     }
                 }
             });
@@ -255,4 +258,31 @@ public class GpioPinDigitalInputTests {
         pins = gpio.getProvisionedPins();
         assertFalse(pins.contains(pin));
     }
+
+    @Test
+    public void testPinEventTimestamp() throws InterruptedException {
+        // explicit mock set on the mock provider
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.LOW);
+        Thread.sleep(100);
+
+        // reset pin monitoring variables
+        pinMonitoredState = null;
+        pinMonitoredTimestamp = 0;
+        long samples = GpioFactory.getEventLatencyHistogram().getCount();
+
+        // raise an event that was detected one millisecond ago
+        long detected = System.nanoTime() - 1000000;
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.HIGH, detected);
+
+        // wait 1/10 second before continuing test
+        Thread.sleep(100);
+
+        // verify the detection timestamp was carried through to the listener
+        assertEquals(PinState.HIGH, pinMonitoredState);
+        assertEquals(detected, pinMonitoredTimestamp);
+
+        // verify the dispatch latency was recorded
+        assertTrue(GpioFactory.getEventLatencyHistogram().getCount() > samples);
+        assertTrue(GpioFactory.getEventLatencyHistogram().getMaxNanos() >= 1000000);
+    }
 }
@@ -0,0 +1,124 @@
+package com.pi4j.io.gpio.test;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioWaveformTests.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.pi4j.io.gpio.GpioController;
+import com.pi4j.io.gpio.GpioPinDigitalOutput;
+import com.pi4j.io.gpio.GpioWaveform;
+import com.pi4j.io.gpio.GpioWaveformResult;
+import com.pi4j.io.gpio.Pin;
+import com.pi4j.io.gpio.PinState;
+import com.pi4j.io.gpio.exception.GpioPinNotProvisionedException;
+import com.pi4j.io.gpio.impl.GpioControllerImpl;
+
+public class GpioWaveformTests {
+
+    private static final long STEP_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+
+    private final List<Long> batchTimes = new ArrayList<>();
+    private final List<Map<Pin, PinState>> batches = new ArrayList<>();
+    private GpioController gpio;
+    private GpioPinDigitalOutput first;
+    private GpioPinDigitalOutput second;
+
+    @Before
+    public void setup() {
+        // create a dedicated mock gpio provider recording every batch write
+        MockGpioProvider provider = new MockGpioProvider() {
+            @Override
+            public void setStates(Map<Pin, PinState> states) {
+                batchTimes.add(System.nanoTime());
+                batches.add(new LinkedHashMap<>(states));
+                super.setStates(states);
+            }
+        };
+        gpio = new GpioControllerImpl(provider);
+        first = gpio.provisionDigitalOutputPin(provider, MockPin.DIGITAL_OUTPUT_PIN, "firstOutputPin", PinState.LOW);
+        second = gpio.provisionDigitalOutputPin(provider, MockPin.DIGITAL_BIDIRECTIONAL_PIN, "secondOutputPin", PinState.LOW);
+    }
+
+    @Test
+    public void testPlayWaveform() throws Exception {
+        GpioWaveform waveform = new GpioWaveform(first, second)
+                .add(0b01, STEP_NANOS)
+                .add(0b10, STEP_NANOS)
+                .add(0b01, 0b01, STEP_NANOS);
+
+        // warm up the playback path before recording
+        gpio.play(waveform).get(1, TimeUnit.SECONDS);
+        gpio.low(first, second);
+        batchTimes.clear();
+        batches.clear();
+
+        GpioWaveformResult result = gpio.play(waveform).get(1, TimeUnit.SECONDS);
+
+        // one batch per step with the masked pin states
+        assertEquals(3, result.getSteps());
+        assertEquals(3, batches.size());
+        assertEquals(PinState.HIGH, batches.get(0).get(MockPin.DIGITAL_OUTPUT_PIN));
+        assertEquals(PinState.LOW, batches.get(0).get(MockPin.DIGITAL_BIDIRECTIONAL_PIN));
+        assertEquals(PinState.LOW, batches.get(1).get(MockPin.DIGITAL_OUTPUT_PIN));
+        assertEquals(PinState.HIGH, batches.get(1).get(MockPin.DIGITAL_BIDIRECTIONAL_PIN));
+        assertEquals(1, batches.get(2).size());
+        assertTrue(first.isHigh());
+        assertTrue(second.isHigh());
+
+        // steps are spaced by their delays and the jitter is reported
+        for (int index = 1; index < batchTimes.size(); index++) {
+            assertTrue(batchTimes.get(index) - batchTimes.get(index - 1) >= STEP_NANOS / 2);
+        }
+        assertTrue(result.getDurationNanos() >= waveform.getDurationNanos());
+        assertTrue(result.getMinJitterNanos() <= result.getMaxJitterNanos());
+        assertTrue(result.getMeanJitterNanos() <= result.getMaxJitterNanos());
+    }
+
+    @Test(expected = GpioPinNotProvisionedException.class)
+    public void testUnprovisionedPin() {
+        MockGpioProvider provider = new MockGpioProvider();
+        GpioPinDigitalOutput other = new GpioControllerImpl(provider)
+                .provisionDigitalOutputPin(provider, MockPin.DIGITAL_OUTPUT_PIN, "otherOutputPin", PinState.LOW);
+        gpio.play(new GpioWaveform(first, other).add(0b11, STEP_NANOS));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPinMask() {
+        new GpioWaveform(first, second).add(0b100, 0b100, STEP_NANOS);
+    }
+}
@@ -52,6 +52,14 @@ public class MockGpioProvider extends GpioProviderBase implements GpioProvider {
         dispatchPinDigitalStateChangeEvent(pin, state);
     }
 
+    public void setMockState(Pin pin, PinState state, long timestampNanos) {
+        // cache pin state
+        getPinCache(pin).setState(state);
+
+        // dispatch event with an explicit detection timestamp
+        dispatchPinDigitalStateChangeEvent(pin, state, timestampNanos);
+    }
+
     public void setMockAnalogValue(Pin pin, double value) {
         // cache pin state
         getPinCache(pin).setAnalogValue(value);
@@ -0,0 +1,191 @@
+package com.pi4j.io.i2c;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  I2CRegisterMapTest.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyByte;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class I2CRegisterMapTest {
+
+    private static final int CONFIG = 0x00;
+    private static final int STATUS = 0x05;
+
+    // simulated device registers and bus access counters
+    private final int[] device = new int[I2CRegisterMap.MAX_REGISTERS];
+    private int reads;
+    private int writes;
+    private boolean failWrites;
+
+    private I2CRegisterMap registers;
+
+    @Before
+    public void setUp() {
+        reads = 0;
+        writes = 0;
+        failWrites = false;
+        registers = new I2CRegisterMap(new I2CRegisterMap.RegisterAccess() {
+            @Override
+            public int read(int register) throws IOException {
+                reads++;
+                return device[register];
+            }
+
+            @Override
+            public void write(int register, int value) throws IOException {
+                if (failWrites) {
+                    throw new IOException("write failed");
+                }
+                writes++;
+                device[register] = value;
+            }
+        }).setPolicy(STATUS, I2CRegisterMap.Policy.VOLATILE);
+    }
+
+    @Test
+    public void testReadModifyWrite() throws Exception {
+
+        device[CONFIG] = 0x81;
+
+        // the first update reads the register, later updates are single writes
+        assertTrue("Changing update did not write", registers.setBits(CONFIG, 0x02, true));
+        assertEquals("Unexpected register value", 0x83, device[CONFIG]);
+        assertTrue("Changing update did not write", registers.update(CONFIG, 0x0F, 0x04));
+        assertEquals("Unexpected register value", 0x84, device[CONFIG]);
+        assertEquals("Unexpected number of reads", 1, reads);
+        assertEquals("Unexpected number of writes", 2, writes);
+
+        // updates not changing the register are skipped
+        assertFalse("Unchanged update did write", registers.setBits(CONFIG, 0x80, true));
+        assertEquals("Unexpected number of writes", 2, writes);
+        assertEquals("Unexpected shadowed value", 0x84, registers.read(CONFIG));
+        assertEquals("Unexpected number of reads", 1, reads);
+    }
+
+    @Test
+    public void testWriteIsShadowed() throws Exception {
+
+        registers.write(CONFIG, 0x10);
+        assertTrue("Written register is not cached", registers.isCached(CONFIG));
+        assertEquals("Unexpected shadowed value", 0x10, registers.read(CONFIG));
+        assertEquals("Unexpected number of reads", 0, reads);
+
+        // explicit writes always reach the device
+        registers.write(CONFIG, 0x10);
+        assertEquals("Unexpected number of writes", 2, writes);
+    }
+
+    @Test
+    public void testVolatileRegister() throws Exception {
+
+        assertEquals("Unexpected policy", I2CRegisterMap.Policy.VOLATILE, registers.getPolicy(STATUS));
+        assertEquals("Unexpected policy", I2CRegisterMap.Policy.CACHEABLE, registers.getPolicy(CONFIG));
+
+        device[STATUS] = 1;
+        assertEquals("Unexpected status", 1, registers.read(STATUS));
+        device[STATUS] = 2;
+        assertEquals("Volatile register was served from the shadow", 2, registers.read(STATUS));
+        registers.setBits(STATUS, 0x01, true);
+        assertEquals("Unexpected number of reads", 3, reads);
+        assertFalse("Volatile register is cached", registers.isCached(STATUS));
+
+        // values assumed for volatile registers are ignored
+        registers.setCachedValue(STATUS, 0x55);
+        assertFalse("Volatile register is cached", registers.isCached(STATUS));
+
+        // making a register volatile drops its shadow
+        registers.read(CONFIG);
+        registers.setPolicy(CONFIG, I2CRegisterMap.Policy.VOLATILE);
+        assertFalse("Volatile register is cached", registers.isCached(CONFIG));
+    }
+
+    @Test
+    public void testInvalidation() throws Exception {
+
+        registers.setCachedValue(CONFIG, 0x20);
+        assertEquals("Unexpected assumed value", 0x20, registers.read(CONFIG));
+        assertEquals("Unexpected number of reads", 0, reads);
+
+        device[CONFIG] = 0x30;
+        registers.invalidate(CONFIG);
+        assertEquals("Invalidated register was not read", 0x30, registers.read(CONFIG));
+
+        registers.read(0x01);
+        registers.invalidateAll();
+        assertFalse("Register is cached after invalidateAll()", registers.isCached(CONFIG));
+        assertFalse("Register is cached after invalidateAll()", registers.isCached(0x01));
+
+        // a failed write leaves the register's content unknown
+        registers.write(CONFIG, 0x40);
+        failWrites = true;
+        try {
+            registers.write(CONFIG, 0x41);
+            fail("IOException of the register access was not passed on");
+        } catch (IOException e) {
+            // expected
+        }
+        assertFalse("Register is cached after a failed write", registers.isCached(CONFIG));
+
+        try {
+            registers.read(I2CRegisterMap.MAX_REGISTERS);
+            fail("Register out of range was not rejected");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testDeviceAccess() throws Exception {
+
+        I2CDevice i2cDevice = mock(I2CDevice.class);
+        when(i2cDevice.readByteData(CONFIG)).thenReturn(0x0F);
+
+        I2CRegisterMap map = new I2CRegisterMap(i2cDevice);
+        map.setBits(CONFIG, 0x80, true);
+        map.setBits(CONFIG, 0x40, true);
+
+        verify(i2cDevice, times(1)).readByteData(anyInt());
+        verify(i2cDevice, times(1)).writeByteData(CONFIG, (byte) 0x8F);
+        verify(i2cDevice, times(1)).writeByteData(CONFIG, (byte) 0xCF);
+        verify(i2cDevice, times(2)).writeByteData(anyInt(), anyByte());
+    }
+}
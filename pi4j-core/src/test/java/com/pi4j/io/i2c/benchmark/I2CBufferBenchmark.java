@@ -0,0 +1,161 @@
+package com.pi4j.io.i2c.benchmark;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  I2CBufferBenchmark.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import com.pi4j.io.i2c.I2CBus;
+import com.pi4j.io.i2c.I2CDevice;
+import com.pi4j.io.i2c.I2CFactory;
+import com.pi4j.io.i2c.impl.I2CProviderImpl;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * JMH benchmark comparing the throughput of bulk {@link I2CDevice} transfers (framebuffer writes, EEPROM page
+ * reads) through byte arrays, heap ByteBuffers and direct ByteBuffers. Byte arrays are copied through a native
+ * buffer of 256 bytes, so larger transfers have to be split into several transactions; ByteBuffers are transferred
+ * in one go without copying.
+ * </p>
+ *
+ * <p>
+ * The native layer is stubbed like in {@link I2CDeviceBenchmark}:
+ * java -Dpi4j.i2c.stub=&lt;path&gt;/libpi4j-i2c-stub.so -cp &lt;test-classpath&gt; com.pi4j.io.i2c.benchmark.I2CBufferBenchmark
+ * </p>
+ *
+ * @author Robert Savage (<a
+ *         href="http://www.savagehomeautomation.com">http://www.savagehomeautomation.com</a>)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class I2CBufferBenchmark {
+
+    private static final int DATA_REGISTER = 0x40;
+    private static final int ARRAY_CHUNK = 256;
+
+    @Param({"32", "256", "1024", "4096"})
+    public int size;
+
+    private I2CBus bus;
+    private I2CDevice device;
+    private byte[] array;
+    private ByteBuffer heap;
+    private ByteBuffer direct;
+
+    @Setup
+    public void setup() throws Exception {
+        String stub = System.getProperty(I2CDeviceBenchmark.STUB_PROPERTY);
+        if (stub == null) {
+            throw new IllegalStateException("Set -D" + I2CDeviceBenchmark.STUB_PROPERTY + " to the stub library built by 'make stub' in pi4j-native/src/test/native");
+        }
+        System.load(stub);
+
+        I2CFactory.setFactory(new I2CProviderImpl() {
+            @Override
+            protected String getFilenameForBusnumber(int busNumber) {
+                return "/dev/null";
+            }
+        });
+        bus = I2CFactory.getInstance(I2CBus.BUS_1);
+        device = bus.getDevice(0x3C);
+
+        array = new byte[size];
+        heap = ByteBuffer.allocate(size);
+        direct = ByteBuffer.allocateDirect(size);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        bus.close();
+    }
+
+    @Benchmark
+    public byte[] writeArray() throws IOException {
+        for (int offset = 0; offset < size; offset += ARRAY_CHUNK) {
+            device.write(DATA_REGISTER, array, offset, Math.min(ARRAY_CHUNK, size - offset));
+        }
+        return array;
+    }
+
+    @Benchmark
+    public ByteBuffer writeHeapBuffer() throws IOException {
+        heap.clear();
+        device.write(DATA_REGISTER, heap);
+        return heap;
+    }
+
+    @Benchmark
+    public ByteBuffer writeDirectBuffer() throws IOException {
+        direct.clear();
+        device.write(DATA_REGISTER, direct);
+        return direct;
+    }
+
+    @Benchmark
+    public byte[] readArray() throws IOException {
+        for (int offset = 0; offset < size; offset += ARRAY_CHUNK) {
+            device.read(array, offset, Math.min(ARRAY_CHUNK, size - offset));
+        }
+        return array;
+    }
+
+    @Benchmark
+    public ByteBuffer readHeapBuffer() throws IOException {
+        heap.clear();
+        device.read(heap);
+        return heap;
+    }
+
+    @Benchmark
+    public ByteBuffer readDirectBuffer() throws IOException {
+        direct.clear();
+        device.read(direct);
+        return direct;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(I2CBufferBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
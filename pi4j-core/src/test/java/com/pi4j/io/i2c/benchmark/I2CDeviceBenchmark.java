@@ -0,0 +1,139 @@
+package com.pi4j.io.i2c.benchmark;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  I2CDeviceBenchmark.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import com.pi4j.io.i2c.I2CBus;
+import com.pi4j.io.i2c.I2CDevice;
+import com.pi4j.io.i2c.I2CFactory;
+import com.pi4j.io.i2c.impl.I2CProviderImpl;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * JMH benchmark measuring the per operation cost of synchronous {@link I2CDevice} reads and writes
+ * through {@link com.pi4j.io.i2c.impl.I2CBusImpl}. Run with the GC profiler to check that the primitive
+ * operations do not allocate (gc.alloc.rate.norm of 0 B/op).
+ * </p>
+ *
+ * <p>
+ * The native layer is stubbed: build the stub library with <code>make stub</code> in
+ * pi4j-native/src/test/native, which links the real I2C JNI functions against ioctl/read/write calls
+ * that succeed immediately, and point the benchmark to it:
+ * java -Dpi4j.i2c.stub=&lt;path&gt;/libpi4j-i2c-stub.so -cp &lt;test-classpath&gt; com.pi4j.io.i2c.benchmark.I2CDeviceBenchmark
+ * </p>
+ *
+ * @author Robert Savage (<a
+ *         href="http://www.savagehomeautomation.com">http://www.savagehomeautomation.com</a>)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class I2CDeviceBenchmark {
+
+    public static final String STUB_PROPERTY = "pi4j.i2c.stub";
+
+    private static final int REGISTER = 0x32;
+
+    private I2CBus bus;
+    private I2CDevice device;
+    private final byte[] buffer = new byte[6];
+    private byte value = 0;
+
+    @Setup
+    public void setup() throws Exception {
+        String stub = System.getProperty(STUB_PROPERTY);
+        if (stub == null) {
+            throw new IllegalStateException("Set -D" + STUB_PROPERTY + " to the stub library built by 'make stub' in pi4j-native/src/test/native");
+        }
+        // JNI binds the natives of com.pi4j.jni.I2C to the first loaded library exporting them
+        System.load(stub);
+
+        I2CFactory.setFactory(new I2CProviderImpl() {
+            @Override
+            protected String getFilenameForBusnumber(int busNumber) {
+                return "/dev/null";
+            }
+        });
+        bus = I2CFactory.getInstance(I2CBus.BUS_1);
+        device = bus.getDevice(0x53);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        bus.close();
+    }
+
+    @Benchmark
+    public int readRegister() throws IOException {
+        return device.read(REGISTER);
+    }
+
+    @Benchmark
+    public byte writeRegister() throws IOException {
+        device.write(REGISTER, ++value);
+        return value;
+    }
+
+    @Benchmark
+    public byte[] readRegisterBlock() throws IOException {
+        device.read(REGISTER, buffer, 0, buffer.length);
+        return buffer;
+    }
+
+    @Benchmark
+    public int readWordData() throws IOException {
+        return device.readWordData(REGISTER);
+    }
+
+    @Benchmark
+    public byte writeByteData() throws IOException {
+        device.writeByteData(REGISTER, ++value);
+        return value;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(I2CDeviceBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -30,19 +30,27 @@ package com.pi4j.io.i2c.impl;
  */
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.same;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.when;
 import static org.powermock.api.mockito.PowerMockito.verifyStatic;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
@@ -51,13 +59,18 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
+import com.pi4j.io.i2c.I2CBus;
 import com.pi4j.io.i2c.I2CDevice;
 import com.pi4j.io.i2c.I2CFactory;
 import com.pi4j.io.i2c.I2CFactory.UnsupportedBusNumberException;
+import com.pi4j.io.i2c.I2CPriority;
+import com.pi4j.io.i2c.I2CTransaction;
 import com.pi4j.jni.I2C;
 
 @RunWith(PowerMockRunner.class)
@@ -371,6 +384,256 @@ public class I2CBusImplTest {
 
     }
 
+    @Test
+    public void testTransfer() throws Exception {
+
+        final int otherAddress = 0x53;
+        final byte[] register = new byte[] { 0x32 };
+        final byte[] data = new byte[6];
+
+        when(I2C.i2cTransfer(anyInt(), anyInt(), any(int[].class), any(int[].class), any(byte[][].class), any(int[].class), any(int[].class))).thenAnswer(new Answer<Integer>() {
+            @Override
+            public Integer answer(InvocationOnMock invocation) throws Throwable {
+                Object[] args = invocation.getArguments();
+                int count = (Integer) args[1];
+                int[] addresses = (int[]) args[2];
+                int[] flags = (int[]) args[3];
+                byte[][] buffers = (byte[][]) args[4];
+                int[] offsets = (int[]) args[5];
+                int[] lengths = (int[]) args[6];
+
+                assertEquals("Unexpected number of segments", 2, count);
+                assertEquals("Device segment not bound to the device's address", DEVICE_ADDRESS, addresses[0]);
+                assertEquals("Write segment flagged as read", 0, flags[0]);
+                assertTrue("Write segment got another buffer", buffers[0] == register);
+                assertEquals("Unexpected write length", 1, lengths[0]);
+                assertEquals("Explicit segment address not passed through", otherAddress, addresses[1]);
+                assertEquals("Read segment not flagged as read", 1, flags[1]);
+                assertEquals("Unexpected read length", data.length, lengths[1]);
+
+                buffers[1][offsets[1]] = 42;
+                return count;
+            }
+        });
+
+        // segments without address go to the executing device
+        I2CDeviceImpl device = new I2CDeviceImpl(bus, DEVICE_ADDRESS);
+        int segments = device.transfer(new I2CTransaction().write(register).read(otherAddress, data, 0, data.length));
+        assertEquals("Unexpected result from 'I2CDevice.transfer(...)'", 2, segments);
+        assertEquals("Read segment not filled", 42, data[0]);
+        verifyStatic(times(1));
+        I2C.i2cTransfer(anyInt(), eq(2), any(int[].class), any(int[].class), any(byte[][].class), any(int[].class), any(int[].class));
+
+        // transactions on the bus need explicit addresses
+        try {
+            bus.transfer(new I2CTransaction().read(data));
+            fail("'I2CBus.transfer(...)' accepted a segment without device address");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        // native errors are reported as IOException
+        PowerMockito.doReturn(-40001).when(I2C.class, "i2cTransfer", anyInt(), anyInt(), any(int[].class), any(int[].class), any(byte[][].class), any(int[].class), any(int[].class));
+        try {
+            bus.transfer(new I2CTransaction().write(DEVICE_ADDRESS, register, 0, register.length));
+            fail("'I2CBus.transfer(...)' did not throw an IOException on a failed transaction");
+        } catch (IOException e) {
+            // expected
+        }
+
+    }
+
+    @Test
+    public void testSmbus() throws Exception {
+
+        final int register = 0x01;
+        I2CDeviceImpl device = new I2CDeviceImpl(bus, DEVICE_ADDRESS);
+
+        when(I2C.i2cSmbusReadWordData(anyInt(), eq(DEVICE_ADDRESS), eq(register))).thenReturn(0x3412);
+        assertEquals("Unexpected result from 'I2CDevice.readWordData(...)'", 0x3412, device.readWordData(register));
+
+        when(I2C.i2cSmbusReadByteData(anyInt(), eq(DEVICE_ADDRESS), eq(register))).thenReturn(0xAB);
+        assertEquals("Unexpected result from 'I2CDevice.readByteData(...)'", 0xAB, device.readByteData(register));
+
+        when(I2C.i2cSmbusWriteByteData(anyInt(), eq(DEVICE_ADDRESS), eq(register), eq((byte) 0x55))).thenReturn(0);
+        device.writeByteData(register, (byte) 0x55);
+        verifyStatic(times(1));
+        I2C.i2cSmbusWriteByteData(anyInt(), eq(DEVICE_ADDRESS), eq(register), eq((byte) 0x55));
+
+        // PEC is not touched as long as no device asks for it
+        verifyStatic(times(0));
+        I2C.i2cSmbusPec(anyInt(), anyBoolean());
+
+        // PEC is switched once when a device enables it and reset for devices without PEC
+        device.setPecEnabled(true);
+        device.readWordData(register);
+        device.readWordData(register);
+        verifyStatic(times(1));
+        I2C.i2cSmbusPec(anyInt(), eq(true));
+
+        I2CDeviceImpl other = new I2CDeviceImpl(bus, DEVICE_ADDRESS + 1);
+        when(I2C.i2cSmbusReadWordData(anyInt(), eq(DEVICE_ADDRESS + 1), eq(register))).thenReturn(0);
+        other.readWordData(register);
+        verifyStatic(times(1));
+        I2C.i2cSmbusPec(anyInt(), eq(false));
+
+        // native errors are reported as IOException
+        when(I2C.i2cSmbusReadWordData(anyInt(), eq(DEVICE_ADDRESS + 1), eq(register))).thenReturn(-50001);
+        try {
+            other.readWordData(register);
+            fail("'I2CDevice.readWordData(...)' did not throw an IOException on a failed transfer");
+        } catch (IOException e) {
+            // expected
+        }
+
+    }
+
+    @Test
+    public void testByteBuffer() throws Exception {
+
+        final int register = 0x40;
+        I2CDeviceImpl device = new I2CDeviceImpl(bus, DEVICE_ADDRESS);
+
+        // direct buffers are handed to the native layer as they are
+        ByteBuffer direct = ByteBuffer.allocateDirect(16);
+        direct.position(2).limit(10);
+        when(I2C.i2cWriteByteBuffer(anyInt(), eq(DEVICE_ADDRESS), eq(I2C.NO_LOCAL_ADDRESS), eq(8), eq(2), same(direct))).thenReturn(0);
+        device.write(direct);
+        verifyStatic(times(1));
+        I2C.i2cWriteByteBuffer(anyInt(), eq(DEVICE_ADDRESS), eq(I2C.NO_LOCAL_ADDRESS), eq(8), eq(2), same(direct));
+        assertEquals("Unexpected buffer position after 'I2CDevice.write(ByteBuffer)'", 10, direct.position());
+
+        direct.clear();
+        when(I2C.i2cReadByteBuffer(anyInt(), eq(DEVICE_ADDRESS), eq(register), eq(16), eq(0), same(direct))).thenReturn(4);
+        assertEquals("Unexpected result from 'I2CDevice.read(int, ByteBuffer)'", 4, device.read(register, direct));
+        assertEquals("Unexpected buffer position after 'I2CDevice.read(int, ByteBuffer)'", 4, direct.position());
+
+        // heap buffers pass their backing array, honoring the array offset of slices
+        byte[] array = new byte[32];
+        ByteBuffer heap = ByteBuffer.wrap(array, 8, 16).slice();
+        heap.position(4);
+        when(I2C.i2cWriteBytesPinned(anyInt(), eq(DEVICE_ADDRESS), eq(register), eq(12), eq(12), same(array))).thenReturn(0);
+        device.write(register, heap);
+        verifyStatic(times(1));
+        I2C.i2cWriteBytesPinned(anyInt(), eq(DEVICE_ADDRESS), eq(register), eq(12), eq(12), same(array));
+        assertEquals("Unexpected buffer position after 'I2CDevice.write(int, ByteBuffer)'", 16, heap.position());
+
+        heap.clear();
+        when(I2C.i2cReadBytesPinned(anyInt(), eq(DEVICE_ADDRESS), eq(I2C.NO_LOCAL_ADDRESS), eq(16), eq(8), same(array))).thenReturn(16);
+        assertEquals("Unexpected result from 'I2CDevice.read(ByteBuffer)'", 16, device.read(heap));
+        assertEquals("Unexpected buffer position after 'I2CDevice.read(ByteBuffer)'", 16, heap.position());
+
+        // read-only heap buffers are copied for writes and rejected for reads
+        ByteBuffer readOnly = ByteBuffer.wrap(array).asReadOnlyBuffer();
+        when(I2C.i2cWriteBytesPinned(anyInt(), eq(DEVICE_ADDRESS), eq(I2C.NO_LOCAL_ADDRESS), eq(32), eq(0), any(byte[].class))).thenReturn(0);
+        device.write(readOnly);
+        verifyStatic(times(0));
+        I2C.i2cWriteBytesPinned(anyInt(), eq(DEVICE_ADDRESS), eq(I2C.NO_LOCAL_ADDRESS), eq(32), eq(0), same(array));
+        assertEquals("Unexpected buffer position after 'I2CDevice.write(ByteBuffer)'", 32, readOnly.position());
+        try {
+            device.read(readOnly.duplicate());
+            fail("'I2CDevice.read(ByteBuffer)' did not reject a read-only buffer");
+        } catch (ReadOnlyBufferException e) {
+            // expected
+        }
+
+        // native errors are reported as IOException and leave the position untouched
+        direct.clear();
+        PowerMockito.doReturn(-20001).when(I2C.class, "i2cWriteByteBuffer", anyInt(), eq(DEVICE_ADDRESS), eq(I2C.NO_LOCAL_ADDRESS), eq(16), eq(0), same(direct));
+        try {
+            device.write(direct);
+            fail("'I2CDevice.write(ByteBuffer)' did not throw an IOException on a failed transfer");
+        } catch (IOException e) {
+            // expected
+        }
+        assertEquals("Unexpected buffer position after failed 'I2CDevice.write(ByteBuffer)'", 0, direct.position());
+
+    }
+
+    @Test
+    public void testScan() throws Exception {
+
+        // simulated bus: devices at 0x20, 0x48 and a driver-claimed EEPROM at 0x50
+        final Map<Integer, Boolean> probes = new HashMap<>();
+        when(I2C.i2cProbe(anyInt(), anyInt(), anyBoolean())).thenAnswer(new Answer<Integer>() {
+            @Override
+            public Integer answer(InvocationOnMock invocation) throws Throwable {
+                final int address = invocation.getArgumentAt(1, Integer.class);
+                probes.put(address, invocation.getArgumentAt(2, Boolean.class));
+                return (address == 0x20) || (address == 0x48) ? 1 : (address == 0x50) ? 2 : 0;
+            }
+        });
+
+        assertEquals("Unexpected result of 'scan'", Arrays.asList(0x20, 0x48, 0x50), bus.scan());
+        assertEquals("Unexpected number of probed addresses", I2CBus.LAST_SCAN_ADDRESS - I2CBus.FIRST_SCAN_ADDRESS + 1, probes.size());
+        assertFalse("Reserved address was probed", probes.containsKey(0x07) || probes.containsKey(0x78));
+        assertTrue("Unexpected quick write probe of 0x50", probes.get(0x50));
+        assertFalse("Unexpected read byte probe of 0x48", probes.get(0x48));
+
+        // the scan results are served from the presence cache
+        probes.clear();
+        assertTrue("Unexpected presence of 0x20", bus.isPresent(0x20));
+        assertFalse("Unexpected presence of 0x21", bus.isPresent(0x21));
+        assertTrue("Presence cache was not used", probes.isEmpty());
+
+        // expired results are probed again
+        final long ttl = I2CFactory.getPresenceTtl(TimeUnit.MILLISECONDS);
+        I2CFactory.setPresenceTtl(0, TimeUnit.MILLISECONDS);
+        try {
+            assertTrue("Unexpected presence of 0x48", bus.isPresent(0x48));
+            assertTrue("Expired presence was not probed", probes.containsKey(0x48));
+        } finally {
+            I2CFactory.setPresenceTtl(ttl, TimeUnit.MILLISECONDS);
+        }
+
+        try {
+            bus.isPresent(0x78);
+            fail("'isPresent' did not reject a reserved address");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        PowerMockito.doReturn(-50005).when(I2C.class, "i2cProbe", anyInt(), eq(0x21), anyBoolean());
+        try {
+            bus.probe(0x21);
+            fail("'probe' did not throw an IOException on a native error");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testNestedPrimitiveInAsyncMode() throws Exception {
+
+        // a primitive operation inside an exclusive sequence must run on the calling thread
+        // holding the bus lock instead of waiting for the bus worker to acquire that lock
+
+        final I2CDeviceImpl deviceImpl = mock(I2CDeviceImpl.class);
+        when(deviceImpl.getAddress()).thenReturn(DEVICE_ADDRESS);
+        when(deviceImpl.getPriority()).thenReturn(I2CPriority.NORMAL);
+
+        final int localAddress = 815;
+        final int byteToRead = 123;
+        when(I2C.i2cReadByte(anyInt(), eq(DEVICE_ADDRESS), eq(localAddress))).thenReturn(byteToRead);
+
+        bus.asyncMode = true;
+        try {
+            long before = System.currentTimeMillis();
+            int readByte = bus.runActionOnExclusivLockedBus(new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    return bus.readByte(deviceImpl, localAddress);
+                }
+            });
+            long time = System.currentTimeMillis() - before;
+            assertEquals("Unexpected result from nested 'I2CBusImpl.readByte(...)'", byteToRead, readByte);
+            assertTrue("It seems that the nested primitive waited for the bus lock held by its own thread!", time < 100);
+        } finally {
+            bus.asyncMode = false;
+        }
+
+    }
+
     @Test
     public void testConcurrency() throws Exception {
 
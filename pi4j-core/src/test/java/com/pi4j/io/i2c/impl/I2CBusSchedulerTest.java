@@ -0,0 +1,218 @@
+package com.pi4j.io.i2c.impl;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  I2CBusSchedulerTest.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.pi4j.io.i2c.I2CAction;
+import com.pi4j.io.i2c.I2CDevice;
+import com.pi4j.io.i2c.I2CPriority;
+
+public class I2CBusSchedulerTest {
+
+    private static final int FILEDESCRIPTOR = 4711;
+
+    private I2CBusImpl bus;
+    private I2CDeviceImpl deviceA;
+    private I2CDeviceImpl deviceB;
+    private final List<String> executed = Collections.synchronizedList(new ArrayList<String>());
+
+    @Before
+    public void setUp() {
+        // the actions below never touch the native layer, so a pretended file descriptor is sufficient
+        bus = new I2CBusImpl(1, "/dev/i2c-1", 1, TimeUnit.SECONDS);
+        bus.fd = FILEDESCRIPTOR;
+        deviceA = new I2CDeviceImpl(bus, 0x40);
+        deviceB = new I2CDeviceImpl(bus, 0x68);
+    }
+
+    @After
+    public void tearDown() {
+        bus.getScheduler().shutdown();
+    }
+
+    @Test
+    public void testPriorities() throws Exception {
+        CountDownLatch release = blockWorker(deviceB);
+
+        CompletableFuture<String> low = deviceA.submit(record("low"), I2CPriority.LOW, 0, TimeUnit.NANOSECONDS);
+        CompletableFuture<String> normal = deviceA.submit(record("normal"));
+        CompletableFuture<String> high = deviceA.submit(record("high"), I2CPriority.HIGH, 0, TimeUnit.NANOSECONDS);
+        release.countDown();
+
+        assertEquals("low", low.get(1, TimeUnit.SECONDS));
+        assertEquals("normal", normal.get(1, TimeUnit.SECONDS));
+        assertEquals("high", high.get(1, TimeUnit.SECONDS));
+        assertEquals("Queued actions not executed by priority", asList("blocker", "high", "normal", "low"), executed);
+    }
+
+    @Test
+    public void testDeadlines() throws Exception {
+        CountDownLatch release = blockWorker(deviceB);
+
+        CompletableFuture<String> relaxed = deviceA.submit(record("relaxed"));
+        CompletableFuture<String> late = deviceA.submit(record("late"), I2CPriority.NORMAL, 200, TimeUnit.MILLISECONDS);
+        CompletableFuture<String> missed = deviceA.submit(record("missed"), I2CPriority.NORMAL, 1, TimeUnit.MILLISECONDS);
+        Thread.sleep(20);
+        release.countDown();
+
+        relaxed.get(1, TimeUnit.SECONDS);
+        late.get(1, TimeUnit.SECONDS);
+        try {
+            missed.get(1, TimeUnit.SECONDS);
+            fail("Action started after its deadline");
+        } catch (ExecutionException e) {
+            assertTrue("Missed deadline not reported as timeout", e.getCause() instanceof TimeoutException);
+        }
+        assertEquals("Action with deadline not executed first", asList("blocker", "late", "relaxed"), executed);
+        assertEquals(1, bus.getScheduler().getMissedDeadlineCount());
+    }
+
+    @Test
+    public void testBatching() throws Exception {
+        CountDownLatch release = blockWorker(deviceA);
+
+        deviceB.submit(record("B1"));
+        deviceA.submit(record("A1"));
+        deviceB.submit(record("B2"));
+        CompletableFuture<String> last = deviceA.submit(record("A2"));
+        release.countDown();
+
+        last.get(1, TimeUnit.SECONDS);
+        deviceB.submit(record("B3")).get(1, TimeUnit.SECONDS);
+        assertEquals("Actions for the same slave not batched", asList("blocker", "A1", "A2", "B1", "B2", "B3"), executed);
+        assertTrue("No batched operations counted", bus.getScheduler().getBatchedOperationCount() >= 3);
+        assertEquals("Latency not recorded per device", 3, bus.getLatencyHistogram(deviceA.getAddress()).getCount());
+    }
+
+    @Test
+    public void testSynchronousCallsInAsyncMode() throws Exception {
+        bus.asyncMode = true;
+        CountDownLatch release = blockWorker(deviceB);
+
+        final Thread[] runner = new Thread[1];
+        final CompletableFuture<Integer> sync = new CompletableFuture<>();
+        Thread caller = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    sync.complete(bus.runActionOnExclusivLockedBus(deviceA, new Callable<Integer>() {
+                        @Override
+                        public Integer call() {
+                            runner[0] = Thread.currentThread();
+                            executed.add("sync");
+                            return 42;
+                        }
+                    }));
+                } catch (Throwable ex) {
+                    sync.completeExceptionally(ex);
+                }
+            }
+        });
+        deviceA.setPriority(I2CPriority.HIGH);
+        caller.start();
+        Thread.sleep(20);
+        deviceB.submit(record("queued"));
+        release.countDown();
+
+        assertEquals(Integer.valueOf(42), sync.get(1, TimeUnit.SECONDS));
+        assertTrue("Synchronous call did not run on the bus worker", runner[0] != caller);
+        deviceB.submit(record("done")).get(1, TimeUnit.SECONDS);
+        assertEquals("Synchronous call not queued with the device priority", asList("blocker", "sync", "queued", "done"), executed);
+    }
+
+    @Test
+    public void testShutdownFailsQueuedActions() throws Exception {
+        blockWorker(deviceB);
+
+        CompletableFuture<String> pending = deviceA.submit(record("pending"));
+        bus.getScheduler().shutdown();
+        try {
+            pending.get(1, TimeUnit.SECONDS);
+            fail("Queued action completed after shutdown");
+        } catch (ExecutionException e) {
+            assertTrue("Shutdown not reported as IOException", e.getCause() instanceof IOException);
+        }
+    }
+
+    // occupies the worker until the returned latch is released
+    private CountDownLatch blockWorker(I2CDevice device) throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        device.submit(new I2CAction<String>() {
+            @Override
+            public String execute(I2CDevice device) {
+                executed.add("blocker");
+                started.countDown();
+                try {
+                    release.await(1, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "blocker";
+            }
+        });
+        assertTrue("Worker did not start", started.await(1, TimeUnit.SECONDS));
+        return release;
+    }
+
+    private I2CAction<String> record(final String name) {
+        return new I2CAction<String>() {
+            @Override
+            public String execute(I2CDevice device) {
+                executed.add(name);
+                return name;
+            }
+        };
+    }
+
+    private static List<String> asList(String... names) {
+        List<String> list = new ArrayList<>();
+        Collections.addAll(list, names);
+        return list;
+    }
+}
@@ -0,0 +1,169 @@
+package com.pi4j.io.i2c.simulated;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  I2CDeviceModelTest.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.pi4j.io.i2c.I2CBus;
+import com.pi4j.io.i2c.I2CDevice;
+import com.pi4j.io.i2c.I2CFactory;
+import com.pi4j.io.i2c.impl.I2CFactoryProviderRaspberryPi;
+
+public class I2CDeviceModelTest {
+
+    private I2CFactoryProviderSimulated simulation;
+    private I2CBus bus;
+
+    @Before
+    public void setUp() throws Exception {
+        simulation = new I2CFactoryProviderSimulated().addBus(I2CBus.BUS_1);
+        I2CFactory.setFactory(simulation);
+        bus = I2CFactory.getInstance(I2CBus.BUS_1);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        bus.close();
+        I2CFactory.setFactory(new I2CFactoryProviderRaspberryPi());
+    }
+
+    @Test
+    public void testMCP23017() throws Exception {
+        MCP23017Model model = new MCP23017Model();
+        simulation.attach(I2CBus.BUS_1, 0x20, model);
+        I2CDevice device = bus.getDevice(0x20);
+
+        // port A outputs, port B inputs with interrupt-on-change
+        device.writeByteData(MCP23017Model.REGISTER_IODIR_A, (byte) 0x00);
+        device.writeByteData(MCP23017Model.REGISTER_GPIO_A, (byte) 0x81);
+        assertTrue("Output latch was not written through GPIO", model.isOutputHigh(7));
+        assertFalse("Unexpected output level", model.isOutputHigh(1));
+        assertEquals("Unexpected OLAT", 0x81, device.readByteData(MCP23017Model.REGISTER_OLAT_A));
+
+        device.writeByteData(MCP23017Model.REGISTER_GPINTEN_A + 1, (byte) 0x01);
+        model.setInput(8, true);
+        assertTrue("Interrupt was not raised", model.isInterruptActive(MCP23017Model.PORT_B));
+        assertEquals("Unexpected INTF", 0x01, device.readByteData(MCP23017Model.REGISTER_INTF_A + 1));
+        assertEquals("Unexpected GPIO", 0x01, device.readByteData(MCP23017Model.REGISTER_GPIO_A + 1));
+        assertFalse("Reading GPIO did not clear the interrupt", model.isInterruptActive(MCP23017Model.PORT_B));
+
+        // sequential reads of both ports
+        byte[] ports = new byte[2];
+        device.read(MCP23017Model.REGISTER_GPIO_A, ports, 0, 2);
+        assertArrayEquals("Unexpected port levels", new byte[] { (byte) 0x81, 0x01 }, ports);
+    }
+
+    @Test
+    public void testPCA9685() throws Exception {
+        PCA9685Model model = new PCA9685Model();
+        simulation.attach(I2CBus.BUS_1, 0x40, model);
+        I2CDevice device = bus.getDevice(0x40);
+
+        assertTrue("Device does not start sleeping", model.isSleeping());
+        assertTrue("Channel does not start fully off", model.isFullOff(3));
+
+        // PRE_SCALE only accepts writes while sleeping
+        device.writeByteData(PCA9685Model.REGISTER_PRESCALE, (byte) 121);
+        device.writeByteData(PCA9685Model.REGISTER_MODE1, (byte) PCA9685Model.MODE1_AI);
+        device.writeByteData(PCA9685Model.REGISTER_PRESCALE, (byte) 3);
+        assertEquals("PRE_SCALE was written while awake", 121, device.readByteData(PCA9685Model.REGISTER_PRESCALE));
+        assertEquals("Unexpected frequency", 50.0, model.getFrequency(), 0.1);
+
+        // auto-increment writes a channel in one message, ALL_LED writes all channels
+        device.write(PCA9685Model.REGISTER_LED0_ON_L + 4 * 3, new byte[] { 0x10, 0x00, 0x20, 0x01 });
+        assertEquals("Unexpected on count", 0x010, model.getOn(3));
+        assertEquals("Unexpected off count", 0x120, model.getOff(3));
+        assertFalse("Channel is still fully off", model.isFullOff(3));
+        device.write(PCA9685Model.REGISTER_ALL_LED_ON_L, new byte[] { 0, PCA9685Model.LED_FULL, 0, 0 });
+        assertTrue("ALL_LED was not applied", model.isFullOn(15));
+        assertEquals("ALL_LED is readable", 0, device.readByteData(PCA9685Model.REGISTER_ALL_LED_ON_L + 1));
+
+        // without auto-increment the pointer stays
+        device.writeByteData(PCA9685Model.REGISTER_MODE1, (byte) 0x00);
+        device.write(PCA9685Model.REGISTER_LED0_ON_L, new byte[] { 0x11, 0x22 });
+        assertEquals("Pointer was incremented", 0x22, model.getRegister(PCA9685Model.REGISTER_LED0_ON_L));
+        assertEquals("Pointer was incremented", PCA9685Model.LED_FULL, model.getRegister(PCA9685Model.REGISTER_LED0_ON_L + 1));
+    }
+
+    @Test
+    public void testADS1115() throws Exception {
+        ADS1115Model model = new ADS1115Model();
+        simulation.attach(I2CBus.BUS_1, 0x48, model);
+        I2CDevice device = bus.getDevice(0x48);
+
+        model.setInput(2, 1.024);
+        model.setInput(3, 0.512);
+
+        // single-shot conversion of AIN2 with +/-4.096V, written MSB first as SMBus word
+        device.write(ADS1115Model.REGISTER_CONFIG, new byte[] { (byte) 0xE3, (byte) 0x83 });
+        byte[] conversion = new byte[2];
+        device.read(ADS1115Model.REGISTER_CONVERSION, conversion, 0, 2);
+        assertArrayEquals("Unexpected conversion", new byte[] { 0x20, 0x00 }, conversion);
+        assertEquals("Unexpected config", 0xE383, model.getConfig());
+
+        // continuous conversions of AIN2 - AIN3 with +/-0.256V clip
+        device.write(ADS1115Model.REGISTER_CONFIG, new byte[] { (byte) 0x3A, (byte) 0x83 });
+        device.read(ADS1115Model.REGISTER_CONVERSION, conversion, 0, 2);
+        assertArrayEquals("Unexpected clipped conversion", new byte[] { 0x7F, (byte) 0xFF }, conversion);
+        model.setInput(3, 1.536);
+        device.read(conversion, 0, 2);
+        assertArrayEquals("Unexpected continuous conversion", new byte[] { (byte) 0x80, 0x00 }, conversion);
+    }
+
+    @Test
+    public void testMCP4725() throws Exception {
+        MCP4725Model model = new MCP4725Model();
+        simulation.attach(I2CBus.BUS_1, 0x60, model);
+        I2CDevice device = bus.getDevice(0x60);
+
+        // write DAC register
+        device.write(new byte[] { 0x40, (byte) 0xAB, (byte) 0xC0 });
+        assertEquals("Unexpected DAC value", 0xABC, model.getValue());
+        assertEquals("EEPROM was written", 0, model.getEepromValue());
+
+        // fast mode with power-down
+        device.write(new byte[] { 0x21, 0x23 });
+        assertEquals("Unexpected fast mode value", 0x123, model.getValue());
+        assertEquals("Unexpected power-down bits", 2, model.getPowerDown());
+
+        // write DAC register and EEPROM, then read back
+        device.write(new byte[] { 0x60, 0x12, 0x30 });
+        byte[] status = new byte[5];
+        device.read(status, 0, 5);
+        assertArrayEquals("Unexpected read back", new byte[] { (byte) 0xC0, 0x12, 0x30, 0x01, 0x23 }, status);
+    }
+}
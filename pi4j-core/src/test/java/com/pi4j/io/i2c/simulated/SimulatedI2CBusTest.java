@@ -0,0 +1,182 @@
+package com.pi4j.io.i2c.simulated;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  SimulatedI2CBusTest.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.pi4j.io.i2c.I2CBus;
+import com.pi4j.io.i2c.I2CDevice;
+import com.pi4j.io.i2c.I2CFactory;
+import com.pi4j.io.i2c.I2CFactory.UnsupportedBusNumberException;
+import com.pi4j.io.i2c.I2CTransaction;
+import com.pi4j.io.i2c.impl.I2CFactoryProviderRaspberryPi;
+
+public class SimulatedI2CBusTest {
+
+    private static final int ADDRESS = 0x40;
+
+    private I2CFactoryProviderSimulated simulation;
+    private I2CRegisterFileModel model;
+
+    @Before
+    public void setUp() {
+        model = new I2CRegisterFileModel(16);
+        simulation = new I2CFactoryProviderSimulated().attach(I2CBus.BUS_1, ADDRESS, model);
+        I2CFactory.setFactory(simulation);
+    }
+
+    @After
+    public void tearDown() {
+        I2CFactory.setFactory(new I2CFactoryProviderRaspberryPi());
+    }
+
+    @Test
+    public void testProvider() throws Exception {
+        I2CBus bus = I2CFactory.getInstance(I2CBus.BUS_1);
+        assertSame("Bus is not shared", bus, I2CFactory.getInstance(I2CBus.BUS_1));
+        assertArrayEquals("Unexpected bus numbers", new int[] { I2CBus.BUS_1 }, I2CFactory.getBusNumbers());
+
+        try {
+            I2CFactory.getInstance(I2CBus.BUS_2);
+            fail("Unknown bus number was accepted");
+        } catch (UnsupportedBusNumberException e) {
+            // expected
+        }
+
+        // closing the bus keeps the devices' state
+        bus.getDevice(ADDRESS).write(0x03, (byte) 0x5A);
+        bus.close();
+        try {
+            bus.getDevice(ADDRESS).read();
+            fail("Closed bus was usable");
+        } catch (IOException e) {
+            // expected
+        }
+        I2CBus reopened = I2CFactory.getInstance(I2CBus.BUS_1);
+        assertNotSame("Closed bus was returned", bus, reopened);
+        assertEquals("Unexpected register value after reopening", 0x5A, reopened.getDevice(ADDRESS).read(0x03));
+    }
+
+    @Test
+    public void testMessages() throws Exception {
+        I2CDevice device = I2CFactory.getInstance(I2CBus.BUS_1).getDevice(ADDRESS);
+
+        // register writes and reads are a pointer byte followed by data
+        device.write(0x02, new byte[] { 1, 2, 3 });
+        assertEquals("Unexpected register value", 2, model.getRegister(0x03));
+        assertEquals("Unexpected result of 'readByteData'", 3, device.readByteData(0x04));
+        assertEquals("Unexpected result of 'readWordData'", 0x0201, device.readWordData(0x02));
+        device.writeWordData(0x08, 0xBEEF);
+        assertEquals("Unexpected low byte of word", 0xEF, model.getRegister(0x08));
+        assertEquals("Unexpected high byte of word", 0xBE, model.getRegister(0x09));
+
+        byte[] buffer = new byte[3];
+        assertEquals("Unexpected result of 'readI2CBlockData'", 3, device.readI2CBlockData(0x02, buffer, 0, 3));
+        assertArrayEquals("Unexpected block read", new byte[] { 1, 2, 3 }, buffer);
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(2);
+        assertEquals("Unexpected result of 'read(int, ByteBuffer)'", 2, device.read(0x08, direct));
+        assertEquals("Unexpected buffer content", (byte) 0xEF, direct.get(0));
+
+        // transactions are executed message by message
+        byte[] data = new byte[2];
+        I2CTransaction transaction = new I2CTransaction().write(new byte[] { 0x03 }).read(data);
+        assertEquals("Unexpected result of 'transfer'", 2, device.transfer(transaction));
+        assertArrayEquals("Unexpected transaction read", new byte[] { 2, 3 }, data);
+        assertEquals("Unexpected number of write messages", 7, model.getWriteCount());
+    }
+
+    @Test
+    public void testFaults() throws Exception {
+        I2CBus bus = I2CFactory.getInstance(I2CBus.BUS_1);
+        I2CDevice device = bus.getDevice(ADDRESS);
+
+        model.failNext(1);
+        try {
+            device.write((byte) 0);
+            fail("Missing acknowledge was not reported");
+        } catch (IOException e) {
+            // expected
+        }
+        device.write((byte) 0);
+
+        model.setOffline(true);
+        try {
+            device.readByteData(0);
+            fail("Offline device answered");
+        } catch (IOException e) {
+            // expected
+        }
+        assertFalse("Offline device was found", bus.probe(ADDRESS));
+        model.setOffline(false);
+
+        try {
+            bus.getDevice(ADDRESS + 1).read();
+            fail("Missing device answered");
+        } catch (IOException e) {
+            // expected
+        }
+
+        model.setLatency(2, TimeUnit.MILLISECONDS);
+        long start = System.nanoTime();
+        device.read();
+        assertTrue("Latency was not applied", System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(2));
+    }
+
+    @Test
+    public void testScan() throws Exception {
+        simulation.attach(I2CBus.BUS_1, 0x20, new MCP23017Model()).attach(I2CBus.BUS_3, 0x48, new ADS1115Model());
+
+        Map<Integer, List<Integer>> result = I2CFactory.scanBuses();
+        assertEquals("Unexpected devices on bus 1", Arrays.asList(0x20, ADDRESS), result.get(I2CBus.BUS_1));
+        assertEquals("Unexpected devices on bus 3", Arrays.asList(0x48), result.get(I2CBus.BUS_3));
+
+        // the scan fills the presence cache
+        model.setOffline(true);
+        assertTrue("Presence cache was not used", I2CFactory.getInstance(I2CBus.BUS_1).isPresent(ADDRESS));
+    }
+}
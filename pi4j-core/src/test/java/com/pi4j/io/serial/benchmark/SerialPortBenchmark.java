@@ -0,0 +1,161 @@
+package com.pi4j.io.serial.benchmark;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  SerialPortBenchmark.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import com.pi4j.jni.Serial;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ * JMH benchmark measuring the message throughput of {@link Serial} with one thread per serial port.
+ * Each port is the slave side of a pseudo-terminal opened through {@link Serial#open(String, int)}; the
+ * benchmark thread writes a message to it and reads the message back from the master side. Compare the
+ * single port and the multi port score to see whether ports run in parallel or contend with each other.
+ * </p>
+ *
+ * <p>
+ * Build the pseudo-terminal library with <code>make stub</code> in pi4j-native/src/test/native, which
+ * contains the real serial JNI functions plus a helper that creates the pseudo-terminals, and point the
+ * benchmark to it:
+ * java -Dpi4j.serial.pty=&lt;path&gt;/libpi4j-serial-pty.so -cp &lt;test-classpath&gt; com.pi4j.io.serial.benchmark.SerialPortBenchmark
+ * </p>
+ *
+ * @author Robert Savage (<a
+ *         href="http://www.savagehomeautomation.com">http://www.savagehomeautomation.com</a>)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerialPortBenchmark {
+
+    public static final String PTY_PROPERTY = "pi4j.serial.pty";
+
+    // four USB serial adapters plus the on-board UART
+    public static final int PORTS = 5;
+
+    @Param({"16", "256"})
+    public int messageSize;
+
+    private final int[] masters = new int[PORTS];
+    private final int[] slaves = new int[PORTS];
+    private final AtomicInteger nextPort = new AtomicInteger();
+
+    // implemented by the pseudo-terminal library
+    static native int openPty() throws IOException;
+
+    static native String ptyName(int master) throws IOException;
+
+    static void loadPtyLibrary() {
+        String pty = System.getProperty(PTY_PROPERTY);
+        if (pty == null) {
+            throw new IllegalStateException("Set -D" + PTY_PROPERTY + " to the library built by 'make stub' in pi4j-native/src/test/native");
+        }
+        // JNI binds the natives of com.pi4j.jni.Serial to the first loaded library exporting them
+        System.load(pty);
+    }
+
+    @Setup
+    public void setup() throws Exception {
+        loadPtyLibrary();
+
+        for (int port = 0; port < PORTS; port++) {
+            masters[port] = openPty();
+            slaves[port] = Serial.open(ptyName(masters[port]), Serial.BAUD_RATE_115200);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        for (int port = 0; port < PORTS; port++) {
+            Serial.close(slaves[port]);
+            Serial.close(masters[port]);
+        }
+    }
+
+    /**
+     * Assigns the ports to the benchmark threads round robin.
+     */
+    @State(Scope.Thread)
+    public static class Port {
+
+        int master;
+        int slave;
+        byte[] message;
+
+        @Setup
+        public void setup(SerialPortBenchmark benchmark) {
+            int port = benchmark.nextPort.getAndIncrement() % PORTS;
+            master = benchmark.masters[port];
+            slave = benchmark.slaves[port];
+            message = new byte[benchmark.messageSize];
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int singlePort(Port port) throws IOException {
+        return transfer(port);
+    }
+
+    @Benchmark
+    @Threads(PORTS)
+    public int allPorts(Port port) throws IOException {
+        return transfer(port);
+    }
+
+    private static int transfer(Port port) throws IOException {
+        Serial.write(port.slave, port.message);
+        int received = 0;
+        while (received < port.message.length) {
+            received += Serial.read(port.master, port.message.length - received).length;
+        }
+        return received;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(SerialPortBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
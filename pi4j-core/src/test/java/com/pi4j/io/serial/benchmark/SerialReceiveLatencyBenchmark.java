@@ -0,0 +1,134 @@
+package com.pi4j.io.serial.benchmark;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  SerialReceiveLatencyBenchmark.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import com.pi4j.io.serial.Baud;
+import com.pi4j.io.serial.DataBits;
+import com.pi4j.io.serial.FlowControl;
+import com.pi4j.io.serial.Parity;
+import com.pi4j.io.serial.ReceiveMode;
+import com.pi4j.io.serial.Serial;
+import com.pi4j.io.serial.SerialConfig;
+import com.pi4j.io.serial.SerialFactory;
+import com.pi4j.io.serial.StopBits;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * JMH benchmark measuring the latency of a request/response exchange through {@link Serial#getInputStream()}:
+ * the remote device (the master side of a pseudo-terminal) sends a response and the benchmark thread blocks
+ * in {@link InputStream#read(byte[], int, int)} until the response has been received. The sampled time covers
+ * the native data receive monitor, the receive buffer and the wake up of the blocked reader. The native monitor
+ * runs with each {@link ReceiveMode}; the inter-byte gap mode waits for an idle time of 1 ms and the minimum
+ * bytes mode for the complete response.
+ * </p>
+ *
+ * <p>
+ * Build the pseudo-terminal library with <code>make stub</code> in pi4j-native/src/test/native and point
+ * the benchmark to it:
+ * java -Dpi4j.serial.pty=&lt;path&gt;/libpi4j-serial-pty.so -cp &lt;test-classpath&gt; com.pi4j.io.serial.benchmark.SerialReceiveLatencyBenchmark
+ * </p>
+ *
+ * @author Robert Savage (<a
+ *         href="http://www.savagehomeautomation.com">http://www.savagehomeautomation.com</a>)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerialReceiveLatencyBenchmark {
+
+    @Param({"1", "64"})
+    public int responseSize;
+
+    @Param({"IMMEDIATE", "INTER_BYTE_GAP", "MINIMUM_BYTES"})
+    public ReceiveMode receiveMode;
+
+    private int master;
+    private Serial serial;
+    private InputStream input;
+    private byte[] response;
+    private byte[] received;
+
+    @Setup
+    public void setup() throws Exception {
+        SerialPortBenchmark.loadPtyLibrary();
+
+        master = SerialPortBenchmark.openPty();
+        serial = SerialFactory.createInstance();
+        serial.open(new SerialConfig()
+                .device(SerialPortBenchmark.ptyName(master))
+                .baud(Baud._115200)
+                .dataBits(DataBits._8)
+                .parity(Parity.NONE)
+                .stopBits(StopBits._1)
+                .flowControl(FlowControl.NONE)
+                .receiveMode(receiveMode)
+                .receiveIdleTime(1000)
+                .receiveMinimumBytes(responseSize));
+        serial.setReadTimeout(1, TimeUnit.SECONDS);
+        input = serial.getInputStream();
+        response = new byte[responseSize];
+        received = new byte[responseSize];
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        serial.close();
+        com.pi4j.jni.Serial.close(master);
+    }
+
+    @Benchmark
+    public int response() throws IOException {
+        com.pi4j.jni.Serial.write(master, response);
+        int length = 0;
+        while (length < received.length) {
+            length += input.read(received, length, received.length - length);
+        }
+        return length;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(SerialReceiveLatencyBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
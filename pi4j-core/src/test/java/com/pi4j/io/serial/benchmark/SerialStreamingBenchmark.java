@@ -0,0 +1,180 @@
+package com.pi4j.io.serial.benchmark;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  SerialStreamingBenchmark.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import com.pi4j.io.serial.Baud;
+import com.pi4j.io.serial.DataBits;
+import com.pi4j.io.serial.FlowControl;
+import com.pi4j.io.serial.Parity;
+import com.pi4j.io.serial.SerialFactory;
+import com.pi4j.io.serial.StopBits;
+import com.pi4j.jni.Serial;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * JMH benchmark comparing the byte array and the direct {@link ByteBuffer} operations of {@link Serial}
+ * when streaming messages through a pseudo-terminal, and measuring the complete receive path of
+ * {@link com.pi4j.io.serial.Serial} (native monitor, receive buffer, read into a direct buffer). Run it
+ * with the GC profiler to see the allocation per message (<code>gc.alloc.rate.norm</code>).
+ * </p>
+ *
+ * <p>
+ * Build the pseudo-terminal library with <code>make stub</code> in pi4j-native/src/test/native and point
+ * the benchmark to it:
+ * java -Dpi4j.serial.pty=&lt;path&gt;/libpi4j-serial-pty.so -cp &lt;test-classpath&gt; com.pi4j.io.serial.benchmark.SerialStreamingBenchmark
+ * </p>
+ *
+ * @author Robert Savage (<a
+ *         href="http://www.savagehomeautomation.com">http://www.savagehomeautomation.com</a>)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerialStreamingBenchmark {
+
+    // the gathered write sends the message as header, payload and trailer segments
+    private static final int SEGMENTS = 3;
+
+    @Param({"16", "256"})
+    public int messageSize;
+
+    private int master;
+    private int slave;
+    private int serialMaster;
+    private com.pi4j.io.serial.Serial serial;
+
+    private byte[] message;
+    private ByteBuffer transmit;
+    private ByteBuffer[] segments;
+    private ByteBuffer receive;
+    private ByteBuffer[] scatter;
+
+    @Setup
+    public void setup() throws Exception {
+        SerialPortBenchmark.loadPtyLibrary();
+
+        master = SerialPortBenchmark.openPty();
+        slave = Serial.open(SerialPortBenchmark.ptyName(master), Serial.BAUD_RATE_115200);
+
+        serialMaster = SerialPortBenchmark.openPty();
+        serial = SerialFactory.createInstance();
+        serial.open(SerialPortBenchmark.ptyName(serialMaster), Baud._115200, DataBits._8, Parity.NONE, StopBits._1, FlowControl.NONE);
+        serial.setReadTimeout(1, TimeUnit.SECONDS);
+
+        message = new byte[messageSize];
+        transmit = ByteBuffer.allocateDirect(messageSize);
+        receive = ByteBuffer.allocateDirect(messageSize);
+
+        int segment = messageSize / SEGMENTS;
+        segments = new ByteBuffer[] {
+                ByteBuffer.allocateDirect(segment),
+                ByteBuffer.allocateDirect(messageSize - 2 * segment),
+                ByteBuffer.allocateDirect(segment) };
+        scatter = new ByteBuffer[] {
+                ByteBuffer.allocateDirect(messageSize / 2),
+                ByteBuffer.allocateDirect(messageSize - messageSize / 2) };
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        serial.close();
+        Serial.close(serialMaster);
+        Serial.close(slave);
+        Serial.close(master);
+    }
+
+    @Benchmark
+    public int byteArrays() throws IOException {
+        Serial.write(slave, message);
+        int received = 0;
+        while (received < messageSize) {
+            received += Serial.read(master, messageSize - received).length;
+        }
+        return received;
+    }
+
+    @Benchmark
+    public int directBuffers() throws IOException {
+        transmit.clear();
+        Serial.write(slave, transmit);
+        receive.clear();
+        while (receive.hasRemaining()) {
+            Serial.read(master, receive);
+        }
+        return receive.position();
+    }
+
+    @Benchmark
+    public long gatheredWrite() throws IOException {
+        for (ByteBuffer segment : segments) {
+            segment.clear();
+        }
+        Serial.write(slave, segments);
+        scatter[0].clear();
+        scatter[1].clear();
+        long received = 0;
+        while (received < messageSize) {
+            received += Serial.read(master, scatter);
+        }
+        return received;
+    }
+
+    @Benchmark
+    public int serialReceive() throws IOException {
+        transmit.clear();
+        Serial.write(serialMaster, transmit);
+        receive.clear();
+        while (receive.hasRemaining()) {
+            serial.read(receive.remaining(), receive);
+        }
+        return receive.position();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(SerialStreamingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
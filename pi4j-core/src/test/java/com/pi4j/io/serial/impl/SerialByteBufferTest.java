@@ -0,0 +1,202 @@
+package com.pi4j.io.serial.impl;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  SerialByteBufferTest.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class SerialByteBufferTest {
+
+    @Test
+    public void testWrapAroundResize() throws IOException {
+        SerialByteBuffer buffer = new SerialByteBuffer(8);
+        InputStream in = buffer.getInputStream();
+
+        // move the read index towards the end so that the content wraps around
+        buffer.write(new byte[] { 0, 1, 2, 3, 4, 5 });
+        assertEquals(6, in.skip(6));
+        buffer.write(new byte[] { 10, 11, 12, 13, 14 });
+        assertEquals(8, buffer.capacity());
+
+        // growing must keep the wrapped content in order
+        buffer.write(new byte[] { 15, 16, 17, 18, 19 });
+        assertEquals(16, buffer.capacity());
+        assertEquals(10, buffer.available());
+        assertEquals(6, buffer.remaining());
+
+        byte[] data = new byte[10];
+        assertEquals(10, in.read(data));
+        assertArrayEquals(new byte[] { 10, 11, 12, 13, 14, 15, 16, 17, 18, 19 }, data);
+        assertEquals(0, buffer.available());
+    }
+
+    @Test
+    public void testReadWrapped() throws IOException {
+        SerialByteBuffer buffer = new SerialByteBuffer(4);
+        InputStream in = buffer.getInputStream();
+        buffer.write(new byte[] { 1, 2, 3 });
+        assertEquals(1, in.read());
+        assertEquals(2, in.read());
+        buffer.write(new byte[] { 4, 5, (byte) 0xFF });
+        assertEquals(4, buffer.capacity());
+
+        byte[] data = new byte[8];
+        assertEquals(4, in.read(data, 2, 6));
+        assertArrayEquals(new byte[] { 0, 0, 3, 4, 5, (byte) 0xFF, 0, 0 }, data);
+        assertEquals(0, in.read(data, 0, 0));
+    }
+
+    @Test
+    public void testWriteDirectBufferWrapped() throws IOException {
+        SerialByteBuffer buffer = new SerialByteBuffer(4);
+        InputStream in = buffer.getInputStream();
+        buffer.write(new byte[] { 1, 2, 3 });
+        assertEquals(2, in.skip(2));
+
+        // the direct buffer content must wrap around the end of the ring buffer
+        ByteBuffer data = ByteBuffer.allocateDirect(8);
+        data.put(new byte[] { 4, 5, 6 }).flip();
+        buffer.write(data);
+        assertFalse(data.hasRemaining());
+        assertEquals(4, buffer.capacity());
+
+        byte[] result = new byte[4];
+        assertEquals(4, in.read(result));
+        assertArrayEquals(new byte[] { 3, 4, 5, 6 }, result);
+    }
+
+    @Test
+    public void testReadIntoByteBuffer() throws IOException {
+        SerialByteBuffer buffer = new SerialByteBuffer(4);
+        InputStream in = buffer.getInputStream();
+        buffer.write(new byte[] { 1, 2, 3 });
+        assertEquals(2, in.skip(2));
+        buffer.write(new byte[] { 4, 5, 6 });
+
+        // the wrapped content is read in order and limited by the destination
+        ByteBuffer data = ByteBuffer.allocateDirect(3);
+        assertEquals(3, buffer.read(data, 8));
+        data.flip();
+        assertEquals(3, data.get());
+        assertEquals(4, data.get());
+        assertEquals(5, data.get());
+        assertEquals(1, buffer.available());
+
+        // nothing is read without room in the destination
+        assertEquals(0, buffer.read(data, 1));
+        data.clear();
+        assertEquals(1, buffer.read(data, 1));
+        assertEquals(6, data.get(0));
+    }
+
+    @Test
+    public void testBlockingReadLatency() throws Exception {
+        final SerialByteBuffer buffer = new SerialByteBuffer();
+        final CountDownLatch reading = new CountDownLatch(1);
+        final AtomicReference<Long> received = new AtomicReference<>();
+        Thread reader = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    reading.countDown();
+                    buffer.getInputStream().read();
+                    received.set(System.nanoTime());
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        };
+        reader.start();
+        reading.await();
+        Thread.sleep(20);
+
+        long written = System.nanoTime();
+        buffer.write(new byte[] { 42 });
+        reader.join(1000);
+
+        // the reader gets woken up by the write instead of polling the buffer
+        assertFalse(reader.isAlive());
+        long latency = TimeUnit.NANOSECONDS.toMillis(received.get() - written);
+        assertTrue("read latency " + latency + "ms", latency < 50);
+    }
+
+    @Test
+    public void testReadTimeout() throws IOException {
+        SerialByteBuffer buffer = new SerialByteBuffer();
+        buffer.setReadTimeout(50, TimeUnit.MILLISECONDS);
+        assertEquals(50, buffer.getReadTimeout(TimeUnit.MILLISECONDS));
+
+        long start = System.nanoTime();
+        try {
+            buffer.getInputStream().read(new byte[4]);
+            fail("read did not time out");
+        } catch (InterruptedIOException e) {
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertTrue("timed out after " + elapsed + "ms", elapsed >= 50);
+        }
+
+        buffer.write(new byte[] { 7 });
+        assertEquals(7, buffer.getInputStream().read());
+    }
+
+    @Test
+    public void testBoundedWriteDropsOverflow() throws IOException {
+        SerialByteBuffer buffer = new SerialByteBuffer(4, 4);
+        buffer.write(new byte[] { 1, 2, 3 });
+
+        // the writer must never wait; bytes beyond the maximum capacity are dropped and counted
+        buffer.write(new byte[] { 4, 5, 6 });
+        assertEquals(4, buffer.available());
+        assertEquals(4, buffer.capacity());
+        assertEquals(2, buffer.getDroppedCount());
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(3);
+        buffer.write(direct);
+        assertFalse(direct.hasRemaining());
+        assertEquals(5, buffer.getDroppedCount());
+
+        byte[] data = new byte[4];
+        assertEquals(4, buffer.getInputStream().read(data));
+        assertArrayEquals(new byte[] { 1, 2, 3, 4 }, data);
+    }
+}
@@ -32,10 +32,10 @@ package com.pi4j.component.button;
 
 import com.pi4j.component.ComponentListener;
 import com.pi4j.component.ObserveableComponentBase;
+import com.pi4j.io.gpio.GpioFactory;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -111,7 +111,7 @@ public abstract class ButtonBase extends ObserveableComponentBase implements But
         }
     }
 
-    final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    final ScheduledExecutorService executor = GpioFactory.getExecutorServiceFactory().getScheduledExecutorService();
     final List<ScheduledFuture> holdEventFutures = new ArrayList<>();
 
     protected synchronized void notifyListeners(final ButtonStateChangeEvent event) {
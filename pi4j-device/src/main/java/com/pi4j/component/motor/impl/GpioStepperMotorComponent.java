@@ -31,9 +31,16 @@ package com.pi4j.component.motor.impl;
 
 import com.pi4j.component.motor.MotorState;
 import com.pi4j.component.motor.StepperMotorBase;
+import com.pi4j.io.gpio.GpioFactory;
 import com.pi4j.io.gpio.GpioPinDigitalOutput;
+import com.pi4j.io.gpio.GpioWaveform;
+import com.pi4j.io.gpio.GpioWaveformResult;
 import com.pi4j.io.gpio.PinState;
 
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 public class GpioStepperMotorComponent extends StepperMotorBase {
 
     // internal class members
@@ -41,9 +48,12 @@ public class GpioStepperMotorComponent extends StepperMotorBase {
     private PinState onState = PinState.HIGH;
     private PinState offState = PinState.LOW;
     private MotorState currentState = MotorState.STOP;
-    private GpioStepperMotorControl controlThread = new GpioStepperMotorControl();
+    private Thread controlThread = null;
     private int sequenceIndex = 0;
 
+    // upper bound for the number of steps played as a single waveform
+    private static final int MAX_WAVEFORM_STEPS = 1024;
+
     /**
      * using this constructor requires that the consumer
      *  define the STEP ON and STEP OFF pin states
@@ -103,8 +113,9 @@ public class GpioStepperMotorComponent extends StepperMotorBase {
                 currentState = MotorState.FORWARD;
 
                 // start control thread if not already running
-                if(!controlThread.isAlive()) {
-                    controlThread = new GpioStepperMotorControl();
+                if(controlThread == null || !controlThread.isAlive()) {
+                    controlThread = GpioFactory.getExecutorServiceFactory()
+                            .getPlatformThreadFactory("pi4j-stepper-motor-%d").newThread(new GpioStepperMotorControl());
                     controlThread.start();
                 }
 
@@ -115,8 +126,9 @@ public class GpioStepperMotorComponent extends StepperMotorBase {
                 currentState = MotorState.REVERSE;
 
                 // start control thread if not already running
-                if(!controlThread.isAlive()) {
-                    controlThread = new GpioStepperMotorControl();
+                if(controlThread == null || !controlThread.isAlive()) {
+                    controlThread = GpioFactory.getExecutorServiceFactory()
+                            .getPlatformThreadFactory("pi4j-stepper-motor-%d").newThread(new GpioStepperMotorControl());
                     controlThread.start();
                 }
 
@@ -128,7 +140,7 @@ public class GpioStepperMotorComponent extends StepperMotorBase {
         }
     }
 
-    private class GpioStepperMotorControl extends Thread {
+    private class GpioStepperMotorControl implements Runnable {
         public void run() {
 
             // continuous loop until stopped
@@ -156,14 +168,32 @@ public class GpioStepperMotorComponent extends StepperMotorBase {
             return;
         }
 
-        // perform step in positive or negative direction from current position
-        if (steps > 0){
-            for(long index = 1; index <= steps; index++)
-                doStep(true);
+        // play the steps in positive or negative direction from current position
+        // as waveforms on the GPIO waveform player thread
+        boolean forward = (steps > 0);
+        long remaining = Math.abs(steps);
+        long interval = TimeUnit.MILLISECONDS.toNanos(stepIntervalMilliseconds) + stepIntervalNanoseconds;
+        Future<GpioWaveformResult> playing = null;
+        try {
+            while (remaining > 0) {
+                int count = (int) Math.min(remaining, MAX_WAVEFORM_STEPS);
+                GpioWaveform waveform = new GpioWaveform(pins);
+                for (int index = 0; index < count; index++) {
+                    nextSequenceIndex(forward);
+                    waveform.add(getStepStateMask(), interval);
+                }
+                playing = GpioFactory.getWaveformPlayer().play(waveform);
+                playing.get();
+                remaining -= count;
+            }
         }
-        else {
-            for(long index = steps; index < 0; index++)
-                doStep(false);
+        catch (InterruptedException e) {
+            // stop driving the coils before giving up on the remaining steps
+            playing.cancel(true);
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
         }
 
         // stop motor movement
@@ -178,16 +208,7 @@ public class GpioStepperMotorComponent extends StepperMotorBase {
     private void doStep(boolean forward) {
 
         // increment or decrement sequence
-        if(forward)
-            sequenceIndex++;
-        else
-            sequenceIndex--;
-
-        // check sequence bounds; rollover if needed
-        if(sequenceIndex >= stepSequence.length)
-            sequenceIndex = 0;
-        else if(sequenceIndex < 0)
-            sequenceIndex = (stepSequence.length - 1);
+        nextSequenceIndex(forward);
 
         // start cycling GPIO pins to move the motor forward or reverse
         for(int pinIndex = 0; pinIndex < pins.length; pinIndex++) {
@@ -203,4 +224,26 @@ public class GpioStepperMotorComponent extends StepperMotorBase {
         }
         catch (InterruptedException e) {}
     }
+
+    private void nextSequenceIndex(boolean forward) {
+        // increment or decrement sequence
+        if(forward)
+            sequenceIndex++;
+        else
+            sequenceIndex--;
+
+        // check sequence bounds; rollover if needed
+        if(sequenceIndex >= stepSequence.length)
+            sequenceIndex = 0;
+        else if(sequenceIndex < 0)
+            sequenceIndex = (stepSequence.length - 1);
+    }
+
+    /**
+     * @return waveform state mask applying the current step sequence entry to all pins
+     */
+    private long getStepStateMask() {
+        long mask = stepSequence[sequenceIndex] & 0xFF;
+        return (onState == PinState.HIGH) ? mask : ~mask;
+    }
 }
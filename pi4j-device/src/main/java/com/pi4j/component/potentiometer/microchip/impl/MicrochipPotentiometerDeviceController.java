@@ -1,6 +1,7 @@
 package com.pi4j.component.potentiometer.microchip.impl;
 
 import com.pi4j.io.i2c.I2CDevice;
+import com.pi4j.io.i2c.I2CRegisterMap;
 
 import java.io.IOException;
 import java.util.Arrays;
@@ -95,6 +96,11 @@ public class MicrochipPotentiometerDeviceController {
 	 */
 	private I2CDevice i2cDevice;
 
+	/**
+	 * shadow of the device's registers
+	 */
+	private I2CRegisterMap registers;
+
 	/**
 	 * Builds an instance which is ready to use.
 	 *
@@ -110,6 +116,22 @@ public class MicrochipPotentiometerDeviceController {
 
 		this.i2cDevice = i2cDevice;
 
+		// registers are read and written using the device's commands;
+		// the status changes on the device (EEPROM write cycle)
+		this.registers = new I2CRegisterMap(new I2CRegisterMap.RegisterAccess() {
+
+			@Override
+			public int read(final int register) throws IOException {
+				return MicrochipPotentiometerDeviceController.this.read((byte) register);
+			}
+
+			@Override
+			public void write(final int register, final int value) throws IOException {
+				MicrochipPotentiometerDeviceController.this.write((byte) register, value);
+			}
+
+		}).setPolicy(MEMADDR_STATUS, I2CRegisterMap.Policy.VOLATILE);
+
 	}
 
 	/**
@@ -121,7 +143,7 @@ public class MicrochipPotentiometerDeviceController {
 	public DeviceControllerDeviceStatus getDeviceStatus() throws IOException {
 
 		// get status from device
-		int deviceStatus = read(MEMADDR_STATUS);
+		int deviceStatus = registers.read(MEMADDR_STATUS);
 
 		// check formal criterias
 		int reservedValue = deviceStatus & STATUS_RESERVED_MASK;
@@ -217,7 +239,7 @@ public class MicrochipPotentiometerDeviceController {
 				: channel.getVolatileMemoryAddress();
 
 		// read current value
-		int currentValue = read(memAddr);
+		int currentValue = registers.read(memAddr);
 
 		return currentValue;
 
@@ -251,7 +273,7 @@ public class MicrochipPotentiometerDeviceController {
 				: channel.getVolatileMemoryAddress();
 
 		// write the value to the device
-		write(memAddr, value);
+		registers.write(memAddr, value);
 
 	}
 
@@ -271,8 +293,8 @@ public class MicrochipPotentiometerDeviceController {
 					+ "parameter 'channel'");
 		}
 
-		// read configuration from device
-		int tcon = read(channel.getTerminalControllAddress());
+		// read configuration from device (or its shadow)
+		int tcon = registers.read(channel.getTerminalControllAddress());
 
 		// build result
 		boolean channelEnabled = (tcon & channel.getHardwareConfigControlBit()) > 0;
@@ -306,21 +328,30 @@ public class MicrochipPotentiometerDeviceController {
 
 		byte memAddr = config.getChannel().getTerminalControllAddress();
 
-		// read current configuration from device
-		int tcon = read(memAddr);
+		// the channel's bits of the terminal control register
+		int mask = channel.getHardwareConfigControlBit()
+				| channel.getTerminalAConnectControlBit()
+				| channel.getWiperConnectControlBit()
+				| channel.getTerminalBConnectControlBit();
 
-		// modify configuration
-		tcon = setBit(tcon, channel.getHardwareConfigControlBit(),
-				config.isChannelEnabled());
-		tcon = setBit(tcon, channel.getTerminalAConnectControlBit(),
-				config.isPinAEnabled());
-		tcon = setBit(tcon, channel.getWiperConnectControlBit(),
-				config.isPinWEnabled());
-		tcon = setBit(tcon, channel.getTerminalBConnectControlBit(),
-				config.isPinBEnabled());
+		// new configuration
+		int tcon = 0;
+		if (config.isChannelEnabled()) {
+			tcon |= channel.getHardwareConfigControlBit();
+		}
+		if (config.isPinAEnabled()) {
+			tcon |= channel.getTerminalAConnectControlBit();
+		}
+		if (config.isPinWEnabled()) {
+			tcon |= channel.getWiperConnectControlBit();
+		}
+		if (config.isPinBEnabled()) {
+			tcon |= channel.getTerminalBConnectControlBit();
+		}
 
-		// write new configuration to device
-		write(memAddr, tcon);
+		// write new configuration to device; the configuration of the
+		// other channel is taken from the shadow of the register
+		registers.update(memAddr, mask, tcon);
 
 	}
 
@@ -366,26 +397,6 @@ public class MicrochipPotentiometerDeviceController {
 
 	}
 
-	/**
-	 * Sets or clears a bit in the given memory (integer).
-	 *
-	 * @param mem The memory to modify
-	 * @param mask The mask which defines to bit to be set/cleared
-	 * @param value Whether to set the bit (true) or clear the bit (false)
-	 * @return The modified memory
-	 */
-	private int setBit(final int mem, final int mask, final boolean value) {
-
-		final int result;
-		if (value) {
-			result = mem | mask;  // set bit by using OR
-		} else {
-			result = mem & ~mask; // clear bit by using AND with the inverted mask
-		}
-		return result;
-
-	}
-
 	/**
 	 * Reads two bytes from the devices at the given memory-address.
 	 *
@@ -477,6 +488,9 @@ public class MicrochipPotentiometerDeviceController {
 		// write sequence to the device
 		i2cDevice.write(sequence, 0, sequence.length);
 
+		// the wiper saturates at its limits, so its new value is unknown
+		registers.invalidate(memAddr);
+
 	}
 
 	@Override
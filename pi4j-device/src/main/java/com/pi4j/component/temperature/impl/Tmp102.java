@@ -59,6 +59,8 @@ import java.util.logging.Logger;
  * @author andy
  */
 public class Tmp102 extends TemperatureSensorBase implements TemperatureSensor {
+    static final int TEMPERATURE_REGISTER = 0x00;
+
     int       i2cAddr;
     I2CDevice dev;
 
@@ -79,18 +81,13 @@ public class Tmp102 extends TemperatureSensorBase implements TemperatureSensor {
     @Override
     public double getTemperature() {
         double retVal     = 0;
-        int    temp       = 0;
-        byte[] tempBuffer = new byte[2];
 
         try {
-            dev.read(tempBuffer, 0, 2);
-
-            int msb = (tempBuffer[0] < 0)
-                      ? 256 + tempBuffer[0]
-                      : tempBuffer[0];
-            int lsb = (tempBuffer[1] < 0)
-                      ? 256 + tempBuffer[1]
-                      : tempBuffer[1];
+            // single SMBus word transfer of the temperature register; the TMP102 sends the MSB first
+            int word = dev.readWordData(TEMPERATURE_REGISTER);
+
+            int msb = word & 0xFF;
+            int lsb = (word >> 8) & 0xFF;
 
             msb = msb << 4;
             lsb = lsb >> 4;
@@ -32,6 +32,7 @@ package com.pi4j.device.fireplace;
 
 import com.pi4j.device.DeviceListener;
 import com.pi4j.device.ObserveableDeviceBase;
+import com.pi4j.io.gpio.GpioFactory;
 
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -43,7 +44,8 @@ public abstract class FireplaceBase extends ObserveableDeviceBase implements Fir
     protected long timeoutDelay = 0;
     protected Future timeoutTask = null;
     protected TimeUnit timeoutUnit = TimeUnit.MINUTES;
-    protected ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    protected ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+            GpioFactory.getExecutorServiceFactory().getThreadFactory("pi4j-fireplace-timeout-%d"));
 
     public FireplaceBase(){
         // add a state change listener so that the timeout can be canceled if any state is changed
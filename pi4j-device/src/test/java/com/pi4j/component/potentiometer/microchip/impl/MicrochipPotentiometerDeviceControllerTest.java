@@ -471,8 +471,9 @@ public class MicrochipPotentiometerDeviceControllerTest {
         DeviceControllerTerminalConfiguration tconB = controller.getTerminalConfiguration(
                 DeviceControllerChannel.B);
 
-		// test for proper write-argument -> see FIGURE 7-5 and TABLE 4-1
-		testForWriteAndRead((byte) 0b1001100, 2);
+		// both channels share the terminal control register which is
+		// served from the shadow the second time
+		testForWriteAndRead((byte) 0b1001100, 1);
 
 		assertNotNull("Calling 'getTerminalConfiguration(Channel.B)' did return null!",
 				tconB);
@@ -536,16 +537,15 @@ public class MicrochipPotentiometerDeviceControllerTest {
 				false, false, false, true);
 		controller.setTerminalConfiguration(tconB);
 
-		// reading current configuration:
-		// test for proper write-argument -> see FIGURE 7-5 and TABLE 4-1
-		testForWriteAndRead((byte) 0b1001100, 2);
+		// current configuration is taken from the shadow of the register,
+		// so the device is not read again
+		testForWriteAndRead((byte) 0b1001100, 1);
 
 		// test for proper write-argument -> see FIGURE 7-5 and TABLE 4-1
-		// The last four bits of the second byte are the same four bits of
-		// the mocked read-result. Those four bits represent the configuration
-		// of wiper0. This test only modifies wiper1, so only the last four
-		// bits have to be according to 'tconB'.
-		verify(i2cDevice).write(new byte[] { (byte) 0b1000000, (byte) 0b00010101 }, 0, 2);
+		// The last four bits of the second byte are the four bits written
+		// for wiper0 by the previous call. This test only modifies wiper1,
+		// so only the first four bits have to be according to 'tconB'.
+		verify(i2cDevice).write(new byte[] { (byte) 0b1000000, (byte) 0b00011110 }, 0, 2);
 
 	}
 
@@ -32,6 +32,7 @@ package com.pi4j.gpio.extension.ads;
 
 import java.io.IOException;
 
+import com.pi4j.io.gpio.GpioFactory;
 import com.pi4j.io.gpio.GpioPin;
 import com.pi4j.io.gpio.GpioProvider;
 import com.pi4j.io.gpio.GpioProviderBase;
@@ -244,7 +245,7 @@ public abstract class ADS1x15GpioProvider extends GpioProviderBase implements Gp
 
         // start monitoring thread
         monitor = new ADS1x15GpioProvider.ADCMonitor(device);
-        monitor.start();
+        GpioFactory.getExecutorServiceFactory().getThreadFactory("pi4j-ads1x15-monitor-%d").newThread(monitor).start();
     }
 
 
@@ -360,51 +361,38 @@ public abstract class ADS1x15GpioProvider extends GpioProviderBase implements Gp
     // Writes 16-bits to the specified destination register
     protected void writeRegister(int register, int value) throws IOException {
 
-        // create packet in data buffer
-        byte packet[] = new byte[3];
-        packet[0] = (byte)(register);     // register byte
-        packet[1] = (byte)(value>>8);     // value MSB
-        packet[2] = (byte)(value & 0xFF); // value LSB
-
-        // write data to I2C device
-        device.write(packet, 0, 3);
+        // the ADS1x15 expects the MSB first while SMBus sends the low byte first
+        device.writeWordData(register, swapBytes(value));
     }
 
-    // Writes 16-bits to the specified destination register
+    // Reads 16-bits from the specified source register
     protected int readRegister(int register) throws IOException {
 
-        device.write((byte)register);
-
-        // create data buffer for receive data
-        byte buffer[] = new byte[2];  // receive 16 bits (2 bytes)
-        int byteCount = 0;
+        int word;
         try
         {
-            byteCount = device.read(buffer, 0, 2);
+            // single SMBus word transfer; the ADS1x15 sends the MSB first
+            word = swapBytes(device.readWordData(register));
         }
         catch (IOException e)
         {
             e.printStackTrace();
+            return 0;
         }
 
-        if(byteCount == 2){
+        short value = (short) word;
 
-            //System.out.println("-----------------------------------------------");
-            //System.out.println("[RX] " + bytesToHex(buffer));
-            //System.out.println("-----------------------------------------------");
-            short value = getShort(buffer, 0);
+        // Shift 12-bit results right 4 bits for the ADS1015
+        // No-shift required for the ADS1115
+        if(bitShift > 0){
+            value = (short) (value >> bitShift);
+        }
 
-            // Shift 12-bit results right 4 bits for the ADS1015
-            // No-shift required for the ADS1115
-            if(bitShift > 0){
-                value = (short) (value >> bitShift);
-            }
+        return value;
+    }
 
-            return value;
-        }
-        else{
-            return 0;
-        }
+    protected static int swapBytes(int word) {
+        return ((word & 0xFF) << 8) | ((word >> 8) & 0xFF);
     }
 
     protected static short getShort(byte[] arr, int off) {
@@ -458,7 +446,7 @@ public abstract class ADS1x15GpioProvider extends GpioProviderBase implements Gp
      * @author Robert Savage
      *
      */
-    private class ADCMonitor extends Thread {
+    private class ADCMonitor implements Runnable {
 
         private I2CDevice device;
         private boolean shuttingDown = false;
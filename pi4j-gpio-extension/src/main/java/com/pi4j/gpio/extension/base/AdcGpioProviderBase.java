@@ -311,7 +311,7 @@ public abstract class AdcGpioProviderBase extends GpioProviderBase implements Ad
             // create and start background monitor
             if (monitor == null) {
                 monitor = new AdcGpioProviderBase.ADCMonitor();
-                monitor.start();
+                GpioFactory.getExecutorServiceFactory().getThreadFactory("pi4j-adc-monitor-%d").newThread(monitor).start();
             }
         }
         else{
@@ -346,7 +346,7 @@ public abstract class AdcGpioProviderBase extends GpioProviderBase implements Ad
      * @author Robert Savage
      *
      */
-    private class ADCMonitor extends Thread {
+    private class ADCMonitor implements Runnable {
 
         private boolean shuttingDown = false;
 
@@ -9,8 +9,10 @@ import com.pi4j.io.i2c.I2CBus;
 import com.pi4j.io.i2c.I2CDevice;
 import com.pi4j.io.i2c.I2CFactory;
 import com.pi4j.io.i2c.I2CFactory.UnsupportedBusNumberException;
+import com.pi4j.io.i2c.I2CRegisterMap;
 
 import java.io.IOException;
+import java.util.Map;
 
 /*
  * #%L
@@ -70,14 +72,14 @@ public class MCP23008GpioProvider extends GpioProviderBase implements GpioProvid
     private static final int REGISTER_INTF = 0x07;
     // private static final int REGISTER_INTCAP = 0x08;
     public static final int REGISTER_GPIO  = 0x09;
+    private static final int REGISTER_OLAT = 0x0A;
 
     private int currentStates = 0;
-    private int currentDirection = 0;
-    private int currentPullup = 0;
 
     private boolean i2cBusOwner = false;
     private I2CBus bus;
     private I2CDevice device;
+    private I2CRegisterMap registers;
     private GpioStateMonitor monitor = null;
 
     public MCP23008GpioProvider(int busNumber, int address) throws UnsupportedBusNumberException, IOException {
@@ -94,26 +96,31 @@ public class MCP23008GpioProvider extends GpioProviderBase implements GpioProvid
         // create I2C device instance
         device = bus.getDevice(address);
 
+        // shadow the configuration registers; pin levels and interrupt flags change on the device
+        registers = new I2CRegisterMap(device)
+                .setPolicy(REGISTER_GPIO, I2CRegisterMap.Policy.VOLATILE)
+                .setPolicy(REGISTER_INTF, I2CRegisterMap.Policy.VOLATILE);
+
         // read initial GPIO pin states
-        currentStates = device.read(REGISTER_GPIO);
+        currentStates = registers.read(REGISTER_GPIO);
 
         // set all default pins directions
-        device.write(REGISTER_IODIR, (byte) currentDirection);
+        registers.write(REGISTER_IODIR, 0x00);
 
         // set all default pin interrupts
-        device.write(REGISTER_GPINTEN, (byte) currentDirection);
+        registers.write(REGISTER_GPINTEN, 0x00);
 
         // set all default pin interrupt default values
-        device.write(REGISTER_DEFVAL, (byte) 0x00);
+        registers.write(REGISTER_DEFVAL, 0x00);
 
         // set all default pin interrupt comparison behaviors
-        device.write(REGISTER_INTCON, (byte) 0x00);
+        registers.write(REGISTER_INTCON, 0x00);
 
-        // set all default pin states
-        device.write(REGISTER_GPIO, (byte) currentStates);
+        // set all default pin states (writing the output latch equals writing the GPIO register)
+        registers.write(REGISTER_OLAT, currentStates);
 
         // set all default pin pull up resistors
-        device.write(REGISTER_GPPU, (byte) currentPullup);
+        registers.write(REGISTER_GPPU, 0x00);
     }
 
 
@@ -139,22 +146,20 @@ public class MCP23008GpioProvider extends GpioProviderBase implements GpioProvid
     public void setMode(Pin pin, PinMode mode) {
         super.setMode(pin, mode);
 
+        int currentDirection;
         try {
             // determine register and pin address
             int pinAddress = pin.getAddress();
 
-            // determine update direction value based on mode
-            if (mode == PinMode.DIGITAL_INPUT) {
-                currentDirection |= pinAddress;
-            } else if (mode == PinMode.DIGITAL_OUTPUT) {
-                currentDirection &= ~pinAddress;
-            }
-
-            // next update direction value
-            device.write(REGISTER_IODIR, (byte) currentDirection);
-
+            // update direction value based on mode and
             // enable interrupts; interrupt on any change from previous state
-            device.write(REGISTER_GPINTEN, (byte) currentDirection);
+            // (the shadowed registers are only written if the pin bit changes)
+            if (mode == PinMode.DIGITAL_INPUT || mode == PinMode.DIGITAL_OUTPUT) {
+                boolean input = (mode == PinMode.DIGITAL_INPUT);
+                registers.setBits(REGISTER_IODIR, pinAddress, input);
+                registers.setBits(REGISTER_GPINTEN, pinAddress, input);
+            }
+            currentDirection = registers.read(REGISTER_IODIR);
         } catch (IOException ex) {
             throw new RuntimeException(ex);
         }
@@ -165,8 +170,8 @@ public class MCP23008GpioProvider extends GpioProviderBase implements GpioProvid
             // if the monitor has not been started, then start it now
             if (monitor == null) {
                 // start monitoring thread
-                monitor = new GpioStateMonitor(device);
-                monitor.start();
+                monitor = new GpioStateMonitor(registers);
+                GpioFactory.getExecutorServiceFactory().getThreadFactory("pi4j-mcp23008-monitor-%d").newThread(monitor).start();
             }
         } else {
             // shutdown and destroy monitoring thread since there are no input pins configured
@@ -199,12 +204,40 @@ public class MCP23008GpioProvider extends GpioProviderBase implements GpioProvid
             }
 
             // update state value
-            device.write(REGISTER_GPIO, (byte) currentStates);
+            registers.update(REGISTER_OLAT, 0xFF, currentStates);
         } catch (IOException ex) {
             throw new RuntimeException(ex);
         }
     }
 
+    @Override
+    public void setStates(Map<Pin, PinState> states) {
+        // validate every pin and build the new state register before anything is written
+        int value = currentStates;
+        for (Map.Entry<Pin, PinState> entry : states.entrySet()) {
+            Pin pin = entry.getKey();
+            validateDigitalOutput(pin);
+            value = entry.getValue().isHigh() ? (value | pin.getAddress()) : (value & ~pin.getAddress());
+        }
+        if (states.isEmpty()) {
+            return;
+        }
+
+        // write the modified state register once
+        try {
+            registers.update(REGISTER_OLAT, 0xFF, value);
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+        currentStates = value;
+
+        // cache the pin states and echo the event feedback
+        for (Map.Entry<Pin, PinState> entry : states.entrySet()) {
+            getPinCache(entry.getKey()).setState(entry.getValue());
+            dispatchPinDigitalStateChangeEvent(entry.getKey(), entry.getValue());
+        }
+    }
+
     @Override
     public PinState getState(Pin pin) {
         // call super method to perform validation on pin
@@ -236,15 +269,8 @@ public class MCP23008GpioProvider extends GpioProviderBase implements GpioProvid
             // determine pin address
             int pinAddress = pin.getAddress();
 
-            // determine pull up value for pin bit
-            if (resistance == PinPullResistance.PULL_UP) {
-                currentPullup |= pinAddress;
-            } else {
-                currentPullup &= ~pinAddress;
-            }
-
-            // next update pull up resistor value
-            device.write(REGISTER_GPPU, (byte) currentPullup);
+            // update pull up resistor value for pin bit
+            registers.setBits(REGISTER_GPPU, pinAddress, resistance == PinPullResistance.PULL_UP);
         } catch (IOException ex) {
             throw new RuntimeException(ex);
         }
@@ -294,12 +320,12 @@ public class MCP23008GpioProvider extends GpioProviderBase implements GpioProvid
      * @author Robert Savage
      *
      */
-    private class GpioStateMonitor extends Thread {
-        private I2CDevice device;
+    private class GpioStateMonitor implements Runnable {
+        private I2CRegisterMap registers;
         private boolean shuttingDown = false;
 
-        public GpioStateMonitor(I2CDevice device) {
-            this.device = device;
+        public GpioStateMonitor(I2CRegisterMap registers) {
+            this.registers = registers;
         }
 
         public void shutdown() {
@@ -310,14 +336,14 @@ public class MCP23008GpioProvider extends GpioProviderBase implements GpioProvid
             while (!shuttingDown) {
                 try {
                     // only process for interrupts if a pin is configured as an input pin
-                    if (currentDirection > 0) {
+                    if (registers.read(REGISTER_IODIR) > 0) {
                         // process interrupts
-                        int pinInterrupt = device.read(REGISTER_INTF);
+                        int pinInterrupt = registers.read(REGISTER_INTF);
 
                         // validate that there is at least one interrupt active
                         if (pinInterrupt > 0) {
                             // read the current pin states
-                            int pinInterruptState = device.read(REGISTER_GPIO);
+                            int pinInterruptState = registers.read(REGISTER_GPIO);
 
                             // loop over the available pins
                             for (Pin pin : MCP23008Pin.ALL) {
@@ -1,7 +1,9 @@
 package com.pi4j.gpio.extension.mcp;
 
 import java.io.IOException;
+import java.util.Map;
 
+import com.pi4j.io.gpio.GpioFactory;
 import com.pi4j.io.gpio.GpioProvider;
 import com.pi4j.io.gpio.GpioProviderBase;
 import com.pi4j.io.gpio.Pin;
@@ -16,6 +18,7 @@ import com.pi4j.io.i2c.I2CBus;
 import com.pi4j.io.i2c.I2CDevice;
 import com.pi4j.io.i2c.I2CFactory;
 import com.pi4j.io.i2c.I2CFactory.UnsupportedBusNumberException;
+import com.pi4j.io.i2c.I2CRegisterMap;
 
 /*
  * #%L
@@ -85,22 +88,21 @@ public class MCP23017GpioProvider extends GpioProviderBase implements GpioProvid
     // private static final int REGISTER_INTCAP_B = 0x11;
     private static final int REGISTER_GPIO_A = 0x12;
     private static final int REGISTER_GPIO_B = 0x13;
+    private static final int REGISTER_OLAT_A = 0x14;
+    private static final int REGISTER_OLAT_B = 0x15;
 
     private static final int GPIO_A_OFFSET = 0;
     private static final int GPIO_B_OFFSET = 1000;
 
     private int currentStatesA = 0;
     private int currentStatesB = 0;
-    private int currentDirectionA = 0;
-    private int currentDirectionB = 0;
-    private int currentPullupA = 0;
-    private int currentPullupB = 0;
 
     private int pollingTime = DEFAULT_POLLING_TIME;
 
     private boolean i2cBusOwner = false;
     private final I2CBus bus;
     private final I2CDevice device;
+    private final I2CRegisterMap registers;
     private GpioStateMonitor monitor = null;
 
     public MCP23017GpioProvider(int busNumber, int address) throws UnsupportedBusNumberException, IOException {
@@ -125,33 +127,40 @@ public class MCP23017GpioProvider extends GpioProviderBase implements GpioProvid
         // create I2C device instance
         device = bus.getDevice(address);
 
+        // shadow the configuration registers; pin levels and interrupt flags change on the device
+        registers = new I2CRegisterMap(device)
+                .setPolicy(REGISTER_GPIO_A, I2CRegisterMap.Policy.VOLATILE)
+                .setPolicy(REGISTER_GPIO_B, I2CRegisterMap.Policy.VOLATILE)
+                .setPolicy(REGISTER_INTF_A, I2CRegisterMap.Policy.VOLATILE)
+                .setPolicy(REGISTER_INTF_B, I2CRegisterMap.Policy.VOLATILE);
+
         // read initial GPIO pin states
-        currentStatesA = device.read(REGISTER_GPIO_A);
-        currentStatesB = device.read(REGISTER_GPIO_B);
+        currentStatesA = registers.read(REGISTER_GPIO_A);
+        currentStatesB = registers.read(REGISTER_GPIO_B);
 
         // set all default pins directions
-        device.write(REGISTER_IODIR_A, (byte) currentDirectionA);
-        device.write(REGISTER_IODIR_B, (byte) currentDirectionB);
+        registers.write(REGISTER_IODIR_A, 0x00);
+        registers.write(REGISTER_IODIR_B, 0x00);
 
         // set all default pin interrupts
-        device.write(REGISTER_GPINTEN_A, (byte) currentDirectionA);
-        device.write(REGISTER_GPINTEN_B, (byte) currentDirectionB);
+        registers.write(REGISTER_GPINTEN_A, 0x00);
+        registers.write(REGISTER_GPINTEN_B, 0x00);
 
         // set all default pin interrupt default values
-        device.write(REGISTER_DEFVAL_A, (byte) 0x00);
-        device.write(REGISTER_DEFVAL_B, (byte) 0x00);
+        registers.write(REGISTER_DEFVAL_A, 0x00);
+        registers.write(REGISTER_DEFVAL_B, 0x00);
 
         // set all default pin interrupt comparison behaviors
-        device.write(REGISTER_INTCON_A, (byte) 0x00);
-        device.write(REGISTER_INTCON_B, (byte) 0x00);
+        registers.write(REGISTER_INTCON_A, 0x00);
+        registers.write(REGISTER_INTCON_B, 0x00);
 
-        // set all default pin states
-        device.write(REGISTER_GPIO_A, (byte) currentStatesA);
-        device.write(REGISTER_GPIO_B, (byte) currentStatesB);
+        // set all default pin states (writing the output latch equals writing the GPIO register)
+        registers.write(REGISTER_OLAT_A, currentStatesA);
+        registers.write(REGISTER_OLAT_B, currentStatesB);
 
         // set all default pin pull up resistors
-        device.write(REGISTER_GPPU_A, (byte) currentPullupA);
-        device.write(REGISTER_GPPU_B, (byte) currentPullupB);
+        registers.write(REGISTER_GPPU_A, 0x00);
+        registers.write(REGISTER_GPPU_B, 0x00);
 
         // set pollingtime
         this.pollingTime = pollingTime;
@@ -182,24 +191,26 @@ public class MCP23017GpioProvider extends GpioProviderBase implements GpioProvid
         super.setMode(pin, mode);
 
         // determine A or B port based on pin address
+        boolean inputs;
         try {
             if (pin.getAddress() < GPIO_B_OFFSET) {
                 setModeA(pin, mode);
             } else {
                 setModeB(pin, mode);
             }
+            inputs = registers.read(REGISTER_IODIR_A) > 0 || registers.read(REGISTER_IODIR_B) > 0;
         } catch (IOException ex) {
             throw new RuntimeException(ex);
         }
 
         // if any pins are configured as input pins, then we need to start the interrupt monitoring
         // thread
-        if (currentDirectionA > 0 || currentDirectionB > 0) {
+        if (inputs) {
             // if the monitor has not been started, then start it now
             if (monitor == null) {
                 // start monitoring thread
-                monitor = new GpioStateMonitor(device);
-                monitor.start();
+                monitor = new GpioStateMonitor(registers);
+                GpioFactory.getExecutorServiceFactory().getThreadFactory("pi4j-mcp23017-monitor-%d").newThread(monitor).start();
             }
         } else {
             // shutdown and destroy monitoring thread since there are no input pins configured
@@ -214,36 +225,34 @@ public class MCP23017GpioProvider extends GpioProviderBase implements GpioProvid
         // determine register and pin address
         int pinAddress = pin.getAddress() - GPIO_A_OFFSET;
 
-        // determine update direction value based on mode
-        if (mode == PinMode.DIGITAL_INPUT) {
-            currentDirectionA |= pinAddress;
-        } else if (mode == PinMode.DIGITAL_OUTPUT) {
-            currentDirectionA &= ~pinAddress;
+        // other modes leave the direction unchanged
+        if (mode != PinMode.DIGITAL_INPUT && mode != PinMode.DIGITAL_OUTPUT) {
+            return;
         }
+        boolean input = (mode == PinMode.DIGITAL_INPUT);
 
-        // next update direction value
-        device.write(REGISTER_IODIR_A, (byte) currentDirectionA);
+        // next update direction value (only written if the pin bit changes)
+        registers.setBits(REGISTER_IODIR_A, pinAddress, input);
 
         // enable interrupts; interrupt on any change from previous state
-        device.write(REGISTER_GPINTEN_A, (byte) currentDirectionA);
+        registers.setBits(REGISTER_GPINTEN_A, pinAddress, input);
     }
 
     private void setModeB(Pin pin, PinMode mode) throws IOException {
         // determine register and pin address
         int pinAddress = pin.getAddress() - GPIO_B_OFFSET;
 
-        // determine update direction value based on mode
-        if (mode == PinMode.DIGITAL_INPUT) {
-            currentDirectionB |= pinAddress;
-        } else if (mode == PinMode.DIGITAL_OUTPUT) {
-            currentDirectionB &= ~pinAddress;
+        // other modes leave the direction unchanged
+        if (mode != PinMode.DIGITAL_INPUT && mode != PinMode.DIGITAL_OUTPUT) {
+            return;
         }
+        boolean input = (mode == PinMode.DIGITAL_INPUT);
 
-        // next update direction (mode) value
-        device.write(REGISTER_IODIR_B, (byte) currentDirectionB);
+        // next update direction (mode) value (only written if the pin bit changes)
+        registers.setBits(REGISTER_IODIR_B, pinAddress, input);
 
         // enable interrupts; interrupt on any change from previous state
-        device.write(REGISTER_GPINTEN_B, (byte) currentDirectionB);
+        registers.setBits(REGISTER_GPINTEN_B, pinAddress, input);
     }
 
     @Override
@@ -267,6 +276,51 @@ public class MCP23017GpioProvider extends GpioProviderBase implements GpioProvid
         }
     }
 
+    @Override
+    public void setStates(Map<Pin, PinState> states) {
+        // validate every pin and build the new port state registers before anything is written
+        int valueA = currentStatesA;
+        int valueB = currentStatesB;
+        boolean updateA = false;
+        boolean updateB = false;
+        for (Map.Entry<Pin, PinState> entry : states.entrySet()) {
+            Pin pin = entry.getKey();
+            PinState state = entry.getValue();
+            validateDigitalOutput(pin);
+
+            // determine A or B port based on pin address and update the pin bit
+            if (pin.getAddress() < GPIO_B_OFFSET) {
+                int pinAddress = pin.getAddress() - GPIO_A_OFFSET;
+                valueA = state.isHigh() ? (valueA | pinAddress) : (valueA & ~pinAddress);
+                updateA = true;
+            } else {
+                int pinAddress = pin.getAddress() - GPIO_B_OFFSET;
+                valueB = state.isHigh() ? (valueB | pinAddress) : (valueB & ~pinAddress);
+                updateB = true;
+            }
+        }
+
+        // write each modified port state register once
+        try {
+            if (updateA) {
+                registers.update(REGISTER_OLAT_A, 0xFF, valueA);
+                currentStatesA = valueA;
+            }
+            if (updateB) {
+                registers.update(REGISTER_OLAT_B, 0xFF, valueB);
+                currentStatesB = valueB;
+            }
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+
+        // cache the pin states and echo the event feedback
+        for (Map.Entry<Pin, PinState> entry : states.entrySet()) {
+            getPinCache(entry.getKey()).setState(entry.getValue());
+            dispatchPinDigitalStateChangeEvent(entry.getKey(), entry.getValue());
+        }
+    }
+
     private void setStateA(Pin pin, PinState state) throws IOException {
         // determine pin address
         int pinAddress = pin.getAddress() - GPIO_A_OFFSET;
@@ -279,7 +333,7 @@ public class MCP23017GpioProvider extends GpioProviderBase implements GpioProvid
         }
 
         // update state value
-        device.write(REGISTER_GPIO_A, (byte) currentStatesA);
+        registers.update(REGISTER_OLAT_A, 0xFF, currentStatesA);
     }
 
     private void setStateB(Pin pin, PinState state) throws IOException {
@@ -294,7 +348,7 @@ public class MCP23017GpioProvider extends GpioProviderBase implements GpioProvid
         }
 
         // update state value
-        device.write(REGISTER_GPIO_B, (byte) currentStatesB);
+        registers.update(REGISTER_OLAT_B, 0xFF, currentStatesB);
     }
 
     @Override
@@ -370,30 +424,16 @@ public class MCP23017GpioProvider extends GpioProviderBase implements GpioProvid
         // determine pin address
         int pinAddress = pin.getAddress() - GPIO_A_OFFSET;
 
-        // determine pull up value for pin bit
-        if (resistance == PinPullResistance.PULL_UP) {
-            currentPullupA |= pinAddress;
-        } else {
-            currentPullupA &= ~pinAddress;
-        }
-
-        // next update pull up resistor value
-        device.write(REGISTER_GPPU_A, (byte) currentPullupA);
+        // update pull up resistor value for pin bit
+        registers.setBits(REGISTER_GPPU_A, pinAddress, resistance == PinPullResistance.PULL_UP);
     }
 
     private void setPullResistanceB(Pin pin, PinPullResistance resistance) throws IOException {
         // determine pin address
         int pinAddress = pin.getAddress() - GPIO_B_OFFSET;
 
-        // determine pull up value for pin bit
-        if (resistance == PinPullResistance.PULL_UP) {
-            currentPullupB |= pinAddress;
-        } else {
-            currentPullupB &= ~pinAddress;
-        }
-
-        // next update pull up resistor value
-        device.write(REGISTER_GPPU_B, (byte) currentPullupB);
+        // update pull up resistor value for pin bit
+        registers.setBits(REGISTER_GPPU_B, pinAddress, resistance == PinPullResistance.PULL_UP);
     }
 
     @Override
@@ -440,12 +480,12 @@ public class MCP23017GpioProvider extends GpioProviderBase implements GpioProvid
      * @author Robert Savage
      *
      */
-    private class GpioStateMonitor extends Thread {
-        private final I2CDevice device;
+    private class GpioStateMonitor implements Runnable {
+        private final I2CRegisterMap registers;
         private boolean shuttingDown = false;
 
-        public GpioStateMonitor(I2CDevice device) {
-            this.device = device;
+        public GpioStateMonitor(I2CRegisterMap registers) {
+            this.registers = registers;
         }
 
         public void shutdown() {
@@ -458,14 +498,14 @@ public class MCP23017GpioProvider extends GpioProviderBase implements GpioProvid
                 try {
                 	synchronized (MCP23017GpioProvider.class) {
 	                    // only process for interrupts if a pin on port A is configured as an input pin
-	                    if (currentDirectionA > 0) {
+	                    if (registers.read(REGISTER_IODIR_A) > 0) {
 	                        // process interrupts for port A
-	                        int pinInterruptA = device.read(REGISTER_INTF_A);
+	                        int pinInterruptA = registers.read(REGISTER_INTF_A);
 
 	                        // validate that there is at least one interrupt active on port A
 	                        if (pinInterruptA > 0) {
 	                            // read the current pin states on port A
-	                            int pinInterruptState = device.read(REGISTER_GPIO_A);
+	                            int pinInterruptState = registers.read(REGISTER_GPIO_A);
 
 	                            // loop over the available pins on port B
 	                            for (Pin pin : MCP23017Pin.ALL_A_PINS) {
@@ -481,14 +521,14 @@ public class MCP23017GpioProvider extends GpioProviderBase implements GpioProvid
 	                    }
 
 	                    // only process for interrupts if a pin on port B is configured as an input pin
-	                    if (currentDirectionB > 0) {
+	                    if (registers.read(REGISTER_IODIR_B) > 0) {
 	                        // process interrupts for port B
-	                        int pinInterruptB = device.read(REGISTER_INTF_B);
+	                        int pinInterruptB = registers.read(REGISTER_INTF_B);
 
 	                        // validate that there is at least one interrupt active on port B
 	                        if (pinInterruptB > 0) {
 	                            // read the current pin states on port B
-	                            int pinInterruptState = device.read(REGISTER_GPIO_B);
+	                            int pinInterruptState = registers.read(REGISTER_GPIO_B);
 
 	                            // loop over the available pins on port B
 	                            for (Pin pin : MCP23017Pin.ALL_B_PINS) {
@@ -1,6 +1,7 @@
 package com.pi4j.gpio.extension.olimex;
 
 import com.pi4j.gpio.extension.serial.SerialCommandQueueProcessingThread;
+import com.pi4j.io.gpio.GpioFactory;
 import com.pi4j.io.gpio.GpioProvider;
 import com.pi4j.io.gpio.GpioProviderBase;
 import com.pi4j.io.gpio.Pin;
@@ -67,6 +68,7 @@ public class OlimexAVRIOGpioProvider extends GpioProviderBase implements GpioPro
     private Serial com;
     private int currentStates = 0;
     private SerialCommandQueueProcessingThread queue;
+    private Thread queueThread;
 
     public OlimexAVRIOGpioProvider(String serialDevice) throws IOException {
         // create serial communications instance
@@ -83,8 +85,10 @@ public class OlimexAVRIOGpioProvider extends GpioProviderBase implements GpioPro
 
         // create and start the serial command processing queue thread
         // set the delay time to 100 ms; this works well for the AVR-IO
+        // (the queue runs on a thread created by the configured executor service factory)
         queue = new SerialCommandQueueProcessingThread(com, 50);
-        queue.start();
+        queueThread = GpioFactory.getExecutorServiceFactory().getThreadFactory("pi4j-serial-command-queue-%d").newThread(queue);
+        queueThread.start();
         queue.put("?"); // query for current status
     }
 
@@ -151,8 +155,9 @@ public class OlimexAVRIOGpioProvider extends GpioProviderBase implements GpioPro
         if (queue != null) {
             // shutdown serial data processing thread
             queue.shutdown();
-            //queue.interrupt();
+            //queueThread.interrupt();
             queue = null;
+            queueThread = null;
         }
 
         // close the serial port communication
@@ -31,6 +31,8 @@ package com.pi4j.gpio.extension.pca;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.Map;
+import java.util.TreeMap;
 
 import com.pi4j.io.gpio.*;
 import com.pi4j.io.gpio.exception.InvalidPinException;
@@ -40,6 +42,7 @@ import com.pi4j.io.i2c.I2CBus;
 import com.pi4j.io.i2c.I2CDevice;
 import com.pi4j.io.i2c.I2CFactory;
 import com.pi4j.io.i2c.I2CFactory.UnsupportedBusNumberException;
+import com.pi4j.io.i2c.I2CRegisterMap;
 
 /**
  * <p>
@@ -79,10 +82,16 @@ public class PCA9685GpioProvider extends GpioProviderBase implements GpioProvide
     private static final int PCA9685A_LED0_ON_H = 0x07;
     private static final int PCA9685A_LED0_OFF_L = 0x08;
     private static final int PCA9685A_LED0_OFF_H = 0x09;
+    private static final int PCA9685A_ALL_LED_ON_L = 0xFA;
+    // MODE1 bits
+    private static final int MODE1_RESTART = 0x80;
+    private static final int MODE1_AI = 0x20;
+    private static final int MODE1_SLEEP = 0x10;
 
     private boolean i2cBusOwner = false;
     private final I2CBus bus;
     private final I2CDevice device;
+    private final I2CRegisterMap registers;
     private BigDecimal frequency;
     private int periodDurationMicros;
 
@@ -108,7 +117,10 @@ public class PCA9685GpioProvider extends GpioProviderBase implements GpioProvide
         this.bus = bus; // 1
         // create I2C device instance
         device = bus.getDevice(address); // 0x40
-        device.write(PCA9685A_MODE1, (byte) 0);
+        // MODE1 and PRESCALE only change when written, so both are shadowed
+        registers = new I2CRegisterMap(device);
+        // enable register auto-increment so the four LEDn registers of a channel can be written in one go
+        registers.write(PCA9685A_MODE1, MODE1_AI);
         setFrequency(targetFrequency, frequencyCorrectionFactor);
     }
 
@@ -143,13 +155,19 @@ public class PCA9685GpioProvider extends GpioProviderBase implements GpioProvide
         int prescale = calculatePrescale(frequencyCorrectionFactor);
         int oldMode;
         try {
-            oldMode = device.read(PCA9685A_MODE1);
-            int newMode = (oldMode & 0x7F) | 0x10; // sleep
-            device.write(PCA9685A_MODE1, (byte) newMode); // go to sleep
-            device.write(PCA9685A_PRESCALE, (byte) prescale);
-            device.write(PCA9685A_MODE1, (byte) oldMode);
+            // the prescaler is unchanged, so there is no need to stop the oscillator
+            if (registers.isCached(PCA9685A_PRESCALE) && registers.read(PCA9685A_PRESCALE) == (prescale & 0xFF)) {
+                return;
+            }
+            oldMode = registers.read(PCA9685A_MODE1);
+            int newMode = (oldMode & ~MODE1_RESTART) | MODE1_SLEEP; // sleep
+            registers.write(PCA9685A_MODE1, newMode); // go to sleep
+            registers.write(PCA9685A_PRESCALE, prescale & 0xFF);
+            registers.write(PCA9685A_MODE1, oldMode);
             Thread.sleep(1);
-            device.write(PCA9685A_MODE1, (byte) (oldMode | 0x80));
+            registers.write(PCA9685A_MODE1, oldMode | MODE1_RESTART);
+            // RESTART clears itself once the restart has been performed
+            registers.setCachedValue(PCA9685A_MODE1, oldMode & ~MODE1_RESTART);
         } catch (IOException e) {
             throw new RuntimeException("Unable to set prescale value [" + prescale + "]", e);
         } catch (InterruptedException e) {
@@ -188,20 +206,92 @@ public class PCA9685GpioProvider extends GpioProviderBase implements GpioProvide
         final int channel = pin.getAddress();
         validatePwmValueInRange(onPosition);
         validatePwmValueInRange(offPosition);
-        if (onPosition == offPosition) {
-            throw new ValidationException("ON [" + onPosition + "] and OFF [" + offPosition + "] values must be different.");
-        }
+        validateOnOffDifferent(onPosition, offPosition);
         try {
-            device.write(PCA9685A_LED0_ON_L + 4 * channel, (byte) (onPosition & 0xFF));
-            device.write(PCA9685A_LED0_ON_H + 4 * channel, (byte) (onPosition >> 8));
-            device.write(PCA9685A_LED0_OFF_L + 4 * channel, (byte) (offPosition & 0xFF));
-            device.write(PCA9685A_LED0_OFF_H + 4 * channel, (byte) (offPosition >> 8));
+            writeOnOffValues(PCA9685A_LED0_ON_L + 4 * channel, onPosition, offPosition);
         } catch (IOException e) {
             throw new RuntimeException("Unable to write to PWM channel [" + channel + "] values for ON [" + onPosition + "] and OFF [" + offPosition + "] position.", e);
         }
         cachePinValues(pin, onPosition, offPosition);
     }
 
+    /**
+     * Updates the ON and OFF positions of several channels.<br>
+     * Consecutive channels are written in a single auto-increment burst, so updating all 16 channels
+     * takes one 64 byte I2C write instead of 64 single register writes.
+     *
+     * @param positions [0]: onPosition, [1]: offPosition (values between 0 and 4095) by channel 0..15
+     * @see #setPwm(Pin, int, int)
+     */
+    public void setPwm(Map<Pin, int[]> positions) {
+        // validate everything first so that no channel gets written if any of the values is invalid
+        TreeMap<Integer, Pin> channels = new TreeMap<>();
+        for (Map.Entry<Pin, int[]> entry : positions.entrySet()) {
+            Pin pin = entry.getKey();
+            int[] values = entry.getValue();
+            if (values == null || values.length != 2) {
+                throw new ValidationException("PWM positions for pin [" + pin + "] must consist of an ON and an OFF value.");
+            }
+            validatePin(pin, values[0], values[1]);
+            validatePwmValueInRange(values[0]);
+            validatePwmValueInRange(values[1]);
+            validateOnOffDifferent(values[0], values[1]);
+            channels.put(pin.getAddress(), pin);
+        }
+        if (channels.isEmpty()) {
+            return;
+        }
+
+        byte[] buffer = new byte[4 * channels.size()];
+        int first = -1;
+        int last = -1;
+        int size = 0;
+        for (Map.Entry<Integer, Pin> entry : channels.entrySet()) {
+            int channel = entry.getKey();
+            if (first >= 0 && channel != last + 1) {
+                // gap in the channels, flush the run collected so far
+                writeOnOffBurst(first, last, buffer, size);
+                first = -1;
+                size = 0;
+            }
+            if (first < 0) {
+                first = channel;
+            }
+            last = channel;
+            int[] values = positions.get(entry.getValue());
+            buffer[size++] = (byte) (values[0] & 0xFF);
+            buffer[size++] = (byte) (values[0] >> 8);
+            buffer[size++] = (byte) (values[1] & 0xFF);
+            buffer[size++] = (byte) (values[1] >> 8);
+        }
+        writeOnOffBurst(first, last, buffer, size);
+
+        for (Pin pin : channels.values()) {
+            int[] values = positions.get(pin);
+            cachePinValues(pin, values[0], values[1]);
+        }
+    }
+
+    /**
+     * Sets the ON and OFF positions of all 16 channels at once using the ALL_LED registers.
+     *
+     * @param onPosition value between 0 and 4095
+     * @param offPosition value between 0 and 4095
+     */
+    public void setAllPwm(int onPosition, int offPosition) {
+        validatePwmValueInRange(onPosition);
+        validatePwmValueInRange(offPosition);
+        validateOnOffDifferent(onPosition, offPosition);
+        try {
+            writeOnOffValues(PCA9685A_ALL_LED_ON_L, onPosition, offPosition);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to write to all PWM channels values for ON [" + onPosition + "] and OFF [" + offPosition + "] position.", e);
+        }
+        for (Pin pin : PCA9685Pin.ALL) {
+            cachePinValues(pin, onPosition, offPosition);
+        }
+    }
+
     /**
      * Permanently sets the output to High (no PWM anymore).<br>
      * The LEDn_ON_H output control bit 4, when set to logic 1, causes the output to be always ON.
@@ -214,10 +304,7 @@ public class PCA9685GpioProvider extends GpioProviderBase implements GpioProvide
         validatePin(pin, pwmOnValue, pwmOffValue);
         final int channel = pin.getAddress();
         try {
-            device.write(PCA9685A_LED0_ON_L + 4 * channel, (byte) 0x00);
-            device.write(PCA9685A_LED0_ON_H + 4 * channel, (byte) 0x10); // set bit 4 to high
-            device.write(PCA9685A_LED0_OFF_L + 4 * channel, (byte) 0x00);
-            device.write(PCA9685A_LED0_OFF_H + 4 * channel, (byte) 0x00);
+            writeOnOffValues(PCA9685A_LED0_ON_L + 4 * channel, pwmOnValue, pwmOffValue); // bit 4 of ON_H set to high
         } catch (IOException e) {
             throw new RuntimeException("Error while trying to set channel [" + channel + "] always ON.", e);
         }
@@ -237,10 +324,7 @@ public class PCA9685GpioProvider extends GpioProviderBase implements GpioProvide
         validatePin(pin, pwmOnValue, pwmOffValue);
         final int channel = pin.getAddress();
         try {
-            device.write(PCA9685A_LED0_ON_L + 4 * channel, (byte) 0x00);
-            device.write(PCA9685A_LED0_ON_H + 4 * channel, (byte) 0x00);
-            device.write(PCA9685A_LED0_OFF_L + 4 * channel, (byte) 0x00);
-            device.write(PCA9685A_LED0_OFF_H + 4 * channel, (byte) 0x10); // set bit 4 to high
+            writeOnOffValues(PCA9685A_LED0_ON_L + 4 * channel, pwmOnValue, pwmOffValue); // bit 4 of OFF_H set to high
         } catch (IOException e) {
             throw new RuntimeException("Error while trying to set channel [" + channel + "] always OFF.", e);
         }
@@ -296,6 +380,12 @@ public class PCA9685GpioProvider extends GpioProviderBase implements GpioProvide
         }
     }
 
+    private void validateOnOffDifferent(int onPosition, int offPosition) {
+        if (onPosition == offPosition) {
+            throw new ValidationException("ON [" + onPosition + "] and OFF [" + offPosition + "] values must be different.");
+        }
+    }
+
     private void validatePwmDuration(int duration) {
         if (duration < 1) {
             throw new ValidationException("Duration [" + duration + "] must be >= 1us.");
@@ -315,6 +405,23 @@ public class PCA9685GpioProvider extends GpioProviderBase implements GpioProvide
         }
     }
 
+    private void writeOnOffValues(int register, int onPosition, int offPosition) throws IOException {
+        byte[] buffer = {
+                (byte) (onPosition & 0xFF),
+                (byte) (onPosition >> 8),
+                (byte) (offPosition & 0xFF),
+                (byte) (offPosition >> 8)};
+        device.write(register, buffer, 0, buffer.length);
+    }
+
+    private void writeOnOffBurst(int firstChannel, int lastChannel, byte[] buffer, int size) {
+        try {
+            device.write(PCA9685A_LED0_ON_L + 4 * firstChannel, buffer, 0, size);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to write to PWM channels [" + firstChannel + ".." + lastChannel + "].", e);
+        }
+    }
+
     private void cachePinValues(Pin pin, int onPosition, int offPosition) {
         getPinCache(pin).setPwmOnValue(onPosition);
         getPinCache(pin).setPwmOffValue(offPosition);
@@ -338,8 +445,15 @@ public class PCA9685GpioProvider extends GpioProviderBase implements GpioProvide
      * Reset all outputs (set to always OFF)
      */
     public void reset() {
+        final int pwmOnValue = 0x0000;
+        final int pwmOffValue = 0x1000;
+        try {
+            writeOnOffValues(PCA9685A_ALL_LED_ON_L, pwmOnValue, pwmOffValue); // bit 4 of ALL_LED_OFF_H set to high
+        } catch (IOException e) {
+            throw new RuntimeException("Error while trying to set all channels always OFF.", e);
+        }
         for (Pin pin : PCA9685Pin.ALL) {
-            setAlwaysOff(pin);
+            cachePinValues(pin, pwmOnValue, pwmOffValue);
         }
     }
 
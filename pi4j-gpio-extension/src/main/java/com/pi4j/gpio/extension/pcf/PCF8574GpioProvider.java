@@ -40,6 +40,7 @@ import com.pi4j.io.i2c.I2CFactory.UnsupportedBusNumberException;
 
 import java.io.IOException;
 import java.util.BitSet;
+import java.util.Map;
 
 /**
  * <p>
@@ -110,7 +111,7 @@ public class PCF8574GpioProvider extends GpioProviderBase implements GpioProvide
 
         // start monitoring thread
         monitor = new PCF8574GpioProvider.GpioStateMonitor(device);
-        monitor.start();
+        GpioFactory.getExecutorServiceFactory().getThreadFactory("pi4j-pcf8574-monitor-%d").newThread(monitor).start();
     }
 
 
@@ -158,6 +159,33 @@ public class PCF8574GpioProvider extends GpioProviderBase implements GpioProvide
         }
     }
 
+    @Override
+    public void setStates(Map<Pin, PinState> states) {
+        // validate every pin and build the new pin states before anything is written
+        BitSet value = (BitSet) currentStates.clone();
+        for (Map.Entry<Pin, PinState> entry : states.entrySet()) {
+            validateDigitalOutput(entry.getKey());
+            value.set(entry.getKey().getAddress(), entry.getValue().isHigh());
+        }
+        if (states.isEmpty()) {
+            return;
+        }
+
+        // write the modified pin states once
+        try {
+            device.write(value.isEmpty() ? 0 : value.toByteArray()[0]);
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+        currentStates = value;
+
+        // cache the pin states and echo the event feedback
+        for (Map.Entry<Pin, PinState> entry : states.entrySet()) {
+            getPinCache(entry.getKey()).setState(entry.getValue());
+            dispatchPinDigitalStateChangeEvent(entry.getKey(), entry.getValue());
+        }
+    }
+
     @Override
     public PinState getState(Pin pin) {
         return super.getState(pin);
@@ -198,7 +226,7 @@ public class PCF8574GpioProvider extends GpioProviderBase implements GpioProvide
      * @author Robert Savage
      *
      */
-    private class GpioStateMonitor extends Thread {
+    private class GpioStateMonitor implements Runnable {
 
         private I2CDevice device;
         private boolean shuttingDown = false;
@@ -10,6 +10,7 @@ import com.pi4j.io.spi.SpiDevice;
 import com.pi4j.io.spi.SpiFactory;
 
 import java.io.IOException;
+import java.util.Map;
 
 /*
  * #%L
@@ -276,7 +277,7 @@ public class PiFaceGpioProvider extends GpioProviderBase implements GpioProvider
             if (monitor == null) {
                 // start monitoring thread
                 monitor = new GpioStateMonitor(this);
-                monitor.start();
+                GpioFactory.getExecutorServiceFactory().getThreadFactory("pi4j-piface-monitor-%d").newThread(monitor).start();
             }
         } else {
             // shutdown and destroy monitoring thread since there are no input pins configured
@@ -344,6 +345,51 @@ public class PiFaceGpioProvider extends GpioProviderBase implements GpioProvider
         }
     }
 
+    @Override
+    public void setStates(Map<Pin, PinState> states) {
+        // validate every pin and build the new port state registers before anything is written
+        int valueA = currentStatesA;
+        int valueB = currentStatesB;
+        boolean updateA = false;
+        boolean updateB = false;
+        for (Map.Entry<Pin, PinState> entry : states.entrySet()) {
+            Pin pin = entry.getKey();
+            PinState state = entry.getValue();
+            validateDigitalOutput(pin);
+
+            // determine A or B port based on pin address and update the pin bit
+            if (pin.getAddress() < GPIO_B_OFFSET) {
+                int pinAddress = pin.getAddress() - GPIO_A_OFFSET;
+                valueA = state.isHigh() ? (valueA | pinAddress) : (valueA & ~pinAddress);
+                updateA = true;
+            } else {
+                int pinAddress = pin.getAddress() - GPIO_B_OFFSET;
+                valueB = state.isHigh() ? (valueB | pinAddress) : (valueB & ~pinAddress);
+                updateB = true;
+            }
+        }
+
+        // write each modified port state register once
+        try {
+            if (updateA) {
+                write(REGISTER_GPIO_A, (byte) valueA);
+                currentStatesA = valueA;
+            }
+            if (updateB) {
+                write(REGISTER_GPIO_B, (byte) valueB);
+                currentStatesB = valueB;
+            }
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+
+        // cache the pin states and echo the event feedback
+        for (Map.Entry<Pin, PinState> entry : states.entrySet()) {
+            getPinCache(entry.getKey()).setState(entry.getValue());
+            dispatchPinDigitalStateChangeEvent(entry.getKey(), entry.getValue());
+        }
+    }
+
     private void setStateA(Pin pin, PinState state) throws IOException {
         // determine pin address
         int pinAddress = pin.getAddress() - GPIO_A_OFFSET;
@@ -504,7 +550,7 @@ public class PiFaceGpioProvider extends GpioProviderBase implements GpioProvider
      * @author Robert Savage
      *
      */
-    private class GpioStateMonitor extends Thread {
+    private class GpioStateMonitor implements Runnable {
         private PiFaceGpioProvider provider;
         private boolean shuttingDown = false;
 
@@ -0,0 +1,233 @@
+package com.pi4j.gpio.extension;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: GPIO Extension
+ * FILENAME      :  SimulatedI2CGpioProviderTestCase.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import com.pi4j.gpio.extension.ads.ADS1115GpioProvider;
+import com.pi4j.gpio.extension.ads.ADS1115Pin;
+import com.pi4j.gpio.extension.mcp.MCP23017GpioProvider;
+import com.pi4j.gpio.extension.mcp.MCP23017Pin;
+import com.pi4j.gpio.extension.mcp.MCP4725GpioProvider;
+import com.pi4j.gpio.extension.mcp.MCP4725Pin;
+import com.pi4j.gpio.extension.pca.PCA9685GpioProvider;
+import com.pi4j.gpio.extension.pca.PCA9685Pin;
+import com.pi4j.io.gpio.Pin;
+import com.pi4j.io.gpio.PinMode;
+import com.pi4j.io.gpio.PinState;
+import com.pi4j.io.gpio.exception.InvalidPinModeException;
+import com.pi4j.io.i2c.I2CBus;
+import com.pi4j.io.i2c.I2CFactory;
+import com.pi4j.io.i2c.impl.I2CFactoryProviderRaspberryPi;
+import com.pi4j.io.i2c.simulated.ADS1115Model;
+import com.pi4j.io.i2c.simulated.I2CFactoryProviderSimulated;
+import com.pi4j.io.i2c.simulated.MCP23017Model;
+import com.pi4j.io.i2c.simulated.MCP4725Model;
+import com.pi4j.io.i2c.simulated.PCA9685Model;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs the i2c GPIO providers against the simulated i2c bus.
+ */
+public class SimulatedI2CGpioProviderTestCase {
+
+	private final MCP23017Model mcp23017 = new MCP23017Model();
+	private final PCA9685Model pca9685 = new PCA9685Model();
+	private final ADS1115Model ads1115 = new ADS1115Model();
+	private final MCP4725Model mcp4725 = new MCP4725Model();
+
+	private I2CBus bus;
+
+	@Before
+	public void setup() throws Exception {
+		I2CFactory.setFactory(new I2CFactoryProviderSimulated()
+				.attach(I2CBus.BUS_1, 0x20, mcp23017)
+				.attach(I2CBus.BUS_1, 0x40, pca9685)
+				.attach(I2CBus.BUS_1, 0x48, ads1115)
+				.attach(I2CBus.BUS_1, 0x60, mcp4725));
+		bus = I2CFactory.getInstance(I2CBus.BUS_1);
+	}
+
+	@After
+	public void teardown() throws Exception {
+		bus.close();
+		I2CFactory.setFactory(new I2CFactoryProviderRaspberryPi());
+	}
+
+	@Test
+	public void testMCP23017() throws Exception {
+		MCP23017GpioProvider provider = new MCP23017GpioProvider(bus, 0x20, 1);
+		try {
+			provider.export(MCP23017Pin.GPIO_A1, PinMode.DIGITAL_OUTPUT);
+			provider.setState(MCP23017Pin.GPIO_A1, PinState.HIGH);
+			assertTrue(mcp23017.isOutputHigh(1));
+			provider.setState(MCP23017Pin.GPIO_A1, PinState.LOW);
+			assertFalse(mcp23017.isOutputHigh(1));
+
+			// the monitor picks up the interrupt-on-change of an input
+			provider.export(MCP23017Pin.GPIO_B2, PinMode.DIGITAL_INPUT);
+			assertTrue(mcp23017.isInput(10));
+			mcp23017.setInput(10, true);
+			long timeout = System.currentTimeMillis() + 2000;
+			while (provider.getState(MCP23017Pin.GPIO_B2) != PinState.HIGH && System.currentTimeMillis() < timeout) {
+				Thread.sleep(5);
+			}
+			assertEquals(PinState.HIGH, provider.getState(MCP23017Pin.GPIO_B2));
+		} finally {
+			provider.shutdown();
+		}
+	}
+
+	@Test
+	public void testMCP23017SetStates() throws Exception {
+		MCP23017GpioProvider provider = new MCP23017GpioProvider(bus, 0x20, 1);
+		try {
+			provider.export(MCP23017Pin.GPIO_A1, PinMode.DIGITAL_OUTPUT);
+			provider.export(MCP23017Pin.GPIO_B1, PinMode.DIGITAL_OUTPUT);
+			provider.export(MCP23017Pin.GPIO_B2, PinMode.DIGITAL_INPUT);
+
+			// an invalid pin in the middle of the batch rejects the whole batch before anything is written
+			Map<Pin, PinState> states = new LinkedHashMap<>();
+			states.put(MCP23017Pin.GPIO_A1, PinState.HIGH);
+			states.put(MCP23017Pin.GPIO_B2, PinState.HIGH);
+			states.put(MCP23017Pin.GPIO_B1, PinState.HIGH);
+			try {
+				provider.setStates(states);
+				fail("input pin accepted");
+			} catch (InvalidPinModeException expected) {
+			}
+			assertFalse(mcp23017.isOutputHigh(1));
+			assertFalse(mcp23017.isOutputHigh(9));
+			assertEquals(PinState.LOW, provider.getState(MCP23017Pin.GPIO_A1));
+
+			// a valid batch updates both ports
+			states.remove(MCP23017Pin.GPIO_B2);
+			provider.setStates(states);
+			assertTrue(mcp23017.isOutputHigh(1));
+			assertTrue(mcp23017.isOutputHigh(9));
+			assertEquals(PinState.HIGH, provider.getState(MCP23017Pin.GPIO_B1));
+		} finally {
+			provider.shutdown();
+		}
+	}
+
+	@Test
+	public void testPCA9685() throws Exception {
+		PCA9685GpioProvider provider = new PCA9685GpioProvider(bus, 0x40, new BigDecimal("200"));
+		try {
+			// the prescaler allows an accuracy of about 5%
+			assertEquals(200.0, pca9685.getFrequency(), 10.0);
+			assertFalse(pca9685.isSleeping());
+
+			provider.export(PCA9685Pin.PWM_03, PinMode.PWM_OUTPUT);
+			pca9685.resetCounts();
+			provider.setPwm(PCA9685Pin.PWM_03, 100, 500);
+			assertEquals(100, pca9685.getOn(3));
+			assertEquals(500, pca9685.getOff(3));
+			// a single auto-increment write per channel
+			assertEquals(1, pca9685.getWriteCount());
+
+			provider.setAlwaysOn(PCA9685Pin.PWM_03);
+			assertTrue(pca9685.isFullOn(3));
+			provider.setAlwaysOff(PCA9685Pin.PWM_03);
+			assertTrue(pca9685.isFullOff(3));
+
+			// all channels in one burst
+			Map<Pin, int[]> positions = new HashMap<>();
+			for (Pin pin : PCA9685Pin.ALL) {
+				provider.export(pin, PinMode.PWM_OUTPUT);
+				positions.put(pin, new int[] { pin.getAddress(), 1000 + pin.getAddress() });
+			}
+			pca9685.resetCounts();
+			provider.setPwm(positions);
+			assertEquals(1, pca9685.getWriteCount());
+			for (Pin pin : PCA9685Pin.ALL) {
+				assertEquals(pin.getAddress(), pca9685.getOn(pin.getAddress()));
+				assertEquals(1000 + pin.getAddress(), pca9685.getOff(pin.getAddress()));
+			}
+
+			// a gap in the channels splits the burst
+			positions.clear();
+			positions.put(PCA9685Pin.PWM_01, new int[] { 0, 2000 });
+			positions.put(PCA9685Pin.PWM_02, new int[] { 0, 2001 });
+			positions.put(PCA9685Pin.PWM_07, new int[] { 0, 2002 });
+			pca9685.resetCounts();
+			provider.setPwm(positions);
+			assertEquals(2, pca9685.getWriteCount());
+			assertEquals(2000, pca9685.getOff(1));
+			assertEquals(2001, pca9685.getOff(2));
+			assertEquals(1003, pca9685.getOff(3));
+			assertEquals(2002, pca9685.getOff(7));
+			assertArrayEquals(new int[] { 0, 2002 }, provider.getPwmOnOffValues(PCA9685Pin.PWM_07));
+
+			pca9685.resetCounts();
+			provider.setAllPwm(0, 3000);
+			assertEquals(1, pca9685.getWriteCount());
+			for (int channel = 0; channel < PCA9685Model.CHANNELS; channel++) {
+				assertEquals(3000, pca9685.getOff(channel));
+			}
+		} finally {
+			provider.shutdown();
+		}
+		for (int channel = 0; channel < PCA9685Model.CHANNELS; channel++) {
+			assertTrue(pca9685.isFullOff(channel));
+		}
+	}
+
+	@Test
+	public void testADS1115() throws Exception {
+		ADS1115GpioProvider provider = new ADS1115GpioProvider(bus, 0x48);
+		try {
+			// the provider's monitor converts all inputs concurrently, so all inputs get the same voltage
+			for (int channel = 0; channel < ADS1115Model.CHANNELS; channel++) {
+				ads1115.setInput(channel, 1.0);
+			}
+			// +/-6.144V range by default
+			assertEquals(5333, provider.getImmediateValue(ADS1115Pin.INPUT_A1), 0);
+		} finally {
+			provider.shutdown();
+		}
+	}
+
+	@Test
+	public void testMCP4725() throws Exception {
+		MCP4725GpioProvider provider = new MCP4725GpioProvider(bus, 0x60);
+		provider.export(MCP4725Pin.OUTPUT, PinMode.ANALOG_OUTPUT);
+		provider.setValue(MCP4725Pin.OUTPUT, 2048);
+		assertEquals(2048, mcp4725.getValue());
+	}
+}
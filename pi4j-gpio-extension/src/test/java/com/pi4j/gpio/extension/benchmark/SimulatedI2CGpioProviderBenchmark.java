@@ -0,0 +1,145 @@
+package com.pi4j.gpio.extension.benchmark;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: GPIO Extension
+ * FILENAME      :  SimulatedI2CGpioProviderBenchmark.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import com.pi4j.gpio.extension.mcp.MCP23017GpioProvider;
+import com.pi4j.gpio.extension.mcp.MCP23017Pin;
+import com.pi4j.gpio.extension.mcp.MCP4725GpioProvider;
+import com.pi4j.gpio.extension.mcp.MCP4725Pin;
+import com.pi4j.gpio.extension.pca.PCA9685GpioProvider;
+import com.pi4j.gpio.extension.pca.PCA9685Pin;
+import com.pi4j.io.gpio.PinMode;
+import com.pi4j.io.gpio.PinState;
+import com.pi4j.io.i2c.I2CBus;
+import com.pi4j.io.i2c.I2CFactory;
+import com.pi4j.io.i2c.impl.I2CFactoryProviderRaspberryPi;
+import com.pi4j.io.i2c.simulated.I2CDeviceModel;
+import com.pi4j.io.i2c.simulated.I2CFactoryProviderSimulated;
+import com.pi4j.io.i2c.simulated.MCP23017Model;
+import com.pi4j.io.i2c.simulated.MCP4725Model;
+import com.pi4j.io.i2c.simulated.PCA9685Model;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * JMH benchmark of the i2c GPIO providers on the simulated i2c bus, so no hardware and no native library is
+ * needed. With a message latency of zero it measures the overhead of the providers and the i2c layer; a
+ * latency of 100us roughly corresponds to a three byte message on a 100kHz bus, which shows the effect of the
+ * number of messages a provider sends.
+ * </p>
+ *
+ * <p>
+ * The ADS1115 provider is not included as it sleeps for the conversion time.
+ * </p>
+ *
+ * @author Robert Savage (<a
+ *         href="http://www.savagehomeautomation.com">http://www.savagehomeautomation.com</a>)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimulatedI2CGpioProviderBenchmark {
+
+    @Param({"0", "100"})
+    public int latencyMicros;
+
+    private I2CBus bus;
+    private MCP23017GpioProvider mcp23017;
+    private PCA9685GpioProvider pca9685;
+    private MCP4725GpioProvider mcp4725;
+    private boolean high;
+    private int position;
+
+    @Setup
+    public void setup() throws Exception {
+        I2CDeviceModel[] models = { new MCP23017Model(), new PCA9685Model(), new MCP4725Model() };
+        for (I2CDeviceModel model : models) {
+            model.setLatency(latencyMicros, TimeUnit.MICROSECONDS);
+        }
+        I2CFactory.setFactory(new I2CFactoryProviderSimulated()
+                .attach(I2CBus.BUS_1, 0x20, models[0])
+                .attach(I2CBus.BUS_1, 0x40, models[1])
+                .attach(I2CBus.BUS_1, 0x60, models[2]));
+        bus = I2CFactory.getInstance(I2CBus.BUS_1);
+
+        mcp23017 = new MCP23017GpioProvider(bus, 0x20);
+        mcp23017.export(MCP23017Pin.GPIO_A0, PinMode.DIGITAL_OUTPUT);
+        pca9685 = new PCA9685GpioProvider(bus, 0x40);
+        pca9685.export(PCA9685Pin.PWM_00, PinMode.PWM_OUTPUT);
+        mcp4725 = new MCP4725GpioProvider(bus, 0x60);
+        mcp4725.export(MCP4725Pin.OUTPUT, PinMode.ANALOG_OUTPUT);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        mcp23017.shutdown();
+        pca9685.shutdown();
+        mcp4725.shutdown();
+        bus.close();
+        I2CFactory.setFactory(new I2CFactoryProviderRaspberryPi());
+    }
+
+    @Benchmark
+    public void mcp23017SetState() {
+        high = !high;
+        mcp23017.setState(MCP23017Pin.GPIO_A0, high ? PinState.HIGH : PinState.LOW);
+    }
+
+    @Benchmark
+    public void pca9685SetPwm() {
+        position = (position + 1) & 0x0FFF;
+        pca9685.setPwm(PCA9685Pin.PWM_00, 0, position);
+    }
+
+    @Benchmark
+    public void mcp4725SetValue() {
+        position = (position + 1) & 0x0FFF;
+        mcp4725.setValue(MCP4725Pin.OUTPUT, position);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(SimulatedI2CGpioProviderBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -28,6 +28,8 @@
  */
 #include <stdio.h>
 #include <stdlib.h>
+#include <errno.h>
+#include <linux/i2c.h>
 #include <linux/i2c-dev.h>
 #include <fcntl.h>
 #include <string.h>
@@ -41,7 +43,198 @@
 
 /* Source for com_pi4j_jni_I2C */
 
-unsigned char buf[257];	
+/*
+ * Transfer buffers live on the stack of each call, so concurrent transfers on
+ * different buses never share them; java arrays are copied with the
+ * Get/SetByteArrayRegion functions, which neither pin nor allocate.
+ */
+#define I2C_BUFFER_SIZE 257
+
+/*
+ * ByteBuffer transfers are not copied: direct buffers are handed to the
+ * kernel at their native address, heap arrays are pinned with
+ * GetPrimitiveArrayCritical for the duration of the single transfer (no other
+ * JNI call is made while pinned).  The i2c-dev driver rejects messages longer
+ * than 8192 bytes.
+ */
+#define I2C_MAX_TRANSFER 8192
+
+/*
+ * The I2C_SLAVE address is a property of the open file, so the address last
+ * selected on each bus file descriptor is cached and the ioctl is only issued
+ * when a transfer targets a different device.  Descriptors beyond the cache
+ * size always issue the ioctl.
+ *
+ * Register reads are sent as one combined I2C_RDWR transaction (write, then
+ * read after a repeated start).  Adapters that cannot do plain I2C transfers
+ * reject it with EOPNOTSUPP; this is remembered per descriptor as well and
+ * such buses fall back to a separate write and read.
+ */
+#define I2C_SLAVE_CACHE_SIZE 1024
+#define I2C_SLAVE_NONE -1
+
+static int selected_slave[I2C_SLAVE_CACHE_SIZE] = { [0 ... I2C_SLAVE_CACHE_SIZE - 1] = I2C_SLAVE_NONE };
+static char rdwr_unsupported[I2C_SLAVE_CACHE_SIZE];
+static volatile jlong slave_select_count = 0;
+static volatile jlong slave_select_skipped_count = 0;
+
+static void i2c_forget_fd(int fd)
+{
+    if (fd >= 0 && fd < I2C_SLAVE_CACHE_SIZE) {
+        selected_slave[fd] = I2C_SLAVE_NONE;
+        rdwr_unsupported[fd] = 0;
+    }
+}
+
+static int i2c_select_slave(int fd, int deviceAddress)
+{
+    int response;
+    int cached = (fd >= 0 && fd < I2C_SLAVE_CACHE_SIZE);
+
+    if (cached && selected_slave[fd] == deviceAddress) {
+        __sync_fetch_and_add(&slave_select_skipped_count, 1);
+        return 0;
+    }
+
+    __sync_fetch_and_add(&slave_select_count, 1);
+    response = ioctl(fd, I2C_SLAVE, deviceAddress);
+    if (cached) {
+        selected_slave[fd] = (response < 0) ? I2C_SLAVE_NONE : deviceAddress;
+    }
+    return response;
+}
+
+/*
+ * Writes wlen bytes and then reads rlen bytes from the same device.  Returns
+ * the number of bytes read or a negative error code in the same ranges as the
+ * JNI functions below.
+ */
+static int i2c_write_read(int fd, int deviceAddress, unsigned char *wbuf, int wlen, unsigned char *rbuf, int rlen)
+{
+    struct i2c_msg msgs[2];
+    struct i2c_rdwr_ioctl_data data;
+    int response;
+    int cached = (fd >= 0 && fd < I2C_SLAVE_CACHE_SIZE);
+
+    if (!cached || !rdwr_unsupported[fd]) {
+        msgs[0].addr = deviceAddress;
+        msgs[0].flags = 0;
+        msgs[0].len = wlen;
+        msgs[0].buf = wbuf;
+        msgs[1].addr = deviceAddress;
+        msgs[1].flags = I2C_M_RD;
+        msgs[1].len = rlen;
+        msgs[1].buf = rbuf;
+        data.msgs = msgs;
+        data.nmsgs = 2;
+
+        response = ioctl(fd, I2C_RDWR, &data);
+        if (response >= 0) {
+            return rlen;
+        }
+        if (errno != EOPNOTSUPP) {
+            return response - 40000;
+        }
+        if (cached) {
+            rdwr_unsupported[fd] = 1;
+        }
+    }
+
+    // adapter without I2C_RDWR support: separate write and read
+    response = i2c_select_slave(fd, deviceAddress);
+    if (response < 0) {
+        return response - 10000;
+    }
+
+    response = write(fd, wbuf, wlen);
+    if (response != wlen) {
+        return response - 20000;
+    }
+
+    response = read(fd, rbuf, rlen);
+    if (response < 0) {
+        return response - 30000;
+    }
+    return response;
+}
+
+/*
+ * Issues a single SMBus transfer (I2C_SMBUS ioctl) to the selected device.
+ */
+static int i2c_smbus_access(int fd, char readWrite, unsigned char command, int size, union i2c_smbus_data *data)
+{
+    struct i2c_smbus_ioctl_data args;
+
+    args.read_write = readWrite;
+    args.command = command;
+    args.size = size;
+    args.data = data;
+
+    return ioctl(fd, I2C_SMBUS, &args);
+}
+
+/*
+ * Writes size bytes from data to the device, preceded by the register address
+ * unless localAddress is negative.  The register address has to be part of the
+ * same message, so register writes copy the payload behind it.
+ */
+static int i2c_write_buffer(int fd, int deviceAddress, int localAddress, unsigned char *data, int size)
+{
+    unsigned char stackbuf[I2C_BUFFER_SIZE];
+    unsigned char *buf = data;
+    int length = size;
+    int response;
+
+    response = i2c_select_slave(fd, deviceAddress);
+    if (response < 0) {
+        return response - 10000;
+    }
+
+    if (localAddress >= 0) {
+        length = size + 1;
+        buf = (length <= I2C_BUFFER_SIZE) ? stackbuf : malloc(length);
+        if (buf == NULL) {
+            return -1 - 20000;
+        }
+        buf[0] = localAddress;
+        memcpy(&buf[1], data, size);
+    }
+
+    response = write(fd, buf, length);
+
+    if (buf != data && buf != stackbuf) {
+        free(buf);
+    }
+    if (response != length) {
+        return response - 20000;
+    }
+    return 0;
+}
+
+/*
+ * Reads size bytes from the device into data; if localAddress is not negative
+ * the register address is written first in a combined transaction.
+ */
+static int i2c_read_buffer(int fd, int deviceAddress, int localAddress, unsigned char *data, int size)
+{
+    unsigned char reg = localAddress;
+    int response;
+
+    if (localAddress >= 0) {
+        return i2c_write_read(fd, deviceAddress, &reg, 1, data, size);
+    }
+
+    response = i2c_select_slave(fd, deviceAddress);
+    if (response < 0) {
+        return response - 10000;
+    }
+
+    response = read(fd, data, size);
+    if (response < 0) {
+        return response - 30000;
+    }
+    return response;
+}
 
 /*
  * Class:     com_pi4j_jni_I2C
@@ -55,7 +248,9 @@ JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cOpen
 	int len = (*env)->GetStringLength(env, device);
 	(*env)->GetStringUTFRegion(env, device, 0, len, fileName);
 
-	return open(fileName, O_RDWR);
+	int fd = open(fileName, O_RDWR);
+	i2c_forget_fd(fd);
+	return fd;
 }
 
 /*
@@ -66,6 +261,7 @@ JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cOpen
 JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cClose
   (JNIEnv *env, jclass obj, jint fd)
 {
+	i2c_forget_fd(fd);
 	return close(fd);
 }
 
@@ -77,7 +273,9 @@ JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cClose
 JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cWriteByteDirect
   (JNIEnv *env, jclass obj, jint fd, jint deviceAddress, jbyte b)
 {
-    int response = ioctl(fd, I2C_SLAVE, deviceAddress);
+    unsigned char buf[1];
+
+    int response = i2c_select_slave(fd, deviceAddress);
 
     if (response < 0) {
         return response - 10000;
@@ -101,18 +299,22 @@ JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cWriteByteDirect
 JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cWriteBytesDirect
   (JNIEnv *env, jclass obj, jint fd, jint deviceAddress, jint size, jint offset, jbyteArray bytes)
 {
-    int i;
+    unsigned char buf[I2C_BUFFER_SIZE];
+
+    if (size < 0 || size > I2C_BUFFER_SIZE) {
+        return -1 - 20000;
+    }
 
-    int response = ioctl(fd, I2C_SLAVE, deviceAddress);
+    int response = i2c_select_slave(fd, deviceAddress);
     if (response < 0) {
         return response - 10000;
 	}
 
-    jbyte *body = (*env)->GetByteArrayElements(env, bytes, 0);
-    for (i = 0; i < size; i++) {
-      buf[i] = body[i + offset];
+    (*env)->GetByteArrayRegion(env, bytes, offset, size, (jbyte *)buf);
+    // an invalid range leaves an exception pending and the buffer unset; nothing must reach the bus
+    if ((*env)->ExceptionCheck(env)) {
+        return -1 - 20000;
     }
-    (*env)->ReleaseByteArrayElements(env, bytes, body, 0);
     
     response = write(fd, buf, size);
 	if (response != size) {
@@ -132,7 +334,9 @@ JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cWriteByte
   (JNIEnv *env, jclass obj, jint fd, jint deviceAddress, jint localAddress, jbyte b)
   
 {
-    int response = ioctl(fd, I2C_SLAVE, deviceAddress);
+    unsigned char buf[2];
+
+    int response = i2c_select_slave(fd, deviceAddress);
 
     if (response < 0) {
         return response - 10000;
@@ -158,20 +362,24 @@ JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cWriteBytes
   (JNIEnv *env, jclass obj, jint fd, jint deviceAddress, jint localAddress, jint size, jint offset, jbyteArray bytes)
   
 {
-    int i;
+    unsigned char buf[I2C_BUFFER_SIZE];
 
-    int response = ioctl(fd, I2C_SLAVE, deviceAddress);
+    if (size < 0 || size + 1 > I2C_BUFFER_SIZE) {
+        return -1 - 20000;
+    }
+
+    int response = i2c_select_slave(fd, deviceAddress);
     if (response < 0) {
         return response - 10000;
 	}
 
 	buf[0] = localAddress;
     
-    jbyte *body = (*env)->GetByteArrayElements(env, bytes, 0);
-    for (i = 0; i < size; i++) {
-      buf[i + 1] = body[i + offset];
+    (*env)->GetByteArrayRegion(env, bytes, offset, size, (jbyte *)&buf[1]);
+    // an invalid range leaves an exception pending and the buffer unset; nothing must reach the bus
+    if ((*env)->ExceptionCheck(env)) {
+        return -1 - 20000;
     }
-    (*env)->ReleaseByteArrayElements(env, bytes, body, 0);
     
     response = write(fd, buf, size + 1);
 	if (response != size + 1) {
@@ -190,7 +398,9 @@ JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cWriteBytes
 JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cReadByteDirect
   (JNIEnv *env, jclass obj, jint fd, jint deviceAddress)
 {
-    int response = ioctl(fd, I2C_SLAVE, deviceAddress);
+    unsigned char buf[1];
+
+    int response = i2c_select_slave(fd, deviceAddress);
     if (response < 0) {
         return response - 10000;
 	}
@@ -213,21 +423,20 @@ JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cReadByteDirect
 JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cReadBytesDirect
   (JNIEnv *env, jclass obj, jint fd, jint deviceAddress, jint size, jint offset, jbyteArray bytes)
 {
-    int i;
+    unsigned char buf[I2C_BUFFER_SIZE];
+
+    if (size < 0 || size > I2C_BUFFER_SIZE) {
+        return -1 - 30000;
+    }
     
-    int response = ioctl(fd, I2C_SLAVE, deviceAddress);
+    int response = i2c_select_slave(fd, deviceAddress);
     if (response < 0) {
         return response - 10000;
     }
 
     response = read(fd, buf, size);
     if (response > 0) {
-
-        jbyte *body = (*env)->GetByteArrayElements(env, bytes, 0);
-        for (i = 0; i < size; i++) {
-            body[i + offset] = buf[i];
-        }
-        (*env)->ReleaseByteArrayElements(env, bytes, body, 0);
+        (*env)->SetByteArrayRegion(env, bytes, offset, response, (jbyte *)buf);
     }
 
     return response;
@@ -242,24 +451,13 @@ JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cReadBytesDirect
 JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cReadByte
   (JNIEnv *env, jclass obj, jint fd, jint deviceAddress, jint localAddress)
 {
-    int response = ioctl(fd, I2C_SLAVE, deviceAddress);
-    if (response < 0) {
-        return response - 10000;
-    }
+    unsigned char reg = localAddress;
+    unsigned char buf[1];
 
-    buf[0] = localAddress;												
-	
-    response = write(fd, buf, 1);
-    if (response != 1) {
-        return response - 20000;
-    }
-	
-    response = ioctl(fd, I2C_SLAVE, deviceAddress);
+    int response = i2c_write_read(fd, deviceAddress, &reg, 1, buf, 1);
     if (response < 0) {
-        return response - 10000;
+        return response;
     }
-
-    response = read(fd, buf, 1);
     if (response != 1) {
 	    return response - 30000;
     }
@@ -277,33 +475,16 @@ JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cReadByte
 JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cReadBytes
   (JNIEnv *env, jclass obj, jint fd, jint deviceAddress, jint localAddress, jint size, jint offset, jbyteArray bytes)
 {
-    int i;
-    
-    int response = ioctl(fd, I2C_SLAVE, deviceAddress);
-    if (response < 0) {
-        return response - 10000;
-    }
+    unsigned char reg = localAddress;
+    unsigned char buf[I2C_BUFFER_SIZE];
 
-    buf[0] = localAddress;
-	
-    response = write(fd, buf, 1);
-    if (response != 1) {
-        return response - 20000;
-    }
-	
-    response = ioctl(fd, I2C_SLAVE, deviceAddress);
-    if (response < 0) {
-        return response - 10000;
+    if (size < 0 || size > I2C_BUFFER_SIZE) {
+        return -1 - 30000;
     }
 
-    response = read(fd, buf, size);
+    int response = i2c_write_read(fd, deviceAddress, &reg, 1, buf, size);
     if (response > 0) {
-
-        jbyte *body = (*env)->GetByteArrayElements(env, bytes, 0);
-        for (i = 0; i < size; i++) {
-            body[i + offset] = buf[i];
-        }
-        (*env)->ReleaseByteArrayElements(env, bytes, body, 0);
+        (*env)->SetByteArrayRegion(env, bytes, offset, response, (jbyte *)buf);
     }
 
     return response;
@@ -318,39 +499,484 @@ Signature: (IIII[BII[B)I
 JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cWriteAndReadBytes
 (JNIEnv *env, jclass obj, jint fd, jint deviceAddress, jint writeSize, jint writeOffset, jbyteArray writeBytes, jint readSize, jint readOffset, jbyteArray readBytes)
 {
+    unsigned char wbuf[I2C_BUFFER_SIZE];
+    unsigned char buf[I2C_BUFFER_SIZE];
+    int response;
+
+    if (writeSize < 0 || writeSize > I2C_BUFFER_SIZE) {
+        return -1 - 20000;
+    }
+    if (readSize < 0 || readSize > I2C_BUFFER_SIZE) {
+        return -1 - 30000;
+    }
+
+    (*env)->GetByteArrayRegion(env, writeBytes, writeOffset, writeSize, (jbyte *)wbuf);
+    // an invalid range leaves an exception pending; the transaction must not reach the bus
+    if ((*env)->ExceptionCheck(env)) {
+        return -1 - 20000;
+    }
+
+    response = i2c_write_read(fd, deviceAddress, wbuf, writeSize, buf, readSize);
+    if (response > 0) {
+        (*env)->SetByteArrayRegion(env, readBytes, readOffset, response, (jbyte *)buf);
+    }
+
+    return response;
+}
+
+/*
+Class:     com_pi4j_jni_I2C
+Method:    i2cTransfer
+Signature: (II[I[I[[B[I[I)I
+*/
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cTransfer
+(JNIEnv *env, jclass obj, jint fd, jint count, jintArray addresses, jintArray flags, jobjectArray buffers, jintArray offsets, jintArray lengths)
+{
+    struct i2c_msg msgs[I2C_RDWR_IOCTL_MAX_MSGS];
+    struct i2c_rdwr_ioctl_data data;
+    jint address[I2C_RDWR_IOCTL_MAX_MSGS];
+    jint flag[I2C_RDWR_IOCTL_MAX_MSGS];
+    jint offset[I2C_RDWR_IOCTL_MAX_MSGS];
+    jint length[I2C_RDWR_IOCTL_MAX_MSGS];
+    unsigned char *payload;
+    int total = 0;
+    int response;
     int i;
 
-    int response = ioctl(fd, I2C_SLAVE, deviceAddress);
+    if (count <= 0 || count > I2C_RDWR_IOCTL_MAX_MSGS) {
+        return -1 - 40000;
+    }
+
+    (*env)->GetIntArrayRegion(env, addresses, 0, count, address);
+    (*env)->GetIntArrayRegion(env, flags, 0, count, flag);
+    (*env)->GetIntArrayRegion(env, offsets, 0, count, offset);
+    (*env)->GetIntArrayRegion(env, lengths, 0, count, length);
+    if ((*env)->ExceptionCheck(env)) {
+        return -1 - 40000;
+    }
+
+    for (i = 0; i < count; i++) {
+        total += length[i];
+    }
+
+    // all segments share one native block; write payloads are copied in up front
+    payload = malloc(total > 0 ? total : 1);
+    if (payload == NULL) {
+        return -1 - 40000;
+    }
+
+    total = 0;
+    for (i = 0; i < count; i++) {
+        msgs[i].addr = address[i];
+        msgs[i].flags = (flag[i] & I2C_M_RD) ? I2C_M_RD : 0;
+        msgs[i].len = length[i];
+        msgs[i].buf = payload + total;
+        if (!(flag[i] & I2C_M_RD) && length[i] > 0) {
+            jbyteArray bytes = (jbyteArray)(*env)->GetObjectArrayElement(env, buffers, i);
+            (*env)->GetByteArrayRegion(env, bytes, offset[i], length[i], (jbyte *)msgs[i].buf);
+            (*env)->DeleteLocalRef(env, bytes);
+            // an invalid range leaves an exception pending; the transaction must not reach the bus
+            if ((*env)->ExceptionCheck(env)) {
+                free(payload);
+                return -1 - 40000;
+            }
+        }
+        total += length[i];
+    }
+
+    data.msgs = msgs;
+    data.nmsgs = count;
+
+    response = ioctl(fd, I2C_RDWR, &data);
+    if (response < 0) {
+        response = response - 40000;
+    }
+    else {
+        // copy read segments back into their java buffers
+        for (i = 0; i < count; i++) {
+            if ((flag[i] & I2C_M_RD) && length[i] > 0) {
+                jbyteArray bytes = (jbyteArray)(*env)->GetObjectArrayElement(env, buffers, i);
+                (*env)->SetByteArrayRegion(env, bytes, offset[i], length[i], (jbyte *)msgs[i].buf);
+                (*env)->DeleteLocalRef(env, bytes);
+            }
+        }
+    }
+
+    free(payload);
+    return response;
+}
+
+/*
+ * Class:     com_pi4j_jni_I2C
+ * Method:    i2cProbe
+ * Signature: (IIZ)I
+ *
+ * Probes for a device like i2cdetect: with an SMBus quick write, or with a
+ * read byte for addresses where a quick write may change the device state.
+ * Adapters without quick command support are probed with a read byte.
+ * Returns 1 if the device acknowledged, 0 if not, 2 if the address is claimed
+ * by a kernel driver and a negative value on other errors.
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cProbe
+  (JNIEnv *env, jclass obj, jint fd, jint deviceAddress, jboolean readByte)
+{
+    union i2c_smbus_data data;
+
+    int response = i2c_select_slave(fd, deviceAddress);
+    if (response < 0) {
+        return (errno == EBUSY) ? 2 : response - 10000;
+    }
+
+    if (!readByte) {
+        response = i2c_smbus_access(fd, I2C_SMBUS_WRITE, 0, I2C_SMBUS_QUICK, NULL);
+        if (response < 0 && errno == EOPNOTSUPP) {
+            readByte = JNI_TRUE;
+        }
+    }
+    if (readByte) {
+        response = i2c_smbus_access(fd, I2C_SMBUS_READ, 0, I2C_SMBUS_BYTE, &data);
+    }
+
+    return (response < 0) ? 0 : 1;
+}
+
+/*
+ * Class:     com_pi4j_jni_I2C
+ * Method:    i2cWriteByteBuffer
+ * Signature: (IIIIILjava/nio/ByteBuffer;)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cWriteByteBuffer
+  (JNIEnv *env, jclass obj, jint fd, jint deviceAddress, jint localAddress, jint size, jint position, jobject buffer)
+{
+    unsigned char *data = (*env)->GetDirectBufferAddress(env, buffer);
+    jlong capacity = (*env)->GetDirectBufferCapacity(env, buffer);
+
+    if (data == NULL || size < 0 || size > I2C_MAX_TRANSFER || position < 0 || position + (jlong)size > capacity) {
+        return -1 - 20000;
+    }
+
+    return i2c_write_buffer(fd, deviceAddress, localAddress, data + position, size);
+}
+
+/*
+ * Class:     com_pi4j_jni_I2C
+ * Method:    i2cReadByteBuffer
+ * Signature: (IIIIILjava/nio/ByteBuffer;)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cReadByteBuffer
+  (JNIEnv *env, jclass obj, jint fd, jint deviceAddress, jint localAddress, jint size, jint position, jobject buffer)
+{
+    unsigned char *data = (*env)->GetDirectBufferAddress(env, buffer);
+    jlong capacity = (*env)->GetDirectBufferCapacity(env, buffer);
+
+    if (data == NULL || size < 0 || size > I2C_MAX_TRANSFER || position < 0 || position + (jlong)size > capacity) {
+        return -1 - 30000;
+    }
+
+    return i2c_read_buffer(fd, deviceAddress, localAddress, data + position, size);
+}
+
+/*
+ * Class:     com_pi4j_jni_I2C
+ * Method:    i2cWriteBytesPinned
+ * Signature: (IIIII[B)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cWriteBytesPinned
+  (JNIEnv *env, jclass obj, jint fd, jint deviceAddress, jint localAddress, jint size, jint offset, jbyteArray bytes)
+{
+    jsize length = (*env)->GetArrayLength(env, bytes);
+    jbyte *body;
+    int response;
+
+    if (size < 0 || size > I2C_MAX_TRANSFER || offset < 0 || offset + (jlong)size > length) {
+        return -1 - 20000;
+    }
+
+    body = (*env)->GetPrimitiveArrayCritical(env, bytes, NULL);
+    if (body == NULL) {
+        return -1 - 20000;
+    }
+    response = i2c_write_buffer(fd, deviceAddress, localAddress, (unsigned char *)body + offset, size);
+    (*env)->ReleasePrimitiveArrayCritical(env, bytes, body, JNI_ABORT);
+
+    return response;
+}
+
+/*
+ * Class:     com_pi4j_jni_I2C
+ * Method:    i2cReadBytesPinned
+ * Signature: (IIIII[B)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cReadBytesPinned
+  (JNIEnv *env, jclass obj, jint fd, jint deviceAddress, jint localAddress, jint size, jint offset, jbyteArray bytes)
+{
+    jsize length = (*env)->GetArrayLength(env, bytes);
+    jbyte *body;
+    int response;
+
+    if (size < 0 || size > I2C_MAX_TRANSFER || offset < 0 || offset + (jlong)size > length) {
+        return -1 - 30000;
+    }
+
+    body = (*env)->GetPrimitiveArrayCritical(env, bytes, NULL);
+    if (body == NULL) {
+        return -1 - 30000;
+    }
+    response = i2c_read_buffer(fd, deviceAddress, localAddress, (unsigned char *)body + offset, size);
+    (*env)->ReleasePrimitiveArrayCritical(env, bytes, body, 0);
+
+    return response;
+}
+
+/*
+ * Class:     com_pi4j_jni_I2C
+ * Method:    i2cSmbusReadByteData
+ * Signature: (III)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cSmbusReadByteData
+  (JNIEnv *env, jclass obj, jint fd, jint deviceAddress, jint command)
+{
+    union i2c_smbus_data data;
+
+    int response = i2c_select_slave(fd, deviceAddress);
     if (response < 0) {
         return response - 10000;
     }
 
-    // writing writeSize bytes
-    jbyte *body = (*env)->GetByteArrayElements(env, writeBytes, 0);
-    for (i = 0; i < writeSize; i++) {
-        buf[i] = body[i + writeOffset];
+    response = i2c_smbus_access(fd, I2C_SMBUS_READ, command, I2C_SMBUS_BYTE_DATA, &data);
+    if (response < 0) {
+        return response - 50000;
     }
-    (*env)->ReleaseByteArrayElements(env, writeBytes, body, 0);
 
-    response = write(fd, buf, writeSize);
-    if (response != writeSize) {
-        return response - 20000;
+    return data.byte & 0xFF;
+}
+
+/*
+ * Class:     com_pi4j_jni_I2C
+ * Method:    i2cSmbusWriteByteData
+ * Signature: (IIIB)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cSmbusWriteByteData
+  (JNIEnv *env, jclass obj, jint fd, jint deviceAddress, jint command, jbyte value)
+{
+    union i2c_smbus_data data;
+
+    int response = i2c_select_slave(fd, deviceAddress);
+    if (response < 0) {
+        return response - 10000;
     }
 
-    // reading bytes
-    response = ioctl(fd, I2C_SLAVE, deviceAddress);
+    data.byte = value;
+    response = i2c_smbus_access(fd, I2C_SMBUS_WRITE, command, I2C_SMBUS_BYTE_DATA, &data);
+    if (response < 0) {
+        return response - 50000;
+    }
+
+    return 0;
+}
+
+/*
+ * Class:     com_pi4j_jni_I2C
+ * Method:    i2cSmbusReadWordData
+ * Signature: (III)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cSmbusReadWordData
+  (JNIEnv *env, jclass obj, jint fd, jint deviceAddress, jint command)
+{
+    union i2c_smbus_data data;
+
+    int response = i2c_select_slave(fd, deviceAddress);
     if (response < 0) {
         return response - 10000;
     }
 
-    response = read(fd, buf, readSize);
-    if (response > 0) {
-        body = (*env)->GetByteArrayElements(env, readBytes, 0);
-        for (i = 0; i < readSize; i++) {
-            body[i + readOffset] = buf[i];
-        }
-        (*env)->ReleaseByteArrayElements(env, readBytes, body, 0);
+    response = i2c_smbus_access(fd, I2C_SMBUS_READ, command, I2C_SMBUS_WORD_DATA, &data);
+    if (response < 0) {
+        return response - 50000;
     }
 
-    return response;
+    return data.word & 0xFFFF;
+}
+
+/*
+ * Class:     com_pi4j_jni_I2C
+ * Method:    i2cSmbusWriteWordData
+ * Signature: (IIII)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cSmbusWriteWordData
+  (JNIEnv *env, jclass obj, jint fd, jint deviceAddress, jint command, jint value)
+{
+    union i2c_smbus_data data;
+
+    int response = i2c_select_slave(fd, deviceAddress);
+    if (response < 0) {
+        return response - 10000;
+    }
+
+    data.word = value & 0xFFFF;
+    response = i2c_smbus_access(fd, I2C_SMBUS_WRITE, command, I2C_SMBUS_WORD_DATA, &data);
+    if (response < 0) {
+        return response - 50000;
+    }
+
+    return 0;
+}
+
+/*
+ * Class:     com_pi4j_jni_I2C
+ * Method:    i2cSmbusReadBlockData
+ * Signature: (IIIII[B)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cSmbusReadBlockData
+  (JNIEnv *env, jclass obj, jint fd, jint deviceAddress, jint command, jint size, jint offset, jbyteArray bytes)
+{
+    union i2c_smbus_data data;
+    int count;
+
+    int response = i2c_select_slave(fd, deviceAddress);
+    if (response < 0) {
+        return response - 10000;
+    }
+
+    response = i2c_smbus_access(fd, I2C_SMBUS_READ, command, I2C_SMBUS_BLOCK_DATA, &data);
+    if (response < 0) {
+        return response - 50000;
+    }
+
+    // the device decides the block length; copy what fits into the java buffer
+    count = data.block[0];
+    (*env)->SetByteArrayRegion(env, bytes, offset, (count < size) ? count : size, (jbyte *)&data.block[1]);
+
+    return count;
+}
+
+/*
+ * Class:     com_pi4j_jni_I2C
+ * Method:    i2cSmbusWriteBlockData
+ * Signature: (IIIII[B)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cSmbusWriteBlockData
+  (JNIEnv *env, jclass obj, jint fd, jint deviceAddress, jint command, jint size, jint offset, jbyteArray bytes)
+{
+    union i2c_smbus_data data;
+
+    if (size < 0 || size > I2C_SMBUS_BLOCK_MAX) {
+        return -1 - 50000;
+    }
+
+    int response = i2c_select_slave(fd, deviceAddress);
+    if (response < 0) {
+        return response - 10000;
+    }
+
+    data.block[0] = size;
+    (*env)->GetByteArrayRegion(env, bytes, offset, size, (jbyte *)&data.block[1]);
+    // an invalid range leaves an exception pending; the block must not reach the bus
+    if ((*env)->ExceptionCheck(env)) {
+        return -1 - 50000;
+    }
+
+    response = i2c_smbus_access(fd, I2C_SMBUS_WRITE, command, I2C_SMBUS_BLOCK_DATA, &data);
+    if (response < 0) {
+        return response - 50000;
+    }
+
+    return 0;
+}
+
+/*
+ * Class:     com_pi4j_jni_I2C
+ * Method:    i2cSmbusReadI2CBlockData
+ * Signature: (IIIII[B)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cSmbusReadI2CBlockData
+  (JNIEnv *env, jclass obj, jint fd, jint deviceAddress, jint command, jint size, jint offset, jbyteArray bytes)
+{
+    union i2c_smbus_data data;
+
+    if (size < 1 || size > I2C_SMBUS_BLOCK_MAX) {
+        return -1 - 50000;
+    }
+
+    int response = i2c_select_slave(fd, deviceAddress);
+    if (response < 0) {
+        return response - 10000;
+    }
+
+    data.block[0] = size;
+    response = i2c_smbus_access(fd, I2C_SMBUS_READ, command, I2C_SMBUS_I2C_BLOCK_DATA, &data);
+    if (response < 0) {
+        return response - 50000;
+    }
+
+    (*env)->SetByteArrayRegion(env, bytes, offset, data.block[0], (jbyte *)&data.block[1]);
+
+    return data.block[0];
+}
+
+/*
+ * Class:     com_pi4j_jni_I2C
+ * Method:    i2cSmbusWriteI2CBlockData
+ * Signature: (IIIII[B)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cSmbusWriteI2CBlockData
+  (JNIEnv *env, jclass obj, jint fd, jint deviceAddress, jint command, jint size, jint offset, jbyteArray bytes)
+{
+    union i2c_smbus_data data;
+
+    if (size < 1 || size > I2C_SMBUS_BLOCK_MAX) {
+        return -1 - 50000;
+    }
+
+    int response = i2c_select_slave(fd, deviceAddress);
+    if (response < 0) {
+        return response - 10000;
+    }
+
+    data.block[0] = size;
+    (*env)->GetByteArrayRegion(env, bytes, offset, size, (jbyte *)&data.block[1]);
+    // an invalid range leaves an exception pending; the block must not reach the bus
+    if ((*env)->ExceptionCheck(env)) {
+        return -1 - 50000;
+    }
+
+    response = i2c_smbus_access(fd, I2C_SMBUS_WRITE, command, I2C_SMBUS_I2C_BLOCK_DATA, &data);
+    if (response < 0) {
+        return response - 50000;
+    }
+
+    return 0;
+}
+
+/*
+ * Class:     com_pi4j_jni_I2C
+ * Method:    i2cSmbusPec
+ * Signature: (IZ)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cSmbusPec
+  (JNIEnv *env, jclass obj, jint fd, jboolean enable)
+{
+    return ioctl(fd, I2C_PEC, enable ? 1 : 0);
+}
+
+/*
+ * Class:     com_pi4j_jni_I2C
+ * Method:    i2cSlaveSelectCount
+ * Signature: ()J
+ */
+JNIEXPORT jlong JNICALL Java_com_pi4j_jni_I2C_i2cSlaveSelectCount
+  (JNIEnv *env, jclass obj)
+{
+    return slave_select_count;
+}
+
+/*
+ * Class:     com_pi4j_jni_I2C
+ * Method:    i2cSlaveSelectSkippedCount
+ * Signature: ()J
+ */
+JNIEXPORT jlong JNICALL Java_com_pi4j_jni_I2C_i2cSlaveSelectSkippedCount
+  (JNIEnv *env, jclass obj)
+{
+    return slave_select_skipped_count;
 }
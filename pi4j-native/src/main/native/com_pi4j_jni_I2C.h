@@ -35,6 +35,8 @@
 #ifdef __cplusplus
 extern "C" {
 #endif
+#undef com_pi4j_jni_I2C_NO_LOCAL_ADDRESS
+#define com_pi4j_jni_I2C_NO_LOCAL_ADDRESS -1L
 /*
  * Class:     com_pi4j_jni_I2C
  * Method:    i2cOpen
@@ -123,6 +125,142 @@ JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cReadBytes
 JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cWriteAndReadBytes
   (JNIEnv *, jclass, jint, jint, jint, jint, jbyteArray, jint, jint, jbyteArray);
 
+/*
+ * Class:     com_pi4j_jni_I2C
+ * Method:    i2cTransfer
+ * Signature: (II[I[I[[B[I[I)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cTransfer
+  (JNIEnv *, jclass, jint, jint, jintArray, jintArray, jobjectArray, jintArray, jintArray);
+
+/*
+ * Class:     com_pi4j_jni_I2C
+ * Method:    i2cProbe
+ * Signature: (IIZ)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cProbe
+  (JNIEnv *, jclass, jint, jint, jboolean);
+
+/*
+ * Class:     com_pi4j_jni_I2C
+ * Method:    i2cWriteByteBuffer
+ * Signature: (IIIIILjava/nio/ByteBuffer;)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cWriteByteBuffer
+  (JNIEnv *, jclass, jint, jint, jint, jint, jint, jobject);
+
+/*
+ * Class:     com_pi4j_jni_I2C
+ * Method:    i2cReadByteBuffer
+ * Signature: (IIIIILjava/nio/ByteBuffer;)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cReadByteBuffer
+  (JNIEnv *, jclass, jint, jint, jint, jint, jint, jobject);
+
+/*
+ * Class:     com_pi4j_jni_I2C
+ * Method:    i2cWriteBytesPinned
+ * Signature: (IIIII[B)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cWriteBytesPinned
+  (JNIEnv *, jclass, jint, jint, jint, jint, jint, jbyteArray);
+
+/*
+ * Class:     com_pi4j_jni_I2C
+ * Method:    i2cReadBytesPinned
+ * Signature: (IIIII[B)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cReadBytesPinned
+  (JNIEnv *, jclass, jint, jint, jint, jint, jint, jbyteArray);
+
+/*
+ * Class:     com_pi4j_jni_I2C
+ * Method:    i2cSmbusReadByteData
+ * Signature: (III)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cSmbusReadByteData
+  (JNIEnv *, jclass, jint, jint, jint);
+
+/*
+ * Class:     com_pi4j_jni_I2C
+ * Method:    i2cSmbusWriteByteData
+ * Signature: (IIIB)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cSmbusWriteByteData
+  (JNIEnv *, jclass, jint, jint, jint, jbyte);
+
+/*
+ * Class:     com_pi4j_jni_I2C
+ * Method:    i2cSmbusReadWordData
+ * Signature: (III)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cSmbusReadWordData
+  (JNIEnv *, jclass, jint, jint, jint);
+
+/*
+ * Class:     com_pi4j_jni_I2C
+ * Method:    i2cSmbusWriteWordData
+ * Signature: (IIII)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cSmbusWriteWordData
+  (JNIEnv *, jclass, jint, jint, jint, jint);
+
+/*
+ * Class:     com_pi4j_jni_I2C
+ * Method:    i2cSmbusReadBlockData
+ * Signature: (IIIII[B)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cSmbusReadBlockData
+  (JNIEnv *, jclass, jint, jint, jint, jint, jint, jbyteArray);
+
+/*
+ * Class:     com_pi4j_jni_I2C
+ * Method:    i2cSmbusWriteBlockData
+ * Signature: (IIIII[B)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cSmbusWriteBlockData
+  (JNIEnv *, jclass, jint, jint, jint, jint, jint, jbyteArray);
+
+/*
+ * Class:     com_pi4j_jni_I2C
+ * Method:    i2cSmbusReadI2CBlockData
+ * Signature: (IIIII[B)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cSmbusReadI2CBlockData
+  (JNIEnv *, jclass, jint, jint, jint, jint, jint, jbyteArray);
+
+/*
+ * Class:     com_pi4j_jni_I2C
+ * Method:    i2cSmbusWriteI2CBlockData
+ * Signature: (IIIII[B)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cSmbusWriteI2CBlockData
+  (JNIEnv *, jclass, jint, jint, jint, jint, jint, jbyteArray);
+
+/*
+ * Class:     com_pi4j_jni_I2C
+ * Method:    i2cSmbusPec
+ * Signature: (IZ)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_I2C_i2cSmbusPec
+  (JNIEnv *, jclass, jint, jboolean);
+
+/*
+ * Class:     com_pi4j_jni_I2C
+ * Method:    i2cSlaveSelectCount
+ * Signature: ()J
+ */
+JNIEXPORT jlong JNICALL Java_com_pi4j_jni_I2C_i2cSlaveSelectCount
+  (JNIEnv *, jclass);
+
+/*
+ * Class:     com_pi4j_jni_I2C
+ * Method:    i2cSlaveSelectSkippedCount
+ * Signature: ()J
+ */
+JNIEXPORT jlong JNICALL Java_com_pi4j_jni_I2C_i2cSlaveSelectSkippedCount
+  (JNIEnv *, jclass);
+
 #ifdef __cplusplus
 }
 #endif
@@ -43,6 +43,7 @@
 #include <errno.h>
 #include <sys/ioctl.h>
 #include <sys/types.h>
+#include <sys/uio.h>
 #include <sys/stat.h>
 #include <linux/serial.h>
 #include <err.h>
@@ -56,6 +57,87 @@ int getAvailableByteCount(int fd){
     return length;
 }
 
+// maximum number of buffers passed to a single readv()/writev() call
+#define SERIAL_MAX_IOV  64
+
+// size of the stack buffer used to transmit byte array ranges
+#define SERIAL_WRITE_CHUNK  1024
+
+// cached 'java.nio.Buffer' method IDs used by the gathering/scattering operations
+static jmethodID buffer_position_method;
+static jmethodID buffer_limit_method;
+
+// write the complete data block; retries partial writes and interruptions
+static int writeFully(int fd, const uint8_t *data, size_t length){
+    while (length > 0) {
+        ssize_t count = write(fd, data, length);
+        if (count < 0) {
+            if (errno == EINTR) continue;
+            return -1;
+        }
+        data += count;
+        length -= count;
+    }
+    return 0;
+}
+
+// write all data blocks described by the I/O vector; retries partial writes and interruptions
+static int writevFully(int fd, struct iovec *iov, int iovcnt){
+    while (iovcnt > 0) {
+        ssize_t count = writev(fd, iov, iovcnt);
+        if (count < 0) {
+            if (errno == EINTR) continue;
+            return -1;
+        }
+
+        // skip the completely written blocks and advance into a partially written one
+        while (iovcnt > 0 && (size_t)count >= iov->iov_len) {
+            count -= iov->iov_len;
+            iov++;
+            iovcnt--;
+        }
+        if (iovcnt > 0) {
+            iov->iov_base = (uint8_t *)iov->iov_base + count;
+            iov->iov_len -= count;
+        }
+    }
+    return 0;
+}
+
+// get the address and remaining byte count of a direct buffer (from its position up to its limit)
+static uint8_t *getDirectBufferRemaining(JNIEnv *env, jobject buffer, size_t *remaining){
+    if (buffer_position_method == NULL || buffer_limit_method == NULL) {
+        jclass cls = (*env)->FindClass(env, "java/nio/Buffer");
+        buffer_position_method = (*env)->GetMethodID(env, cls, "position", "()I");
+        buffer_limit_method = (*env)->GetMethodID(env, cls, "limit", "()I");
+    }
+
+    uint8_t *address = (*env)->GetDirectBufferAddress(env, buffer);
+    if (address == NULL) {
+        return NULL;
+    }
+    jint position = (*env)->CallIntMethod(env, buffer, buffer_position_method);
+    jint limit = (*env)->CallIntMethod(env, buffer, buffer_limit_method);
+    *remaining = (limit > position) ? (size_t)(limit - position) : 0;
+    return address + position;
+}
+
+// collect the I/O vector for a group of direct buffers; returns the total byte count or -1 for a non-direct buffer
+static jlong getDirectBufferVector(JNIEnv *env, jobjectArray buffers, int offset, int count, struct iovec *iov){
+    jlong total = 0;
+    int i;
+    for (i = 0; i < count; i++) {
+        jobject buffer = (*env)->GetObjectArrayElement(env, buffers, offset + i);
+        iov[i].iov_base = getDirectBufferRemaining(env, buffer, &iov[i].iov_len);
+        (*env)->DeleteLocalRef(env, buffer);
+        if (iov[i].iov_base == NULL) {
+            return -1;
+        }
+        total += iov[i].iov_len;
+    }
+    return total;
+}
+
 /*
  *********************************************************************************
  *	Open and initialise the serial port, setting all the right
@@ -384,10 +466,10 @@ JNIEXPORT jint JNICALL Java_com_pi4j_jni_Serial_open
 
 /*
  * Class:     com_pi4j_jni_Serial
- * Method:    close
+ * Method:    closeDevice
  * Signature: (I)V
  */
-JNIEXPORT void JNICALL Java_com_pi4j_jni_Serial_close
+JNIEXPORT void JNICALL Java_com_pi4j_jni_Serial_closeDevice
   (JNIEnv *env, jclass obj, jint fd)
 {
     // close serial port
@@ -824,39 +906,54 @@ JNIEXPORT void JNICALL Java_com_pi4j_jni_Serial_echo
 
 /*
  * Class:     com_pi4j_jni_Serial
- * Method:    write
- * Signature: (I[BJ)V
+ * Method:    writeBytes
+ * Signature: (I[BII)V
  */
-JNIEXPORT void JNICALL Java_com_pi4j_jni_Serial_write
-(JNIEnv *env, jclass obj, jint fd, jbyteArray data, jlong length)
+JNIEXPORT void JNICALL Java_com_pi4j_jni_Serial_writeBytes
+(JNIEnv *env, jclass obj, jint fd, jbyteArray data, jint offset, jint length)
 {
-    jbyte *ptr = (*env)->GetByteArrayElements(env, data, 0);
-    if(write (fd, ptr, length) == -1){
-        int err_number = errno;
-        char err_message[100];
-        sprintf(err_message, "Failed to write data to serial port. (Error #%d)", err_number);
-        throwIOException(env, err_message);
+    // copy only the requested range, one bounded chunk at a time; the array is not pinned
+    // while the (possibly blocking) write is in progress
+    uint8_t chunk[SERIAL_WRITE_CHUNK];
+    while (length > 0) {
+        jint size = (length > SERIAL_WRITE_CHUNK) ? SERIAL_WRITE_CHUNK : length;
+        (*env)->GetByteArrayRegion(env, data, offset, size, (jbyte *)chunk);
+        if ((*env)->ExceptionCheck(env)) {
+            return;
+        }
+        if(writeFully(fd, chunk, size) == -1){
+            int err_number = errno;
+            char err_message[100];
+            sprintf(err_message, "Failed to write data to serial port. (Error #%d)", err_number);
+            throwIOException(env, err_message);
+            return;
+        }
+        offset += size;
+        length -= size;
     }
-	(*env)->ReleaseByteArrayElements(env, data, ptr, 0);
 }
 
 
 /*
  *********************************************************************************
- *	Write data in byte buffer to the serial port transmit buffer
+ *	Write data in direct byte buffer to the serial port transmit buffer
  *********************************************************************************
  */
 
 /*
-* Class:     com_pi4j_jni_Serial
-* Method:    write
-* Signature: (IOL)V
-*/
-JNIEXPORT void JNICALL Java_com_pi4j_jni_Serial_writeBuffer
-(JNIEnv *env, jclass obj, jint fd, jobject buffer, jlong length)
+ * Class:     com_pi4j_jni_Serial
+ * Method:    writeDirect
+ * Signature: (ILjava/nio/ByteBuffer;II)V
+ */
+JNIEXPORT void JNICALL Java_com_pi4j_jni_Serial_writeDirect
+(JNIEnv *env, jclass obj, jint fd, jobject buffer, jint position, jint length)
 {
-    jbyte *ptr = (*env)->GetDirectBufferAddress(env, buffer);
-    if(write (fd, ptr, length) == -1){
+    uint8_t *ptr = (*env)->GetDirectBufferAddress(env, buffer);
+    if(ptr == NULL){
+        throwIOException(env, "Buffer is not a direct buffer.");
+        return;
+    }
+    if(writeFully(fd, ptr + position, length) == -1){
         int err_number = errno;
         char err_message[100];
         sprintf(err_message, "Failed to write data to serial port. (Error #%d)", err_number);
@@ -865,6 +962,46 @@ JNIEXPORT void JNICALL Java_com_pi4j_jni_Serial_writeBuffer
 }
 
 
+/*
+ *********************************************************************************
+ *	Write data in direct byte buffers to the serial port transmit buffer
+ *	using gathering writes.  Returns the number of bytes written.
+ *********************************************************************************
+ */
+
+/*
+ * Class:     com_pi4j_jni_Serial
+ * Method:    writeGather
+ * Signature: (I[Ljava/nio/ByteBuffer;)J
+ */
+JNIEXPORT jlong JNICALL Java_com_pi4j_jni_Serial_writeGather
+(JNIEnv *env, jclass obj, jint fd, jobjectArray buffers)
+{
+    struct iovec iov[SERIAL_MAX_IOV];
+    int count = (*env)->GetArrayLength(env, buffers);
+    jlong written = 0;
+    int offset;
+
+    for (offset = 0; offset < count; offset += SERIAL_MAX_IOV) {
+        int group = (count - offset > SERIAL_MAX_IOV) ? SERIAL_MAX_IOV : count - offset;
+        jlong total = getDirectBufferVector(env, buffers, offset, group, iov);
+        if (total < 0) {
+            throwIOException(env, "Buffer is not a direct buffer.");
+            return written;
+        }
+        if (writevFully(fd, iov, group) == -1) {
+            int err_number = errno;
+            char err_message[100];
+            sprintf(err_message, "Failed to write data to serial port. (Error #%d)", err_number);
+            throwIOException(env, err_message);
+            return written;
+        }
+        written += total;
+    }
+    return written;
+}
+
+
 /*
  *********************************************************************************
  *	Reads bytes from serial port receive buffer
@@ -875,10 +1012,10 @@ JNIEXPORT void JNICALL Java_com_pi4j_jni_Serial_writeBuffer
 
 /*
  * Class:     com_pi4j_jni_Serial
- * Method:    read
+ * Method:    readBytes
  * Signature: (II)[B
  */
-JNIEXPORT jbyteArray JNICALL Java_com_pi4j_jni_Serial_read__II
+JNIEXPORT jbyteArray JNICALL Java_com_pi4j_jni_Serial_readBytes
   (JNIEnv *env, jclass obj, jint fd, jint length)
 {
     // determine result data array length from the number of bytes available on the receive buffer
@@ -937,10 +1074,10 @@ JNIEXPORT jbyteArray JNICALL Java_com_pi4j_jni_Serial_read__II
 
 /*
  * Class:     com_pi4j_jni_Serial
- * Method:    read
+ * Method:    readAvailable
  * Signature: (I)[B
  */
-JNIEXPORT jbyteArray JNICALL Java_com_pi4j_jni_Serial_read__I
+JNIEXPORT jbyteArray JNICALL Java_com_pi4j_jni_Serial_readAvailable
   (JNIEnv *env, jclass obj, jint fd)
 {
     // determine result data array length from the number of bytes available on the receive buffer
@@ -985,24 +1122,25 @@ JNIEXPORT jbyteArray JNICALL Java_com_pi4j_jni_Serial_read__I
 
 /*
  *********************************************************************************
- *	Reads all available bytes from serial port receive buffer into provided
- *  direct buffer.  Returns the number of bytes written to the direct buffer.
+ *	Reads up to 'length' of the available bytes from the serial port receive
+ *	buffer into the provided direct buffer at 'position' with a single read.
+ *	Returns the number of bytes written to the direct buffer.
  *********************************************************************************
  */
 
 /*
  * Class:     com_pi4j_jni_Serial
- * Method:    readToBuffer
- * Signature: (IOI)I
+ * Method:    readDirect
+ * Signature: (ILjava/nio/ByteBuffer;II)I
  */
-JNIEXPORT jint JNICALL Java_com_pi4j_jni_Serial_readToBuffer
-  (JNIEnv *env, jclass obj, jint fd, jobject buffer, jint length)
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_Serial_readDirect
+  (JNIEnv *env, jclass obj, jint fd, jobject buffer, jint position, jint length)
 {
-    // determine result data array length from the number of bytes available on the receive buffer
+    // determine the number of bytes available on the receive buffer
     int availableBytes;
     availableBytes = getAvailableByteCount(fd);
 
-    // check for error return; if error, then return NULL
+    // check for error return
     if (availableBytes < 0){
         int err_number = errno;
         char err_message[100];
@@ -1015,27 +1153,103 @@ JNIEXPORT jint JNICALL Java_com_pi4j_jni_Serial_readToBuffer
     if(length > availableBytes){
         length = availableBytes;
     }
+    if(length <= 0){
+        return 0;
+    }
 
-    jbyte *result = (*env)->GetDirectBufferAddress(env, buffer);
+    uint8_t *ptr = (*env)->GetDirectBufferAddress(env, buffer);
+    if(ptr == NULL){
+        throwIOException(env, "Buffer is not a direct buffer.");
+        return -1;
+    }
 
-    // copy the data bytes from the serial receive buffer into the payload result
-    int i;
-    for (i = 0; i < length; i++) {
+    // copy the data bytes from the serial receive buffer straight into the direct buffer
+    ssize_t count;
+    do {
+        count = read(fd, ptr + position, length);
+    } while (count < 0 && errno == EINTR);
 
-        // read a single byte from the RX buffer
-        uint8_t x ;
-        if (read (fd, &x, 1) != 1){
+    if (count < 0){
+        int err_number = errno;
+        char err_message[100];
+        sprintf(err_message, "Failed to read data from serial port. (Error #%d)", err_number);
+        throwIOException(env, err_message);
+        return -1;   // ERROR READING RX BUFFER
+    }
+
+    // return number of bytes written into buffer
+    return (jint)count;
+}
+
+/*
+ *********************************************************************************
+ *	Reads the available bytes from the serial port receive buffer into the
+ *	provided direct buffers using a scattering read.  Returns the number of
+ *	bytes written to the direct buffers.
+ *********************************************************************************
+ */
+
+/*
+ * Class:     com_pi4j_jni_Serial
+ * Method:    readScatter
+ * Signature: (I[Ljava/nio/ByteBuffer;)J
+ */
+JNIEXPORT jlong JNICALL Java_com_pi4j_jni_Serial_readScatter
+  (JNIEnv *env, jclass obj, jint fd, jobjectArray buffers)
+{
+    struct iovec iov[SERIAL_MAX_IOV];
+    int count = (*env)->GetArrayLength(env, buffers);
+    jlong received = 0;
+    int offset;
+
+    for (offset = 0; offset < count; offset += SERIAL_MAX_IOV) {
+        int group = (count - offset > SERIAL_MAX_IOV) ? SERIAL_MAX_IOV : count - offset;
+        int availableBytes = getAvailableByteCount(fd);
+        int i;
+
+        if (availableBytes < 0){
+            int err_number = errno;
+            char err_message[100];
+            sprintf(err_message, "Error attempting to read data from serial port. (Error #%d)", err_number);
+            throwIOException(env, err_message);
+            return received;   // ERROR READING RX BUFFER
+        }
+        if (availableBytes == 0){
+            break;
+        }
+
+        jlong requested = getDirectBufferVector(env, buffers, offset, group, iov);
+        if (requested < 0) {
+            throwIOException(env, "Buffer is not a direct buffer.");
+            return received;
+        }
+
+        // never ask for more than is available; the serial port is in blocking mode
+        for (i = 0; i < group; i++) {
+            if (iov[i].iov_len > (size_t)availableBytes) {
+                iov[i].iov_len = availableBytes;
+            }
+            availableBytes -= iov[i].iov_len;
+        }
+
+        ssize_t length;
+        do {
+            length = readv(fd, iov, group);
+        } while (length < 0 && errno == EINTR);
+
+        if (length < 0){
             int err_number = errno;
             char err_message[100];
             sprintf(err_message, "Failed to read data from serial port. (Error #%d)", err_number);
             throwIOException(env, err_message);
-            return -1;   // ERROR READING RX BUFFER
+            return received;   // ERROR READING RX BUFFER
         }
+        received += length;
 
-        // assign the single byte; cast to unsigned char
-        result[i] = (unsigned char)(((int)x) & 0xFF);
+        // the buffers are filled in order; stop at the first group that was not filled completely
+        if (length < requested){
+            break;
+        }
     }
-
-    // return number of bytes written into buffer
-    return length;
+    return received;
 }
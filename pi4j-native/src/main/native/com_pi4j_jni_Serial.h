@@ -45,10 +45,10 @@ JNIEXPORT jint JNICALL Java_com_pi4j_jni_Serial_open
 
 /*
  * Class:     com_pi4j_jni_Serial
- * Method:    close
+ * Method:    closeDevice
  * Signature: (I)V
  */
-JNIEXPORT void JNICALL Java_com_pi4j_jni_Serial_close
+JNIEXPORT void JNICALL Java_com_pi4j_jni_Serial_closeDevice
   (JNIEnv *, jclass, jint);
 
 /*
@@ -181,27 +181,59 @@ JNIEXPORT jint JNICALL Java_com_pi4j_jni_Serial_available
 
 /*
  * Class:     com_pi4j_jni_Serial
- * Method:    read
+ * Method:    readAvailable
  * Signature: (I)[B
  */
-JNIEXPORT jbyteArray JNICALL Java_com_pi4j_jni_Serial_read__I
+JNIEXPORT jbyteArray JNICALL Java_com_pi4j_jni_Serial_readAvailable
   (JNIEnv *, jclass, jint);
 
 /*
  * Class:     com_pi4j_jni_Serial
- * Method:    read
+ * Method:    readBytes
  * Signature: (II)[B
  */
-JNIEXPORT jbyteArray JNICALL Java_com_pi4j_jni_Serial_read__II
+JNIEXPORT jbyteArray JNICALL Java_com_pi4j_jni_Serial_readBytes
   (JNIEnv *, jclass, jint, jint);
 
 /*
  * Class:     com_pi4j_jni_Serial
- * Method:    write
- * Signature: (I[BJ)V
+ * Method:    readDirect
+ * Signature: (ILjava/nio/ByteBuffer;II)I
  */
-JNIEXPORT void JNICALL Java_com_pi4j_jni_Serial_write
-  (JNIEnv *, jclass, jint, jbyteArray, jlong);
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_Serial_readDirect
+  (JNIEnv *, jclass, jint, jobject, jint, jint);
+
+/*
+ * Class:     com_pi4j_jni_Serial
+ * Method:    readScatter
+ * Signature: (I[Ljava/nio/ByteBuffer;)J
+ */
+JNIEXPORT jlong JNICALL Java_com_pi4j_jni_Serial_readScatter
+  (JNIEnv *, jclass, jint, jobjectArray);
+
+/*
+ * Class:     com_pi4j_jni_Serial
+ * Method:    writeBytes
+ * Signature: (I[BII)V
+ */
+JNIEXPORT void JNICALL Java_com_pi4j_jni_Serial_writeBytes
+  (JNIEnv *, jclass, jint, jbyteArray, jint, jint);
+
+/*
+ * Class:     com_pi4j_jni_Serial
+ * Method:    writeDirect
+ * Signature: (ILjava/nio/ByteBuffer;II)V
+ */
+JNIEXPORT void JNICALL Java_com_pi4j_jni_Serial_writeDirect
+  (JNIEnv *, jclass, jint, jobject, jint, jint);
+
+/*
+ * Class:     com_pi4j_jni_Serial
+ * Method:    writeGather
+ * Signature: (I[Ljava/nio/ByteBuffer;)J
+ */
+JNIEXPORT jlong JNICALL Java_com_pi4j_jni_Serial_writeGather
+  (JNIEnv *, jclass, jint, jobjectArray);
 
 #ifdef __cplusplus
 }
@@ -0,0 +1,464 @@
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: JNI Native Library
+ * FILENAME      :  com_pi4j_jni_SerialEpoll.c
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+#define _GNU_SOURCE // pipe2()
+#include <stdio.h>
+#include <stdint.h>
+#include <string.h>
+#include <errno.h>
+#include <fcntl.h>
+#include <time.h>
+#include <pthread.h>
+#include <unistd.h>
+#include <sys/epoll.h>
+#include <sys/ioctl.h>
+#include <sys/timerfd.h>
+#include "com_pi4j_jni_SerialEpoll.h"
+
+// the epoll data tokens used for the wakeup pipe and the deadline timer
+#define SERIAL_EPOLL_WAKE_TOKEN    0xFFFFFFFF
+#define SERIAL_EPOLL_TIMER_TOKEN   0xFFFFFFFE
+
+
+/**
+ * --------------------------------------------------------
+ * GET MONOTONIC TIMESTAMP (nanoseconds)
+ * --------------------------------------------------------
+ */
+static int64_t getMonotonicNanos()
+{
+	struct timespec ts;
+	clock_gettime(CLOCK_MONOTONIC, &ts);
+	return ((int64_t)ts.tv_sec * 1000000000LL) + ts.tv_nsec;
+}
+
+/**
+ * --------------------------------------------------------
+ * FIND SERIAL PORT SLOT
+ * --------------------------------------------------------
+ * must be called while holding the monitor lock
+ */
+static int findPort(struct serial_epoll_monitor *monitor, int fd)
+{
+	int index;
+	for(index = 0; index < SERIAL_EPOLL_MAX_PORTS; index++)
+	{
+		if(monitor->ports[index].active && monitor->ports[index].fd == fd)
+			return index;
+	}
+	return -1;
+}
+
+/**
+ * --------------------------------------------------------
+ * READ AVAILABLE SERIAL DATA
+ * --------------------------------------------------------
+ * appends the data available on the serial port to the port's
+ * receive buffer with a single read; the serial port is opened
+ * in blocking mode, so never read more than is available.
+ * Returns the number of bytes read or '-1' on error.
+ */
+static int readPort(struct serial_epoll_port *port)
+{
+	int available;
+	ssize_t count;
+
+	if(ioctl(port->fd, FIONREAD, &available) < 0)
+		return -1;
+	if(available > port->capacity - port->length)
+		available = port->capacity - port->length;
+	if(available <= 0)
+		return 0;
+
+	do {
+		count = read(port->fd, port->data + port->length, available);
+	} while(count < 0 && errno == EINTR);
+
+	if(count < 0)
+		return -1;
+	port->length += count;
+	return (int)count;
+}
+
+/**
+ * --------------------------------------------------------
+ * IS SERIAL PORT READY FOR DELIVERY
+ * --------------------------------------------------------
+ * evaluates the receive strategy of the port
+ */
+static int isPortReady(struct serial_epoll_port *port, int64_t now)
+{
+	if(port->length <= 0)
+		return 0;
+
+	// a full buffer is always delivered right away
+	if(port->length >= port->capacity)
+		return 1;
+
+	switch(port->mode)
+	{
+		case SERIAL_RECEIVE_INTER_BYTE_GAP:
+			return (port->deadline > 0 && now >= port->deadline);
+		case SERIAL_RECEIVE_MINIMUM_BYTES:
+			return (port->length >= port->minimumBytes) || (port->deadline > 0 && now >= port->deadline);
+		default:
+			return 1;
+	}
+}
+
+/**
+ * --------------------------------------------------------
+ * ARM DEADLINE TIMER
+ * --------------------------------------------------------
+ * arm the timer for the earliest pending deadline of all ports;
+ * must be called while holding the monitor lock
+ */
+static void armDeadlineTimer(struct serial_epoll_monitor *monitor)
+{
+	struct itimerspec its;
+	int64_t deadline = 0;
+	int index;
+
+	for(index = 0; index < SERIAL_EPOLL_MAX_PORTS; index++)
+	{
+		struct serial_epoll_port *port = &monitor->ports[index];
+		if(port->active && port->length > 0 && port->deadline > 0 &&
+		   (deadline == 0 || port->deadline < deadline))
+			deadline = port->deadline;
+	}
+
+	if(deadline == monitor->timerDeadline)
+		return;
+
+	// an absolute time of zero disarms the timer
+	memset(&its, 0x00, sizeof(its));
+	its.it_value.tv_sec = deadline / 1000000000LL;
+	its.it_value.tv_nsec = deadline % 1000000000LL;
+	if(timerfd_settime(monitor->timerfd, TFD_TIMER_ABSTIME, &its, NULL) < 0)
+		perror("timerfd_settime()");
+	monitor->timerDeadline = deadline;
+}
+
+/**
+ * --------------------------------------------------------
+ * INITIALIZE EPOLL MONITOR
+ * --------------------------------------------------------
+ */
+int SerialEpoll_Init(struct serial_epoll_monitor *monitor, serial_epoll_handler handler, void *context)
+{
+	struct epoll_event ev;
+	int index;
+
+	memset(monitor, 0x00, sizeof(struct serial_epoll_monitor));
+	for(index = 0; index < SERIAL_EPOLL_MAX_PORTS; index++)
+		monitor->ports[index].fd = -1;
+	monitor->handler = handler;
+	monitor->context = context;
+
+	// create the single epoll set used for all monitored serial ports
+	monitor->epfd = epoll_create1(EPOLL_CLOEXEC);
+	if(monitor->epfd < 0)
+	{
+		perror("epoll_create1()");
+		return -1;
+	}
+
+	// create the wakeup pipe used to interrupt a blocked 'epoll_wait()'
+	if(pipe2(monitor->wakefd, O_NONBLOCK | O_CLOEXEC) < 0)
+	{
+		perror("pipe2()");
+		close(monitor->epfd);
+		return -1;
+	}
+
+	// create the timer used for the inter-byte gap deadlines
+	// (epoll_wait() only offers millisecond timeouts)
+	monitor->timerfd = timerfd_create(CLOCK_MONOTONIC, TFD_NONBLOCK | TFD_CLOEXEC);
+	if(monitor->timerfd < 0)
+	{
+		perror("timerfd_create()");
+		close(monitor->wakefd[0]);
+		close(monitor->wakefd[1]);
+		close(monitor->epfd);
+		return -1;
+	}
+
+	memset(&ev, 0x00, sizeof(ev));
+	ev.events = EPOLLIN;
+	ev.data.u32 = SERIAL_EPOLL_WAKE_TOKEN;
+	if(epoll_ctl(monitor->epfd, EPOLL_CTL_ADD, monitor->wakefd[0], &ev) < 0)
+	{
+		perror("epoll_ctl()");
+		SerialEpoll_Destroy(monitor);
+		return -1;
+	}
+
+	ev.data.u32 = SERIAL_EPOLL_TIMER_TOKEN;
+	if(epoll_ctl(monitor->epfd, EPOLL_CTL_ADD, monitor->timerfd, &ev) < 0)
+	{
+		perror("epoll_ctl()");
+		SerialEpoll_Destroy(monitor);
+		return -1;
+	}
+
+	pthread_mutex_init(&monitor->lock, NULL);
+	return 0;
+}
+
+/**
+ * --------------------------------------------------------
+ * ADD SERIAL PORT TO EPOLL MONITOR
+ * --------------------------------------------------------
+ */
+int SerialEpoll_Add(struct serial_epoll_monitor *monitor, int fd, int mode, int idleTime, int minimumBytes,
+                    uint8_t *data, int capacity, void *cookie)
+{
+	struct epoll_event ev;
+	int index;
+
+	// ensure that the requested port configuration is valid
+	if(fd < 0 || data == NULL || capacity <= 0 || idleTime < 0 ||
+	   mode < SERIAL_RECEIVE_IMMEDIATE || mode > SERIAL_RECEIVE_MINIMUM_BYTES)
+		return -1;
+
+	pthread_mutex_lock(&monitor->lock);
+
+	// only add this port if it is not already monitored
+	if(findPort(monitor, fd) >= 0)
+	{
+		pthread_mutex_unlock(&monitor->lock);
+		return 0;
+	}
+
+	// find an available port slot
+	for(index = 0; index < SERIAL_EPOLL_MAX_PORTS; index++)
+	{
+		if(!monitor->ports[index].active)
+			break;
+	}
+	if(index == SERIAL_EPOLL_MAX_PORTS)
+	{
+		pthread_mutex_unlock(&monitor->lock);
+		return -2;
+	}
+
+	memset(&ev, 0x00, sizeof(ev));
+	ev.events = EPOLLIN;
+	ev.data.u32 = (uint32_t)index;
+	if(epoll_ctl(monitor->epfd, EPOLL_CTL_ADD, fd, &ev) < 0)
+	{
+		perror("epoll_ctl()");
+		pthread_mutex_unlock(&monitor->lock);
+		return -3;
+	}
+
+	memset(&monitor->ports[index], 0x00, sizeof(struct serial_epoll_port));
+	monitor->ports[index].fd = fd;
+	monitor->ports[index].attached = 1;
+	monitor->ports[index].mode = mode;
+	monitor->ports[index].idleTime = idleTime;
+	monitor->ports[index].minimumBytes = (minimumBytes < 1) ? 1 : (minimumBytes > capacity) ? capacity : minimumBytes;
+	monitor->ports[index].data = data;
+	monitor->ports[index].capacity = capacity;
+	monitor->ports[index].cookie = cookie;
+	monitor->ports[index].active = 1;
+
+	pthread_mutex_unlock(&monitor->lock);
+	return 1;
+}
+
+/**
+ * --------------------------------------------------------
+ * REMOVE SERIAL PORT FROM EPOLL MONITOR
+ * --------------------------------------------------------
+ */
+int SerialEpoll_Remove(struct serial_epoll_monitor *monitor, int fd, void **cookie)
+{
+	int index;
+
+	pthread_mutex_lock(&monitor->lock);
+
+	index = findPort(monitor, fd);
+	if(index < 0)
+	{
+		pthread_mutex_unlock(&monitor->lock);
+		return 0;
+	}
+
+	// removing the descriptor under the lock guarantees that the poll
+	// loop never reads into the receive buffer after it was released
+	if(monitor->ports[index].attached)
+		epoll_ctl(monitor->epfd, EPOLL_CTL_DEL, fd, NULL);
+	if(cookie != NULL)
+		*cookie = monitor->ports[index].cookie;
+	memset(&monitor->ports[index], 0x00, sizeof(struct serial_epoll_port));
+	monitor->ports[index].fd = -1;
+
+	pthread_mutex_unlock(&monitor->lock);
+	return 1;
+}
+
+/**
+ * --------------------------------------------------------
+ * IS SERIAL PORT MONITORED
+ * --------------------------------------------------------
+ */
+int SerialEpoll_Contains(struct serial_epoll_monitor *monitor, int fd)
+{
+	int index;
+
+	pthread_mutex_lock(&monitor->lock);
+	index = findPort(monitor, fd);
+	pthread_mutex_unlock(&monitor->lock);
+	return (index >= 0);
+}
+
+/**
+ * --------------------------------------------------------
+ * WAIT FOR AND DISPATCH RECEIVED DATA
+ * --------------------------------------------------------
+ */
+int SerialEpoll_Poll(struct serial_epoll_monitor *monitor, int timeout)
+{
+	struct epoll_event ready[SERIAL_EPOLL_MAX_EVENTS + 2];
+	char drain[16];
+	uint64_t expirations;
+	int64_t now;
+	int count = 0;
+	int ret, index;
+
+	// wake up for the earliest pending inter-byte gap deadline
+	pthread_mutex_lock(&monitor->lock);
+	armDeadlineTimer(monitor);
+	pthread_mutex_unlock(&monitor->lock);
+
+	// wait for data to be received on any monitored serial port
+	ret = epoll_wait(monitor->epfd, ready, SERIAL_EPOLL_MAX_EVENTS + 2, timeout);
+	if(ret < 0)
+	{
+		// a signal interruption is simply a spurious wakeup
+		if(errno == EINTR)
+			return 0;
+		perror("epoll_wait()");
+		return -1;
+	}
+
+	pthread_mutex_lock(&monitor->lock);
+	for(index = 0; index < ret; index++)
+	{
+		struct serial_epoll_port *port;
+		int received;
+
+		// consume wakeup requests
+		if(ready[index].data.u32 == SERIAL_EPOLL_WAKE_TOKEN)
+		{
+			while(read(monitor->wakefd[0], drain, sizeof(drain)) > 0);
+			continue;
+		}
+
+		// consume timer expirations; the deadlines are checked below
+		if(ready[index].data.u32 == SERIAL_EPOLL_TIMER_TOKEN)
+		{
+			if(read(monitor->timerfd, &expirations, sizeof(expirations)) < 0 && errno != EAGAIN)
+				perror("read()");
+			continue;
+		}
+
+		// skip ports removed since 'epoll_wait()' returned
+		port = &monitor->ports[ready[index].data.u32];
+		if(!port->active)
+			continue;
+
+		received = readPort(port);
+
+		// a hung up port would report itself on every wakeup; take it out of
+		// the epoll set until it gets removed (pending data is still delivered)
+		if(received < 0 || (received == 0 && (ready[index].events & (EPOLLHUP | EPOLLERR))))
+		{
+			epoll_ctl(monitor->epfd, EPOLL_CTL_DEL, port->fd, NULL);
+			port->attached = 0;
+			continue;
+		}
+
+		// every received chunk restarts the idle time
+		if(received > 0 && port->idleTime > 0 && port->mode != SERIAL_RECEIVE_IMMEDIATE)
+			port->deadline = getMonotonicNanos() + (int64_t)port->idleTime * 1000LL;
+	}
+
+	// collect the data of all ports that are ready for delivery
+	now = getMonotonicNanos();
+	for(index = 0; index < SERIAL_EPOLL_MAX_PORTS; index++)
+	{
+		struct serial_epoll_port *port = &monitor->ports[index];
+		if(!port->active || !isPortReady(port, now))
+			continue;
+
+		monitor->events[count].fd = port->fd;
+		monitor->events[count].length = port->length;
+		monitor->events[count].data = port->data;
+		count++;
+
+		// the buffer content remains untouched until the next poll
+		port->length = 0;
+		port->deadline = 0;
+	}
+	pthread_mutex_unlock(&monitor->lock);
+
+	// deliver the whole batch outside of the lock so that the handler
+	// may safely add or remove ports
+	if(count > 0 && monitor->handler != NULL)
+		monitor->handler(monitor->context, monitor->events, count);
+
+	return count;
+}
+
+/**
+ * --------------------------------------------------------
+ * WAKE UP EPOLL MONITOR
+ * --------------------------------------------------------
+ */
+void SerialEpoll_Wakeup(struct serial_epoll_monitor *monitor)
+{
+	char token = 1;
+	if(write(monitor->wakefd[1], &token, 1) < 0 && errno != EAGAIN)
+		perror("write()");
+}
+
+/**
+ * --------------------------------------------------------
+ * DESTROY EPOLL MONITOR
+ * --------------------------------------------------------
+ */
+void SerialEpoll_Destroy(struct serial_epoll_monitor *monitor)
+{
+	close(monitor->timerfd);
+	close(monitor->wakefd[0]);
+	close(monitor->wakefd[1]);
+	close(monitor->epfd);
+	pthread_mutex_destroy(&monitor->lock);
+}
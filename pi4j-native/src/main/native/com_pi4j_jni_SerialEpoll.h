@@ -0,0 +1,178 @@
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: JNI Native Library
+ * FILENAME      :  com_pi4j_jni_SerialEpoll.h
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+#ifndef _Included_com_pi4j_jni_SerialEpoll
+#define _Included_com_pi4j_jni_SerialEpoll
+
+#include <stdint.h>
+#include <pthread.h>
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+
+// constants
+#define SERIAL_EPOLL_MAX_PORTS     64
+#define SERIAL_EPOLL_MAX_EVENTS    SERIAL_EPOLL_MAX_PORTS
+
+// receive strategies (same values as the 'SerialInterrupt.RECEIVE_*' constants)
+#define SERIAL_RECEIVE_IMMEDIATE        0
+#define SERIAL_RECEIVE_INTER_BYTE_GAP   1
+#define SERIAL_RECEIVE_MINIMUM_BYTES    2
+
+/**
+ * --------------------------------------------------------
+ * SERIAL EPOLL EVENT
+ * --------------------------------------------------------
+ * the data received on a single serial port; 'length' bytes
+ * have been placed at the start of the port's receive buffer
+ */
+struct serial_epoll_event{
+   int      fd;
+   int      length;
+   uint8_t *data;
+};
+
+/**
+ * --------------------------------------------------------
+ * SERIAL EPOLL EVENT HANDLER
+ * --------------------------------------------------------
+ * invoked once per 'SerialEpoll_Poll()' call with the data
+ * of all serial ports that became ready during that wakeup;
+ * each port's receive buffer is not written again until the
+ * handler has returned
+ */
+typedef void (*serial_epoll_handler)(void *context, const struct serial_epoll_event *events, int count);
+
+// monitored serial port data structure
+struct serial_epoll_port{
+   int      fd;
+   int      active;
+   int      attached;       // still part of the epoll set (ports are detached on hangup)
+   int      mode;           // receive strategy
+   int      idleTime;       // inter-byte gap in microseconds
+   int      minimumBytes;
+   uint8_t *data;           // receive buffer
+   int      capacity;
+   int      length;         // bytes collected but not yet delivered
+   int64_t  deadline;       // CLOCK_MONOTONIC nanoseconds; '0' = none
+   void    *cookie;         // caller data returned when the port is removed
+};
+
+// epoll monitor instance data structure
+struct serial_epoll_monitor{
+   int  epfd;
+   int  wakefd[2];
+   int  timerfd;
+   int64_t timerDeadline;
+   pthread_mutex_t lock;
+   serial_epoll_handler handler;
+   void *context;
+   struct serial_epoll_port ports[SERIAL_EPOLL_MAX_PORTS];
+   struct serial_epoll_event events[SERIAL_EPOLL_MAX_EVENTS];
+};
+
+/**
+ * --------------------------------------------------------
+ * INITIALIZE EPOLL MONITOR
+ * --------------------------------------------------------
+ * RETURN VALUE: '0' on success; '-1' if the epoll set, timer
+ * or wakeup pipe could not be created.
+ */
+int SerialEpoll_Init(struct serial_epoll_monitor *monitor, serial_epoll_handler handler, void *context);
+
+/**
+ * --------------------------------------------------------
+ * ADD SERIAL PORT TO EPOLL MONITOR
+ * --------------------------------------------------------
+ * add an open serial port to the epoll set; received data is
+ * collected in the given buffer according to the receive strategy.
+ * The file descriptor remains owned by the caller.
+ *
+ * RETURN VALUE: '1' when the port was added; '0' when the port is already
+ * monitored; '-1' for invalid arguments; '-2' if all port slots are in use;
+ * '-3' if the port could not be added to the epoll set.
+ */
+int SerialEpoll_Add(struct serial_epoll_monitor *monitor, int fd, int mode, int idleTime, int minimumBytes,
+                    uint8_t *data, int capacity, void *cookie);
+
+/**
+ * --------------------------------------------------------
+ * REMOVE SERIAL PORT FROM EPOLL MONITOR
+ * --------------------------------------------------------
+ * once this returns the monitor no longer touches the port's
+ * receive buffer; the cookie passed to 'SerialEpoll_Add()' is
+ * stored in 'cookie' (if not NULL).
+ *
+ * RETURN VALUE: '1' when the port was removed; '0' when the port was not
+ * monitored.
+ */
+int SerialEpoll_Remove(struct serial_epoll_monitor *monitor, int fd, void **cookie);
+
+/**
+ * --------------------------------------------------------
+ * IS SERIAL PORT MONITORED
+ * --------------------------------------------------------
+ */
+int SerialEpoll_Contains(struct serial_epoll_monitor *monitor, int fd);
+
+/**
+ * --------------------------------------------------------
+ * WAIT FOR AND DISPATCH RECEIVED DATA
+ * --------------------------------------------------------
+ * wait up to 'timeout' milliseconds (-1 = forever) for the epoll set;
+ * the data of all ports that became ready in this wakeup is delivered
+ * to the handler in a single call.  Pending inter-byte gap deadlines
+ * wake the monitor up on their own.
+ *
+ * RETURN VALUE: the number of events delivered (0 on timeout,
+ * interruption or wakeup); '-1' on epoll failure.
+ */
+int SerialEpoll_Poll(struct serial_epoll_monitor *monitor, int timeout);
+
+/**
+ * --------------------------------------------------------
+ * WAKE UP EPOLL MONITOR
+ * --------------------------------------------------------
+ * force a blocked 'SerialEpoll_Poll()' call to return
+ */
+void SerialEpoll_Wakeup(struct serial_epoll_monitor *monitor);
+
+/**
+ * --------------------------------------------------------
+ * DESTROY EPOLL MONITOR
+ * --------------------------------------------------------
+ * close the epoll set, timer and wakeup pipe; all ports must
+ * have been removed before
+ */
+void SerialEpoll_Destroy(struct serial_epoll_monitor *monitor);
+
+#ifdef __cplusplus
+}
+#endif
+#endif
@@ -28,24 +28,15 @@
  */
 #include <stdio.h>
 #include <stdint.h>
-#include <stdarg.h>
 #include <stdlib.h>
-#include <poll.h>
-#include <fcntl.h>
 #include <jni.h>
 #include <string.h>
 #include <pthread.h>
-#include <termios.h>
 #include <unistd.h>
-#include <sys/ioctl.h>
-#include <sys/types.h>
-#include <sys/stat.h>
-#include <errno.h>
-#include <sys/epoll.h>
-#include <linux/serial.h>
+#include "com_pi4j_jni_SerialInterrupt.h"
+#include "com_pi4j_jni_SerialEpoll.h"
 
 // constants
-#define SERIAL_MAX_LISTENERS   32
 #define SERIAL_POLL_TIMEOUT    30000 // 30 seconds
 
 // java callback variables
@@ -53,193 +44,183 @@ jclass serial_callback_class;
 jmethodID serial_callback_method;
 JavaVM *serial_callback_jvm;
 
-// monitoring thread data structure
-struct serial_monitor_data{
-   int  thread_id;
-   int  fileDescriptor;
-   int  running;
-};
+// single epoll monitor shared by all monitored serial ports
+struct serial_epoll_monitor serial_monitor;
 
-// monitoring thread data structure array
-struct serial_monitor_data serial_monitor_data_array[SERIAL_MAX_LISTENERS];
+// monitoring thread and state
+pthread_t serial_monitor_thread;
+pthread_mutex_t serial_monitor_lock = PTHREAD_MUTEX_INITIALIZER;
+volatile int serial_monitor_running = 0;
 
-// monitoring serial_monitor_threads array
-pthread_t serial_monitor_threads[SERIAL_MAX_LISTENERS];
+// callback arrays; allocated once per monitoring thread and reused for every batch
+jintArray serial_callback_fds;
+jintArray serial_callback_lengths;
 
-// determine result data array length from the number of bytes available on the receive buffer
-int getAvailableDataLength(int fd){
-    int length;
-    if (ioctl (fd, FIONREAD, &length) == -1){
-        return -1;
-    }
-    return length;
-}
 
 /**
  * --------------------------------------------------------
- * SERIAL PORT DATA RECEIVE MONITORING HANDLER
+ * SERIAL DATA RECEIVED BATCH HANDLER
  * --------------------------------------------------------
- * This method is invoked in a new thread for each serial port
- * this is being monitored.  This way multiple ports can be
- * monitored simultaneously and discretely.
+ * This method is invoked on the monitoring thread with the
+ * data of all serial ports that became ready in a single
+ * epoll wakeup and delivers them to Java in one callback.
+ * The data itself has been placed in the direct receive
+ * buffer of each port.
  */
-int monitorSerialInterrupt(void *threadarg)
+void dispatchSerialData(void *context, const struct serial_epoll_event *events, int count)
 {
-	// obtain the monitoring data structure from the thread argument
-	struct serial_monitor_data *monitor;
-	monitor = (struct serial_monitor_data *) threadarg;
+	JNIEnv *env = (JNIEnv *)context;
+	jint fds[SERIAL_EPOLL_MAX_EVENTS];
+	jint lengths[SERIAL_EPOLL_MAX_EVENTS];
+	int index;
 
-	// cache a local serial port file descriptor value variable
-	int fileDescriptor = monitor->fileDescriptor;
+	// ensure the callback class, method and arrays are available
+	if (serial_callback_class == NULL || serial_callback_method == NULL || serial_callback_fds == NULL)
+		return;
 
-	//printf("\nNATIVE (SerialInterrupt) MONITORING FD %d \n", fileDescriptor);
+	for(index = 0; index < count; index++)
+	{
+		fds[index] = (jint)events[index].fd;
+		lengths[index] = (jint)events[index].length;
+	}
 
-    // monitoring instance variables
-    struct epoll_event ev;
-    struct epoll_event events;
+	(*env)->SetIntArrayRegion(env, serial_callback_fds, 0, count, fds);
+	(*env)->SetIntArrayRegion(env, serial_callback_lengths, 0, count, lengths);
 
-    // create epoll
-    int epfd = epoll_create(1); // argument must be greater than 0; but value is not used
+	// invoke callback to java state method to notify event listeners
+	(*env)->CallStaticVoidMethod(env, serial_callback_class, serial_callback_method,
+			serial_callback_fds, serial_callback_lengths, (jint)count);
 
-    // set polling event triggers and file descriptor
-    ev.events = EPOLLIN;
-    ev.data.fd = fileDescriptor;
+	// never let a listener exception terminate the monitoring thread
+	if((*env)->ExceptionCheck(env))
+	{
+		(*env)->ExceptionDescribe(env);
+		(*env)->ExceptionClear(env);
+	}
+}
 
-    // configure polling parameters for this serial port
-    int res = epoll_ctl(epfd, EPOLL_CTL_ADD, fileDescriptor, &ev);
-    if( res < 0 )
-    {
-        //printf("Error epoll_ctl: %i\n", errno);
+/**
+ * --------------------------------------------------------
+ * SERIAL PORT DATA RECEIVE MONITORING HANDLER
+ * --------------------------------------------------------
+ * This method is invoked in a single thread that monitors all
+ * enabled serial ports using one epoll set.  The thread is
+ * attached to the JVM once for its whole lifetime.
+ */
+void *monitorSerialInterrupts(void *threadarg)
+{
+	JNIEnv *env;
+	jintArray fds;
+	jintArray lengths;
+	int failed = 0;
 
-		// return error; unable to get serial polling control options
-		perror("ERROR SERIAL EPOLL  CTL");
-		return res;
-    }
+	// attach this thread to the JVM once
+	if((*serial_callback_jvm)->AttachCurrentThreadAsDaemon(serial_callback_jvm, (void **)&env, NULL) != JNI_OK)
+	{
+		printf("NATIVE (SerialInterrupt) ERROR; unable to attach monitoring thread to JVM.\n");
+		return NULL;
+	}
+
+	// allocate the reusable callback arrays
+	fds = (*env)->NewIntArray(env, SERIAL_EPOLL_MAX_EVENTS);
+	lengths = (*env)->NewIntArray(env, SERIAL_EPOLL_MAX_EVENTS);
+	if(fds != NULL && lengths != NULL)
+	{
+		serial_callback_fds = (*env)->NewGlobalRef(env, fds);
+		serial_callback_lengths = (*env)->NewGlobalRef(env, lengths);
+	}
 
-	// set the running state of the instance monitor data structure
-	monitor->running = 1;
+	// the JNI environment is only valid on this thread
+	serial_monitor.context = env;
 
 	// continuous thread loop
-	for(;;)
+	while(serial_monitor_running)
 	{
-        // wait for input
-        int ret = epoll_wait(epfd, &events, 1, SERIAL_POLL_TIMEOUT);
-        //printf("SERIAL EPOLL unblocked: %i\n", events.events);
-
-		// if the return value is less than'0' then
-		// the polling encountered and error and we
-		// need to restart
-        if(ret < 0)
-        {
-            perror("SERIAL EPOLL failed\n");
-            //printf("SERIAL EPOLL failed\n");
-            close(epfd);
-
-            // reset the running state of the instance monitor data structure
-            monitor->running = 0;
-
-            return ret;
-        }
-
-		// if the return value is equal to '0' then
-		// the polling simply timed out and we can restart
-        if(ret == 0)
-        {
-            //printf("SERIAL EPOLL TIMEOUT\n");
-            continue;
-        }
-
-		// if the return value is greater than '0' then
-		// data have been received on the serial port
-
-       // sleep a little before raising event notification (callback)
-       usleep (50000) ;	// 50mS
-
-       int length = getAvailableDataLength(fileDescriptor);
-
-       //printf("SERIAL EPOLL - Bytes available: %d\n", length);
-
-       // create a new payload result byte array
-       jbyte result[length];
-
-       // copy the data bytes from the serial receive buffer into the payload result
-       int i;
-       for (i = 0; i < length; i++) {
-
-            // read a single byte from the RX buffer
-            uint8_t x ;
-            if (read (fileDescriptor, &x, 1) != 1){
-                int err_number = errno;
-                char err_message[100];
-                sprintf(err_message, "Failed to read data from serial port. (Error #%d)", err_number);
-                perror("SERIAL FAILED TO READ DATA\n");
-                close(epfd);
-                continue;
-            }
-
-            // assign the single byte; cast to unsigned char
-            result[i] = (unsigned char)(((int)x) & 0xFF);
-       }
-
-       // ensure the callback class and method are available
-       if (serial_callback_class != NULL && serial_callback_method != NULL)
-       {
-            // get attached JVM
-            JNIEnv *env;
-            (*serial_callback_jvm)->AttachCurrentThread(serial_callback_jvm, (void **)&env, NULL);
-
-            // create a java array object and copy the raw payload bytes
-            jbyteArray payload = (*env)->NewByteArray(env, length);
-            (*env)->SetByteArrayRegion(env, payload, 0, length, result);
-
-            // ensure that the JVM exists
-            if(serial_callback_jvm != NULL)
-            {
-                // invoke callback to java state method to notify event listeners
-                (*env)->CallStaticVoidMethod(env, serial_callback_class, serial_callback_method, (jint)fileDescriptor, payload);
-            }
-
-            // detach from thread
-            (*serial_callback_jvm)->DetachCurrentThread(serial_callback_jvm);
-       }
-    }
+		// wait for received data
+		// (timeout every 30 seconds and restart)
+		if(SerialEpoll_Poll(&serial_monitor, SERIAL_POLL_TIMEOUT) < 0)
+		{
+			failed = 1;
+			break;
+		}
+	}
 
-	// if we reached this code (unlikely),
-	// then close the epoll file descriptor and exit the thread
-	close(epfd);
-	return 0;
+	// after a poll failure the monitor is torn down so the next enabled port starts a new
+	// thread; a concurrent stop holds the lock while joining this thread, so only try it
+	while(failed && pthread_mutex_trylock(&serial_monitor_lock) != 0)
+	{
+		if(!serial_monitor_running)
+			failed = 0;
+		else
+			usleep(1000);
+	}
+	if(failed)
+	{
+		int index;
+		for(index = 0; index < SERIAL_EPOLL_MAX_PORTS; index++)
+		{
+			void *reference;
+			if(serial_monitor.ports[index].active &&
+			   SerialEpoll_Remove(&serial_monitor, serial_monitor.ports[index].fd, &reference) > 0)
+				(*env)->DeleteGlobalRef(env, (jobject)reference);
+		}
+		SerialEpoll_Destroy(&serial_monitor);
+		serial_monitor_running = 0;
+		pthread_detach(pthread_self());
+		pthread_mutex_unlock(&serial_monitor_lock);
+	}
+
+	// release the callback arrays and detach from the JVM
+	if(serial_callback_fds != NULL)
+	{
+		(*env)->DeleteGlobalRef(env, serial_callback_fds);
+		(*env)->DeleteGlobalRef(env, serial_callback_lengths);
+		serial_callback_fds = NULL;
+		serial_callback_lengths = NULL;
+	}
+	(*serial_callback_jvm)->DetachCurrentThread(serial_callback_jvm);
+	return NULL;
 }
 
+/**
+ * --------------------------------------------------------
+ * START THE MONITORING THREAD (if not already running)
+ * --------------------------------------------------------
+ * must be called while holding 'serial_monitor_lock'
+ */
+int startSerialMonitorThread()
+{
+	if(serial_monitor_running)
+		return 0;
 
-int findSerialMonitorIndex(int fileDescriptor)
+	if(SerialEpoll_Init(&serial_monitor, dispatchSerialData, NULL) < 0)
+		return -1;
+
+	serial_monitor_running = 1;
+	if(pthread_create(&serial_monitor_thread, NULL, monitorSerialInterrupts, NULL) != 0)
+	{
+		serial_monitor_running = 0;
+		SerialEpoll_Destroy(&serial_monitor);
+		return -1;
+	}
+	return 1;
+}
+
+/**
+ * --------------------------------------------------------
+ * STOP THE MONITORING THREAD (if running)
+ * --------------------------------------------------------
+ * must be called while holding 'serial_monitor_lock'
+ */
+void stopSerialMonitorThread()
 {
-   int index;
-
-   // ensure that the requested file descriptor is valid
-   if(fileDescriptor < 0 )
-   {
-      return -2;
-   }
-
-   // first, attempt to find and existing file descriptor in the data array
-   for (index = 0; index < SERIAL_MAX_LISTENERS; index++)
-   {
-        if(serial_monitor_data_array[index].fileDescriptor == fileDescriptor)
-        {
-          return index;
-        }
-   }
-
-   // if an existing instance was not found, then find a new available (not running) index
-   for (index = 0; index < SERIAL_MAX_LISTENERS; index++)
-   {
-        if(serial_monitor_data_array[index].running <= 0)
-        {
-          return index;
-        }
-   }
-
-   return -1;
+	if(!serial_monitor_running)
+		return;
+
+	// signal the thread to exit and wait for it to detach from the JVM
+	serial_monitor_running = 0;
+	SerialEpoll_Wakeup(&serial_monitor);
+	pthread_join(serial_monitor_thread, NULL);
 }
 
 
@@ -249,39 +230,46 @@ int findSerialMonitorIndex(int fileDescriptor)
  * --------------------------------------------------------
  *
  * Class:     com_pi4j_jni_SerialInterrupt
- * Method:    enableSerialDataReceiveCallback
- * Signature: (I)I
+ * Method:    enableSerialDataReceive
+ * Signature: (ILjava/nio/ByteBuffer;III)I
  */
-JNIEXPORT jint JNICALL Java_com_pi4j_jni_SerialInterrupt_enableSerialDataReceiveCallback
-  (JNIEnv *env, jclass class, jint fileDescriptor)
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_SerialInterrupt_enableSerialDataReceive
+  (JNIEnv *env, jclass class, jint fileDescriptor, jobject buffer, jint mode, jint idleTime, jint minimumBytes)
 {
-	// get the file descriptor
-	int index = findSerialMonitorIndex(fileDescriptor);
+	jobject reference;
+	int ret;
 
-	// ensure that the index is valid
-	if(index >= 0)
+	// the received data is placed in the direct buffer provided by the caller
+	uint8_t *data = (*env)->GetDirectBufferAddress(env, buffer);
+	jlong capacity = (*env)->GetDirectBufferCapacity(env, buffer);
+	if (fileDescriptor < 0 || data == NULL || capacity <= 0)
 	{
-		// only start this thread monitor if it has not already been started
-		if(serial_monitor_data_array[index].running <= 0)
-		{
-			// configure the monitor instance data
-			serial_monitor_data_array[index].thread_id = index;
-			serial_monitor_data_array[index].fileDescriptor = fileDescriptor;
-
-			// create monitoring instance thread
-			pthread_create(&serial_monitor_threads[index], NULL, (void*) monitorSerialInterrupt, (void *) &serial_monitor_data_array[index]);
+		// return '-1' on error; not a valid serial file descriptor or buffer
+		return -1;
+	}
 
-			// return '1' when a thread was actively created and started
-			return 1;
-		}
+	pthread_mutex_lock(&serial_monitor_lock);
 
-		// return '0' when no action was taken;
-		// (monitor already running)
-		return 0;
+	// start the shared monitoring thread on first use
+	if(startSerialMonitorThread() < 0)
+	{
+		pthread_mutex_unlock(&serial_monitor_lock);
+		return -3; // unable to start monitoring thread
 	}
 
-	// return '-1' on error; not a valid serial file descriptor
-	return -1;
+	// the monitor keeps the receive buffer alive until the port gets removed
+	reference = (*env)->NewGlobalRef(env, buffer);
+	ret = SerialEpoll_Add(&serial_monitor, fileDescriptor, mode, idleTime, minimumBytes,
+			data, (int)capacity, reference);
+	if(ret <= 0)
+		(*env)->DeleteGlobalRef(env, reference);
+
+	pthread_mutex_unlock(&serial_monitor_lock);
+
+	// return '1' when the port was actively added to the monitor; '0' when
+	// no action was taken (port already monitored); '-2' when all port slots
+	// are in use and '-3' when the port could not be added to the epoll set
+	return ret;
 }
 
 /*
@@ -296,32 +284,33 @@ JNIEXPORT jint JNICALL Java_com_pi4j_jni_SerialInterrupt_enableSerialDataReceive
 JNIEXPORT jint JNICALL Java_com_pi4j_jni_SerialInterrupt_disableSerialDataReceiveCallback
   (JNIEnv *env, jclass class, jint fileDescriptor)
 {
-	// get the index position for the requested file descriptor
-	int index = findSerialMonitorIndex(fileDescriptor);
+	void *reference = NULL;
+	int ret = 0;
 
-	// ensure that the index is valid
-	if(index >= 0)
+	// ensure that the requested file descriptor is valid
+	if(fileDescriptor < 0)
 	{
-		// kill the monitoring thread
-		if(serial_monitor_data_array[index].running > 0)
-		{
-			pthread_cancel(serial_monitor_threads[index]);
+		// return '-1' on error; not a valid serial descriptor
+		return -1;
+	}
 
-            // reset running flag
-            serial_monitor_data_array[index].running = 0;
-            serial_monitor_data_array[index].fileDescriptor = 0;
+	pthread_mutex_lock(&serial_monitor_lock);
 
-			// return '1' when a thread was actively killed
-			return 1;
-		}
+	// remove the port from the shared epoll set
+	if(serial_monitor_running && SerialEpoll_Remove(&serial_monitor, fileDescriptor, &reference) > 0)
+	{
+		// the monitor no longer writes to the receive buffer
+		(*env)->DeleteGlobalRef(env, (jobject)reference);
 
-		// return '0' when no action was taken
-		// (monitor is not currently active/running)
-		return 0;
+		// return '1' when a port monitor was actively removed
+		ret = 1;
 	}
 
-	// return '-1' on error; not a valid serial descriptor
-	return -1;
+	pthread_mutex_unlock(&serial_monitor_lock);
+
+	// return '0' when no action was taken
+	// (monitor is not currently active/running)
+	return ret;
 }
 
 
@@ -367,8 +356,8 @@ jint SerialInterrupt_JNI_OnLoad(JavaVM *jvm)
         return JNI_ERR;
     }
 
-    // lookup and cache the static method ID for the 'onDataReceiveCallback' callback
-    serial_callback_method = (*env)->GetStaticMethodID(env, cls, "onDataReceiveCallback", "(I[B)V");
+    // lookup and cache the static method ID for the batched 'onDataReceiveCallback' callback
+    serial_callback_method = (*env)->GetStaticMethodID(env, cls, "onDataReceiveCallback", "([I[II)V");
     if (serial_callback_method == NULL)
     {
     	// callback method could not be found in attached java class
@@ -385,19 +374,21 @@ jint SerialInterrupt_JNI_OnLoad(JavaVM *jvm)
  * --------------------------------------------------------
  * JNI LIBRARY UNLOADED
  * --------------------------------------------------------
- * stop all monitoring serial_monitor_threads and clean up references
+ * stop the monitoring thread and clean up references
  */
 void SerialInterrupt_JNI_OnUnload(JavaVM *jvm)
 {
 	//printf("\nNATIVE (SerialInterrupt) UNLOADING\n");
 
-	// kill all running monitor serial_monitor_threads
-	int index = 0;
-	for(index = 0; index < SERIAL_MAX_LISTENERS; index++)
+	// stop the monitoring thread and remove all monitored ports
+	// (the receive buffer references are released with the JVM)
+	pthread_mutex_lock(&serial_monitor_lock);
+	if(serial_monitor_running)
 	{
-		if(serial_monitor_data_array[index].running > 0)
-			pthread_cancel(serial_monitor_threads[index]);
+		stopSerialMonitorThread();
+		SerialEpoll_Destroy(&serial_monitor);
 	}
+	pthread_mutex_unlock(&serial_monitor_lock);
 
 	// destroy cached java references
 	JNIEnv *env;
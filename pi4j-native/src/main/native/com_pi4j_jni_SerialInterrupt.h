@@ -35,13 +35,19 @@
 #ifdef __cplusplus
 extern "C" {
 #endif
+#undef com_pi4j_jni_SerialInterrupt_RECEIVE_IMMEDIATE
+#define com_pi4j_jni_SerialInterrupt_RECEIVE_IMMEDIATE 0L
+#undef com_pi4j_jni_SerialInterrupt_RECEIVE_INTER_BYTE_GAP
+#define com_pi4j_jni_SerialInterrupt_RECEIVE_INTER_BYTE_GAP 1L
+#undef com_pi4j_jni_SerialInterrupt_RECEIVE_MINIMUM_BYTES
+#define com_pi4j_jni_SerialInterrupt_RECEIVE_MINIMUM_BYTES 2L
 /*
  * Class:     com_pi4j_jni_SerialInterrupt
- * Method:    enableSerialDataReceiveCallback
- * Signature: (I)I
+ * Method:    enableSerialDataReceive
+ * Signature: (ILjava/nio/ByteBuffer;III)I
  */
-JNIEXPORT jint JNICALL Java_com_pi4j_jni_SerialInterrupt_enableSerialDataReceiveCallback
-  (JNIEnv *, jclass, jint);
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_SerialInterrupt_enableSerialDataReceive
+  (JNIEnv *, jclass, jint, jobject, jint, jint, jint);
 
 /*
  * Class:     com_pi4j_jni_SerialInterrupt
@@ -487,6 +487,39 @@ JNIEXPORT void JNICALL Java_com_pi4j_wiringpi_Gpio_digitalWriteByte
     digitalWriteByte(value);
 }
 
+/*
+ * Class:     com_pi4j_wiringpi_Gpio
+ * Method:    digitalWritePins
+ * Signature: (JJ)V
+ */
+JNIEXPORT void JNICALL Java_com_pi4j_wiringpi_Gpio_digitalWritePins
+  (JNIEnv *env, jclass obj, jlong pinMask, jlong valueMask)
+{
+    int pin = 0;
+    unsigned long long pins = (unsigned long long)pinMask;
+    unsigned long long values = (unsigned long long)valueMask;
+
+    // wiringPi only exposes a set/clear mask write for the first 8 pins; when all of them are
+    // selected they are written with one GPSET and one GPCLR store
+    if ((pins & 0xFF) == 0xFF)
+    {
+        digitalWriteByte((int)(values & 0xFF));
+        pin = 8;
+        pins >>= 8;
+        values >>= 8;
+    }
+
+    // write the other selected pins without returning to the JVM between pins; these pins are
+    // written one after another, not in a single GPSET/GPCLR register store
+    for (; pins != 0; pin++, pins >>= 1, values >>= 1)
+    {
+        if (pins & 1)
+        {
+            digitalWrite(pin, (int)(values & 1));
+        }
+    }
+}
+
 /*
  * Class:     com_pi4j_wiringpi_Gpio
  * Method:    pwmSetMode
@@ -263,6 +263,14 @@ JNIEXPORT jint JNICALL Java_com_pi4j_wiringpi_Gpio_physPinToGpio
 JNIEXPORT void JNICALL Java_com_pi4j_wiringpi_Gpio_digitalWriteByte
   (JNIEnv *, jclass, jint);
 
+/*
+ * Class:     com_pi4j_wiringpi_Gpio
+ * Method:    digitalWritePins
+ * Signature: (JJ)V
+ */
+JNIEXPORT void JNICALL Java_com_pi4j_wiringpi_Gpio_digitalWritePins
+  (JNIEnv *, jclass, jlong, jlong);
+
 /*
  * Class:     com_pi4j_wiringpi_Gpio
  * Method:    pwmSetMode
@@ -0,0 +1,340 @@
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: JNI Native Library
+ * FILENAME      :  com_pi4j_wiringpi_GpioEpoll.c
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+#define _GNU_SOURCE // pipe2()
+#include <stdio.h>
+#include <stdint.h>
+#include <string.h>
+#include <errno.h>
+#include <fcntl.h>
+#include <time.h>
+#include <pthread.h>
+#include <unistd.h>
+#include <sys/epoll.h>
+#include "com_pi4j_wiringpi_GpioEpoll.h"
+
+// the epoll data token used for the wakeup pipe
+#define GPIO_EPOLL_WAKE_TOKEN   0xFFFFFFFF
+
+
+/**
+ * --------------------------------------------------------
+ * GET MONOTONIC TIMESTAMP (nanoseconds)
+ * --------------------------------------------------------
+ */
+static int64_t getMonotonicNanos()
+{
+	struct timespec ts;
+	clock_gettime(CLOCK_MONOTONIC, &ts);
+	return ((int64_t)ts.tv_sec * 1000000000LL) + ts.tv_nsec;
+}
+
+/**
+ * --------------------------------------------------------
+ * READ PIN STATE FROM VALUE FILE
+ * --------------------------------------------------------
+ * returns '1' for HIGH, '0' for LOW or '-1' if no state
+ * could be read; for pipes the most recently written value
+ * wins since all pending data is consumed.
+ */
+static int readPinState(int fd)
+{
+	char rdbuf[GPIO_EPOLL_RDBUF_LEN];
+	int state = -1;
+	int ret, index;
+
+	// seek to the first position in the data file
+	// (this fails harmlessly with ESPIPE for pipes)
+	lseek(fd, 0, SEEK_SET);
+
+	for(;;)
+	{
+		ret = read(fd, rdbuf, GPIO_EPOLL_RDBUF_LEN);
+		if(ret <= 0)
+			break;
+
+		// the last '0' or '1' character is the current value
+		for(index = 0; index < ret; index++)
+		{
+			if(rdbuf[index] == '0')
+				state = 0;
+			else if(rdbuf[index] == '1')
+				state = 1;
+		}
+
+		// a short read means all pending data has been consumed
+		if(ret < GPIO_EPOLL_RDBUF_LEN)
+			break;
+	}
+	return state;
+}
+
+/**
+ * --------------------------------------------------------
+ * INITIALIZE EPOLL MONITOR
+ * --------------------------------------------------------
+ */
+int GpioEpoll_Init(struct gpio_epoll_monitor *monitor, gpio_epoll_handler handler, void *context)
+{
+	struct epoll_event ev;
+	int index;
+
+	memset(monitor, 0x00, sizeof(struct gpio_epoll_monitor));
+	for(index = 0; index < GPIO_EPOLL_MAX_PINS; index++)
+		monitor->sources[index].fd = -1;
+	monitor->handler = handler;
+	monitor->context = context;
+
+	// create the single epoll set used for all monitored pins
+	monitor->epfd = epoll_create1(EPOLL_CLOEXEC);
+	if(monitor->epfd < 0)
+	{
+		perror("epoll_create1()");
+		return -1;
+	}
+
+	// create the wakeup pipe used to interrupt a blocked 'epoll_wait()'
+	if(pipe2(monitor->wakefd, O_NONBLOCK | O_CLOEXEC) < 0)
+	{
+		perror("pipe2()");
+		close(monitor->epfd);
+		return -1;
+	}
+
+	memset(&ev, 0x00, sizeof(ev));
+	ev.events = EPOLLIN;
+	ev.data.u32 = GPIO_EPOLL_WAKE_TOKEN;
+	if(epoll_ctl(monitor->epfd, EPOLL_CTL_ADD, monitor->wakefd[0], &ev) < 0)
+	{
+		perror("epoll_ctl()");
+		close(monitor->wakefd[0]);
+		close(monitor->wakefd[1]);
+		close(monitor->epfd);
+		return -1;
+	}
+
+	pthread_mutex_init(&monitor->lock, NULL);
+	return 0;
+}
+
+/**
+ * --------------------------------------------------------
+ * ADD FILE TO EPOLL MONITOR
+ * --------------------------------------------------------
+ */
+int GpioEpoll_Add(struct gpio_epoll_monitor *monitor, int pin, const char *file, uint32_t events)
+{
+	struct epoll_event ev;
+	int fd, state;
+
+	// ensure that the requested pin index is valid
+	if(pin < 0 || pin >= GPIO_EPOLL_MAX_PINS)
+		return -1;
+
+	pthread_mutex_lock(&monitor->lock);
+
+	// only add this pin if it is not already monitored
+	if(monitor->sources[pin].active)
+	{
+		pthread_mutex_unlock(&monitor->lock);
+		return 0;
+	}
+
+	// open the pin value file
+	// (this is likely to fail because the pin has not been exported)
+	fd = open(file, O_RDONLY | O_NONBLOCK | O_CLOEXEC);
+	if(fd < 0)
+	{
+		perror(file);
+		pthread_mutex_unlock(&monitor->lock);
+		return -2;
+	}
+
+	// read the current pin state; this also clears any pending
+	// sysfs notification so the first wakeup is a real edge
+	state = readPinState(fd);
+
+	memset(&ev, 0x00, sizeof(ev));
+	ev.events = events;
+	ev.data.u32 = (uint32_t)pin;
+	if(epoll_ctl(monitor->epfd, EPOLL_CTL_ADD, fd, &ev) < 0)
+	{
+		perror("epoll_ctl()");
+		close(fd);
+		pthread_mutex_unlock(&monitor->lock);
+		return -3;
+	}
+
+	monitor->sources[pin].fd = fd;
+	monitor->sources[pin].lastKnownState = state;
+	monitor->sources[pin].active = 1;
+
+	pthread_mutex_unlock(&monitor->lock);
+	return 1;
+}
+
+/**
+ * --------------------------------------------------------
+ * REMOVE FILE FROM EPOLL MONITOR
+ * --------------------------------------------------------
+ */
+int GpioEpoll_Remove(struct gpio_epoll_monitor *monitor, int pin)
+{
+	// ensure that the requested pin index is valid
+	if(pin < 0 || pin >= GPIO_EPOLL_MAX_PINS)
+		return -1;
+
+	pthread_mutex_lock(&monitor->lock);
+
+	if(!monitor->sources[pin].active)
+	{
+		pthread_mutex_unlock(&monitor->lock);
+		return 0;
+	}
+
+	// removing the descriptor under the lock guarantees that the
+	// poll loop never reads a file descriptor after it was closed
+	epoll_ctl(monitor->epfd, EPOLL_CTL_DEL, monitor->sources[pin].fd, NULL);
+	close(monitor->sources[pin].fd);
+	monitor->sources[pin].fd = -1;
+	monitor->sources[pin].active = 0;
+
+	pthread_mutex_unlock(&monitor->lock);
+	return 1;
+}
+
+/**
+ * --------------------------------------------------------
+ * IS PIN MONITORED
+ * --------------------------------------------------------
+ */
+int GpioEpoll_Contains(struct gpio_epoll_monitor *monitor, int pin)
+{
+	int active;
+
+	if(pin < 0 || pin >= GPIO_EPOLL_MAX_PINS)
+		return 0;
+
+	pthread_mutex_lock(&monitor->lock);
+	active = monitor->sources[pin].active;
+	pthread_mutex_unlock(&monitor->lock);
+	return active;
+}
+
+/**
+ * --------------------------------------------------------
+ * WAIT FOR AND DISPATCH PIN STATE CHANGES
+ * --------------------------------------------------------
+ */
+int GpioEpoll_Poll(struct gpio_epoll_monitor *monitor, int timeout)
+{
+	struct epoll_event ready[GPIO_EPOLL_MAX_EVENTS + 1];
+	char drain[16];
+	int64_t timestamp;
+	int count = 0;
+	int ret, index, pin, state;
+
+	// wait for data to be written to any monitored value file
+	ret = epoll_wait(monitor->epfd, ready, GPIO_EPOLL_MAX_EVENTS + 1, timeout);
+	if(ret < 0)
+	{
+		// a signal interruption is simply a spurious wakeup
+		if(errno == EINTR)
+			return 0;
+		perror("epoll_wait()");
+		return -1;
+	}
+
+	// all edges reported by this wakeup share a single timestamp
+	timestamp = getMonotonicNanos();
+
+	pthread_mutex_lock(&monitor->lock);
+	for(index = 0; index < ret; index++)
+	{
+		// consume wakeup requests
+		if(ready[index].data.u32 == GPIO_EPOLL_WAKE_TOKEN)
+		{
+			while(read(monitor->wakefd[0], drain, sizeof(drain)) > 0);
+			continue;
+		}
+
+		// skip pins removed since 'epoll_wait()' returned
+		pin = (int)ready[index].data.u32;
+		if(!monitor->sources[pin].active)
+			continue;
+
+		// compare the value with the last known value state
+		// (we do this to prevent double event invocation for the same value)
+		state = readPinState(monitor->sources[pin].fd);
+		if(state < 0 || state == monitor->sources[pin].lastKnownState)
+			continue;
+
+		monitor->sources[pin].lastKnownState = state;
+		monitor->events[count].pin = pin;
+		monitor->events[count].state = state;
+		monitor->events[count].timestamp = timestamp;
+		count++;
+	}
+	pthread_mutex_unlock(&monitor->lock);
+
+	// deliver the whole batch outside of the lock so that the handler
+	// may safely add or remove pins
+	if(count > 0 && monitor->handler != NULL)
+		monitor->handler(monitor->context, monitor->events, count);
+
+	return count;
+}
+
+/**
+ * --------------------------------------------------------
+ * WAKE UP EPOLL MONITOR
+ * --------------------------------------------------------
+ */
+void GpioEpoll_Wakeup(struct gpio_epoll_monitor *monitor)
+{
+	char token = 1;
+	if(write(monitor->wakefd[1], &token, 1) < 0 && errno != EAGAIN)
+		perror("write()");
+}
+
+/**
+ * --------------------------------------------------------
+ * DESTROY EPOLL MONITOR
+ * --------------------------------------------------------
+ */
+void GpioEpoll_Destroy(struct gpio_epoll_monitor *monitor)
+{
+	int index;
+	for(index = 0; index < GPIO_EPOLL_MAX_PINS; index++)
+		GpioEpoll_Remove(monitor, index);
+
+	close(monitor->wakefd[0]);
+	close(monitor->wakefd[1]);
+	close(monitor->epfd);
+	pthread_mutex_destroy(&monitor->lock);
+}
@@ -0,0 +1,156 @@
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: JNI Native Library
+ * FILENAME      :  com_pi4j_wiringpi_GpioEpoll.h
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+#ifndef _Included_com_pi4j_wiringpi_GpioEpoll
+#define _Included_com_pi4j_wiringpi_GpioEpoll
+
+#include <stdint.h>
+#include <pthread.h>
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+
+// constants
+#define GPIO_EPOLL_MAX_PINS     64
+#define GPIO_EPOLL_MAX_EVENTS   GPIO_EPOLL_MAX_PINS
+#define GPIO_EPOLL_RDBUF_LEN    64
+
+/**
+ * --------------------------------------------------------
+ * GPIO EPOLL EVENT
+ * --------------------------------------------------------
+ * a single pin state change detected by the epoll monitor
+ * (the timestamp is the CLOCK_MONOTONIC time in nanoseconds
+ *  captured when 'epoll_wait()' returned)
+ */
+struct gpio_epoll_event{
+   int      pin;
+   int      state;
+   int64_t  timestamp;
+};
+
+/**
+ * --------------------------------------------------------
+ * GPIO EPOLL EVENT HANDLER
+ * --------------------------------------------------------
+ * invoked once per 'GpioEpoll_Poll()' call with all of the
+ * pin state changes collected during that wakeup
+ */
+typedef void (*gpio_epoll_handler)(void *context, const struct gpio_epoll_event *events, int count);
+
+// monitored file descriptor data structure
+struct gpio_epoll_source{
+   int  fd;
+   int  lastKnownState;
+   int  active;
+};
+
+// epoll monitor instance data structure
+struct gpio_epoll_monitor{
+   int  epfd;
+   int  wakefd[2];
+   pthread_mutex_t lock;
+   gpio_epoll_handler handler;
+   void *context;
+   struct gpio_epoll_source sources[GPIO_EPOLL_MAX_PINS];
+   struct gpio_epoll_event events[GPIO_EPOLL_MAX_EVENTS];
+};
+
+/**
+ * --------------------------------------------------------
+ * INITIALIZE EPOLL MONITOR
+ * --------------------------------------------------------
+ * RETURN VALUE: '0' on success; '-1' if the epoll set or
+ * wakeup pipe could not be created.
+ */
+int GpioEpoll_Init(struct gpio_epoll_monitor *monitor, gpio_epoll_handler handler, void *context);
+
+/**
+ * --------------------------------------------------------
+ * ADD FILE TO EPOLL MONITOR
+ * --------------------------------------------------------
+ * open the value file for the given pin and add it to the epoll set;
+ * 'events' is EPOLLPRI|EPOLLERR for sysfs GPIO value files and
+ * EPOLLIN for pipes/FIFOs.
+ *
+ * RETURN VALUE: '1' when the pin was added; '0' when the pin is already
+ * monitored; '-1' for an invalid pin; '-2' if the file could not be opened
+ * or read; '-3' if the file could not be added to the epoll set.
+ */
+int GpioEpoll_Add(struct gpio_epoll_monitor *monitor, int pin, const char *file, uint32_t events);
+
+/**
+ * --------------------------------------------------------
+ * REMOVE FILE FROM EPOLL MONITOR
+ * --------------------------------------------------------
+ * RETURN VALUE: '1' when the pin was removed; '0' when the pin was not
+ * monitored; '-1' for an invalid pin.
+ */
+int GpioEpoll_Remove(struct gpio_epoll_monitor *monitor, int pin);
+
+/**
+ * --------------------------------------------------------
+ * IS PIN MONITORED
+ * --------------------------------------------------------
+ */
+int GpioEpoll_Contains(struct gpio_epoll_monitor *monitor, int pin);
+
+/**
+ * --------------------------------------------------------
+ * WAIT FOR AND DISPATCH PIN STATE CHANGES
+ * --------------------------------------------------------
+ * wait up to 'timeout' milliseconds (-1 = forever) for the epoll set;
+ * all state changes detected in this wakeup are delivered to the
+ * handler in a single call.
+ *
+ * RETURN VALUE: the number of events delivered (0 on timeout,
+ * interruption or wakeup); '-1' on epoll failure.
+ */
+int GpioEpoll_Poll(struct gpio_epoll_monitor *monitor, int timeout);
+
+/**
+ * --------------------------------------------------------
+ * WAKE UP EPOLL MONITOR
+ * --------------------------------------------------------
+ * force a blocked 'GpioEpoll_Poll()' call to return
+ */
+void GpioEpoll_Wakeup(struct gpio_epoll_monitor *monitor);
+
+/**
+ * --------------------------------------------------------
+ * DESTROY EPOLL MONITOR
+ * --------------------------------------------------------
+ * close all monitored files, the epoll set and the wakeup pipe
+ */
+void GpioEpoll_Destroy(struct gpio_epoll_monitor *monitor);
+
+#ifdef __cplusplus
+}
+#endif
+#endif
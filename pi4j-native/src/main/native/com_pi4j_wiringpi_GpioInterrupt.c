@@ -30,23 +30,18 @@
 #include <stdint.h>
 #include <stdarg.h>
 #include <stdlib.h>
-#include <poll.h>
-#include <fcntl.h>
 #include <jni.h>
 #include <string.h>
 #include <pthread.h>
-#include <termios.h>
 #include <unistd.h>
-#include <sys/ioctl.h>
-#include <sys/types.h>
-#include <sys/stat.h>
+#include <sys/epoll.h>
 #include "com_pi4j_wiringpi_GpioPin.h"
 #include "com_pi4j_wiringpi_GpioInterrupt.h"
 #include "com_pi4j_wiringpi_GpioUtil.h"
+#include "com_pi4j_wiringpi_GpioEpoll.h"
 
 // constants
 #define GPIO_POLL_TIMEOUT    30000 // 30 seconds
-#define GPIO_RDBUF_LEN       5
 
 
 // java callback variables
@@ -54,168 +49,187 @@ jclass gpio_callback_class;
 jmethodID gpio_callback_method;
 JavaVM *gpio_callback_jvm;
 
-// monitoring thread data structure
-struct gpio_monitor_data{
-   int  thread_id;
-   int  pin;
-   int  edgePin;
-   int  lastKnownState;
-   int  running;
-};
+// single epoll monitor shared by all monitored pins
+struct gpio_epoll_monitor gpio_monitor;
 
-// monitoring thread data structure array
-struct gpio_monitor_data gpio_monitor_data_array[MAX_GPIO_PINS];
+// monitoring thread and state
+pthread_t gpio_monitor_thread;
+pthread_mutex_t gpio_monitor_lock = PTHREAD_MUTEX_INITIALIZER;
+volatile int gpio_monitor_running = 0;
 
-// monitoring threads array
-pthread_t gpio_monitor_threads[MAX_GPIO_PINS];
+// callback arrays; allocated once per monitoring thread and reused for every batch
+jintArray gpio_callback_pins;
+jbooleanArray gpio_callback_states;
+jlongArray gpio_callback_timestamps;
 
 
 /**
  * --------------------------------------------------------
- * GPIO PIN MONITORING HANDLER
+ * GPIO PIN STATE CHANGE BATCH HANDLER
  * --------------------------------------------------------
- * This method is invoked in a new thread for each pin that
- * is being monitored.  This way multiple pins can be
- * monitored simultaneously and discretely.
+ * This method is invoked on the monitoring thread with all of
+ * the pin state changes detected in a single epoll wakeup and
+ * delivers them to Java in one callback.
  */
-int monitorPinInterrupt(void *threadarg)
+void dispatchPinStateChanges(void *context, const struct gpio_epoll_event *events, int count)
 {
-	// obtain the monitoring data structure from the thread argument
-	struct gpio_monitor_data *monitorData;
-	monitorData = (struct gpio_monitor_data *) threadarg;
+	JNIEnv *env = (JNIEnv *)context;
+	jint pins[GPIO_EPOLL_MAX_EVENTS];
+	jboolean states[GPIO_EPOLL_MAX_EVENTS];
+	jlong timestamps[GPIO_EPOLL_MAX_EVENTS];
+	int index;
 
-	// cache a local pin value variable
-	int pin = monitorData->pin;
-	int edgePin = monitorData->edgePin;
+	// ensure the callback class, method and arrays are available
+	if (gpio_callback_class == NULL || gpio_callback_method == NULL || gpio_callback_pins == NULL)
+		return;
 
-	//printf("\nNATIVE (GpioInterrupt) MONITORING PIN %d @ EDGE %d\n", pin, edgePin);
+	for(index = 0; index < count; index++)
+	{
+		pins[index] = (jint)events[index].pin;
+		states[index] = (jboolean)(events[index].state ? 1 : 0);
+		timestamps[index] = (jlong)events[index].timestamp;
+	}
 
-    // monitoring instance variables
-	char fn[GPIO_FN_MAXLEN];
-	int fd,ret;
-	struct pollfd pfd;
-	char rdbuf[GPIO_RDBUF_LEN];
+	(*env)->SetIntArrayRegion(env, gpio_callback_pins, 0, count, pins);
+	(*env)->SetBooleanArrayRegion(env, gpio_callback_states, 0, count, states);
+	(*env)->SetLongArrayRegion(env, gpio_callback_timestamps, 0, count, timestamps);
 
-	// allocate memory
-	memset(rdbuf, 0x00, GPIO_RDBUF_LEN);
-	memset(fn, 0x00, GPIO_FN_MAXLEN);
+	// invoke callback to java state method to notify event listeners
+	(*env)->CallStaticVoidMethod(env, gpio_callback_class, gpio_callback_method,
+			gpio_callback_pins, gpio_callback_states, gpio_callback_timestamps, (jint)count);
 
-	// attempt to access the pin state from the linux sysfs
-	// (each GPIO pin value is stored in file: '/sys/class/gpio/gpio#/value' )
-	getGpioPinValueFile(fn, edgePin);
-	fd=open(fn, O_RDONLY);
-	if(fd<0)
+	// never let a listener exception terminate the monitoring thread
+	if((*env)->ExceptionCheck(env))
 	{
-		// return error; unable to get file descriptor
-		// (this is likely because the pin has not been exported)
-		perror(fn);
-		return 2;
+		(*env)->ExceptionDescribe(env);
+		(*env)->ExceptionClear(env);
 	}
+}
 
-	// set polling config structure
-	pfd.fd=fd;
-	pfd.events=POLLPRI; // High priority data may be read.
+/**
+ * --------------------------------------------------------
+ * GPIO PIN MONITORING HANDLER
+ * --------------------------------------------------------
+ * This method is invoked in a single thread that monitors all
+ * enabled pins using one epoll set.  The thread is attached to
+ * the JVM once for its whole lifetime.
+ */
+void *monitorPinInterrupts(void *threadarg)
+{
+	JNIEnv *env;
+	jintArray pins;
+	jbooleanArray states;
+	jlongArray timestamps;
+	int failed = 0;
 
-	// attempt to read the pin state from the linux sysfs
-	ret=read(fd, rdbuf, GPIO_RDBUF_LEN-1);
-	if(ret<0)
+	// attach this thread to the JVM once
+	if((*gpio_callback_jvm)->AttachCurrentThreadAsDaemon(gpio_callback_jvm, (void **)&env, NULL) != JNI_OK)
 	{
-		// return error; unable to read the data file
-		// (this is likely because the user has insufficient permissions)
-		perror("read()");
-		return 4;
+		printf("NATIVE (GpioInterrupt) ERROR; unable to attach monitoring thread to JVM.\n");
+		return NULL;
 	}
 
-	//printf("value is: %s\n", rdbuf);
-
-	// set the running state of the instance monitor data structure
-	monitorData->running = 1;
+	// allocate the reusable callback arrays
+	pins = (*env)->NewIntArray(env, GPIO_EPOLL_MAX_EVENTS);
+	states = (*env)->NewBooleanArray(env, GPIO_EPOLL_MAX_EVENTS);
+	timestamps = (*env)->NewLongArray(env, GPIO_EPOLL_MAX_EVENTS);
+	if(pins != NULL && states != NULL && timestamps != NULL)
+	{
+		gpio_callback_pins = (*env)->NewGlobalRef(env, pins);
+		gpio_callback_states = (*env)->NewGlobalRef(env, states);
+		gpio_callback_timestamps = (*env)->NewGlobalRef(env, timestamps);
+	}
 
-	// initialize last known value and cache the value as the last known state
-	int compareLastKnown = strncmp(rdbuf, "1", 1); // only compare the first character; rdbuff may have more junk chars
-	monitorData->lastKnownState = compareLastKnown;
+	// the JNI environment is only valid on this thread
+	gpio_monitor.context = env;
 
 	// continuous thread loop
-	for(;;)
+	while(gpio_monitor_running)
 	{
-		// clear/reset the data buffer
-		memset(rdbuf, 0x00, GPIO_RDBUF_LEN);
-
-		// seek to the fist position in the data file
-		lseek(fd, 0, SEEK_SET);
-
-		// wait for data to be written to the GPIO value file
-		// (timeout every 10 seconds and restart)
-		ret=poll(&pfd, 1, GPIO_POLL_TIMEOUT);
-
-		// if the return value is less than '0' then
-		// an error was thrown; bail out of the thread
-		if(ret<0)
+		// wait for pin state changes
+		// (timeout every 30 seconds and restart)
+		if(GpioEpoll_Poll(&gpio_monitor, GPIO_POLL_TIMEOUT) < 0)
 		{
-			perror("poll()");
-			close(fd);
-			return 6;
-		}
-
-		// if the return value is equal to '0' then
-		// the polling simply timed out and we can restart
-		else if(ret==0)
-		{
-			//printf("timeout\n");
-			continue;
+			failed = 1;
+			break;
 		}
+	}
 
-		// if the return value is greater than '0' then
-		// a change to the GPIO data file occurred
+	// after a poll failure the monitor is torn down so the next enabled pin starts a new
+	// thread; a concurrent stop holds the lock while joining this thread, so only try it
+	while(failed && pthread_mutex_trylock(&gpio_monitor_lock) != 0)
+	{
+		if(!gpio_monitor_running)
+			failed = 0;
 		else
+			usleep(1000);
+	}
+	if(failed)
+	{
+		int index;
+		for(index = 0; index < GPIO_EPOLL_MAX_PINS; index++)
 		{
-			// read the data from the file into the data buffer
-			ret=read(fd, rdbuf, GPIO_RDBUF_LEN-1);
-			if(ret<0)
-			{
-				// data read error
-				perror("read()");
-				continue;
-			}
-
-			//printf("interrupt, value is: %s\n", rdbuf);
-
-			// compare the data in the data buffer with the last known value state
-			// (we do this to prevent double event invocation for the same value)
-			int compareResult = strncmp(rdbuf, "1", 1); // only compare the first character; rdbuff may have more junk chars
-			if(compareResult != monitorData->lastKnownState)
-			{
-				// cache new last known state in the instance data structure
-				monitorData->lastKnownState = compareResult;
-
-				// ensure the callback class and method are available
-				if (gpio_callback_class != NULL && gpio_callback_method != NULL)
-				{
-					// get attached JVM
-					JNIEnv *env;
-					(*gpio_callback_jvm)->AttachCurrentThread(gpio_callback_jvm, (void **)&env, NULL);
-
-					// ensure that the JVM exists
-					if(gpio_callback_jvm != NULL)
-					{
-						// invoke callback to java state method to notify event listeners
-						if(compareResult == 0)
-							(*env)->CallStaticVoidMethod(env, gpio_callback_class, gpio_callback_method, (jint)pin, (jboolean)1);
-						else
-							(*env)->CallStaticVoidMethod(env, gpio_callback_class, gpio_callback_method, (jint)pin, (jboolean)0);
-					}
-
-                    // detach from thread
-                    (*gpio_callback_jvm)->DetachCurrentThread(gpio_callback_jvm);
-				}
-			}
+			GpioEpoll_Remove(&gpio_monitor, index);
 		}
+		GpioEpoll_Destroy(&gpio_monitor);
+		gpio_monitor_running = 0;
+		pthread_detach(pthread_self());
+		pthread_mutex_unlock(&gpio_monitor_lock);
 	}
 
-	// if we reached this code (unlikely),
-	// then close the data file and exit the thread
-	close(fd);
-	return 0;
+	// release the callback arrays and detach from the JVM
+	if(gpio_callback_pins != NULL)
+	{
+		(*env)->DeleteGlobalRef(env, gpio_callback_pins);
+		(*env)->DeleteGlobalRef(env, gpio_callback_states);
+		(*env)->DeleteGlobalRef(env, gpio_callback_timestamps);
+		gpio_callback_pins = NULL;
+		gpio_callback_states = NULL;
+		gpio_callback_timestamps = NULL;
+	}
+	(*gpio_callback_jvm)->DetachCurrentThread(gpio_callback_jvm);
+	return NULL;
+}
+
+/**
+ * --------------------------------------------------------
+ * START THE MONITORING THREAD (if not already running)
+ * --------------------------------------------------------
+ * must be called while holding 'gpio_monitor_lock'
+ */
+int startMonitorThread()
+{
+	if(gpio_monitor_running)
+		return 0;
+
+	if(GpioEpoll_Init(&gpio_monitor, dispatchPinStateChanges, NULL) < 0)
+		return -1;
+
+	gpio_monitor_running = 1;
+	if(pthread_create(&gpio_monitor_thread, NULL, monitorPinInterrupts, NULL) != 0)
+	{
+		gpio_monitor_running = 0;
+		GpioEpoll_Destroy(&gpio_monitor);
+		return -1;
+	}
+	return 1;
+}
+
+/**
+ * --------------------------------------------------------
+ * STOP THE MONITORING THREAD (if running)
+ * --------------------------------------------------------
+ * must be called while holding 'gpio_monitor_lock'
+ */
+void stopMonitorThread()
+{
+	if(!gpio_monitor_running)
+		return;
+
+	// signal the thread to exit and wait for it to detach from the JVM
+	gpio_monitor_running = 0;
+	GpioEpoll_Wakeup(&gpio_monitor);
+	pthread_join(gpio_monitor_thread, NULL);
 }
 
 /*
@@ -232,47 +246,65 @@ JNIEXPORT jint JNICALL Java_com_pi4j_wiringpi_GpioInterrupt_enablePinStateChange
 	// get the index position for the requested pin number
 	int index = pin;
 	int edgePin = getEdgePin(index);
+	int ret;
 
 	// ensure that the requested pin index is valid
-	if(index >= 0 && edgePin >= 0)
+	if(index < 0 || edgePin < 0 || index >= GPIO_EPOLL_MAX_PINS)
 	{
-		// only start this thread monitor if it has not already been started
-		if(gpio_monitor_data_array[index].running <= 0)
-		{
-            // get existing pin edge trigger
-            int edge;
-            edge = (int)Java_com_pi4j_wiringpi_GpioUtil_getEdgeDetection(env, class, pin);
-
-            // if pin edge trigger is not set to "both", then attempt to set it now
-            if(edge != com_pi4j_wiringpi_GpioUtil_EDGE_BOTH){
-                int retval;
-                retval = (int)Java_com_pi4j_wiringpi_GpioUtil_setEdgeDetection(env, class, pin, com_pi4j_wiringpi_GpioUtil_EDGE_BOTH);
-
-                // exit if pin edge trigger configuration was not successful
-                if(retval <= 0){
-                    return -2; // unable to set edge trigger
-                }
-            }
-
-			// configure the monitor instance data
-			gpio_monitor_data_array[index].thread_id = index;
-			gpio_monitor_data_array[index].pin = pin;
-			gpio_monitor_data_array[index].edgePin = edgePin;
-
-			// create monitoring instance thread
-			pthread_create(&gpio_monitor_threads[index], NULL, (void*) monitorPinInterrupt, (void *) &gpio_monitor_data_array[index]);
-
-			// return '1' when a thread was actively created and started
-			return 1;
-		}
+		// return '-1' on error; not a valid pin
+		return -1;
+	}
+
+	pthread_mutex_lock(&gpio_monitor_lock);
 
+	// start the shared monitoring thread on first use
+	if(startMonitorThread() < 0)
+	{
+		pthread_mutex_unlock(&gpio_monitor_lock);
+		return -3; // unable to start monitoring thread
+	}
+
+	// only add this pin if it is not already being monitored
+	if(GpioEpoll_Contains(&gpio_monitor, index))
+	{
 		// return '0' when no action was taken;
 		// (monitor already running)
+		pthread_mutex_unlock(&gpio_monitor_lock);
 		return 0;
 	}
 
-	// return '-1' on error; not a valid pin
-	return -1;
+	// get existing pin edge trigger
+	int edge;
+	edge = (int)Java_com_pi4j_wiringpi_GpioUtil_getEdgeDetection(env, class, pin);
+
+	// if pin edge trigger is not set to "both", then attempt to set it now
+	if(edge != com_pi4j_wiringpi_GpioUtil_EDGE_BOTH){
+		int retval;
+		retval = (int)Java_com_pi4j_wiringpi_GpioUtil_setEdgeDetection(env, class, pin, com_pi4j_wiringpi_GpioUtil_EDGE_BOTH);
+
+		// exit if pin edge trigger configuration was not successful
+		if(retval <= 0){
+			pthread_mutex_unlock(&gpio_monitor_lock);
+			return -2; // unable to set edge trigger
+		}
+	}
+
+	// add the pin value file to the shared epoll set
+	// (each GPIO pin value is stored in file: '/sys/class/gpio/gpio#/value' )
+	char fn[GPIO_FN_MAXLEN];
+	memset(fn, 0x00, GPIO_FN_MAXLEN);
+	getGpioPinValueFile(fn, edgePin);
+	ret = GpioEpoll_Add(&gpio_monitor, index, fn, EPOLLPRI | EPOLLERR);
+
+	pthread_mutex_unlock(&gpio_monitor_lock);
+
+	// return '1' when the pin was actively added to the monitor
+	if(ret > 0)
+		return 1;
+
+	// return '-3' when the pin value file could not be monitored
+	// (this is likely because the pin has not been exported)
+	return -3;
 }
 
 /*
@@ -288,33 +320,32 @@ JNIEXPORT jint JNICALL Java_com_pi4j_wiringpi_GpioInterrupt_disablePinStateChang
 {
 	// get the index position for the requested pin number
 	int index = pin;
+	int ret = 0;
 
 	// ensure that the requested pin index is valid
-	if(index >= 0)
+	if(index < 0 || index >= GPIO_EPOLL_MAX_PINS)
 	{
-		// kill the monitoring thread
-		if(gpio_monitor_data_array[index].running > 0)
-		{
-            // remove existing pin edge trigger
-            Java_com_pi4j_wiringpi_GpioUtil_setEdgeDetection(env, class, pin, com_pi4j_wiringpi_GpioUtil_EDGE_NONE);
-
-			// cancel monitoring thread
-			pthread_cancel(gpio_monitor_threads[index]);
+		// return '-1' on error; not a valid pin
+		return -1;
+	}
 
-            // reset running flag
-            gpio_monitor_data_array[index].running = 0;
+	pthread_mutex_lock(&gpio_monitor_lock);
 
-			// return '1' when a thread was actively killed
-			return 1;
-		}
+	// remove the pin from the shared epoll set
+	if(gpio_monitor_running && GpioEpoll_Remove(&gpio_monitor, index) > 0)
+	{
+		// remove existing pin edge trigger
+		Java_com_pi4j_wiringpi_GpioUtil_setEdgeDetection(env, class, pin, com_pi4j_wiringpi_GpioUtil_EDGE_NONE);
 
-		// return '0' when no action was taken
-		// (monitor is not currently active/running)
-		return 0;
+		// return '1' when a pin monitor was actively removed
+		ret = 1;
 	}
 
-	// return '-1' on error; not a valid pin
-	return -1;
+	pthread_mutex_unlock(&gpio_monitor_lock);
+
+	// return '0' when no action was taken
+	// (monitor is not currently active/running)
+	return ret;
 }
 
 
@@ -360,8 +391,8 @@ jint GpioInterrupt_JNI_OnLoad(JavaVM *jvm)
         return JNI_ERR;
     }
 
-    // lookup and cache the static method ID for the 'pinStateChangeCallback' callback
-    gpio_callback_method = (*env)->GetStaticMethodID(env, cls, "pinStateChangeCallback", "(IZ)V");
+    // lookup and cache the static method ID for the batched 'pinStateChangeCallback' callback
+    gpio_callback_method = (*env)->GetStaticMethodID(env, cls, "pinStateChangeCallback", "([I[Z[JI)V");
     if (gpio_callback_method == NULL)
     {
     	// callback method could not be found in attached java class
@@ -378,17 +409,18 @@ jint GpioInterrupt_JNI_OnLoad(JavaVM *jvm)
  * --------------------------------------------------------
  * JNI LIBRARY UNLOADED
  * --------------------------------------------------------
- * stop all monitoring threads and clean up references
+ * stop the monitoring thread and clean up references
  */
 void GpioInterrupt_JNI_OnUnload(JavaVM *jvm)
 {
-	// kill all running monitor threads
-	int index = 0;
-	for(index = 0; index < MAX_GPIO_PINS; index++)
+	// stop the monitoring thread and close all monitored files
+	pthread_mutex_lock(&gpio_monitor_lock);
+	if(gpio_monitor_running)
 	{
-		if(gpio_monitor_data_array[index].running > 0)
-			pthread_cancel(gpio_monitor_threads[index]);
+		stopMonitorThread();
+		GpioEpoll_Destroy(&gpio_monitor);
 	}
+	pthread_mutex_unlock(&gpio_monitor_lock);
 
 	// destroy cached java references
 	JNIEnv *env;
@@ -0,0 +1,183 @@
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: JNI Native Library
+ * FILENAME      :  GpioEpollTest.c
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+/**
+ * --------------------------------------------------------
+ * GPIO EPOLL MONITOR TEST
+ * --------------------------------------------------------
+ * Exercises the epoll monitor loop against FIFOs created in a
+ * temporary directory in place of the sysfs GPIO value files.
+ * (regular files cannot be added to an epoll set)
+ *
+ * build & run:  make test
+ */
+#include <stdio.h>
+#include <stdlib.h>
+#include <string.h>
+#include <fcntl.h>
+#include <unistd.h>
+#include <sys/stat.h>
+#include <sys/epoll.h>
+#include "com_pi4j_wiringpi_GpioEpoll.h"
+
+// test state
+static int failures = 0;
+static int batches = 0;
+static int received = 0;
+static struct gpio_epoll_event last[GPIO_EPOLL_MAX_EVENTS];
+
+#define CHECK(cond) do { if(!(cond)) { printf("FAILED: %s (line %d)\n", #cond, __LINE__); failures++; } } while(0)
+
+static void handler(void *context, const struct gpio_epoll_event *events, int count)
+{
+	batches++;
+	received = count;
+	memcpy(last, events, count * sizeof(struct gpio_epoll_event));
+}
+
+static void reset()
+{
+	batches = 0;
+	received = 0;
+	memset(last, 0x00, sizeof(last));
+}
+
+static int makeFifo(const char *dir, const char *name, char *path, int initial)
+{
+	int fd;
+	sprintf(path, "%s/%s", dir, name);
+	if(mkfifo(path, 0600) < 0)
+	{
+		perror(path);
+		exit(1);
+	}
+
+	// keep a writer open for the whole test so the reader never sees EOF/HUP
+	fd = open(path, O_RDWR | O_NONBLOCK);
+	if(initial >= 0 && write(fd, initial ? "1\n" : "0\n", 2) != 2)
+		perror("write()");
+	return fd;
+}
+
+static void writeValue(int fd, int value)
+{
+	if(write(fd, value ? "1\n" : "0\n", 2) != 2)
+		perror("write()");
+}
+
+int main(int argc, char **argv)
+{
+	struct gpio_epoll_monitor monitor;
+	char dir[] = "/tmp/pi4j-epoll-XXXXXX";
+	char path0[256], path1[256], file[256];
+	int w0, w1, ret;
+
+	if(mkdtemp(dir) == NULL)
+	{
+		perror("mkdtemp()");
+		return 1;
+	}
+
+	CHECK(GpioEpoll_Init(&monitor, handler, NULL) == 0);
+
+	// FIFOs standing in for two GPIO value files; both start LOW
+	w0 = makeFifo(dir, "gpio0", path0, 0);
+	w1 = makeFifo(dir, "gpio1", path1, 0);
+
+	// add contract
+	CHECK(GpioEpoll_Add(&monitor, 0, path0, EPOLLIN) == 1);
+	CHECK(GpioEpoll_Add(&monitor, 0, path0, EPOLLIN) == 0);
+	CHECK(GpioEpoll_Add(&monitor, 1, path1, EPOLLIN) == 1);
+	CHECK(GpioEpoll_Add(&monitor, -1, path0, EPOLLIN) == -1);
+	CHECK(GpioEpoll_Add(&monitor, GPIO_EPOLL_MAX_PINS, path0, EPOLLIN) == -1);
+	sprintf(file, "%s/missing", dir);
+	CHECK(GpioEpoll_Add(&monitor, 2, file, EPOLLIN) == -2);
+	sprintf(file, "%s/plain", dir);
+	close(open(file, O_CREAT | O_WRONLY, 0600));
+	CHECK(GpioEpoll_Add(&monitor, 2, file, EPOLLIN) == -3);
+	CHECK(GpioEpoll_Contains(&monitor, 0) == 1);
+	CHECK(GpioEpoll_Contains(&monitor, 2) == 0);
+
+	// nothing pending; poll times out
+	reset();
+	CHECK(GpioEpoll_Poll(&monitor, 10) == 0);
+	CHECK(batches == 0);
+
+	// single edge
+	reset();
+	writeValue(w0, 1);
+	CHECK(GpioEpoll_Poll(&monitor, 1000) == 1);
+	CHECK(batches == 1 && received == 1);
+	CHECK(last[0].pin == 0 && last[0].state == 1 && last[0].timestamp > 0);
+
+	// unchanged value is not reported again
+	reset();
+	writeValue(w0, 1);
+	CHECK(GpioEpoll_Poll(&monitor, 100) == 0);
+	CHECK(batches == 0);
+
+	// edges on two pins in the same wakeup are delivered as one batch
+	reset();
+	writeValue(w0, 0);
+	writeValue(w1, 1);
+	CHECK(GpioEpoll_Poll(&monitor, 1000) == 2);
+	CHECK(batches == 1 && received == 2);
+	CHECK(last[0].timestamp == last[1].timestamp);
+	CHECK((last[0].pin == 0 && last[0].state == 0 && last[1].pin == 1 && last[1].state == 1) ||
+	      (last[1].pin == 0 && last[1].state == 0 && last[0].pin == 1 && last[0].state == 1));
+
+	// removed pins are no longer reported
+	reset();
+	CHECK(GpioEpoll_Remove(&monitor, 1) == 1);
+	CHECK(GpioEpoll_Remove(&monitor, 1) == 0);
+	writeValue(w1, 0);
+	CHECK(GpioEpoll_Poll(&monitor, 100) == 0);
+	CHECK(batches == 0);
+
+	// wakeup interrupts a blocked poll
+	reset();
+	GpioEpoll_Wakeup(&monitor);
+	ret = GpioEpoll_Poll(&monitor, 5000);
+	CHECK(ret == 0);
+
+	GpioEpoll_Destroy(&monitor);
+	close(w0);
+	close(w1);
+	unlink(path0);
+	unlink(path1);
+	unlink(file);
+	rmdir(dir);
+
+	if(failures > 0)
+	{
+		printf("GpioEpollTest: %d FAILURE(S)\n", failures);
+		return 1;
+	}
+	printf("GpioEpollTest: OK\n");
+	return 0;
+}
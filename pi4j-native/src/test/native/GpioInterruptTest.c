@@ -0,0 +1,205 @@
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: JNI Native Library
+ * FILENAME      :  GpioInterruptTest.c
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+/**
+ * --------------------------------------------------------
+ * GPIO INTERRUPT MONITOR THREAD TEST
+ * --------------------------------------------------------
+ * Runs the shared GPIO monitoring thread against a FIFO in place
+ * of the sysfs GPIO value file, with a minimal fake JVM, and makes
+ * 'epoll_wait()' fail (linked with --wrap=epoll_wait) to verify
+ * that the next enabled pin starts a new monitoring thread.
+ *
+ * build & run:  make test
+ */
+#include <stdio.h>
+#include <stdlib.h>
+#include <string.h>
+#include <errno.h>
+#include <fcntl.h>
+#include <unistd.h>
+#include <sys/stat.h>
+#include <sys/epoll.h>
+#include <jni.h>
+#include "com_pi4j_wiringpi_GpioInterrupt.h"
+#include "com_pi4j_wiringpi_GpioUtil.h"
+#include "com_pi4j_wiringpi_GpioEpoll.h"
+
+// state of the code under test ('gpio_callback_jvm' is declared in the header)
+extern struct gpio_epoll_monitor gpio_monitor;
+extern volatile int gpio_monitor_running;
+
+// test state
+static int failures = 0;
+static volatile int failPoll = 0;
+static char valueFile[256];
+
+#define CHECK(cond) do { if(!(cond)) { printf("FAILED: %s (line %d)\n", #cond, __LINE__); failures++; } } while(0)
+
+int __real_epoll_wait(int epfd, struct epoll_event *events, int maxevents, int timeout);
+
+int __wrap_epoll_wait(int epfd, struct epoll_event *events, int maxevents, int timeout)
+{
+	if(failPoll)
+	{
+		errno = EBADF;
+		return -1;
+	}
+	return __real_epoll_wait(epfd, events, maxevents, timeout);
+}
+
+// wiringPi dependent pin helpers; every pin maps to the test FIFO
+int getEdgePin(int pin)
+{
+	return pin;
+}
+
+int getGpioPinValueFile(char *file, int pin)
+{
+	strcpy(file, valueFile);
+	return 1;
+}
+
+JNIEXPORT jint JNICALL Java_com_pi4j_wiringpi_GpioUtil_getEdgeDetection
+  (JNIEnv *env, jclass class, jint pin)
+{
+	return com_pi4j_wiringpi_GpioUtil_EDGE_BOTH;
+}
+
+JNIEXPORT jboolean JNICALL Java_com_pi4j_wiringpi_GpioUtil_setEdgeDetection
+  (JNIEnv *env, jclass class, jint pin, jint edge)
+{
+	return 1;
+}
+
+// fake JVM; the monitoring thread works without the callback arrays
+static struct JNINativeInterface_ envFunctions;
+static JNIEnv env = &envFunctions;
+static struct JNIInvokeInterface_ vmFunctions;
+static JavaVM vm = &vmFunctions;
+
+static jint JNICALL attach(JavaVM *jvm, void **penv, void *args)
+{
+	*penv = &env;
+	return JNI_OK;
+}
+
+static jint JNICALL detach(JavaVM *jvm)
+{
+	return JNI_OK;
+}
+
+static jint JNICALL getEnv(JavaVM *jvm, void **penv, jint version)
+{
+	return JNI_EDETACHED;
+}
+
+static jintArray JNICALL newIntArray(JNIEnv *e, jsize length)
+{
+	return NULL;
+}
+
+static jbooleanArray JNICALL newBooleanArray(JNIEnv *e, jsize length)
+{
+	return NULL;
+}
+
+static jlongArray JNICALL newLongArray(JNIEnv *e, jsize length)
+{
+	return NULL;
+}
+
+static void waitForStopped()
+{
+	int i;
+	for(i = 0; i < 1000 && gpio_monitor_running; i++)
+		usleep(2000);
+}
+
+int main(int argc, char **argv)
+{
+	char dir[] = "/tmp/pi4j-interrupt-XXXXXX";
+	int writer;
+
+	if(mkdtemp(dir) == NULL)
+	{
+		perror("mkdtemp()");
+		return 1;
+	}
+
+	// FIFO standing in for the GPIO value file; keep a writer open so it never hangs up
+	sprintf(valueFile, "%s/value", dir);
+	if(mkfifo(valueFile, 0600) < 0)
+	{
+		perror(valueFile);
+		return 1;
+	}
+	writer = open(valueFile, O_RDWR | O_NONBLOCK);
+
+	vmFunctions.AttachCurrentThreadAsDaemon = attach;
+	vmFunctions.DetachCurrentThread = detach;
+	vmFunctions.GetEnv = getEnv;
+	envFunctions.NewIntArray = newIntArray;
+	envFunctions.NewBooleanArray = newBooleanArray;
+	envFunctions.NewLongArray = newLongArray;
+	gpio_callback_jvm = &vm;
+
+	// the first enabled pin starts the monitoring thread
+	CHECK(Java_com_pi4j_wiringpi_GpioInterrupt_enablePinStateChangeCallback(&env, NULL, 3) == 1);
+	CHECK(Java_com_pi4j_wiringpi_GpioInterrupt_enablePinStateChangeCallback(&env, NULL, 3) == 0);
+	CHECK(gpio_monitor_running == 1);
+
+	// a poll failure ends the thread and tears the monitor down
+	failPoll = 1;
+	GpioEpoll_Wakeup(&gpio_monitor);
+	waitForStopped();
+	CHECK(gpio_monitor_running == 0);
+	failPoll = 0;
+
+	// the next enabled pin starts a new monitoring thread
+	CHECK(Java_com_pi4j_wiringpi_GpioInterrupt_enablePinStateChangeCallback(&env, NULL, 3) == 1);
+	CHECK(gpio_monitor_running == 1);
+	CHECK(GpioEpoll_Contains(&gpio_monitor, 3) == 1);
+
+	// the new thread still stops normally
+	CHECK(Java_com_pi4j_wiringpi_GpioInterrupt_disablePinStateChangeCallback(&env, NULL, 3) == 1);
+	GpioInterrupt_JNI_OnUnload(&vm);
+	CHECK(gpio_monitor_running == 0);
+
+	close(writer);
+	unlink(valueFile);
+	rmdir(dir);
+
+	if(failures > 0)
+	{
+		printf("GpioInterruptTest: %d FAILURE(S)\n", failures);
+		return 1;
+	}
+	printf("GpioInterruptTest: OK\n");
+	return 0;
+}
@@ -0,0 +1,186 @@
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: JNI Native Library
+ * FILENAME      :  I2CBufferTest.c
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+/**
+ * --------------------------------------------------------
+ * I2C BYTEBUFFER TEST
+ * --------------------------------------------------------
+ * Verifies that ByteBuffer transfers hand the caller's memory
+ * to the kernel without copying: direct buffers at their native
+ * address, heap arrays pinned with GetPrimitiveArrayCritical.
+ * ioctl(), read() and write() are replaced by recording shims
+ * (linked with -Wl,--wrap=ioctl,--wrap=read,--wrap=write) and
+ * a JNIEnv providing only the functions used is passed in.
+ *
+ * build & run:  make test
+ */
+#include <stdio.h>
+#include <stdarg.h>
+#include <string.h>
+#include <fcntl.h>
+#include <unistd.h>
+#include <linux/i2c.h>
+#include <linux/i2c-dev.h>
+#include "com_pi4j_jni_I2C.h"
+
+// test state
+static int failures = 0;
+static const void *last_write_buf = NULL;
+static size_t last_write_count = 0;
+static unsigned char last_write_first = 0;
+static void *last_read_buf = NULL;
+static struct i2c_msg last_msgs[2];
+static int critical_pinned = 0;
+static jint critical_release_mode = -1;
+
+// backing memory of the fake direct buffer and heap array
+static unsigned char direct[8200];
+static unsigned char heap[64];
+
+#define CHECK(cond) do { if(!(cond)) { printf("FAILED: %s (line %d)\n", #cond, __LINE__); failures++; } } while(0)
+
+int __wrap_ioctl(int fd, unsigned long request, ...)
+{
+	va_list args;
+	void *arg;
+
+	va_start(args, request);
+	arg = va_arg(args, void *);
+	va_end(args);
+
+	if (request == I2C_RDWR) {
+		struct i2c_rdwr_ioctl_data *data = (struct i2c_rdwr_ioctl_data *)arg;
+		last_msgs[0] = data->msgs[0];
+		last_msgs[1] = data->msgs[1];
+		return data->nmsgs;
+	}
+	return 0;
+}
+
+ssize_t __wrap_write(int fd, const void *buf, size_t count)
+{
+	last_write_buf = buf;
+	last_write_count = count;
+	last_write_first = ((const unsigned char *)buf)[0];
+	return count;
+}
+
+ssize_t __wrap_read(int fd, void *buf, size_t count)
+{
+	last_read_buf = buf;
+	return count;
+}
+
+// fake JNI functions; the buffer and array objects are ignored
+static void * JNICALL fake_GetDirectBufferAddress(JNIEnv *env, jobject buf)
+{
+	return direct;
+}
+
+static jlong JNICALL fake_GetDirectBufferCapacity(JNIEnv *env, jobject buf)
+{
+	return sizeof(direct);
+}
+
+static jsize JNICALL fake_GetArrayLength(JNIEnv *env, jarray array)
+{
+	return sizeof(heap);
+}
+
+static void * JNICALL fake_GetPrimitiveArrayCritical(JNIEnv *env, jarray array, jboolean *isCopy)
+{
+	critical_pinned++;
+	return heap;
+}
+
+static void JNICALL fake_ReleasePrimitiveArrayCritical(JNIEnv *env, jarray array, void *carray, jint mode)
+{
+	critical_pinned--;
+	critical_release_mode = mode;
+}
+
+int main(void)
+{
+	struct JNINativeInterface_ functions;
+	JNIEnv env_value = &functions;
+	JNIEnv *env = &env_value;
+	jobject buffer = (jobject)direct;
+	jbyteArray array = (jbyteArray)heap;
+
+	memset(&functions, 0, sizeof(functions));
+	functions.GetDirectBufferAddress = fake_GetDirectBufferAddress;
+	functions.GetDirectBufferCapacity = fake_GetDirectBufferCapacity;
+	functions.GetArrayLength = fake_GetArrayLength;
+	functions.GetPrimitiveArrayCritical = fake_GetPrimitiveArrayCritical;
+	functions.ReleasePrimitiveArrayCritical = fake_ReleasePrimitiveArrayCritical;
+
+	int fd = open("/dev/null", O_RDWR);
+	CHECK(fd >= 0);
+
+	// direct buffer: the kernel reads and writes the buffer memory itself
+	CHECK(Java_com_pi4j_jni_I2C_i2cWriteByteBuffer(env, NULL, fd, 0x3c, -1, 1024, 16, buffer) == 0);
+	CHECK(last_write_buf == direct + 16);
+	CHECK(last_write_count == 1024);
+	CHECK(Java_com_pi4j_jni_I2C_i2cReadByteBuffer(env, NULL, fd, 0x3c, -1, 64, 8, buffer) == 64);
+	CHECK(last_read_buf == direct + 8);
+
+	// register read: combined transaction reading into the buffer memory
+	CHECK(Java_com_pi4j_jni_I2C_i2cReadByteBuffer(env, NULL, fd, 0x50, 0x10, 128, 32, buffer) == 128);
+	CHECK(last_msgs[1].buf == direct + 32);
+	CHECK(last_msgs[1].len == 128);
+	CHECK(last_msgs[0].buf[0] == 0x10);
+
+	// register write: the register precedes the payload in one message, also beyond the stack buffer
+	direct[0] = 0x77;
+	CHECK(Java_com_pi4j_jni_I2C_i2cWriteByteBuffer(env, NULL, fd, 0x3c, 0x40, 4096, 0, buffer) == 0);
+	CHECK(last_write_count == 4097);
+	CHECK(last_write_first == 0x40);
+
+	// the i2c-dev message size limit and the buffer bounds are checked
+	CHECK(Java_com_pi4j_jni_I2C_i2cWriteByteBuffer(env, NULL, fd, 0x3c, -1, 8193, 0, buffer) == -1 - 20000);
+	CHECK(Java_com_pi4j_jni_I2C_i2cReadByteBuffer(env, NULL, fd, 0x3c, -1, 100, 8150, buffer) == -1 - 30000);
+
+	// heap array: pinned during the transfer and released without copy back after writes
+	CHECK(Java_com_pi4j_jni_I2C_i2cWriteBytesPinned(env, NULL, fd, 0x3c, -1, 32, 4, array) == 0);
+	CHECK(last_write_buf == heap + 4);
+	CHECK(critical_pinned == 0);
+	CHECK(critical_release_mode == JNI_ABORT);
+	CHECK(Java_com_pi4j_jni_I2C_i2cReadBytesPinned(env, NULL, fd, 0x3c, 0x02, 16, 8, array) == 16);
+	CHECK(last_msgs[1].buf == heap + 8);
+	CHECK(critical_pinned == 0);
+	CHECK(critical_release_mode == 0);
+	CHECK(Java_com_pi4j_jni_I2C_i2cReadBytesPinned(env, NULL, fd, 0x3c, -1, 16, 60, array) == -1 - 30000);
+	CHECK(critical_pinned == 0);
+
+	close(fd);
+
+	if (failures == 0) {
+		printf("I2CBufferTest: OK\n");
+	}
+	return (failures == 0) ? 0 : 1;
+}
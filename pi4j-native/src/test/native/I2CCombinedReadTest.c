@@ -0,0 +1,135 @@
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: JNI Native Library
+ * FILENAME      :  I2CCombinedReadTest.c
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+/**
+ * --------------------------------------------------------
+ * I2C COMBINED READ TEST
+ * --------------------------------------------------------
+ * Verifies that register reads are issued as a single I2C_RDWR
+ * transaction (write + repeated start read) and that buses whose
+ * adapter rejects I2C_RDWR fall back to a separate write and read.
+ * The ioctl is replaced by a recording shim (linked with
+ * -Wl,--wrap=ioctl) and /dev/null stands in for the bus.
+ *
+ * build & run:  make test
+ */
+#include <stdio.h>
+#include <stdarg.h>
+#include <errno.h>
+#include <fcntl.h>
+#include <unistd.h>
+#include <linux/i2c.h>
+#include <linux/i2c-dev.h>
+#include "com_pi4j_jni_I2C.h"
+
+// test state
+static int failures = 0;
+static int rdwr_calls = 0;
+static int slave_calls = 0;
+static int rdwr_supported = 1;
+static struct i2c_msg last_msgs[2];
+static int last_nmsgs = 0;
+static unsigned char last_register = 0;
+
+#define CHECK(cond) do { if(!(cond)) { printf("FAILED: %s (line %d)\n", #cond, __LINE__); failures++; } } while(0)
+
+// recording ioctl shim; I2C_RDWR answers reads with 0xA0, 0xA1, ...
+int __wrap_ioctl(int fd, unsigned long request, ...)
+{
+	va_list args;
+	void *arg;
+	int i;
+
+	va_start(args, request);
+	arg = va_arg(args, void *);
+	va_end(args);
+
+	if (request == I2C_SLAVE) {
+		slave_calls++;
+		return 0;
+	}
+	if (request == I2C_RDWR) {
+		struct i2c_rdwr_ioctl_data *data = (struct i2c_rdwr_ioctl_data *)arg;
+		rdwr_calls++;
+		if (!rdwr_supported) {
+			errno = EOPNOTSUPP;
+			return -1;
+		}
+		last_nmsgs = data->nmsgs;
+		if (data->nmsgs == 2) {
+			last_msgs[0] = data->msgs[0];
+			last_msgs[1] = data->msgs[1];
+			last_register = data->msgs[0].buf[0];
+			for (i = 0; i < data->msgs[1].len; i++) {
+				data->msgs[1].buf[i] = 0xA0 + i;
+			}
+		}
+		return data->nmsgs;
+	}
+	return 0;
+}
+
+int main(void)
+{
+	int fd = open("/dev/null", O_RDWR);
+	CHECK(fd >= 0);
+
+	// a register read is one transaction: write register, repeated start, read
+	CHECK(Java_com_pi4j_jni_I2C_i2cReadByte(NULL, NULL, fd, 0x1e, 0x03) == 0xA0);
+	CHECK(rdwr_calls == 1);
+	CHECK(slave_calls == 0);
+	CHECK(last_nmsgs == 2);
+	CHECK(last_msgs[0].addr == 0x1e && last_msgs[0].flags == 0 && last_msgs[0].len == 1);
+	CHECK(last_msgs[1].addr == 0x1e && last_msgs[1].flags == I2C_M_RD && last_msgs[1].len == 1);
+	CHECK(last_register == 0x03);
+
+	// adapters without I2C_RDWR fall back once and remember it per descriptor
+	rdwr_supported = 0;
+	Java_com_pi4j_jni_I2C_i2cClose(NULL, NULL, fd);
+	CHECK(open("/dev/null", O_RDWR) == fd);
+	rdwr_calls = 0;
+	Java_com_pi4j_jni_I2C_i2cReadByte(NULL, NULL, fd, 0x1e, 0x03);
+	Java_com_pi4j_jni_I2C_i2cReadByte(NULL, NULL, fd, 0x1e, 0x04);
+	CHECK(rdwr_calls == 1);
+	CHECK(slave_calls == 1);
+
+	// reopening the descriptor tries I2C_RDWR again
+	rdwr_supported = 1;
+	Java_com_pi4j_jni_I2C_i2cClose(NULL, NULL, fd);
+	CHECK(open("/dev/null", O_RDWR) == fd);
+	CHECK(Java_com_pi4j_jni_I2C_i2cReadByte(NULL, NULL, fd, 0x53, 0x32) == 0xA0);
+	CHECK(rdwr_calls == 2);
+	CHECK(last_register == 0x32);
+
+	close(fd);
+
+	if (failures == 0) {
+		printf("I2CCombinedReadTest: OK\n");
+	}
+	return (failures == 0) ? 0 : 1;
+}
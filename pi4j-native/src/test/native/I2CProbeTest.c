@@ -0,0 +1,134 @@
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: JNI Native Library
+ * FILENAME      :  I2CProbeTest.c
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+/**
+ * --------------------------------------------------------
+ * I2C PROBE TEST
+ * --------------------------------------------------------
+ * Verifies the results of the i2cdetect style device probe
+ * against a simulated bus.  The ioctl is replaced by a shim
+ * (linked with -Wl,--wrap=ioctl) answering for a few devices
+ * and /dev/null stands in for the bus.
+ *
+ * build & run:  make test
+ */
+#include <stdio.h>
+#include <stdarg.h>
+#include <errno.h>
+#include <fcntl.h>
+#include <unistd.h>
+#include <linux/i2c.h>
+#include <linux/i2c-dev.h>
+#include "com_pi4j_jni_I2C.h"
+
+#define PRESENT_ADDRESS   0x20
+#define CLAIMED_ADDRESS   0x1b
+#define READONLY_ADDRESS  0x48
+#define FAILING_ADDRESS   0x70
+
+// test state
+static int failures = 0;
+static int selected = -1;
+static int quick_supported = 1;
+static int last_size = -1;
+
+#define CHECK(cond) do { if(!(cond)) { printf("FAILED: %s (line %d)\n", #cond, __LINE__); failures++; } } while(0)
+
+// simulated bus: PRESENT_ADDRESS acks everything, READONLY_ADDRESS only reads,
+// CLAIMED_ADDRESS is bound to a kernel driver and FAILING_ADDRESS hangs the bus
+int __wrap_ioctl(int fd, unsigned long request, ...)
+{
+	va_list args;
+	unsigned long arg;
+	struct i2c_smbus_ioctl_data *smbus;
+
+	va_start(args, request);
+	arg = va_arg(args, unsigned long);
+	va_end(args);
+
+	if (request == I2C_SLAVE) {
+		if (arg == CLAIMED_ADDRESS) {
+			errno = EBUSY;
+			return -1;
+		}
+		selected = (int)arg;
+		return 0;
+	}
+	if (request == I2C_SMBUS) {
+		smbus = (struct i2c_smbus_ioctl_data *)arg;
+		last_size = smbus->size;
+		if (smbus->size == I2C_SMBUS_QUICK && !quick_supported) {
+			errno = EOPNOTSUPP;
+			return -1;
+		}
+		if (selected == PRESENT_ADDRESS) {
+			return 0;
+		}
+		if (selected == READONLY_ADDRESS && smbus->read_write == I2C_SMBUS_READ) {
+			smbus->data->byte = 0x5a;
+			return 0;
+		}
+		errno = (selected == FAILING_ADDRESS) ? ETIMEDOUT : ENXIO;
+		return -1;
+	}
+	return 0;
+}
+
+int main(void)
+{
+	int fd = open("/dev/null", O_RDWR);
+	CHECK(fd >= 0);
+
+	// quick write probes
+	CHECK(Java_com_pi4j_jni_I2C_i2cProbe(NULL, NULL, fd, PRESENT_ADDRESS, JNI_FALSE) == 1);
+	CHECK(last_size == I2C_SMBUS_QUICK);
+	CHECK(Java_com_pi4j_jni_I2C_i2cProbe(NULL, NULL, fd, 0x21, JNI_FALSE) == 0);
+	CHECK(Java_com_pi4j_jni_I2C_i2cProbe(NULL, NULL, fd, FAILING_ADDRESS, JNI_FALSE) == 0);
+	CHECK(Java_com_pi4j_jni_I2C_i2cProbe(NULL, NULL, fd, READONLY_ADDRESS, JNI_FALSE) == 0);
+
+	// read byte probes
+	CHECK(Java_com_pi4j_jni_I2C_i2cProbe(NULL, NULL, fd, READONLY_ADDRESS, JNI_TRUE) == 1);
+	CHECK(last_size == I2C_SMBUS_BYTE);
+	CHECK(Java_com_pi4j_jni_I2C_i2cProbe(NULL, NULL, fd, 0x50, JNI_TRUE) == 0);
+
+	// adapters without quick command support are probed by reading
+	quick_supported = 0;
+	CHECK(Java_com_pi4j_jni_I2C_i2cProbe(NULL, NULL, fd, READONLY_ADDRESS, JNI_FALSE) == 1);
+	CHECK(last_size == I2C_SMBUS_BYTE);
+	quick_supported = 1;
+
+	// addresses claimed by a kernel driver are reported as busy
+	CHECK(Java_com_pi4j_jni_I2C_i2cProbe(NULL, NULL, fd, CLAIMED_ADDRESS, JNI_FALSE) == 2);
+
+	close(fd);
+
+	if (failures == 0) {
+		printf("I2CProbeTest: OK\n");
+	}
+	return (failures == 0) ? 0 : 1;
+}
@@ -0,0 +1,112 @@
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: JNI Native Library
+ * FILENAME      :  I2CSlaveCacheTest.c
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+/**
+ * --------------------------------------------------------
+ * I2C SLAVE ADDRESS CACHE TEST
+ * --------------------------------------------------------
+ * Verifies that the I2C JNI functions only issue the I2C_SLAVE
+ * ioctl when the selected device changes on a bus descriptor.
+ * The ioctl is replaced by a counting shim (linked with
+ * -Wl,--wrap=ioctl) and /dev/null stands in for the bus.
+ *
+ * build & run:  make test
+ */
+#include <stdio.h>
+#include <stdarg.h>
+#include <fcntl.h>
+#include <unistd.h>
+#include <linux/i2c-dev.h>
+#include "com_pi4j_jni_I2C.h"
+
+#define FAILING_ADDRESS 0x7f
+
+// test state
+static int failures = 0;
+static int ioctls = 0;
+
+#define CHECK(cond) do { if(!(cond)) { printf("FAILED: %s (line %d)\n", #cond, __LINE__); failures++; } } while(0)
+
+// counting ioctl shim; selecting FAILING_ADDRESS fails
+int __wrap_ioctl(int fd, unsigned long request, ...)
+{
+	va_list args;
+	int address;
+
+	va_start(args, request);
+	address = va_arg(args, int);
+	va_end(args);
+
+	if (request == I2C_SLAVE) {
+		ioctls++;
+		return (address == FAILING_ADDRESS) ? -1 : 0;
+	}
+	return 0;
+}
+
+int main(void)
+{
+	int fd = open("/dev/null", O_RDWR);
+	CHECK(fd >= 0);
+
+	// repeated transfers to the same device select it once
+	CHECK(Java_com_pi4j_jni_I2C_i2cWriteByteDirect(NULL, NULL, fd, 0x20, 1) == 0);
+	CHECK(Java_com_pi4j_jni_I2C_i2cWriteByteDirect(NULL, NULL, fd, 0x20, 2) == 0);
+	CHECK(Java_com_pi4j_jni_I2C_i2cWriteByte(NULL, NULL, fd, 0x20, 0x12, 3) == 0);
+	Java_com_pi4j_jni_I2C_i2cReadByte(NULL, NULL, fd, 0x20, 0x12);
+	CHECK(ioctls == 1);
+
+	// switching devices selects again
+	CHECK(Java_com_pi4j_jni_I2C_i2cWriteByteDirect(NULL, NULL, fd, 0x21, 1) == 0);
+	CHECK(Java_com_pi4j_jni_I2C_i2cWriteByteDirect(NULL, NULL, fd, 0x20, 1) == 0);
+	CHECK(ioctls == 3);
+
+	// a failed selection is not cached
+	CHECK(Java_com_pi4j_jni_I2C_i2cWriteByteDirect(NULL, NULL, fd, FAILING_ADDRESS, 1) < 0);
+	CHECK(Java_com_pi4j_jni_I2C_i2cWriteByteDirect(NULL, NULL, fd, FAILING_ADDRESS, 1) < 0);
+	CHECK(ioctls == 5);
+
+	// closing the bus forgets the selection for a reused descriptor
+	CHECK(Java_com_pi4j_jni_I2C_i2cWriteByteDirect(NULL, NULL, fd, 0x20, 1) == 0);
+	CHECK(ioctls == 6);
+	Java_com_pi4j_jni_I2C_i2cClose(NULL, NULL, fd);
+	CHECK(open("/dev/null", O_RDWR) == fd);
+	CHECK(Java_com_pi4j_jni_I2C_i2cWriteByteDirect(NULL, NULL, fd, 0x20, 1) == 0);
+	CHECK(ioctls == 7);
+
+	// counters reflect the issued and skipped selections
+	CHECK(Java_com_pi4j_jni_I2C_i2cSlaveSelectCount(NULL, NULL) == 7);
+	CHECK(Java_com_pi4j_jni_I2C_i2cSlaveSelectSkippedCount(NULL, NULL) == 2);
+
+	close(fd);
+
+	if (failures == 0) {
+		printf("I2CSlaveCacheTest: OK (%d ioctls)\n", ioctls);
+	}
+	return (failures == 0) ? 0 : 1;
+}
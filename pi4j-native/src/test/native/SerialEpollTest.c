@@ -0,0 +1,289 @@
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: JNI Native Library
+ * FILENAME      :  SerialEpollTest.c
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+/**
+ * --------------------------------------------------------
+ * SERIAL EPOLL MONITOR TEST
+ * --------------------------------------------------------
+ * Exercises the shared serial epoll monitor and its receive
+ * strategies against pseudo terminal pairs in place of
+ * serial ports.
+ *
+ * build & run:  make test
+ */
+#define _GNU_SOURCE
+#include <stdio.h>
+#include <stdlib.h>
+#include <string.h>
+#include <fcntl.h>
+#include <pthread.h>
+#include <pty.h>
+#include <termios.h>
+#include <time.h>
+#include <unistd.h>
+#include "com_pi4j_jni_SerialEpoll.h"
+
+#define PORTS      3
+#define CAPACITY   64
+
+// test state
+static int failures = 0;
+static int batches = 0;
+static int received = 0;
+static struct serial_epoll_event last[SERIAL_EPOLL_MAX_EVENTS];
+static char lastData[SERIAL_EPOLL_MAX_EVENTS][CAPACITY + 1];
+
+static int master[PORTS];
+static int slave[PORTS];
+static uint8_t buffers[PORTS][CAPACITY];
+
+#define CHECK(cond) do { if(!(cond)) { printf("FAILED: %s (line %d)\n", #cond, __LINE__); failures++; } } while(0)
+
+static void handler(void *context, const struct serial_epoll_event *events, int count)
+{
+	int index;
+	batches++;
+	for(index = 0; index < count && received < SERIAL_EPOLL_MAX_EVENTS; index++, received++)
+	{
+		last[received] = events[index];
+		memcpy(lastData[received], events[index].data, events[index].length);
+		lastData[received][events[index].length] = 0;
+	}
+}
+
+static void reset()
+{
+	batches = 0;
+	received = 0;
+	memset(last, 0x00, sizeof(last));
+	memset(lastData, 0x00, sizeof(lastData));
+}
+
+static int64_t millis()
+{
+	struct timespec ts;
+	clock_gettime(CLOCK_MONOTONIC, &ts);
+	return ((int64_t)ts.tv_sec * 1000LL) + (ts.tv_nsec / 1000000LL);
+}
+
+// poll the monitor until 'expected' events have been delivered or 'timeout' milliseconds passed
+static void pollFor(struct serial_epoll_monitor *monitor, int expected, int timeout)
+{
+	int64_t end = millis() + timeout;
+	while(received < expected && millis() < end)
+	{
+		SerialEpoll_Poll(monitor, (int)(end - millis()));
+	}
+}
+
+// chunks written to a pseudo terminal by the writer thread, 'delay' microseconds apart
+struct writer_data {
+	int fd;
+	const char *chunks[4];
+	int delay;
+};
+
+static void *writer(void *arg)
+{
+	struct writer_data *data = (struct writer_data *) arg;
+	int index;
+	for(index = 0; index < 4 && data->chunks[index] != NULL; index++)
+	{
+		if(index > 0)
+			usleep(data->delay);
+		if(write(data->fd, data->chunks[index], strlen(data->chunks[index])) < 0)
+			perror("write");
+	}
+	return NULL;
+}
+
+static void openPort(int index)
+{
+	struct termios options;
+	if(openpty(&master[index], &slave[index], NULL, NULL, NULL) < 0)
+	{
+		perror("openpty");
+		exit(1);
+	}
+	tcgetattr(slave[index], &options);
+	cfmakeraw(&options);
+	tcsetattr(slave[index], TCSANOW, &options);
+}
+
+// receive the chunks written by a writer thread on port 0 with the given strategy
+static void receive(struct serial_epoll_monitor *monitor, int mode, int idleTime, int minimumBytes,
+                    int capacity, struct writer_data *data, int expected)
+{
+	pthread_t thread;
+
+	reset();
+	CHECK(SerialEpoll_Add(monitor, slave[0], mode, idleTime, minimumBytes, buffers[0], capacity, NULL) == 1);
+	data->fd = master[0];
+	pthread_create(&thread, NULL, writer, data);
+	pollFor(monitor, expected, 1000);
+	pthread_join(thread, NULL);
+
+	// nothing else may arrive
+	SerialEpoll_Poll(monitor, 100);
+	SerialEpoll_Remove(monitor, slave[0], NULL);
+}
+
+int main()
+{
+	struct serial_epoll_monitor monitor;
+	void *cookie = NULL;
+	int64_t start;
+	int index, polls;
+
+	for(index = 0; index < PORTS; index++)
+		openPort(index);
+
+	CHECK(SerialEpoll_Init(&monitor, handler, NULL) == 0);
+
+	// invalid arguments
+	CHECK(SerialEpoll_Add(&monitor, -1, SERIAL_RECEIVE_IMMEDIATE, 0, 1, buffers[0], CAPACITY, NULL) == -1);
+	CHECK(SerialEpoll_Add(&monitor, slave[0], 7, 0, 1, buffers[0], CAPACITY, NULL) == -1);
+	CHECK(SerialEpoll_Add(&monitor, slave[0], SERIAL_RECEIVE_IMMEDIATE, 0, 1, NULL, CAPACITY, NULL) == -1);
+
+	// add all ports to the single epoll set
+	for(index = 0; index < PORTS; index++)
+		CHECK(SerialEpoll_Add(&monitor, slave[index], SERIAL_RECEIVE_IMMEDIATE, 0, 1, buffers[index], CAPACITY, &buffers[index]) == 1);
+	CHECK(SerialEpoll_Add(&monitor, slave[1], SERIAL_RECEIVE_IMMEDIATE, 0, 1, buffers[1], CAPACITY, NULL) == 0);
+	CHECK(SerialEpoll_Contains(&monitor, slave[2]));
+
+	// data received on several ports is delivered in a single batch
+	reset();
+	CHECK(write(master[0], "abc", 3) == 3);
+	CHECK(write(master[2], "xy", 2) == 2);
+	usleep(10000);
+	CHECK(SerialEpoll_Poll(&monitor, 1000) == 2);
+	CHECK(batches == 1);
+	CHECK(received == 2);
+	for(index = 0; index < received; index++)
+	{
+		if(last[index].fd == slave[0])
+		{
+			CHECK(last[index].length == 3 && strcmp(lastData[index], "abc") == 0);
+			CHECK(last[index].data == buffers[0]);
+		}
+		else
+		{
+			CHECK(last[index].fd == slave[2]);
+			CHECK(last[index].length == 2 && strcmp(lastData[index], "xy") == 0);
+		}
+	}
+
+	// a timeout delivers nothing
+	reset();
+	CHECK(SerialEpoll_Poll(&monitor, 10) == 0);
+	CHECK(batches == 0);
+
+	// ports removed at runtime are no longer monitored
+	reset();
+	CHECK(SerialEpoll_Remove(&monitor, slave[1], &cookie) == 1);
+	CHECK(cookie == &buffers[1]);
+	CHECK(!SerialEpoll_Contains(&monitor, slave[1]));
+	CHECK(SerialEpoll_Remove(&monitor, slave[1], NULL) == 0);
+	CHECK(write(master[1], "zz", 2) == 2);
+	CHECK(SerialEpoll_Poll(&monitor, 50) == 0);
+
+	// ... and can be added again (the pending data is picked up)
+	CHECK(SerialEpoll_Add(&monitor, slave[1], SERIAL_RECEIVE_IMMEDIATE, 0, 1, buffers[1], CAPACITY, NULL) == 1);
+	CHECK(SerialEpoll_Poll(&monitor, 1000) == 1);
+	CHECK(received == 1 && last[0].fd == slave[1] && strcmp(lastData[0], "zz") == 0);
+
+	// a wakeup request interrupts a blocked poll
+	reset();
+	SerialEpoll_Wakeup(&monitor);
+	CHECK(SerialEpoll_Poll(&monitor, -1) == 0);
+
+	for(index = 0; index < PORTS; index++)
+		SerialEpoll_Remove(&monitor, slave[index], NULL);
+
+	// inter-byte gap: chunks arriving within the idle time are collected into one message
+	{
+		struct writer_data data = { 0, { "ab", "cd", "ef", NULL }, 5000 };
+		receive(&monitor, SERIAL_RECEIVE_INTER_BYTE_GAP, 50000, 1, CAPACITY, &data, 1);
+		CHECK(received == 1 && strcmp(lastData[0], "abcdef") == 0);
+	}
+
+	// inter-byte gap: a gap longer than the idle time ends the message
+	{
+		struct writer_data data = { 0, { "ab", "cd", NULL }, 100000 };
+		receive(&monitor, SERIAL_RECEIVE_INTER_BYTE_GAP, 10000, 1, CAPACITY, &data, 2);
+		CHECK(received == 2 && strcmp(lastData[0], "ab") == 0 && strcmp(lastData[1], "cd") == 0);
+	}
+
+	// minimum bytes: waits for the minimum regardless of gaps
+	{
+		struct writer_data data = { 0, { "ab", "cde", NULL }, 20000 };
+		receive(&monitor, SERIAL_RECEIVE_MINIMUM_BYTES, 0, 4, CAPACITY, &data, 1);
+		CHECK(received == 1 && strcmp(lastData[0], "abcde") == 0);
+	}
+
+	// minimum bytes with idle time: a short message is delivered once the line is idle
+	{
+		struct writer_data data = { 0, { "abc", NULL }, 0 };
+		receive(&monitor, SERIAL_RECEIVE_MINIMUM_BYTES, 10000, 16, CAPACITY, &data, 1);
+		CHECK(received == 1 && strcmp(lastData[0], "abc") == 0);
+	}
+
+	// a full buffer is delivered right away
+	{
+		struct writer_data data = { 0, { "abcdef", NULL }, 0 };
+		receive(&monitor, SERIAL_RECEIVE_INTER_BYTE_GAP, 1000000, 1, 4, &data, 1);
+		CHECK(received >= 1 && strcmp(lastData[0], "abcd") == 0);
+	}
+
+	// a hung up port must not wake the monitor up continuously
+	reset();
+	CHECK(SerialEpoll_Add(&monitor, slave[2], SERIAL_RECEIVE_IMMEDIATE, 0, 1, buffers[2], CAPACITY, NULL) == 1);
+	close(master[2]);
+	start = millis();
+	for(polls = 0; millis() - start < 100; polls++)
+		SerialEpoll_Poll(&monitor, 20);
+	CHECK(polls <= 10);
+	CHECK(received == 0);
+	CHECK(SerialEpoll_Remove(&monitor, slave[2], NULL) == 1);
+
+	SerialEpoll_Destroy(&monitor);
+	for(index = 0; index < PORTS; index++)
+	{
+		close(slave[index]);
+		if(index != 2)
+			close(master[index]);
+	}
+
+	if(failures > 0)
+	{
+		printf("SerialEpollTest: %d FAILURE(S)\n", failures);
+		return 1;
+	}
+	printf("SerialEpollTest: OK\n");
+	return 0;
+}
@@ -0,0 +1,100 @@
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: JNI Native Library
+ * FILENAME      :  SerialPty.c
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  http://www.pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2016 Pi4J
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+/**
+ * --------------------------------------------------------
+ * SERIAL PSEUDO-TERMINAL LIBRARY
+ * --------------------------------------------------------
+ * Builds the serial JNI functions into a shared library
+ * together with a helper that creates pseudo-terminal pairs.
+ * Used to benchmark the java side of the serial layer on
+ * machines without serial ports; the slave side is opened
+ * with Serial.open() like a real port and the master side
+ * plays the remote device. The serial data receive monitor
+ * is included so that SerialImpl can be used on the slave.
+ *
+ * build:  make stub
+ */
+#define _GNU_SOURCE
+#include <jni.h>
+#include <pty.h>
+#include <stdlib.h>
+#include <unistd.h>
+#include "com_pi4j_jni_Exception.h"
+#include "com_pi4j_jni_SerialInterrupt.h"
+
+/*
+ * Class:     com_pi4j_io_serial_benchmark_SerialPortBenchmark
+ * Method:    openPty
+ * Signature: ()I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_io_serial_benchmark_SerialPortBenchmark_openPty
+  (JNIEnv *env, jclass obj)
+{
+	int master, slave;
+
+	if (openpty(&master, &slave, NULL, NULL, NULL) == -1) {
+		throwIOException(env, "Unable to open a pseudo-terminal.");
+		return -1;
+	}
+
+	// the slave side gets reopened by name through Serial.open()
+	close(slave);
+	return master;
+}
+
+/*
+ * Class:     com_pi4j_io_serial_benchmark_SerialPortBenchmark
+ * Method:    ptyName
+ * Signature: (I)Ljava/lang/String;
+ */
+JNIEXPORT jstring JNICALL Java_com_pi4j_io_serial_benchmark_SerialPortBenchmark_ptyName
+  (JNIEnv *env, jclass obj, jint master)
+{
+	char *name = ptsname(master);
+
+	if (name == NULL) {
+		throwIOException(env, "Unable to get the pseudo-terminal slave name.");
+		return NULL;
+	}
+	return (*env)->NewStringUTF(env, name);
+}
+
+/*
+ * library loaded; the serial interrupt class needs its callback references
+ * (see com_pi4j_jni_Loader.c)
+ */
+JNIEXPORT jint JNICALL JNI_OnLoad(JavaVM *jvm, void *reserved)
+{
+	return SerialInterrupt_JNI_OnLoad(jvm);
+}
+
+JNIEXPORT void JNICALL JNI_OnUnload(JavaVM *jvm, void *reserved)
+{
+	SerialInterrupt_JNI_OnUnload(jvm);
+}